@@ -0,0 +1,93 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.config.MicroServiceConfig;
+import io.kodokojo.commons.event.DefaultEventBuilderFactory;
+import io.kodokojo.commons.event.Event;
+import io.kodokojo.commons.event.EventBuilder;
+import io.kodokojo.commons.event.EventBuilderFactory;
+import io.kodokojo.commons.event.EventBus;
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Build the events published for a tick with <code>changeCount</code> changes spread over a few projects, one event
+ * per change or batched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrickStateUpdateEventBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int changeCount;
+
+    private EventBuilderFactory eventBuilderFactory;
+
+    private List<BrickStateEvent> brickStateEvents;
+
+    private BatchBrickStateEventPublisher batchPublisher;
+
+    @Setup
+    public void setup() {
+        String uuid = UUID.randomUUID().toString();
+        eventBuilderFactory = new DefaultEventBuilderFactory(new MicroServiceConfig() {
+            @Override
+            public String name() {
+                return "benchmark";
+            }
+
+            @Override
+            public String uuid() {
+                return uuid;
+            }
+        });
+        brickStateEvents = new ArrayList<>(changeCount);
+        for (int i = 0; i < changeCount; i++) {
+            String project = "project" + (i % PROJECT_COUNT);
+            brickStateEvents.add(new BrickStateEvent(project, "build-A", BrickType.CI.name(), "jenkins" + (i / PROJECT_COUNT), BrickStateEvent.State.RUNNING, "https://ci-" + project + ".kodokojo.dev", "1.651.3"));
+        }
+        //  Event bus isn't used, events are only built.
+        batchPublisher = new BatchBrickStateEventPublisher(eventBuilderFactory, mock(EventBus.class), 500, 256 * 1024);
+    }
+
+    @Benchmark
+    public void buildEvents(Blackhole blackhole) {
+        EventBuilder builder = eventBuilderFactory.create();
+        builder.setEventType(Event.BRICK_STATE_UPDATE);
+        for (BrickStateEvent brickStateEvent : brickStateEvents) {
+            blackhole.consume(DefaultBrickStateEventPublisher.buildBrickStateUpdateEvent(builder, brickStateEvent));
+        }
+    }
+
+    @Benchmark
+    public void buildBatchEvents(Blackhole blackhole) {
+        for (BrickStateEventBatch batch : batchPublisher.split(brickStateEvents)) {
+            blackhole.consume(batchPublisher.buildBatchEvent(batch));
+        }
+    }
+
+    private static final int PROJECT_COUNT = 5;
+
+}
@@ -0,0 +1,74 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>compareAndUpdate</code> of a repository holding <code>cacheSize</code> bricks, while a <code>churn</code>
+ * ratio of them change state on each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultBrickStateEventRepositoryBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int cacheSize;
+
+    @Param({"0", "0.01", "0.1"})
+    public double churn;
+
+    private BrickStateEventRepository repository;
+
+    //  Alternate between both observations, so each call changes the same number of bricks.
+    private Set<BrickStateEvent>[] observations;
+
+    private int tick;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        int changedCount = (int) (cacheSize * churn);
+        Set<BrickStateEvent> running = new HashSet<>();
+        Set<BrickStateEvent> churned = new HashSet<>();
+        for (int i = 0; i < cacheSize; i++) {
+            running.add(aBrickStateEvent(i, BrickStateEvent.State.RUNNING));
+            churned.add(aBrickStateEvent(i, i < changedCount ? BrickStateEvent.State.ONFAILURE : BrickStateEvent.State.RUNNING));
+        }
+        observations = new Set[]{running, churned};
+        repository = new DefaultBrickStateEventRepository();
+        repository.compareAndUpdate(running);
+    }
+
+    @Benchmark
+    public Set<BrickStateEvent> compareAndUpdate() {
+        return repository.compareAndUpdate(observations[++tick & 1]);
+    }
+
+    private static BrickStateEvent aBrickStateEvent(int index, BrickStateEvent.State state) {
+        String brickName = BRICK_NAMES[index % BRICK_NAMES.length];
+        String projectConfigurationIdentifier = "project" + (index / BRICK_NAMES.length);
+        return new BrickStateEvent(projectConfigurationIdentifier, "build-A", BrickType.CI.name(), brickName, state, "1.0");
+    }
+
+    private static final String[] BRICK_NAMES = {"jenkins", "gitlab", "nexus"};
+
+}
@@ -0,0 +1,139 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>compareAndUpdate</code> of a Redis repository holding <code>cacheSize</code> bricks, while 1% of them change
+ * state on each call. The <code>evalshaPerCall</code> secondary result reports the round trips done by each call, which
+ * must stay 1 whatever the number of bricks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisBrickStateEventRepositoryBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int cacheSize;
+
+    private RedisServer redisServer;
+
+    private JedisPool jedisPool;
+
+    private BrickStateEventRepository repository;
+
+    //  Alternate between both observations, so each call changes the same number of bricks.
+    private Set<BrickStateEvent>[] observations;
+
+    private int tick;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        jedisPool = new JedisPool("localhost", port);
+
+        int changedCount = cacheSize / 100;
+        Set<BrickStateEvent> running = new HashSet<>();
+        Set<BrickStateEvent> churned = new HashSet<>();
+        for (int i = 0; i < cacheSize; i++) {
+            running.add(aBrickStateEvent(i, BrickStateEvent.State.RUNNING));
+            churned.add(aBrickStateEvent(i, i < changedCount ? BrickStateEvent.State.ONFAILURE : BrickStateEvent.State.RUNNING));
+        }
+        observations = new Set[]{running, churned};
+        repository = new RedisBrickStateEventRepository(jedisPool, "benchmark");
+        repository.compareAndUpdate(running);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jedisPool.destroy();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public Set<BrickStateEvent> compareAndUpdate(EvalshaCounters counters) {
+        counters.callCount++;
+        return repository.compareAndUpdate(observations[++tick & 1]);
+    }
+
+    /**
+     * Round trips of each iteration, reported by JMH next to the average time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EvalshaCounters {
+
+        public double evalshaPerCall;
+
+        private long callCount;
+
+        private long initialEvalshaCount;
+
+        @Setup(Level.Iteration)
+        public void reset(RedisBrickStateEventRepositoryBenchmark benchmark) {
+            evalshaPerCall = 0;
+            callCount = 0;
+            initialEvalshaCount = benchmark.evalshaCount();
+        }
+
+        @TearDown(Level.Iteration)
+        public void compute(RedisBrickStateEventRepositoryBenchmark benchmark) {
+            evalshaPerCall = callCount == 0 ? 0 : (double) (benchmark.evalshaCount() - initialEvalshaCount) / callCount;
+        }
+
+    }
+
+    private long evalshaCount() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            for (String line : jedis.info("commandstats").split("\r\n")) {
+                if (line.startsWith(CMDSTAT_EVALSHA)) {
+                    return Long.parseLong(line.substring(CMDSTAT_EVALSHA.length(), line.indexOf(',')));
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static BrickStateEvent aBrickStateEvent(int index, BrickStateEvent.State state) {
+        String brickName = BRICK_NAMES[index % BRICK_NAMES.length];
+        String projectConfigurationIdentifier = "project" + (index / BRICK_NAMES.length);
+        return new BrickStateEvent(projectConfigurationIdentifier, "build-A", BrickType.CI.name(), brickName, state, "1.0");
+    }
+
+    private static final String CMDSTAT_EVALSHA = "cmdstat_evalsha:calls=";
+
+    private static final String[] BRICK_NAMES = {"jenkins", "gitlab", "nexus"};
+
+}
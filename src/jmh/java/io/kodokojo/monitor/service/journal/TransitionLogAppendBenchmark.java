@@ -0,0 +1,82 @@
+package io.kodokojo.monitor.service.journal;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append batches of <code>batchSize</code> transitions, each batch synced to disk. Transitions per second are the
+ * reported operations per second multiplied by <code>batchSize</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransitionLogAppendBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int batchSize;
+
+    private Path directory;
+
+    private TransitionLog transitionLog;
+
+    private List<LoggedTransition> batch;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("transition-log-benchmark");
+        transitionLog = new TransitionLog(directory, SEGMENT_SIZE);
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(aLoggedTransition(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        transitionLog.close();
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Benchmark
+    public void append() throws IOException {
+        transitionLog.append(batch);
+    }
+
+    private static LoggedTransition aLoggedTransition(int index) {
+        return aLoggedTransition(index, index % 2 == 0 ? BrickStateEvent.State.RUNNING : BrickStateEvent.State.ONFAILURE);
+    }
+
+    static LoggedTransition aLoggedTransition(int index, BrickStateEvent.State state) {
+        String brickName = BRICK_NAMES[index % BRICK_NAMES.length];
+        String projectConfigurationIdentifier = "project" + (index / BRICK_NAMES.length);
+        return new LoggedTransition(System.currentTimeMillis(), new BrickStateEvent(projectConfigurationIdentifier, "build-A", BrickType.CI.name(), brickName, state, "1.0"));
+    }
+
+    private static final String[] BRICK_NAMES = {"jenkins", "gitlab", "nexus"};
+
+    private static final long SEGMENT_SIZE = 64 * 1024 * 1024;
+
+}
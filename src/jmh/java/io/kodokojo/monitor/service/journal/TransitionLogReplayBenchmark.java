@@ -0,0 +1,86 @@
+package io.kodokojo.monitor.service.journal;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restart replay: open a log of <code>transitionCount</code> transitions over 3000 bricks, then rebuild the latest
+ * state of each brick, before and after compaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransitionLogReplayBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int transitionCount;
+
+    @Param({"false", "true"})
+    public boolean compacted;
+
+    private Path directory;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("transition-log-benchmark");
+        try (TransitionLog transitionLog = new TransitionLog(directory, SEGMENT_SIZE)) {
+            List<LoggedTransition> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < transitionCount; i++) {
+                //  Each pass over the bricks flips their state.
+                BrickStateEvent.State state = (i / BRICK_COUNT) % 2 == 0 ? BrickStateEvent.State.RUNNING : BrickStateEvent.State.ONFAILURE;
+                batch.add(TransitionLogAppendBenchmark.aLoggedTransition(i % BRICK_COUNT, state));
+                if (batch.size() == BATCH_SIZE) {
+                    transitionLog.append(batch);
+                    batch.clear();
+                }
+            }
+            transitionLog.append(batch);
+            if (compacted) {
+                transitionLog.compact();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Benchmark
+    public Set<BrickStateEvent> replay() throws IOException {
+        try (TransitionLog transitionLog = new TransitionLog(directory, SEGMENT_SIZE)) {
+            return transitionLog.latestStates();
+        }
+    }
+
+    private static final int BRICK_COUNT = 3000;
+
+    private static final int BATCH_SIZE = 1000;
+
+    //  Small segments so a large log spans several of them, and compaction has sealed segments to work on.
+    private static final long SEGMENT_SIZE = 4 * 1024 * 1024;
+
+}
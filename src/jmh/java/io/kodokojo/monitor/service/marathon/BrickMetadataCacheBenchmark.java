@@ -0,0 +1,83 @@
+package io.kodokojo.monitor.service.marathon;
+
+import io.kodokojo.commons.model.BrickConfiguration;
+import io.kodokojo.commons.service.BrickFactory;
+import io.kodokojo.commons.service.BrickUrlFactory;
+import io.kodokojo.commons.service.DefaultBrickFactory;
+import io.kodokojo.commons.service.DefaultBrickUrlFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brick metadata of a steady state tick, computed by factories on each tick (before) or memoized (after).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrickMetadataCacheBenchmark {
+
+    @Param({"10", "1000"})
+    public int projectCount;
+
+    private BrickFactory brickFactory;
+
+    private BrickUrlFactory brickUrlFactory;
+
+    private BrickMetadataCache brickMetadataCache;
+
+    private String[] projectNames;
+
+    @Setup
+    public void setup() {
+        brickFactory = new DefaultBrickFactory();
+        brickUrlFactory = new DefaultBrickUrlFactory("kodokojo.dev");
+        brickMetadataCache = new BrickMetadataCache(brickFactory, brickUrlFactory, projectCount * BRICK_NAMES.length);
+        projectNames = new String[projectCount];
+        for (int i = 0; i < projectCount; i++) {
+            projectNames[i] = "project" + i;
+        }
+    }
+
+    @Benchmark
+    public void factories(Blackhole blackhole) {
+        for (String projectName : projectNames) {
+            for (String brickName : BRICK_NAMES) {
+                BrickConfiguration brickConfiguration = brickFactory.createBrick(brickName);
+                String brickType = brickConfiguration.getType().name();
+                blackhole.consume(brickConfiguration.getVersion());
+                blackhole.consume(brickUrlFactory.forgeUrl(projectName, STACK_NAME, brickType, brickName));
+            }
+        }
+    }
+
+    @Benchmark
+    public void memoized(Blackhole blackhole) {
+        for (String projectName : projectNames) {
+            for (String brickName : BRICK_NAMES) {
+                BrickMetadataCache.BrickMetadata brickMetadata = brickMetadataCache.getBrickMetadata(brickName);
+                blackhole.consume(brickMetadata.getVersion());
+                blackhole.consume(brickMetadataCache.getUrl(projectName, STACK_NAME, brickMetadata.getType(), brickName));
+            }
+        }
+    }
+
+    private static final String STACK_NAME = "build-A";
+
+    private static final String[] BRICK_NAMES = {"jenkins", "gitlab", "nexus"};
+
+}
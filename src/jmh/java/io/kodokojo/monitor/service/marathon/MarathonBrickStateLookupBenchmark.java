@@ -0,0 +1,109 @@
+package io.kodokojo.monitor.service.marathon;
+
+import io.kodokojo.commons.config.MarathonConfig;
+import io.kodokojo.commons.model.Project;
+import io.kodokojo.commons.model.ProjectConfiguration;
+import io.kodokojo.commons.model.ProjectConfigurationBuilder;
+import io.kodokojo.commons.service.DefaultBrickFactory;
+import io.kodokojo.commons.service.DefaultBrickUrlFactory;
+import io.kodokojo.monitor.service.project.ProjectResolver;
+import io.kodokojo.test.DataBuilder;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse of synthetic <code>/v2/apps</code> payloads, alone and followed by the resolution of brick states.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MarathonBrickStateLookupBenchmark implements DataBuilder {
+
+    @Param({"10", "1000", "10000", "50000"})
+    public int applicationCount;
+
+    private byte[] payload;
+
+    private MarathonApplicationParser applicationParser;
+
+    private MarathonBrickStateLookup brickStateLookup;
+
+    @Setup
+    public void setup() {
+        payload = new SyntheticMarathonApps().payload(applicationCount);
+        applicationParser = new MarathonApplicationParser();
+        MarathonConfig marathonConfig = aMarathonConfig();
+        //  Fast path disabled, each lookup resolves all bricks.
+        brickStateLookup = new MarathonBrickStateLookup(marathonConfig, new FixtureProjectResolver(), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), new OkHttpClient(), new MarathonBrickStateLookup.Options()) {
+            @Override
+            protected Reader fetchMarathon() {
+                return openPayload();
+            }
+        };
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        try (Reader reader = openPayload()) {
+            applicationParser.parseApplications(reader, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        blackhole.consume(brickStateLookup.lookup());
+    }
+
+    private Reader openPayload() {
+        return new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Resolve copies of the fixture projects, <code>myproject</code> and <code>bisproject</code>, other projects are unknown.
+     */
+    private class FixtureProjectResolver implements ProjectResolver {
+
+        private final ConcurrentHashMap<String, ProjectConfiguration> projectConfigurations = new ConcurrentHashMap<>();
+
+        @Override
+        public ProjectConfiguration getProjectConfigurationByName(String projectName) {
+            if (!projectName.startsWith("myproject") && !projectName.startsWith("bisproject")) {
+                return null;
+            }
+            return projectConfigurations.computeIfAbsent(projectName, name -> {
+                ProjectConfigurationBuilder builder = new ProjectConfigurationBuilder(aProjectConfiguration());
+                builder.setName(name);
+                builder.setIdentifier(name + "-id");
+                return builder.build();
+            });
+        }
+
+        @Override
+        public Project getProjectByProjectConfigurationId(String projectConfigurationId) {
+            return null;
+        }
+    }
+
+}
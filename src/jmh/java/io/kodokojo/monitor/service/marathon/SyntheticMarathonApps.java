@@ -0,0 +1,38 @@
+package io.kodokojo.monitor.service.marathon;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.kodokojo.monitor.service.MonitorDataBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Build <code>/v2/apps</code> payloads of any size from the applications of <code>marathon/allApps.json</code>.
+ * <p>
+ * Each copy of a fixture application is renamed <code>/{project}{copy}/{brick}</code>, so payloads keep the fixture mix
+ * of managed, unmanaged and unknown project applications while every brick stays unique.
+ * </p>
+ */
+class SyntheticMarathonApps implements MonitorDataBuilder {
+
+    byte[] payload(int applicationCount) {
+        JsonArray templates = new JsonParser().parse(fetchAllMarathonAppsResponse()).getAsJsonObject().getAsJsonArray("apps");
+        JsonArray apps = new JsonArray();
+        for (int i = 0; i < applicationCount; i++) {
+            JsonObject app = copy(templates.get(i % templates.size()));
+            String[] splitedId = app.get("id").getAsString().substring(1).split("/");
+            app.addProperty("id", "/" + splitedId[0] + (i / templates.size()) + "/" + splitedId[1]);
+            apps.add(app);
+        }
+        JsonObject root = new JsonObject();
+        root.add("apps", apps);
+        return root.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static JsonObject copy(JsonElement element) {
+        return new JsonParser().parse(element.toString()).getAsJsonObject();
+    }
+
+}
@@ -17,8 +17,6 @@
  */
 package io.kodokojo.monitor;
 
-import akka.actor.ActorRef;
-import akka.actor.ActorSystem;
 import com.google.inject.*;
 import io.kodokojo.commons.config.MarathonConfig;
 import io.kodokojo.commons.config.MicroServiceConfig;
@@ -30,20 +28,57 @@ import io.kodokojo.commons.service.BrickUrlFactory;
 import io.kodokojo.commons.service.actor.message.BrickStateEvent;
 import io.kodokojo.commons.service.healthcheck.HttpHealthCheckEndpoint;
 import io.kodokojo.commons.service.lifecycle.ApplicationLifeCycleManager;
-import io.kodokojo.commons.service.repository.ProjectFetcher;
+import io.kodokojo.monitor.config.BrickStateQueryConfig;
+import io.kodokojo.monitor.config.BrickStateRepositoryConfig;
+import io.kodokojo.monitor.config.LeaderElectionConfig;
+import io.kodokojo.monitor.config.MarathonLookupConfig;
+import io.kodokojo.monitor.config.MetricsConfig;
+import io.kodokojo.monitor.config.ShardConfig;
+import io.kodokojo.monitor.config.SnapshotConfig;
+import io.kodokojo.monitor.config.TransitionLogConfig;
+import io.kodokojo.monitor.config.module.MetricsModule;
+import io.kodokojo.monitor.config.module.ProjectResolverModule;
 import io.kodokojo.monitor.config.module.PropertyModule;
 import io.kodokojo.monitor.config.module.ServiceModule;
+import io.kodokojo.monitor.config.module.ShardModule;
+import io.kodokojo.monitor.service.AsyncBrickStateEventPublisher;
 import io.kodokojo.monitor.service.BrickStateEventRepository;
 import io.kodokojo.monitor.service.BrickStateLookup;
+import io.kodokojo.monitor.service.BrickStateLookupResult;
+import io.kodokojo.monitor.service.CompositeBrickStateLookup;
+import io.kodokojo.monitor.service.SnapshottingBrickStateEventRepository;
+import io.kodokojo.monitor.service.actor.TickController;
+import io.kodokojo.monitor.service.cluster.BrickStateEventFollower;
+import io.kodokojo.monitor.service.cluster.LeadershipListener;
+import io.kodokojo.monitor.service.cluster.ZooKeeperLeaderElection;
+import io.kodokojo.monitor.service.journal.JournalingBrickStateEventPublisher;
+import io.kodokojo.monitor.service.journal.TransitionLog;
 import io.kodokojo.monitor.service.marathon.MarathonBrickStateLookup;
+import io.kodokojo.monitor.service.marathon.MarathonEndpoints;
+import io.kodokojo.monitor.service.marathon.MarathonEventStreamBrickStateLookup;
+import io.kodokojo.monitor.service.metrics.MetricsEndpoint;
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import io.kodokojo.monitor.service.project.ProjectResolver;
+import io.kodokojo.monitor.service.query.BrickStateQueryEndpoint;
+import io.kodokojo.monitor.service.shard.ShardOwnership;
+import io.kodokojo.monitor.service.trace.Tracer;
 import okhttp3.OkHttpClient;
 import org.apache.commons.lang.math.RandomUtils;
 import org.slf4j.LoggerFactory;
-import scala.concurrent.duration.Duration;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Launcher {
 
@@ -62,7 +97,9 @@ public class Launcher {
                 new EventBusModule(),
                 new DatabaseModule(),
                 new SecurityModule(),
-                new CommonsHealthCheckModule()
+                new CommonsHealthCheckModule(),
+                new ShardModule(),
+                new MetricsModule()
         );
 
         Injector marathonInjector = null;
@@ -104,7 +141,7 @@ public class Launcher {
                 }
             });
         } else {
-            marathonInjector = commonsServicesInjector.createChildInjector(new AbstractModule() {
+            marathonInjector = commonsServicesInjector.createChildInjector(new ProjectResolverModule(), new AbstractModule() {
                 @Override
                 protected void configure() {
                     //
@@ -112,8 +149,30 @@ public class Launcher {
 
                 @Singleton
                 @Provides
-                BrickStateLookup provideBrickStateLookup(MarathonConfig marathonConfig, ProjectFetcher projectFectcher, BrickFactory brickFactory, BrickUrlFactory brickUrlFactory, OkHttpClient httpClient) {
-                    return new MarathonBrickStateLookup(marathonConfig, projectFectcher, brickFactory , brickUrlFactory, httpClient);
+                BrickStateLookup provideBrickStateLookup(MarathonConfig marathonConfig, MarathonLookupConfig marathonLookupConfig, ShardConfig shardConfig, ShardOwnership shardOwnership, ProjectResolver projectResolver, BrickFactory brickFactory, BrickUrlFactory brickUrlFactory, OkHttpClient httpClient, MonitorMetrics monitorMetrics) {
+                    Map<String, String> endpoints = MarathonEndpoints.parse(marathonLookupConfig.endpoints());
+                    if (endpoints.isEmpty()) {
+                        return createMarathonLookup(marathonConfig, marathonLookupConfig, shardConfig, shardOwnership, projectResolver, brickFactory, brickUrlFactory, httpClient, monitorMetrics);
+                    }
+                    Map<String, BrickStateLookup> lookups = new LinkedHashMap<>();
+                    endpoints.forEach((name, url) -> lookups.put(name, createMarathonLookup(MarathonEndpoints.withUrl(marathonConfig, url), marathonLookupConfig, shardConfig, shardOwnership, projectResolver, brickFactory, brickUrlFactory, httpClient, monitorMetrics)));
+                    AtomicInteger threadCount = new AtomicInteger();
+                    ExecutorService executor = Executors.newFixedThreadPool(lookups.size(), runnable -> {
+                        Thread thread = new Thread(runnable, "orchestrator-lookup-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    return new CompositeBrickStateLookup(lookups, executor, marathonLookupConfig.endpointTimeout());
+                }
+
+                private BrickStateLookup createMarathonLookup(MarathonConfig marathonConfig, MarathonLookupConfig marathonLookupConfig, ShardConfig shardConfig, ShardOwnership shardOwnership, ProjectResolver projectResolver, BrickFactory brickFactory, BrickUrlFactory brickUrlFactory, OkHttpClient httpClient, MonitorMetrics monitorMetrics) {
+                    MarathonBrickStateLookup marathonBrickStateLookup = new MarathonBrickStateLookup(marathonConfig, projectResolver, brickFactory, brickUrlFactory, httpClient, MarathonBrickStateLookup.Options.fromConfig(marathonLookupConfig)
+                            .withShardOwnership(shardConfig.enabled() ? shardOwnership : null)
+                            .withMetrics(monitorMetrics));
+                    if (marathonLookupConfig.eventStream()) {
+                        return new MarathonEventStreamBrickStateLookup(marathonConfig, marathonBrickStateLookup, httpClient, marathonLookupConfig.reconciliationInterval(), marathonLookupConfig.eventStreamMaxReconnectDelay());
+                    }
+                    return marathonBrickStateLookup;
                 }
 
             });
@@ -122,33 +181,137 @@ public class Launcher {
         Injector servicesInjector = marathonInjector.createChildInjector(new ServiceModule());
 
         ApplicationLifeCycleManager applicationLifeCycleManager = servicesInjector.getInstance(ApplicationLifeCycleManager.class);
-        Runtime.getRuntime().addShutdownHook(new Thread() {
-            @Override
-            public void run() {
-                super.run();
-                LOGGER.info("Stopping services.");
-                applicationLifeCycleManager.stop();
-                LOGGER.info("All services stopped.");
-            }
-        });
 
         EventBus eventBus = servicesInjector.getInstance(EventBus.class);
         eventBus.connect();
         //  Init repository.
         BrickStateLookup brickStateLookup = servicesInjector.getInstance(BrickStateLookup.class);
         BrickStateEventRepository repository = servicesInjector.getInstance(BrickStateEventRepository.class);
-        Set<BrickStateEvent> brickStateEvents = brickStateLookup.lookup();
-        repository.compareAndUpdate(brickStateEvents);
+        //  A shared repository already holds brick states, priming it would swallow changes other instances must publish.
+        boolean shared = ServiceModule.REDIS.equals(servicesInjector.getInstance(BrickStateRepositoryConfig.class).type());
+        LeaderElectionConfig leaderElectionConfig = servicesInjector.getInstance(LeaderElectionConfig.class);
+        boolean restored = false;
+        Optional<SnapshottingBrickStateEventRepository> snapshottingBrickStateEventRepository = servicesInjector.getInstance(Key.get(new TypeLiteral<Optional<SnapshottingBrickStateEventRepository>>() {}));
+        if (snapshottingBrickStateEventRepository.isPresent()) {
+            //  Changes which occurred while stopped are published by the first tick. A standby is kept warm by following events instead.
+            restored = !shared && !leaderElectionConfig.enabled() && snapshottingBrickStateEventRepository.get().restore(servicesInjector.getInstance(SnapshotConfig.class).maxAge());
+        }
+        TransitionLogConfig transitionLogConfig = servicesInjector.getInstance(TransitionLogConfig.class);
+        Optional<TransitionLog> transitionLog = servicesInjector.getInstance(Key.get(new TypeLiteral<Optional<TransitionLog>>() {}));
+        if (!shared && !restored && !leaderElectionConfig.enabled() && transitionLogConfig.replayOnStart() && transitionLog.isPresent()) {
+            try {
+                Set<BrickStateEvent> loggedBrickStateEvents = transitionLog.get().latestStates();
+                if (!loggedBrickStateEvents.isEmpty()) {
+                    repository.compareAndUpdate(loggedBrickStateEvents);
+                    restored = true;
+                    LOGGER.info("Restored {} brick states from transition log.", loggedBrickStateEvents.size());
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Unable to replay transition log, brick states are initialised from a lookup.", e);
+            }
+        }
+        Set<BrickStateEvent> brickStateEvents = Collections.emptySet();
+        if (!shared && !restored) {
+            BrickStateLookupResult lookupResult = brickStateLookup.lookupResult();
+            brickStateEvents = lookupResult.getBrickStateEvents();
+            if (lookupResult.isComplete()) {
+                repository.compareAndUpdate(brickStateEvents);
+            } else {
+                //  Bricks which couldn't be observed are published as changes by the first complete tick.
+                LOGGER.warn("Initial lookup is {}, only {} brick states are primed.", lookupResult.getStatus(), brickStateEvents.size());
+                repository.update(brickStateEvents);
+            }
+        }
 
 
         HttpHealthCheckEndpoint httpHealthCheckEndpoint = servicesInjector.getInstance(HttpHealthCheckEndpoint.class);
         httpHealthCheckEndpoint.start();
+        Optional<MetricsEndpoint> metricsEndpoint = Optional.empty();
+        if (servicesInjector.getInstance(MetricsConfig.class).enabled()) {
+            metricsEndpoint = Optional.of(servicesInjector.getInstance(MetricsEndpoint.class));
+            metricsEndpoint.get().start();
+        }
+        Optional<BrickStateQueryEndpoint> brickStateQueryEndpoint = Optional.empty();
+        if (servicesInjector.getInstance(BrickStateQueryConfig.class).enabled()) {
+            brickStateQueryEndpoint = Optional.of(servicesInjector.getInstance(BrickStateQueryEndpoint.class));
+            brickStateQueryEndpoint.get().start();
+        }
 
-        ActorSystem actorSystem = servicesInjector.getInstance(ActorSystem.class);
-        ActorRef actorRef = servicesInjector.getInstance(ActorRef.class);
-        actorSystem.scheduler().schedule(Duration.Zero(), Duration.create(1, TimeUnit.MINUTES), actorRef, "Tick", actorSystem.dispatcher(), ActorRef.noSender());
+        TickController tickController = servicesInjector.getInstance(TickController.class);
+        Optional<ZooKeeperLeaderElection> leaderElection = Optional.empty();
+        if (leaderElectionConfig.enabled()) {
+            BrickStateEventFollower follower = new BrickStateEventFollower();
+            follower.seed(brickStateEvents);
+            eventBus.addEventListener(follower);
+            leaderElection = Optional.of(new ZooKeeperLeaderElection(leaderElectionConfig.zookeeperUrl(), leaderElectionConfig.sessionTimeout(), leaderElectionConfig.path(), microServiceConfig.uuid(), new LeadershipListener() {
+                @Override
+                public void leadershipAcquired() {
+                    //  A tick still running since leadership was last lost would update the repository concurrently.
+                    tickController.awaitStopped();
+                    if (!shared) {
+                        //  Changes published by previous leader must not be published again.
+                        repository.compareAndUpdate(follower.getBrickStateEvents());
+                    }
+                    tickController.start();
+                }
+
+                @Override
+                public void leadershipLost() {
+                    tickController.stop();
+                }
+            }));
+            try {
+                leaderElection.get().start();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to join leader election on ZooKeeper " + leaderElectionConfig.zookeeperUrl() + ".", e);
+            }
+        } else {
+            tickController.start();
+        }
+        Collection<BrickStateLookup> lookups = brickStateLookup instanceof CompositeBrickStateLookup ?
+                ((CompositeBrickStateLookup) brickStateLookup).getLookups().values() :
+                Collections.singleton(brickStateLookup);
+        List<MarathonEventStreamBrickStateLookup> eventStreamBrickStateLookups = new ArrayList<>();
+        for (BrickStateLookup lookup : lookups) {
+            if (lookup instanceof MarathonEventStreamBrickStateLookup) {
+                //  Each change received from Marathon event stream trigger a lookup, scheduled tick only reconcile.
+                MarathonEventStreamBrickStateLookup eventStreamBrickStateLookup = (MarathonEventStreamBrickStateLookup) lookup;
+                eventStreamBrickStateLookup.addChangeListener(tickController::tick);
+                eventStreamBrickStateLookup.start();
+                eventStreamBrickStateLookups.add(eventStreamBrickStateLookup);
+            }
+        }
+        Optional<JournalingBrickStateEventPublisher> journalingPublisher = servicesInjector.getInstance(Key.get(new TypeLiteral<Optional<JournalingBrickStateEventPublisher>>() {}));
+        Optional<AsyncBrickStateEventPublisher> asyncPublisher = servicesInjector.getInstance(Key.get(new TypeLiteral<Optional<AsyncBrickStateEventPublisher>>() {}));
+        Optional<Tracer> tracer = servicesInjector.getInstance(Key.get(new TypeLiteral<Optional<Tracer>>() {}));
+        Optional<ZooKeeperLeaderElection> election = leaderElection;
+        Optional<MetricsEndpoint> metrics = metricsEndpoint;
+        Optional<BrickStateQueryEndpoint> queryEndpoint = brickStateQueryEndpoint;
+        //  A single hook stops services in order. Ticks stop first, then each publishing stage once the previous one handed
+        //  it all its changes, so a change already recorded by the repository still reaches the event bus.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            LOGGER.info("Stopping services.");
+            //  A leadership acquisition running meanwhile would start ticks again.
+            election.ifPresent(zooKeeperLeaderElection -> zooKeeperLeaderElection.stop(LEADERSHIP_LISTENER_STOP_TIMEOUT));
+            eventStreamBrickStateLookups.forEach(MarathonEventStreamBrickStateLookup::stop);
+            tickController.stop();
+            tickController.awaitStopped();
+            journalingPublisher.ifPresent(publisher -> publisher.stop(STOP_TIMEOUT));
+            asyncPublisher.ifPresent(publisher -> publisher.stop(STOP_TIMEOUT));
+            snapshottingBrickStateEventRepository.ifPresent(snapshottingRepository -> snapshottingRepository.stop(STOP_TIMEOUT));
+            queryEndpoint.ifPresent(BrickStateQueryEndpoint::stop);
+            metrics.ifPresent(MetricsEndpoint::stop);
+            tracer.ifPresent(Tracer::close);
+            applicationLifeCycleManager.stop();
+            LOGGER.info("All services stopped.");
+        }));
         LOGGER.info("Kodo Kojo {} started.", microServiceConfig.name());
 
     }
 
+    private static final long STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    //  An acquisition may wait for a tick to complete.
+    private static final long LEADERSHIP_LISTENER_STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(65);
+
 }
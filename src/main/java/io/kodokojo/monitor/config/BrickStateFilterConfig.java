@@ -0,0 +1,39 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface BrickStateFilterConfig extends PropertyConfig {
+
+    /**
+     * @return <code>true</code> to debounce brick state changes and suppress the changes of flapping bricks.
+     */
+    @Key(value = "brick.state.filter.enabled", defaultValue = "false")
+    boolean enabled();
+
+    /**
+     * @return number of consecutive lookups a new state must be observed before being published.
+     */
+    @Key(value = "brick.state.filter.minObservations", defaultValue = "2")
+    int minObservations();
+
+    /**
+     * @return time in milliseconds after which a new state is published even if observed less than
+     * <code>minObservations</code> times, <code>0</code> to disable.
+     */
+    @Key(value = "brick.state.filter.minDwellTime", defaultValue = "0")
+    long minDwellTime();
+
+    /**
+     * @return number of state transitions within <code>flapWindow</code> from which a brick is considered flapping.
+     */
+    @Key(value = "brick.state.filter.flapThreshold", defaultValue = "4")
+    int flapThreshold();
+
+    @Key(value = "brick.state.filter.flapWindow", defaultValue = "600000")
+    long flapWindow();
+
+    @Key(value = "brick.state.filter.maxTrackedBricks", defaultValue = "10000")
+    int maxTrackedBricks();
+
+}
@@ -0,0 +1,32 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface BrickStateHistoryConfig extends PropertyConfig {
+
+    /**
+     * @return <code>true</code> to keep a history of brick state transitions, queried along current brick states.
+     */
+    @Key(value = "brick.state.history.enabled", defaultValue = "true")
+    boolean enabled();
+
+    /**
+     * @return maximum number of transitions kept by brick, each costs 8 bytes.
+     */
+    @Key(value = "brick.state.history.maxTransitions", defaultValue = "512")
+    int maxTransitions();
+
+    /**
+     * @return retention of transitions in milliseconds, 7 days by default.
+     */
+    @Key(value = "brick.state.history.retention", defaultValue = "604800000")
+    long retention();
+
+    @Key(value = "brick.state.history.maxBricks", defaultValue = "10000")
+    int maxBricks();
+
+    @Key(value = "brick.state.history.path", defaultValue = "/bricks/history")
+    String path();
+
+}
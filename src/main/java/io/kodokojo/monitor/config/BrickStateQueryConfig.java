@@ -0,0 +1,20 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface BrickStateQueryConfig extends PropertyConfig {
+
+    /**
+     * @return <code>true</code> to let other services query current brick states over HTTP.
+     */
+    @Key(value = "brick.state.query.enabled", defaultValue = "true")
+    boolean enabled();
+
+    @Key(value = "brick.state.query.port", defaultValue = "9091")
+    int port();
+
+    @Key(value = "brick.state.query.path", defaultValue = "/bricks")
+    String path();
+
+}
@@ -0,0 +1,27 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface BrickStateRepositoryConfig extends PropertyConfig {
+
+    /**
+     * @return <code>memory</code> to keep brick states in this monitor only, <code>redis</code> to share them between
+     * several monitor instances.
+     */
+    @Key(value = "brick.state.repository", defaultValue = "memory")
+    String type();
+
+    @Key(value = "brick.state.redis.host", defaultValue = "localhost")
+    String redisHost();
+
+    @Key(value = "brick.state.redis.port", defaultValue = "6379")
+    int redisPort();
+
+    /**
+     * @return prefix of the Redis key holding brick states, followed by the name of this instance when sharding is enabled.
+     */
+    @Key(value = "brick.state.redis.keyPrefix", defaultValue = "kodokojo:monitor")
+    String redisKeyPrefix();
+
+}
@@ -0,0 +1,47 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface EventPublicationConfig extends PropertyConfig {
+
+    /**
+     * @return <code>single</code> to send one event per brick state change, <code>batch</code> to pack the changes of a
+     * lookup in a few <code>brick_state_update_batch</code> events.
+     */
+    @Key(value = "event.publication.mode", defaultValue = "single")
+    String mode();
+
+    @Key(value = "event.publication.batch.maxSize", defaultValue = "500")
+    int batchMaxSize();
+
+    /**
+     * @return maximum size in bytes of serialized brick state changes packed in a batch.
+     */
+    @Key(value = "event.publication.batch.maxBytes", defaultValue = "262144")
+    long batchMaxBytes();
+
+    /**
+     * @return <code>true</code> to pack only changes of a same project configuration together, so each batch event
+     * carries the project configuration identifier header.
+     */
+    @Key(value = "event.publication.batch.perProjectConfiguration", defaultValue = "false")
+    boolean batchPerProjectConfiguration();
+
+    /**
+     * @return <code>true</code> to publish changes from a bounded queue drained by a dedicated thread, so a slow event
+     * bus doesn't delay lookups.
+     */
+    @Key(value = "event.publication.async", defaultValue = "false")
+    boolean async();
+
+    @Key(value = "event.publication.queueCapacity", defaultValue = "10000")
+    int queueCapacity();
+
+    /**
+     * @return <code>block</code>, <code>drop_oldest</code> or <code>coalesce</code>, see {@link io.kodokojo.monitor.service.PublishOverflowPolicy}.
+     */
+    @Key(value = "event.publication.overflowPolicy", defaultValue = "block")
+    String overflowPolicy();
+
+}
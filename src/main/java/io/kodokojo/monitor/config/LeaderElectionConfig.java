@@ -0,0 +1,24 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface LeaderElectionConfig extends PropertyConfig {
+
+    /**
+     * @return <code>true</code> to elect a single monitor instance which looks up and publishes brick states, other
+     * instances stand by and follow published changes.
+     */
+    @Key(value = "leader.election.enabled", defaultValue = "false")
+    boolean enabled();
+
+    @Key(value = "leader.election.zookeeper.url", defaultValue = "localhost:2181")
+    String zookeeperUrl();
+
+    @Key(value = "leader.election.zookeeper.sessionTimeout", defaultValue = "10000")
+    int sessionTimeout();
+
+    @Key(value = "leader.election.path", defaultValue = "/kodokojo/monitor/election")
+    String path();
+
+}
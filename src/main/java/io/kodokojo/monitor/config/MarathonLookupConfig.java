@@ -0,0 +1,57 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface MarathonLookupConfig extends PropertyConfig {
+
+    /**
+     * @return <code>all</code> to fetch every Marathon application and filter managed ones locally, <code>selector</code> to
+     * let Marathon filter applications with {@link #labelSelector()} and only embed task counts.
+     */
+    @Key(value = "marathon.lookup.fetchMode", defaultValue = "all")
+    String fetchMode();
+
+    @Key(value = "marathon.lookup.labelSelector", defaultValue = "managedByKodoKojoHa==true")
+    String labelSelector();
+
+    /**
+     * @return duration in milliseconds during which a previous lookup result is reused when Marathon managed applications
+     * didn't change, <code>0</code> to always resolve bricks.
+     */
+    @Key(value = "marathon.lookup.fastPathMaxAge", defaultValue = "300000")
+    long fastPathMaxAge();
+
+    /**
+     * @return maximum number of bricks, and of brick urls, whose metadata are memoized between lookups.
+     */
+    @Key(value = "marathon.lookup.brickMetadataCacheSize", defaultValue = "4096")
+    int brickMetadataCacheSize();
+
+    /**
+     * @return <code>true</code> to follow Marathon <code>/v2/events</code> stream and update brick states as soon as
+     * Marathon notify a change, full lookup is then only used to reconcile.
+     */
+    @Key(value = "marathon.lookup.eventStream", defaultValue = "false")
+    boolean eventStream();
+
+    @Key(value = "marathon.lookup.reconciliationInterval", defaultValue = "600000")
+    long reconciliationInterval();
+
+    @Key(value = "marathon.lookup.eventStreamMaxReconnectDelay", defaultValue = "30000")
+    long eventStreamMaxReconnectDelay();
+
+    /**
+     * @return comma separated Marathon clusters looked up in parallel, each one as <code>name=url</code>, empty to only
+     * lookup the Marathon of <code>marathon.url</code>. Clusters share the credentials of <code>marathon.url</code>.
+     */
+    @Key(value = "marathon.lookup.endpoints", defaultValue = "")
+    String endpoints();
+
+    /**
+     * @return maximum duration in milliseconds of the lookup of a Marathon cluster, when several are defined.
+     */
+    @Key(value = "marathon.lookup.endpointTimeout", defaultValue = "30000")
+    long endpointTimeout();
+
+}
@@ -0,0 +1,20 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface MetricsConfig extends PropertyConfig {
+
+    /**
+     * @return <code>true</code> to expose metrics of the monitor loop to Prometheus.
+     */
+    @Key(value = "metrics.enabled", defaultValue = "false")
+    boolean enabled();
+
+    @Key(value = "metrics.port", defaultValue = "9090")
+    int port();
+
+    @Key(value = "metrics.path", defaultValue = "/metrics")
+    String path();
+
+}
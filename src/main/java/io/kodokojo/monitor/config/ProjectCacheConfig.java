@@ -0,0 +1,35 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface ProjectCacheConfig extends PropertyConfig {
+
+    @Key(value = "project.cache.enabled", defaultValue = "true")
+    boolean enabled();
+
+    @Key(value = "project.cache.maxSize", defaultValue = "2000")
+    int maxSize();
+
+    @Key(value = "project.cache.ttl", defaultValue = "120000")
+    long ttl();
+
+    /**
+     * @return duration in milliseconds during which an unknown project name is remembered as unknown.
+     */
+    @Key(value = "project.cache.negativeTtl", defaultValue = "30000")
+    long negativeTtl();
+
+    /**
+     * @return comma separated list of event types which invalidate cached project configurations when received from the event bus.
+     */
+    @Key(value = "project.cache.invalidationEventTypes", defaultValue = "")
+    String invalidationEventTypes();
+
+    /**
+     * @return number of projects fetched concurrently when resolving a batch of projects, <code>1</code> to fetch them sequentially.
+     */
+    @Key(value = "project.resolver.batchParallelism", defaultValue = "4")
+    int batchParallelism();
+
+}
@@ -0,0 +1,29 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface ShardConfig extends PropertyConfig {
+
+    /**
+     * @return <code>true</code> to watch only the projects of the shard owned by this instance.
+     */
+    @Key(value = "shard.enabled", defaultValue = "false")
+    boolean enabled();
+
+    /**
+     * @return name of this instance, must be one of {@link #members()}.
+     */
+    @Key(value = "shard.self", defaultValue = "monitor")
+    String self();
+
+    /**
+     * @return comma separated names of all monitor instances.
+     */
+    @Key(value = "shard.members", defaultValue = "monitor")
+    String members();
+
+    @Key(value = "shard.virtualNodes", defaultValue = "128")
+    int virtualNodes();
+
+}
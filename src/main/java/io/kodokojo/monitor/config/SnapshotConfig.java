@@ -0,0 +1,29 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface SnapshotConfig extends PropertyConfig {
+
+    /**
+     * @return <code>true</code> to save brick states to a snapshot file, and restore them on startup.
+     */
+    @Key(value = "snapshot.enabled", defaultValue = "false")
+    boolean enabled();
+
+    @Key(value = "snapshot.path", defaultValue = "brick-states.snapshot")
+    String path();
+
+    /**
+     * @return minimum delay in milliseconds between two snapshot writes.
+     */
+    @Key(value = "snapshot.interval", defaultValue = "10000")
+    long interval();
+
+    /**
+     * @return maximum age in milliseconds of a snapshot restored on startup, an older one is ignored.
+     */
+    @Key(value = "snapshot.maxAge", defaultValue = "86400000")
+    long maxAge();
+
+}
@@ -0,0 +1,33 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface TickSchedulerConfig extends PropertyConfig {
+
+    /**
+     * @return <code>fixed</code> to send a tick each {@link #interval()} whatever the duration of lookups,
+     * <code>adaptive</code> to schedule next tick once previous lookup completed, after a delay adapted to brick states.
+     */
+    @Key(value = "tick.scheduler.mode", defaultValue = "fixed")
+    String mode();
+
+    @Key(value = "tick.scheduler.interval", defaultValue = "60000")
+    long interval();
+
+    /**
+     * @return delay in milliseconds between ticks while bricks are starting or configuring, in adaptive mode.
+     */
+    @Key(value = "tick.scheduler.minInterval", defaultValue = "5000")
+    long minInterval();
+
+    /**
+     * @return maximum delay in milliseconds between ticks while cluster is stable or Marathon is failing, in adaptive mode.
+     */
+    @Key(value = "tick.scheduler.maxInterval", defaultValue = "300000")
+    long maxInterval();
+
+    @Key(value = "tick.scheduler.backoffFactor", defaultValue = "2")
+    double backoffFactor();
+
+}
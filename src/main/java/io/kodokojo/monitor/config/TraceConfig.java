@@ -0,0 +1,53 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface TraceConfig extends PropertyConfig {
+
+    /**
+     * @return <code>true</code> to record spans of each tick.
+     */
+    @Key(value = "trace.enabled", defaultValue = "true")
+    boolean enabled();
+
+    /**
+     * @return number of last tick traces kept in memory.
+     */
+    @Key(value = "trace.capacity", defaultValue = "256")
+    int capacity();
+
+    @Key(value = "trace.maxSpans", defaultValue = "512")
+    int maxSpans();
+
+    /**
+     * @return path of the slowest traces, served by the metrics endpoint.
+     */
+    @Key(value = "trace.path", defaultValue = "/traces")
+    String path();
+
+    /**
+     * @return file traces are appended to, empty to not export traces.
+     */
+    @Key(value = "trace.export.path", defaultValue = "")
+    String exportPath();
+
+    /**
+     * @return minimum duration in milliseconds of an exported trace.
+     */
+    @Key(value = "trace.export.minDuration", defaultValue = "0")
+    long exportMinDuration();
+
+    /**
+     * @return size in bytes from which the export file is rotated, a single previous file is kept.
+     */
+    @Key(value = "trace.export.maxSize", defaultValue = "67108864")
+    long exportMaxSize();
+
+    /**
+     * @return maximum number of traces waiting to be exported, further traces are dropped.
+     */
+    @Key(value = "trace.export.queueCapacity", defaultValue = "1024")
+    int exportQueueCapacity();
+
+}
@@ -0,0 +1,47 @@
+package io.kodokojo.monitor.config;
+
+import io.kodokojo.commons.config.properties.Key;
+import io.kodokojo.commons.config.properties.PropertyConfig;
+
+public interface TransitionLogConfig extends PropertyConfig {
+
+    /**
+     * @return <code>true</code> to log every brick state change emitted, for audits and replay.
+     */
+    @Key(value = "transition.log.enabled", defaultValue = "false")
+    boolean enabled();
+
+    /**
+     * @return directory of log segments.
+     */
+    @Key(value = "transition.log.path", defaultValue = "transitions")
+    String path();
+
+    /**
+     * @return size in bytes from which a segment is sealed and a new one started.
+     */
+    @Key(value = "transition.log.segmentSize", defaultValue = "67108864")
+    long segmentSize();
+
+    @Key(value = "transition.log.queueCapacity", defaultValue = "10000")
+    int queueCapacity();
+
+    /**
+     * @return maximum number of changes synced to disk together.
+     */
+    @Key(value = "transition.log.batchMaxSize", defaultValue = "1000")
+    int batchMaxSize();
+
+    /**
+     * @return delay in milliseconds between two compactions down to the latest state of each brick, <code>0</code> to never compact.
+     */
+    @Key(value = "transition.log.compactionInterval", defaultValue = "3600000")
+    long compactionInterval();
+
+    /**
+     * @return <code>true</code> to restore brick states from the log on startup when no snapshot was restored.
+     */
+    @Key(value = "transition.log.replayOnStart", defaultValue = "false")
+    boolean replayOnStart();
+
+}
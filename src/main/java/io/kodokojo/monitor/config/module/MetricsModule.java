@@ -0,0 +1,56 @@
+package io.kodokojo.monitor.config.module;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import io.kodokojo.monitor.config.MetricsConfig;
+import io.kodokojo.monitor.config.TraceConfig;
+import io.kodokojo.monitor.service.metrics.MetricsEndpoint;
+import io.kodokojo.monitor.service.metrics.MetricsRegistry;
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import io.kodokojo.monitor.service.trace.TraceEndpoint;
+import io.kodokojo.monitor.service.trace.TraceFileExporter;
+import io.kodokojo.monitor.service.trace.Tracer;
+import org.apache.commons.lang.StringUtils;
+
+import java.nio.file.Paths;
+import java.util.Optional;
+
+public class MetricsModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        bind(MetricsRegistry.class).toInstance(new MetricsRegistry());
+    }
+
+    @Provides
+    @Singleton
+    MonitorMetrics provideMonitorMetrics(MetricsRegistry metricsRegistry) {
+        return new MonitorMetrics(metricsRegistry);
+    }
+
+    /**
+     * @return tracer of ticks, empty if tracing is disabled.
+     */
+    @Provides
+    @Singleton
+    Optional<Tracer> provideTracer(TraceConfig traceConfig) {
+        if (!traceConfig.enabled()) {
+            return Optional.empty();
+        }
+        TraceFileExporter exporter = null;
+        if (StringUtils.isNotBlank(traceConfig.exportPath())) {
+            exporter = new TraceFileExporter(Paths.get(traceConfig.exportPath()), traceConfig.exportMinDuration(), traceConfig.exportMaxSize(), traceConfig.exportQueueCapacity());
+        }
+        return Optional.of(new Tracer(traceConfig.capacity(), traceConfig.maxSpans(), exporter));
+    }
+
+    @Provides
+    @Singleton
+    MetricsEndpoint provideMetricsEndpoint(MetricsRegistry metricsRegistry, MetricsConfig metricsConfig, TraceConfig traceConfig, Optional<Tracer> tracer) {
+        MetricsEndpoint metricsEndpoint = new MetricsEndpoint(metricsRegistry, metricsConfig.port(), metricsConfig.path());
+        tracer.ifPresent(t -> metricsEndpoint.addHandler(traceConfig.path(), new TraceEndpoint(t)));
+        return metricsEndpoint;
+    }
+
+}
@@ -0,0 +1,60 @@
+package io.kodokojo.monitor.config.module;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import io.kodokojo.commons.event.EventBus;
+import io.kodokojo.commons.service.repository.ProjectFetcher;
+import io.kodokojo.monitor.config.ProjectCacheConfig;
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import io.kodokojo.monitor.service.project.CachingProjectResolver;
+import io.kodokojo.monitor.service.project.DefaultProjectResolver;
+import io.kodokojo.monitor.service.project.ProjectCacheInvalidationListener;
+import io.kodokojo.monitor.service.project.ProjectResolver;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class ProjectResolverModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        //
+    }
+
+    @Provides
+    @Singleton
+    ProjectResolver provideProjectResolver(ProjectFetcher projectFetcher, ProjectCacheConfig projectCacheConfig, EventBus eventBus, MonitorMetrics monitorMetrics) {
+        ProjectResolver projectResolver = new DefaultProjectResolver(projectFetcher, createBatchExecutor(projectCacheConfig.batchParallelism()), monitorMetrics);
+        if (!projectCacheConfig.enabled()) {
+            return projectResolver;
+        }
+        CachingProjectResolver cachingProjectResolver = new CachingProjectResolver(projectResolver, projectCacheConfig.maxSize(), projectCacheConfig.ttl(), projectCacheConfig.negativeTtl());
+        Set<String> invalidationEventTypes = Arrays.stream(StringUtils.split(StringUtils.defaultString(projectCacheConfig.invalidationEventTypes()), ','))
+                .map(String::trim)
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toSet());
+        if (!invalidationEventTypes.isEmpty()) {
+            eventBus.addEventListener(new ProjectCacheInvalidationListener(cachingProjectResolver, invalidationEventTypes));
+        }
+        return cachingProjectResolver;
+    }
+
+    private static Executor createBatchExecutor(int parallelism) {
+        if (parallelism <= 1) {
+            return null;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "project-resolver-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+}
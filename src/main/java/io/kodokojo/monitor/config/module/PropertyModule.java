@@ -8,6 +8,20 @@ import io.kodokojo.commons.config.module.OrchestratorConfig;
 import io.kodokojo.commons.config.properties.PropertyConfig;
 import io.kodokojo.commons.config.properties.PropertyResolver;
 import io.kodokojo.commons.config.properties.provider.PropertyValueProvider;
+import io.kodokojo.monitor.config.BrickStateFilterConfig;
+import io.kodokojo.monitor.config.BrickStateHistoryConfig;
+import io.kodokojo.monitor.config.BrickStateQueryConfig;
+import io.kodokojo.monitor.config.BrickStateRepositoryConfig;
+import io.kodokojo.monitor.config.EventPublicationConfig;
+import io.kodokojo.monitor.config.LeaderElectionConfig;
+import io.kodokojo.monitor.config.MarathonLookupConfig;
+import io.kodokojo.monitor.config.MetricsConfig;
+import io.kodokojo.monitor.config.ProjectCacheConfig;
+import io.kodokojo.monitor.config.ShardConfig;
+import io.kodokojo.monitor.config.SnapshotConfig;
+import io.kodokojo.monitor.config.TickSchedulerConfig;
+import io.kodokojo.monitor.config.TraceConfig;
+import io.kodokojo.monitor.config.TransitionLogConfig;
 
 public class PropertyModule extends AbstractModule {
     @Override
@@ -28,6 +42,90 @@ public class PropertyModule extends AbstractModule {
     }
 
 
+    @Provides
+    @Singleton
+    MarathonLookupConfig provideMarathonLookupConfig(PropertyValueProvider valueProvider) {
+        return createConfig(MarathonLookupConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    ProjectCacheConfig provideProjectCacheConfig(PropertyValueProvider valueProvider) {
+        return createConfig(ProjectCacheConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    TickSchedulerConfig provideTickSchedulerConfig(PropertyValueProvider valueProvider) {
+        return createConfig(TickSchedulerConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    EventPublicationConfig provideEventPublicationConfig(PropertyValueProvider valueProvider) {
+        return createConfig(EventPublicationConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    BrickStateFilterConfig provideBrickStateFilterConfig(PropertyValueProvider valueProvider) {
+        return createConfig(BrickStateFilterConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    SnapshotConfig provideSnapshotConfig(PropertyValueProvider valueProvider) {
+        return createConfig(SnapshotConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    BrickStateRepositoryConfig provideBrickStateRepositoryConfig(PropertyValueProvider valueProvider) {
+        return createConfig(BrickStateRepositoryConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    ShardConfig provideShardConfig(PropertyValueProvider valueProvider) {
+        return createConfig(ShardConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    LeaderElectionConfig provideLeaderElectionConfig(PropertyValueProvider valueProvider) {
+        return createConfig(LeaderElectionConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    MetricsConfig provideMetricsConfig(PropertyValueProvider valueProvider) {
+        return createConfig(MetricsConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    TraceConfig provideTraceConfig(PropertyValueProvider valueProvider) {
+        return createConfig(TraceConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    BrickStateQueryConfig provideBrickStateQueryConfig(PropertyValueProvider valueProvider) {
+        return createConfig(BrickStateQueryConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    BrickStateHistoryConfig provideBrickStateHistoryConfig(PropertyValueProvider valueProvider) {
+        return createConfig(BrickStateHistoryConfig.class, valueProvider);
+    }
+
+    @Provides
+    @Singleton
+    TransitionLogConfig provideTransitionLogConfig(PropertyValueProvider valueProvider) {
+        return createConfig(TransitionLogConfig.class, valueProvider);
+    }
+
     private <T extends PropertyConfig> T createConfig(Class<T> configClass, PropertyValueProvider valueProvider) {
         PropertyResolver resolver = new PropertyResolver(valueProvider);
         return resolver.createProxy(configClass);
@@ -3,6 +3,7 @@ package io.kodokojo.monitor.config.module;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.DeadLetter;
+import akka.actor.Props;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
@@ -16,12 +17,54 @@ import io.kodokojo.commons.event.EventBus;
 import io.kodokojo.commons.service.BrickFactory;
 import io.kodokojo.commons.service.actor.DeadLetterActor;
 import io.kodokojo.commons.service.repository.ProjectFetcher;
+import io.kodokojo.monitor.config.BrickStateFilterConfig;
+import io.kodokojo.monitor.config.BrickStateHistoryConfig;
+import io.kodokojo.monitor.config.BrickStateQueryConfig;
+import io.kodokojo.monitor.config.BrickStateRepositoryConfig;
+import io.kodokojo.monitor.config.EventPublicationConfig;
+import io.kodokojo.monitor.config.ShardConfig;
+import io.kodokojo.monitor.config.SnapshotConfig;
+import io.kodokojo.monitor.config.TickSchedulerConfig;
+import io.kodokojo.monitor.config.TransitionLogConfig;
+import io.kodokojo.monitor.service.AdaptiveTickInterval;
+import io.kodokojo.monitor.service.AsyncBrickStateEventPublisher;
+import io.kodokojo.monitor.service.BatchBrickStateEventPublisher;
+import io.kodokojo.monitor.service.BrickStateEventPublisher;
 import io.kodokojo.monitor.service.BrickStateEventRepository;
 import io.kodokojo.monitor.service.BrickStateLookup;
+import io.kodokojo.monitor.service.BrickStateSnapshotStore;
+import io.kodokojo.monitor.service.DefaultBrickStateEventPublisher;
 import io.kodokojo.monitor.service.DefaultBrickStateEventRepository;
+import io.kodokojo.monitor.service.FlapSuppressingBrickStateEventRepository;
+import io.kodokojo.monitor.service.InstrumentedExecutor;
+import io.kodokojo.monitor.service.PublishOverflowPolicy;
+import io.kodokojo.monitor.service.RedisBrickStateEventRepository;
+import io.kodokojo.monitor.service.SnapshottingBrickStateEventRepository;
 import io.kodokojo.monitor.service.actor.LookupOrchestratorAndFireEventActor;
+import io.kodokojo.monitor.service.actor.TickController;
+import io.kodokojo.monitor.service.history.BrickStateHistory;
+import io.kodokojo.monitor.service.history.BrickStateHistoryEndpoint;
+import io.kodokojo.monitor.service.history.HistoryRecordingBrickStateEventRepository;
+import io.kodokojo.monitor.service.journal.JournalingBrickStateEventPublisher;
+import io.kodokojo.monitor.service.journal.TransitionLog;
 import io.kodokojo.monitor.service.marathon.MarathonBrickStateLookup;
+import io.kodokojo.monitor.service.metrics.MeteredBrickStateEventPublisher;
+import io.kodokojo.monitor.service.metrics.MeteredBrickStateEventRepository;
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import io.kodokojo.monitor.service.query.BrickStateIndex;
+import io.kodokojo.monitor.service.query.BrickStateQueryEndpoint;
+import io.kodokojo.monitor.service.query.IndexingBrickStateEventRepository;
+import io.kodokojo.monitor.service.shard.ShardFilteringBrickStateEventRepository;
+import io.kodokojo.monitor.service.shard.ShardOwnership;
+import io.kodokojo.monitor.service.trace.Tracer;
 import okhttp3.OkHttpClient;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Optional;
 
 public class ServiceModule extends AbstractModule {
 
@@ -31,19 +74,182 @@ public class ServiceModule extends AbstractModule {
         ActorRef deadletterlistener = actorSystem.actorOf(DeadLetterActor.PROPS(), "deadletterlistener");
         actorSystem.eventStream().subscribe(deadletterlistener, DeadLetter.class);
         bind(ActorSystem.class).toInstance(actorSystem);
+        bind(BrickStateIndex.class).toInstance(new BrickStateIndex());
+    }
+
+    @Provides
+    @Singleton
+    TickController provideTickController(ActorSystem actorSystem, BrickStateLookup brickStateLookup, BrickStateEventRepository brickStateEventRepository, BrickStateEventPublisher brickStateEventPublisher, TickSchedulerConfig tickSchedulerConfig, InstrumentedExecutor blockingExecutor, Optional<Tracer> tracer) {
+        AdaptiveTickInterval adaptiveTickInterval = null;
+        if (ADAPTIVE.equals(tickSchedulerConfig.mode())) {
+            adaptiveTickInterval = new AdaptiveTickInterval(tickSchedulerConfig.minInterval(), tickSchedulerConfig.interval(), tickSchedulerConfig.maxInterval(), tickSchedulerConfig.backoffFactor());
+        }
+        Props props = LookupOrchestratorAndFireEventActor.PROPS(brickStateLookup, brickStateEventRepository, brickStateEventPublisher, adaptiveTickInterval, blockingExecutor, tracer.orElse(null));
+        return new TickController(actorSystem, props, adaptiveTickInterval != null, tickSchedulerConfig.interval());
+    }
+
+    @Provides
+    @Singleton
+    BrickStateEventPublisher provideBrickStateEventPublisher(MeteredBrickStateEventPublisher meteredPublisher, Optional<AsyncBrickStateEventPublisher> asyncPublisher, Optional<JournalingBrickStateEventPublisher> journalingPublisher) {
+        if (journalingPublisher.isPresent()) {
+            return journalingPublisher.get();
+        }
+        if (asyncPublisher.isPresent()) {
+            return asyncPublisher.get();
+        }
+        return meteredPublisher;
+    }
+
+    @Provides
+    @Singleton
+    Optional<JournalingBrickStateEventPublisher> provideJournalingBrickStateEventPublisher(MeteredBrickStateEventPublisher meteredPublisher, Optional<AsyncBrickStateEventPublisher> asyncPublisher, TransitionLogConfig transitionLogConfig, Optional<TransitionLog> transitionLog, MonitorMetrics monitorMetrics) {
+        if (!transitionLog.isPresent()) {
+            return Optional.empty();
+        }
+        //  Logged before the asynchronous publisher, so changes it drops or coalesces are logged too.
+        BrickStateEventPublisher delegate = asyncPublisher.isPresent() ? asyncPublisher.get() : meteredPublisher;
+        JournalingBrickStateEventPublisher journalingBrickStateEventPublisher = new JournalingBrickStateEventPublisher(delegate, transitionLog.get(), transitionLogConfig.queueCapacity(), transitionLogConfig.batchMaxSize(), transitionLogConfig.compactionInterval());
+        journalingBrickStateEventPublisher.start();
+        monitorMetrics.registerJournalingPublisher(journalingBrickStateEventPublisher);
+        return Optional.of(journalingBrickStateEventPublisher);
+    }
+
+    @Provides
+    @Singleton
+    Optional<AsyncBrickStateEventPublisher> provideAsyncBrickStateEventPublisher(MeteredBrickStateEventPublisher meteredPublisher, EventPublicationConfig eventPublicationConfig, MonitorMetrics monitorMetrics) {
+        if (!eventPublicationConfig.async()) {
+            return Optional.empty();
+        }
+        AsyncBrickStateEventPublisher asyncBrickStateEventPublisher = new AsyncBrickStateEventPublisher(meteredPublisher, eventPublicationConfig.queueCapacity(), PublishOverflowPolicy.fromConfig(eventPublicationConfig.overflowPolicy()));
+        asyncBrickStateEventPublisher.start();
+        monitorMetrics.registerAsyncPublisher(asyncBrickStateEventPublisher);
+        return Optional.of(asyncBrickStateEventPublisher);
+    }
+
+    @Provides
+    @Singleton
+    MeteredBrickStateEventPublisher provideMeteredBrickStateEventPublisher(EventBuilderFactory eventBuilderFactory, EventBus eventBus, EventPublicationConfig eventPublicationConfig, MonitorMetrics monitorMetrics) {
+        BrickStateEventPublisher brickStateEventPublisher;
+        if (BATCH.equals(eventPublicationConfig.mode())) {
+            brickStateEventPublisher = new BatchBrickStateEventPublisher(eventBuilderFactory, eventBus, eventPublicationConfig.batchMaxSize(), eventPublicationConfig.batchMaxBytes(), eventPublicationConfig.batchPerProjectConfiguration());
+        } else {
+            brickStateEventPublisher = new DefaultBrickStateEventPublisher(eventBuilderFactory, eventBus);
+        }
+        //  Measured under the asynchronous publisher, so the time measured is the time spent sending on the event bus.
+        return new MeteredBrickStateEventPublisher(brickStateEventPublisher, monitorMetrics);
+    }
+
+    @Provides
+    @Singleton
+    Optional<TransitionLog> provideTransitionLog(TransitionLogConfig transitionLogConfig) {
+        if (!transitionLogConfig.enabled()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new TransitionLog(Paths.get(transitionLogConfig.path()), transitionLogConfig.segmentSize()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open transition log " + transitionLogConfig.path() + ".", e);
+        }
+    }
+
+    @Provides
+    @Singleton
+    InstrumentedExecutor provideBlockingExecutor(ActorSystem actorSystem, MonitorMetrics monitorMetrics) {
+        InstrumentedExecutor blockingExecutor = new InstrumentedExecutor(actorSystem.dispatchers().lookup(BLOCKING_IO_DISPATCHER), monitorMetrics);
+        monitorMetrics.registerBlockingExecutor(blockingExecutor);
+        return blockingExecutor;
+    }
+
+    @Provides
+    @Singleton
+    BrickStateEventRepository provideBrickStateEventRepository(MeteredBrickStateEventRepository meteredRepository, Optional<SnapshottingBrickStateEventRepository> snapshottingRepository) {
+        if (snapshottingRepository.isPresent()) {
+            return snapshottingRepository.get();
+        }
+        return meteredRepository;
     }
 
     @Provides
     @Singleton
-    ActorRef provideActor(ActorSystem actorSystem, BrickStateLookup brickStateLookup, BrickStateEventRepository brickStateEventRepository, EventBuilderFactory eventBuilderFactory, EventBus eventBus) {
-        return actorSystem.actorOf(LookupOrchestratorAndFireEventActor.PROPS(brickStateLookup, brickStateEventRepository, eventBuilderFactory, eventBus));
+    Optional<SnapshottingBrickStateEventRepository> provideSnapshottingBrickStateEventRepository(MeteredBrickStateEventRepository meteredRepository, SnapshotConfig snapshotConfig) {
+        if (!snapshotConfig.enabled()) {
+            return Optional.empty();
+        }
+        return Optional.of(new SnapshottingBrickStateEventRepository(meteredRepository, new BrickStateSnapshotStore(Paths.get(snapshotConfig.path())), snapshotConfig.interval()));
     }
 
     @Provides
     @Singleton
-    BrickStateEventRepository provideBrickStateEventRepository() {
-        return new DefaultBrickStateEventRepository();
+    MeteredBrickStateEventRepository provideMeteredBrickStateEventRepository(BrickStateRepositoryConfig brickStateRepositoryConfig, BrickStateFilterConfig brickStateFilterConfig, ShardConfig shardConfig, ShardOwnership shardOwnership, MonitorMetrics monitorMetrics, BrickStateQueryConfig brickStateQueryConfig, BrickStateIndex brickStateIndex, Optional<BrickStateHistory> brickStateHistory) {
+        BrickStateEventRepository repository;
+        if (REDIS.equals(brickStateRepositoryConfig.type())) {
+            JedisPool jedisPool = new JedisPool(new JedisPoolConfig(), brickStateRepositoryConfig.redisHost(), brickStateRepositoryConfig.redisPort());
+            String keyPrefix = brickStateRepositoryConfig.redisKeyPrefix();
+            if (shardConfig.enabled()) {
+                //  Each shard removes the bricks missing from its observations, a hash shared between shards would lose the bricks of the others.
+                keyPrefix = keyPrefix + ":" + shardConfig.self();
+            }
+            repository = new RedisBrickStateEventRepository(jedisPool, keyPrefix);
+        } else {
+            DefaultBrickStateEventRepository defaultRepository = new DefaultBrickStateEventRepository();
+            monitorMetrics.registerBrickStateCacheSize(defaultRepository::size);
+            repository = defaultRepository;
+        }
+        if (shardConfig.enabled()) {
+            if (brickStateQueryConfig.enabled()) {
+                //  Index is fed with the changes left once moved bricks are filtered out, they must be evicted here.
+                repository = new ShardFilteringBrickStateEventRepository(repository, shardOwnership, movedAway -> brickStateIndex.apply(Collections.emptyList(), movedAway));
+            } else {
+                repository = new ShardFilteringBrickStateEventRepository(repository, shardOwnership);
+            }
+        }
+        if (brickStateHistory.isPresent()) {
+            //  Recorded before flap suppression, so history holds every transition observed.
+            repository = new HistoryRecordingBrickStateEventRepository(repository, brickStateHistory.get());
+        }
+        if (brickStateFilterConfig.enabled()) {
+            repository = new FlapSuppressingBrickStateEventRepository(repository,
+                    brickStateFilterConfig.minObservations(),
+                    brickStateFilterConfig.minDwellTime(),
+                    brickStateFilterConfig.flapThreshold(),
+                    brickStateFilterConfig.flapWindow(),
+                    brickStateFilterConfig.maxTrackedBricks());
+        }
+        if (brickStateQueryConfig.enabled()) {
+            //  Indexed after flap suppression, so queries see the same states as event subscribers.
+            repository = new IndexingBrickStateEventRepository(repository, brickStateIndex);
+        }
+        return new MeteredBrickStateEventRepository(repository, monitorMetrics);
     }
 
+    @Provides
+    @Singleton
+    BrickStateQueryEndpoint provideBrickStateQueryEndpoint(BrickStateIndex brickStateIndex, BrickStateQueryConfig brickStateQueryConfig, BrickStateRepositoryConfig brickStateRepositoryConfig, TickController tickController, BrickStateHistoryConfig brickStateHistoryConfig, Optional<BrickStateHistory> brickStateHistory) {
+        //  Index only holds the changes computed by this instance: those of other instances sharing Redis are missed, and
+        //  a standby computes none. It is up to date only on a leader keeping its own brick states.
+        boolean shared = REDIS.equals(brickStateRepositoryConfig.type());
+        BrickStateQueryEndpoint endpoint = new BrickStateQueryEndpoint(brickStateIndex, brickStateQueryConfig.port(), brickStateQueryConfig.path(), () -> !shared && tickController.isStarted());
+        brickStateHistory.ifPresent(history -> endpoint.addHandler(brickStateHistoryConfig.path(), new BrickStateHistoryEndpoint(history)));
+        return endpoint;
+    }
+
+    @Provides
+    @Singleton
+    Optional<BrickStateHistory> provideBrickStateHistory(BrickStateHistoryConfig brickStateHistoryConfig, MonitorMetrics monitorMetrics) {
+        if (!brickStateHistoryConfig.enabled()) {
+            return Optional.empty();
+        }
+        BrickStateHistory brickStateHistory = new BrickStateHistory(brickStateHistoryConfig.maxTransitions(), brickStateHistoryConfig.retention(), brickStateHistoryConfig.maxBricks());
+        monitorMetrics.registerBrickStateHistory(brickStateHistory);
+        return Optional.of(brickStateHistory);
+    }
+
+    public static final String ADAPTIVE = "adaptive";
+
+    public static final String BATCH = "batch";
+
+    public static final String REDIS = "redis";
+
+    public static final String BLOCKING_IO_DISPATCHER = "kodokojo.blocking-io-dispatcher";
 
 }
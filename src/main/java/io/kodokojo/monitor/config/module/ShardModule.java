@@ -0,0 +1,34 @@
+package io.kodokojo.monitor.config.module;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import io.kodokojo.monitor.config.ShardConfig;
+import io.kodokojo.monitor.service.shard.ShardOwnership;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ShardModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        //  Ownership depends on configuration, it is only built by the provider below.
+    }
+
+    @Provides
+    @Singleton
+    ShardOwnership provideShardOwnership(ShardConfig shardConfig) {
+        if (!shardConfig.enabled()) {
+            return ShardOwnership.single(shardConfig.self());
+        }
+        List<String> members = Arrays.stream(StringUtils.split(StringUtils.defaultString(shardConfig.members()), ','))
+                .map(String::trim)
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toList());
+        return new ShardOwnership(shardConfig.self(), members, shardConfig.virtualNodes());
+    }
+
+}
@@ -0,0 +1,78 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+
+import java.util.Set;
+
+/**
+ * Compute the delay before next tick from the outcome of the previous one.
+ * <ul>
+ *     <li>While a brick is starting or configuring, ticks are sent each <code>minInterval</code>.</li>
+ *     <li>When a tick changed some brick states, delay goes back to <code>interval</code>.</li>
+ *     <li>When nothing changed, or lookup failed, delay is multiplied by <code>backoffFactor</code> up to <code>maxInterval</code>.</li>
+ * </ul>
+ * Not thread safe, used by a single actor.
+ */
+public class AdaptiveTickInterval {
+
+    private final long minInterval;
+
+    private final long interval;
+
+    private final long maxInterval;
+
+    private final double backoffFactor;
+
+    private long currentInterval;
+
+    public AdaptiveTickInterval(long minInterval, long interval, long maxInterval, double backoffFactor) {
+        if (minInterval <= 0) {
+            throw new IllegalArgumentException("minInterval must be greater than 0.");
+        }
+        if (interval < minInterval || maxInterval < interval) {
+            throw new IllegalArgumentException("interval must be between minInterval and maxInterval.");
+        }
+        if (backoffFactor < 1) {
+            throw new IllegalArgumentException("backoffFactor must be greater or equals to 1.");
+        }
+        this.minInterval = minInterval;
+        this.interval = interval;
+        this.maxInterval = maxInterval;
+        this.backoffFactor = backoffFactor;
+        this.currentInterval = interval;
+    }
+
+    /**
+     * @param brickStateEvents brick states returned by the lookup.
+     * @param changeCount number of brick state changes generated by the lookup.
+     * @param lookupFailed <code>true</code> if lookup couldn't reach the orchestrator.
+     * @return delay in milliseconds before next tick.
+     */
+    public long nextDelay(Set<BrickStateEvent> brickStateEvents, int changeCount, boolean lookupFailed) {
+        if (lookupFailed) {
+            currentInterval = backoff(Math.max(currentInterval, interval));
+        } else if (isTransitioning(brickStateEvents)) {
+            currentInterval = minInterval;
+        } else if (changeCount > 0) {
+            currentInterval = interval;
+        } else {
+            currentInterval = backoff(currentInterval);
+        }
+        return currentInterval;
+    }
+
+    private long backoff(long delay) {
+        return Math.min(maxInterval, Math.max(minInterval, (long) (delay * backoffFactor)));
+    }
+
+    private static boolean isTransitioning(Set<BrickStateEvent> brickStateEvents) {
+        for (BrickStateEvent brickStateEvent : brickStateEvents) {
+            BrickStateEvent.State state = brickStateEvent.getState();
+            if (state == BrickStateEvent.State.STARTING || state == BrickStateEvent.State.CONFIGURING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,206 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Queue brick state changes in a bounded queue drained by a dedicated worker, which publishes them with a delegate.
+ * <p>
+ * A slow event bus only fills the queue, lookups keep their pace unless overflow policy is
+ * {@link PublishOverflowPolicy#BLOCK}. Each drain publishes all queued changes in a single delegate call, so a
+ * batching delegate packs changes accumulated while the bus was slow.
+ * </p>
+ */
+public class AsyncBrickStateEventPublisher implements BrickStateEventPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncBrickStateEventPublisher.class);
+
+    private final BrickStateEventPublisher delegate;
+
+    private final int capacity;
+
+    private final PublishOverflowPolicy overflowPolicy;
+
+    //  Changes indexed by brick when coalescing, by a unique sequence otherwise; in both cases in queue order.
+    private final LinkedHashMap<Object, BrickStateEvent> queue = new LinkedHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final LongAdder publishedCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder coalescedCount = new LongAdder();
+
+    private long sequence = 0;
+
+    private volatile boolean started = false;
+
+    private Thread worker;
+
+    public AsyncBrickStateEventPublisher(BrickStateEventPublisher delegate, int capacity, PublishOverflowPolicy overflowPolicy) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(overflowPolicy, "overflowPolicy must be defined.");
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0.");
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void publish(Set<BrickStateEvent> brickStateEvents) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        lock.lock();
+        try {
+            for (BrickStateEvent brickStateEvent : brickStateEvents) {
+                enqueue(brickStateEvent);
+            }
+            notEmpty.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for room in publish queue, some brick state changes are not published.");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(BrickStateEvent brickStateEvent) throws InterruptedException {
+        if (overflowPolicy == PublishOverflowPolicy.COALESCE) {
+            BrickStateKey key = BrickStateKey.from(brickStateEvent);
+            if (queue.containsKey(key)) {
+                //  Replacing a value keeps its position in queue.
+                queue.put(key, brickStateEvent);
+                coalescedCount.increment();
+                return;
+            }
+            if (queue.size() >= capacity) {
+                dropOldest();
+            }
+            queue.put(key, brickStateEvent);
+            return;
+        }
+        if (queue.size() >= capacity) {
+            if (overflowPolicy == PublishOverflowPolicy.BLOCK) {
+                notEmpty.signal();
+                while (queue.size() >= capacity) {
+                    notFull.await();
+                }
+            } else {
+                dropOldest();
+            }
+        }
+        queue.put(sequence++, brickStateEvent);
+    }
+
+    private void dropOldest() {
+        Iterator<BrickStateEvent> iterator = queue.values().iterator();
+        BrickStateEvent dropped = iterator.next();
+        iterator.remove();
+        droppedCount.increment();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Publish queue full, drop brick state change {}.", dropped);
+        }
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        worker = new Thread(this::drainQueue, "brick-state-publisher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stop the worker once queued changes are published, waiting at most <code>timeout</code> milliseconds.
+     */
+    public synchronized void stop(long timeout) {
+        if (!started) {
+            return;
+        }
+        started = false;
+        lock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            worker.join(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+    }
+
+    private void drainQueue() {
+        while (true) {
+            List<BrickStateEvent> brickStateEvents;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && started) {
+                    notEmpty.await();
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+                brickStateEvents = new ArrayList<>(queue.values());
+                queue.clear();
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                delegate.publish(new LinkedHashSet<>(brickStateEvents));
+                publishedCount.add(brickStateEvents.size());
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to publish {} brick state changes.", brickStateEvents.size(), e);
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+}
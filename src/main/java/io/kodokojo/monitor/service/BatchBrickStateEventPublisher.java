@@ -0,0 +1,156 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.event.Event;
+import io.kodokojo.commons.event.EventBuilder;
+import io.kodokojo.commons.event.EventBuilderFactory;
+import io.kodokojo.commons.event.EventBus;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.trace.TickTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pack brick state changes into {@link BrickStateEventBatch#BRICK_STATE_UPDATE_BATCH} events, each one holding at most
+ * <code>maxBatchSize</code> changes and about <code>maxBatchBytes</code> of serialized changes.
+ * <p>
+ * Changes of all project configurations are packed together, each change carries its own project configuration
+ * identifier, so a failure spreading over many projects is sent in a few events. When
+ * <code>perProjectConfiguration</code> is set, each batch only holds the changes of a single project configuration
+ * and its event carries the project configuration identifier header like a single change event, for consumers routing
+ * on this header.
+ * </p>
+ * <p>
+ * Serialized sizes are estimated from the length of the attributes of each change, without serializing it. A change
+ * bigger than <code>maxBatchBytes</code> is sent alone in its batch.
+ * </p>
+ */
+public class BatchBrickStateEventPublisher implements BrickStateEventPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchBrickStateEventPublisher.class);
+
+    private final EventBuilderFactory eventBuilderFactory;
+
+    private final EventBus eventBus;
+
+    private final int maxBatchSize;
+
+    private final long maxBatchBytes;
+
+    private final boolean perProjectConfiguration;
+
+    public BatchBrickStateEventPublisher(EventBuilderFactory eventBuilderFactory, EventBus eventBus, int maxBatchSize, long maxBatchBytes) {
+        this(eventBuilderFactory, eventBus, maxBatchSize, maxBatchBytes, false);
+    }
+
+    public BatchBrickStateEventPublisher(EventBuilderFactory eventBuilderFactory, EventBus eventBus, int maxBatchSize, long maxBatchBytes, boolean perProjectConfiguration) {
+        requireNonNull(eventBuilderFactory, "eventBuilderFactory must be defined.");
+        requireNonNull(eventBus, "eventBus must be defined.");
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0.");
+        }
+        if (maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("maxBatchBytes must be greater than 0.");
+        }
+        this.eventBuilderFactory = eventBuilderFactory;
+        this.eventBus = eventBus;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.perProjectConfiguration = perProjectConfiguration;
+    }
+
+    @Override
+    public void publish(Set<BrickStateEvent> brickStateEvents) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        List<BrickStateEventBatch> batches = split(brickStateEvents);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Broadcasting {} brick state changes in {} batches.", brickStateEvents.size(), batches.size());
+        }
+        for (BrickStateEventBatch batch : batches) {
+            long start = System.nanoTime();
+            Event event = buildBatchEvent(batch);
+            TickTrace.span(BUILD_SPAN, start);
+            start = System.nanoTime();
+            eventBus.send(event);
+            TickTrace.span(SEND_SPAN, start);
+        }
+    }
+
+    List<BrickStateEventBatch> split(Collection<BrickStateEvent> brickStateEvents) {
+        List<BrickStateEventBatch> res = new ArrayList<>();
+        if (perProjectConfiguration) {
+            Map<String, List<BrickStateEvent>> brickStateEventsByProjectConfigurationId = new LinkedHashMap<>();
+            for (BrickStateEvent brickStateEvent : brickStateEvents) {
+                brickStateEventsByProjectConfigurationId.computeIfAbsent(brickStateEvent.getProjectConfigurationIdentifier(), id -> new ArrayList<>()).add(brickStateEvent);
+            }
+            for (List<BrickStateEvent> projectBrickStateEvents : brickStateEventsByProjectConfigurationId.values()) {
+                pack(projectBrickStateEvents, res);
+            }
+        } else {
+            pack(brickStateEvents, res);
+        }
+        return res;
+    }
+
+    private void pack(Collection<BrickStateEvent> brickStateEvents, List<BrickStateEventBatch> batches) {
+        List<BrickStateEvent> current = new ArrayList<>();
+        long currentBytes = 0;
+        for (BrickStateEvent brickStateEvent : brickStateEvents) {
+            long size = estimateSize(brickStateEvent);
+            if (!current.isEmpty() && (current.size() >= maxBatchSize || currentBytes + size > maxBatchBytes)) {
+                batches.add(new BrickStateEventBatch(current));
+                current.clear();
+                currentBytes = 0;
+            }
+            current.add(brickStateEvent);
+            currentBytes += size;
+        }
+        if (!current.isEmpty()) {
+            batches.add(new BrickStateEventBatch(current));
+        }
+    }
+
+    /**
+     * @return serialized size of a change, counting a character as a byte and a fixed overhead for attribute names.
+     */
+    static long estimateSize(BrickStateEvent brickStateEvent) {
+        return SERIALIZATION_OVERHEAD +
+                length(brickStateEvent.getProjectConfigurationIdentifier()) +
+                length(brickStateEvent.getStackName()) +
+                length(brickStateEvent.getBrickType()) +
+                length(brickStateEvent.getBrickName()) +
+                length(brickStateEvent.getState() == null ? null : brickStateEvent.getState().name()) +
+                length(brickStateEvent.getUrl()) +
+                length(brickStateEvent.getVersion());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    Event buildBatchEvent(BrickStateEventBatch batch) {
+        EventBuilder builder = eventBuilderFactory.create();
+        builder.setEventType(BrickStateEventBatch.BRICK_STATE_UPDATE_BATCH);
+        if (perProjectConfiguration) {
+            builder.addCustomHeader(Event.PROJECTCONFIGURATION_ID_CUSTOM_HEADER, batch.getBrickStateEvents().get(0).getProjectConfigurationIdentifier());
+        }
+        builder.setPayload(batch);
+        return builder.build();
+    }
+
+    //  Attribute names, quotes and separators of a serialized change.
+    private static final long SERIALIZATION_OVERHEAD = 160;
+
+    private static final String BUILD_SPAN = "build";
+
+    private static final String SEND_SPAN = "send";
+
+}
@@ -0,0 +1,36 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Payload of a {@link #BRICK_STATE_UPDATE_BATCH} event, several brick state changes of a same lookup.
+ */
+public class BrickStateEventBatch {
+
+    public static final String BRICK_STATE_UPDATE_BATCH = "brick_state_update_batch";
+
+    private final List<BrickStateEvent> brickStateEvents;
+
+    public BrickStateEventBatch(Collection<BrickStateEvent> brickStateEvents) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        this.brickStateEvents = new ArrayList<>(brickStateEvents);
+    }
+
+    public List<BrickStateEvent> getBrickStateEvents() {
+        return Collections.unmodifiableList(brickStateEvents);
+    }
+
+    @Override
+    public String toString() {
+        return "BrickStateEventBatch{" +
+                "brickStateEvents=" + brickStateEvents +
+                '}';
+    }
+}
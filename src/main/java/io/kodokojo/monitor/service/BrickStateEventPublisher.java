@@ -0,0 +1,14 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+
+import java.util.Set;
+
+/**
+ * Publish brick state changes on the event bus.
+ */
+public interface BrickStateEventPublisher {
+
+    void publish(Set<BrickStateEvent> brickStateEvents);
+
+}
@@ -8,4 +8,10 @@ public interface BrickStateEventRepository {
 
     Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents);
 
+    /**
+     * Compare and update given brick states like {@link #compareAndUpdate(Set)}, but keep bricks missing from them:
+     * used when a lookup is partial or failed, to not report as stopped bricks which couldn't be observed.
+     */
+    Set<BrickStateEvent> update(Set<BrickStateEvent> brickStateEvents);
+
 }
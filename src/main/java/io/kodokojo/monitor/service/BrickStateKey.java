@@ -0,0 +1,76 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identify a brick independently of its state: a brick is defined by its project configuration, its stack and its name.
+ */
+public final class BrickStateKey {
+
+    private final String projectConfigurationIdentifier;
+
+    private final String stackName;
+
+    private final String brickName;
+
+    private final int hashCode;
+
+    public BrickStateKey(String projectConfigurationIdentifier, String stackName, String brickName) {
+        requireNonNull(projectConfigurationIdentifier, "projectConfigurationIdentifier must be defined.");
+        requireNonNull(stackName, "stackName must be defined.");
+        requireNonNull(brickName, "brickName must be defined.");
+        this.projectConfigurationIdentifier = projectConfigurationIdentifier;
+        this.stackName = stackName;
+        this.brickName = brickName;
+        int result = projectConfigurationIdentifier.hashCode();
+        result = 31 * result + stackName.hashCode();
+        result = 31 * result + brickName.hashCode();
+        this.hashCode = result;
+    }
+
+    public static BrickStateKey from(BrickStateEvent brickStateEvent) {
+        requireNonNull(brickStateEvent, "brickStateEvent must be defined.");
+        return new BrickStateKey(brickStateEvent.getProjectConfigurationIdentifier(), brickStateEvent.getStackName(), brickStateEvent.getBrickName());
+    }
+
+    public String getProjectConfigurationIdentifier() {
+        return projectConfigurationIdentifier;
+    }
+
+    public String getStackName() {
+        return stackName;
+    }
+
+    public String getBrickName() {
+        return brickName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        BrickStateKey that = (BrickStateKey) o;
+
+        return hashCode == that.hashCode &&
+                projectConfigurationIdentifier.equals(that.projectConfigurationIdentifier) &&
+                stackName.equals(that.stackName) &&
+                brickName.equals(that.brickName);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "BrickStateKey{" +
+                "projectConfigurationIdentifier='" + projectConfigurationIdentifier + '\'' +
+                ", stackName='" + stackName + '\'' +
+                ", brickName='" + brickName + '\'' +
+                '}';
+    }
+}
@@ -8,4 +8,12 @@ public interface BrickStateLookup {
 
 
     Set<BrickStateEvent> lookup();
+
+    /**
+     * Lookup brick states and tell whether they cover every existing brick. Lookups which may fail override it, the
+     * default considers the result of {@link #lookup()} complete.
+     */
+    default BrickStateLookupResult lookupResult() {
+        return BrickStateLookupResult.complete(lookup());
+    }
 }
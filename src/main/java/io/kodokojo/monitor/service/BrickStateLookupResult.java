@@ -0,0 +1,79 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Brick states returned by a {@link BrickStateLookup}, with how much of the orchestrator they cover.
+ * <p>
+ * Only a complete result lists every existing brick; a brick missing from a partial or failed result may still exist,
+ * it must not be considered removed.
+ * </p>
+ */
+public class BrickStateLookupResult {
+
+    public enum Status {
+        /**
+         * Every orchestrator answered, result holds all existing bricks.
+         */
+        COMPLETE,
+        /**
+         * Some orchestrators failed, result holds bricks of the others and last known bricks of the failed ones.
+         */
+        PARTIAL,
+        /**
+         * No orchestrator answered, result holds last known bricks if any.
+         */
+        FAILED
+    }
+
+    private final Status status;
+
+    private final Set<BrickStateEvent> brickStateEvents;
+
+    public BrickStateLookupResult(Status status, Set<BrickStateEvent> brickStateEvents) {
+        requireNonNull(status, "status must be defined.");
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        this.status = status;
+        this.brickStateEvents = brickStateEvents;
+    }
+
+    public static BrickStateLookupResult complete(Set<BrickStateEvent> brickStateEvents) {
+        return new BrickStateLookupResult(Status.COMPLETE, brickStateEvents);
+    }
+
+    public static BrickStateLookupResult partial(Set<BrickStateEvent> brickStateEvents) {
+        return new BrickStateLookupResult(Status.PARTIAL, brickStateEvents);
+    }
+
+    public static BrickStateLookupResult failed(Set<BrickStateEvent> brickStateEvents) {
+        return new BrickStateLookupResult(Status.FAILED, brickStateEvents);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Set<BrickStateEvent> getBrickStateEvents() {
+        return brickStateEvents;
+    }
+
+    public boolean isComplete() {
+        return status == Status.COMPLETE;
+    }
+
+    public boolean isFailed() {
+        return status == Status.FAILED;
+    }
+
+    @Override
+    public String toString() {
+        return "BrickStateLookupResult{" +
+                "status=" + status +
+                ", brickStateEvents=" + brickStateEvents.size() +
+                '}';
+    }
+}
@@ -0,0 +1,200 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Store brick states in a compact binary file.
+ * <p>
+ * Strings repeated across bricks, project identifiers, stack names, types and versions, are written once in a
+ * dictionary and referenced by index. A snapshot is written to a temporary file, synced, then atomically moved over
+ * the previous one, so a crash while writing leaves the previous snapshot intact. A snapshot is read from a memory
+ * mapped buffer, and rejected if truncated or if its checksum doesn't match.
+ * </p>
+ */
+public class BrickStateSnapshotStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrickStateSnapshotStore.class);
+
+    private static final BrickStateEvent.State[] STATES = BrickStateEvent.State.values();
+
+    private final Path path;
+
+    public BrickStateSnapshotStore(Path path) {
+        requireNonNull(path, "path must be defined.");
+        this.path = path;
+    }
+
+    public void write(Collection<BrickStateEvent> brickStateEvents) throws IOException {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        for (BrickStateEvent brickStateEvent : brickStateEvents) {
+            index(indexes, dictionary, brickStateEvent.getProjectConfigurationIdentifier());
+            index(indexes, dictionary, brickStateEvent.getStackName());
+            index(indexes, dictionary, brickStateEvent.getBrickType());
+            index(indexes, dictionary, brickStateEvent.getBrickName());
+            index(indexes, dictionary, brickStateEvent.getUrl());
+            index(indexes, dictionary, brickStateEvent.getVersion());
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + TMP_SUFFIX);
+        CRC32 crc = new CRC32();
+        try (FileOutputStream fileOutput = new FileOutputStream(tmp.toFile())) {
+            DataOutputStream output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(fileOutput, BUFFER_SIZE), crc));
+            output.writeInt(MAGIC);
+            output.writeByte(FORMAT_VERSION);
+            output.writeLong(System.currentTimeMillis());
+            output.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+            output.writeInt(brickStateEvents.size());
+            for (BrickStateEvent brickStateEvent : brickStateEvents) {
+                output.writeInt(indexOf(indexes, brickStateEvent.getProjectConfigurationIdentifier()));
+                output.writeInt(indexOf(indexes, brickStateEvent.getStackName()));
+                output.writeInt(indexOf(indexes, brickStateEvent.getBrickType()));
+                output.writeInt(indexOf(indexes, brickStateEvent.getBrickName()));
+                output.writeInt(indexOf(indexes, brickStateEvent.getUrl()));
+                output.writeInt(indexOf(indexes, brickStateEvent.getVersion()));
+                output.writeByte(brickStateEvent.getState().ordinal());
+            }
+            //  Checksum covers every byte written before it.
+            output.flush();
+            fileOutput.write(ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue()).array());
+            fileOutput.getChannel().force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param maxAge maximum age in milliseconds of an usable snapshot.
+     * @return brick states of snapshot, <code>null</code> if there is no usable snapshot.
+     */
+    public Set<BrickStateEvent> load(long maxAge) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, maxAge);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to read brick state snapshot {}, ignoring it.", path, e);
+            return null;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    private Set<BrickStateEvent> read(ByteBuffer buffer, long maxAge) {
+        if (buffer.remaining() < HEADER_SIZE + Long.BYTES) {
+            LOGGER.warn("Brick state snapshot {} is truncated, ignoring it.", path);
+            return null;
+        }
+        int contentSize = buffer.limit() - Long.BYTES;
+        CRC32 crc = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.limit(contentSize);
+        crc.update(content);
+        if (crc.getValue() != buffer.getLong(contentSize)) {
+            LOGGER.warn("Brick state snapshot {} is corrupted, ignoring it.", path);
+            return null;
+        }
+        buffer.limit(contentSize);
+        if (buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION) {
+            LOGGER.warn("Brick state snapshot {} has an unknown format, ignoring it.", path);
+            return null;
+        }
+        long writtenAt = buffer.getLong();
+        if (System.currentTimeMillis() - writtenAt > maxAge) {
+            LOGGER.info("Brick state snapshot {} is older than {}ms, ignoring it.", path, maxAge);
+            return null;
+        }
+        try {
+            String[] dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int count = buffer.getInt();
+            Set<BrickStateEvent> res = new HashSet<>(Math.max(16, (int) (count / 0.75f) + 1));
+            for (int i = 0; i < count; i++) {
+                String projectConfigurationIdentifier = valueOf(dictionary, buffer.getInt());
+                String stackName = valueOf(dictionary, buffer.getInt());
+                String brickType = valueOf(dictionary, buffer.getInt());
+                String brickName = valueOf(dictionary, buffer.getInt());
+                String url = valueOf(dictionary, buffer.getInt());
+                String version = valueOf(dictionary, buffer.getInt());
+                BrickStateEvent.State state = STATES[buffer.get()];
+                res.add(new BrickStateEvent(projectConfigurationIdentifier, stackName, brickType, brickName, state, url, version));
+            }
+            return res;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            LOGGER.warn("Brick state snapshot {} is inconsistent, ignoring it.", path, e);
+            return null;
+        }
+    }
+
+    private static void index(Map<String, Integer> indexes, List<String> dictionary, String value) {
+        if (value != null && !indexes.containsKey(value)) {
+            indexes.put(value, dictionary.size());
+            dictionary.add(value);
+        }
+    }
+
+    private static int indexOf(Map<String, Integer> indexes, String value) {
+        return value == null ? NULL_INDEX : indexes.get(value);
+    }
+
+    private static String valueOf(String[] dictionary, int index) {
+        return index == NULL_INDEX ? null : dictionary[index];
+    }
+
+    private static final int MAGIC = 0x4B4B4253;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = Integer.BYTES + 1 + Long.BYTES;
+
+    private static final int NULL_INDEX = -1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+}
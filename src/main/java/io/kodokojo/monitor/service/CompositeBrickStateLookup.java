@@ -0,0 +1,140 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.trace.TickTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lookup brick states of several orchestrators in parallel and merge them.
+ * <p>
+ * Each orchestrator has <code>timeout</code> to answer. An orchestrator which fails or times out contributes its last
+ * known brick states, so its bricks aren't reported stopped while it is unreachable. A lookup still running from a
+ * previous call isn't started again, the orchestrator is considered failed until it completes.
+ * </p>
+ */
+public class CompositeBrickStateLookup implements BrickStateLookup {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompositeBrickStateLookup.class);
+
+    private final Map<String, BrickStateLookup> lookups;
+
+    private final Executor executor;
+
+    private final long timeout;
+
+    private final Map<String, Set<BrickStateEvent>> lastKnownBrickStates = new HashMap<>();
+
+    private final Map<String, CompletableFuture<Set<BrickStateEvent>>> runningLookups = new HashMap<>();
+
+    private volatile Set<String> lastFailedLookups = Collections.emptySet();
+
+    /**
+     * @param lookups lookup of each orchestrator, indexed by orchestrator name.
+     * @param executor executor running orchestrator lookups, should provide a thread per orchestrator.
+     * @param timeout maximum duration in milliseconds of a lookup.
+     */
+    public CompositeBrickStateLookup(Map<String, BrickStateLookup> lookups, Executor executor, long timeout) {
+        requireNonNull(lookups, "lookups must be defined.");
+        requireNonNull(executor, "executor must be defined.");
+        if (lookups.isEmpty()) {
+            throw new IllegalArgumentException("lookups must contain at least one lookup.");
+        }
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be greater than 0.");
+        }
+        this.lookups = Collections.unmodifiableMap(new LinkedHashMap<>(lookups));
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Set<BrickStateEvent> lookup() {
+        return lookupResult().getBrickStateEvents();
+    }
+
+    /**
+     * @return a partial result when some orchestrators failed, a failed result when all of them failed.
+     */
+    @Override
+    public synchronized BrickStateLookupResult lookupResult() {
+        Map<String, CompletableFuture<Set<BrickStateEvent>>> futures = new LinkedHashMap<>();
+        TickTrace trace = TickTrace.current();
+        lookups.forEach((name, lookup) -> {
+            CompletableFuture<Set<BrickStateEvent>> running = runningLookups.get(name);
+            if (running == null || running.isDone()) {
+                running = CompletableFuture.supplyAsync(() -> TickTrace.callWith(trace, () -> lookupOrFail(name, lookup)), executor);
+                runningLookups.put(name, running);
+            }
+            futures.put(name, running);
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        Set<BrickStateEvent> res = new HashSet<>();
+        Set<String> failedLookups = new HashSet<>();
+        for (Map.Entry<String, CompletableFuture<Set<BrickStateEvent>>> entry : futures.entrySet()) {
+            String name = entry.getKey();
+            Set<BrickStateEvent> brickStateEvents = null;
+            try {
+                brickStateEvents = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                LOGGER.warn("Lookup of orchestrator {} didn't complete within {}ms, using its last known brick states.", name, timeout);
+            } catch (ExecutionException e) {
+                LOGGER.warn("Lookup of orchestrator {} failed, using its last known brick states.", name, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("Interrupted while waiting lookup of orchestrator {}, using its last known brick states.", name);
+            }
+            if (brickStateEvents == null) {
+                failedLookups.add(name);
+                brickStateEvents = lastKnownBrickStates.getOrDefault(name, Collections.emptySet());
+            } else {
+                lastKnownBrickStates.put(name, brickStateEvents);
+            }
+            res.addAll(brickStateEvents);
+        }
+        lastFailedLookups = Collections.unmodifiableSet(failedLookups);
+        if (failedLookups.isEmpty()) {
+            return BrickStateLookupResult.complete(res);
+        }
+        if (failedLookups.size() == lookups.size()) {
+            return BrickStateLookupResult.failed(res);
+        }
+        LOGGER.warn("Partial lookup, orchestrators {} failed out of {}.", failedLookups, lookups.keySet());
+        return BrickStateLookupResult.partial(res);
+    }
+
+    /**
+     * @return names of orchestrators which failed during last lookup.
+     */
+    public Set<String> getLastFailedLookups() {
+        return lastFailedLookups;
+    }
+
+    public Map<String, BrickStateLookup> getLookups() {
+        return lookups;
+    }
+
+    private static Set<BrickStateEvent> lookupOrFail(String name, BrickStateLookup lookup) {
+        BrickStateLookupResult res = lookup.lookupResult();
+        if (res.isFailed()) {
+            throw new IllegalStateException("Orchestrator " + name + " is unreachable.");
+        }
+        return res.getBrickStateEvents();
+    }
+
+}
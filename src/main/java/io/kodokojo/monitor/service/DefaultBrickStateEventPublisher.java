@@ -0,0 +1,65 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.event.Event;
+import io.kodokojo.commons.event.EventBuilder;
+import io.kodokojo.commons.event.EventBuilderFactory;
+import io.kodokojo.commons.event.EventBus;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.trace.TickTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Send one {@link Event#BRICK_STATE_UPDATE} event per brick state change.
+ */
+public class DefaultBrickStateEventPublisher implements BrickStateEventPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultBrickStateEventPublisher.class);
+
+    private final EventBuilderFactory eventBuilderFactory;
+
+    private final EventBus eventBus;
+
+    public DefaultBrickStateEventPublisher(EventBuilderFactory eventBuilderFactory, EventBus eventBus) {
+        requireNonNull(eventBuilderFactory, "eventBuilderFactory must be defined.");
+        requireNonNull(eventBus, "eventBus must be defined.");
+        this.eventBuilderFactory = eventBuilderFactory;
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public void publish(Set<BrickStateEvent> brickStateEvents) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        EventBuilder builder = eventBuilderFactory.create();
+        builder.setEventType(Event.BRICK_STATE_UPDATE);
+        brickStateEvents.forEach(brickStateEvent -> {
+            long start = System.nanoTime();
+            Event event = buildBrickStateUpdateEvent(builder, brickStateEvent);
+            TickTrace.span(BUILD_SPAN, brickStateEvent.getBrickName(), start);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Broadcasting event :{}", Event.convertToPrettyJson(event));
+            }
+            start = System.nanoTime();
+            eventBus.send(event);
+            TickTrace.span(SEND_SPAN, brickStateEvent.getBrickName(), start);
+        });
+    }
+
+    /**
+     * Build the event of a brick state change with a builder already set to {@link Event#BRICK_STATE_UPDATE}.
+     */
+    static Event buildBrickStateUpdateEvent(EventBuilder builder, BrickStateEvent brickStateEvent) {
+        builder.addCustomHeader(Event.PROJECTCONFIGURATION_ID_CUSTOM_HEADER, brickStateEvent.getProjectConfigurationIdentifier())
+                .setPayload(brickStateEvent);
+        return builder.build();
+    }
+
+    private static final String BUILD_SPAN = "build";
+
+    private static final String SEND_SPAN = "send";
+
+}
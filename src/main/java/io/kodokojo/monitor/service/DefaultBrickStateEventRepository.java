@@ -5,7 +5,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
@@ -13,85 +12,91 @@ public class DefaultBrickStateEventRepository implements BrickStateEventReposito
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultBrickStateEventRepository.class);
 
-    private Set<BrickStateEvent> cache = new HashSet<>();
+    private final Map<BrickStateKey, CachedBrickStateEvent> cache = new HashMap<>();
+
+    private long generation = 0;
 
     @Override
     public Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents) {
+        return compareAndUpdate(brickStateEvents, true);
+    }
+
+    @Override
+    public Set<BrickStateEvent> update(Set<BrickStateEvent> brickStateEvents) {
+        return compareAndUpdate(brickStateEvents, false);
+    }
+
+    private Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents, boolean removeMissing) {
         requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
         Set<BrickStateEvent> res = new HashSet<>();
 
+        //  Each call stamp the bricks it sees with a new generation, bricks left with an older generation are not anymore in Marathon.
+        long currentGeneration = ++generation;
+
         // Add update a brick state event
-        final Map<BrickStateEvent, BrickStateEvent> toUpdate = new HashMap<>();
-
-        Set<BrickStateEvent> toAdd = brickStateEvents.stream()
-                .filter(brickStateEvent -> mustBeAddOrUpdate(brickStateEvent, toUpdate))
-                .collect(Collectors.toSet());
-        toUpdate.entrySet().forEach(entry -> {
-            cache.remove(entry.getKey());
-            cache.add(entry.getValue());
-            res.add(entry.getValue());
-        });
-        cache.addAll(toAdd);
-        res.addAll(toAdd);
+        for (BrickStateEvent brickStateEvent : brickStateEvents) {
+            BrickStateKey key = BrickStateKey.from(brickStateEvent);
+            CachedBrickStateEvent cached = cache.get(key);
+            if (cached == null) {
+                cache.put(key, new CachedBrickStateEvent(brickStateEvent, currentGeneration));
+                res.add(brickStateEvent);
+            } else {
+                if (cached.brickStateEvent.getState() != brickStateEvent.getState()) {
+                    cached.brickStateEvent = brickStateEvent;
+                    res.add(brickStateEvent);
+                }
+                cached.generation = currentGeneration;
+            }
+        }
+
+        if (!removeMissing) {
+            return res;
+        }
 
         //  Remove not anymore existing brick from Marathon
-        Set<BrickStateEvent> toRemove = cache.stream()
-                .filter(cachedBrickStateEvent -> !containsBrickStateEvent(brickStateEvents, cachedBrickStateEvent).isPresent())
-                .collect(Collectors.toSet());
-        cache.removeAll(toRemove);
-        toRemove.forEach(b -> {
-            BrickStateEvent.State state = BrickStateEvent.State.STOPPED;
-            BrickStateEvent unknownBrickStateEvent = new BrickStateEvent(
-                    b.getProjectConfigurationIdentifier(),
-                    b.getStackName(),
-                    b.getBrickType(),
-                    b.getBrickName(),
-                    state,
-                    b.getVersion()
-            );
-            LOGGER.info("Remove brick {} from projectConfigurationId '{}'; Brick not anymore defined in Marathon. Generating BrickStateEvent {}", b.getBrickName(), b.getProjectConfigurationIdentifier(), state);
-            res.add(unknownBrickStateEvent);
-        });
+        Iterator<CachedBrickStateEvent> iterator = cache.values().iterator();
+        while (iterator.hasNext()) {
+            CachedBrickStateEvent cached = iterator.next();
+            if (cached.generation != currentGeneration) {
+                iterator.remove();
+                BrickStateEvent b = cached.brickStateEvent;
+                BrickStateEvent.State state = BrickStateEvent.State.STOPPED;
+                BrickStateEvent unknownBrickStateEvent = new BrickStateEvent(
+                        b.getProjectConfigurationIdentifier(),
+                        b.getStackName(),
+                        b.getBrickType(),
+                        b.getBrickName(),
+                        state,
+                        b.getVersion()
+                );
+                LOGGER.info("Remove brick {} from projectConfigurationId '{}'; Brick not anymore defined in Marathon. Generating BrickStateEvent {}", b.getBrickName(), b.getProjectConfigurationIdentifier(), state);
+                res.add(unknownBrickStateEvent);
+            }
+        }
 
         return res;
     }
 
     /**
-     * Check if brickStateEvent exit in cache, if must be add, return <code>true</code>. If need to be update, element is add to
-     * <code>toUpdate</code> Set. if must be ignore, return <code>false</code>.
-     * @param brickStateEvent element to challenge in cache.
-     * @param toUpdate add all element which may be update
-     * @return return true to add, false to ignore.
+     * @return number of known bricks, may be read while a comparison is running.
      */
-    private boolean mustBeAddOrUpdate(BrickStateEvent brickStateEvent, Map<BrickStateEvent, BrickStateEvent> toUpdate) {
-        Optional<BrickStateEvent> containsBrickStateEvent = containsBrickStateEventInCache(brickStateEvent);
-        if (containsBrickStateEvent.isPresent())  {
-            BrickStateEvent cachedBrickStateEvent = containsBrickStateEvent.get();
-            if (brickStateEventMustBeUpdate(cachedBrickStateEvent, brickStateEvent)) {
-                toUpdate.put(cachedBrickStateEvent, brickStateEvent);
-            }
-            return false;
-        }
-        return true;
+    public int size() {
+        return cache.size();
     }
 
-    private Optional<BrickStateEvent> containsBrickStateEventInCache(BrickStateEvent brickStateEvent) {
-        return containsBrickStateEvent(cache, brickStateEvent);
-    }
+    /**
+     * Last known state of a brick, stamped with the generation of the last <code>compareAndUpdate</code> which saw it.
+     */
+    private static class CachedBrickStateEvent {
 
-    private Optional<BrickStateEvent> containsBrickStateEvent(Set<BrickStateEvent> collection, BrickStateEvent brickStateEvent) {
-        return collection.stream().filter(cachedBrickStateEvent -> matchBrickStateEvent(cachedBrickStateEvent, brickStateEvent)).findFirst();
-    }
+        private BrickStateEvent brickStateEvent;
 
-    private static boolean brickStateEventMustBeUpdate(BrickStateEvent a, BrickStateEvent b) {
-        return matchBrickStateEvent(a, b) &&
-                a.getState() != b.getState();
-    }
+        private long generation;
 
-    private static boolean matchBrickStateEvent(BrickStateEvent a, BrickStateEvent b) {
-        return a.getProjectConfigurationIdentifier().equals(b.getProjectConfigurationIdentifier()) &&
-                a.getStackName().equals(b.getStackName()) &&
-                a.getBrickName().equals(b.getBrickName());
+        CachedBrickStateEvent(BrickStateEvent brickStateEvent, long generation) {
+            this.brickStateEvent = brickStateEvent;
+            this.generation = generation;
+        }
     }
 
 }
@@ -0,0 +1,229 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Debounce brick state changes computed by a delegate repository before they are published.
+ * <p>
+ * A new state of a known brick is emitted once it has been observed <code>minObservations</code> consecutive times, or
+ * once it held for <code>minDwellTime</code>, whichever comes first. A brick which changes state
+ * <code>flapThreshold</code> times within <code>flapWindow</code> is reported once as a {@link FlappingBrickStateEvent},
+ * then its changes are suppressed until it stays in a same state for a whole <code>flapWindow</code>.
+ * </p>
+ * <p>
+ * Removed bricks and bricks seen for the first time are emitted as computed by the delegate. Tracking uses a few
+ * primitive fields per brick and is bounded to <code>maxTrackedBricks</code>, least recently observed bricks are
+ * forgotten first and handled as new bricks if they show up again.
+ * </p>
+ */
+public class FlapSuppressingBrickStateEventRepository implements BrickStateEventRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlapSuppressingBrickStateEventRepository.class);
+
+    private static final BrickStateEvent.State[] STATES = BrickStateEvent.State.values();
+
+    private final BrickStateEventRepository delegate;
+
+    private final int minObservations;
+
+    private final long minDwellTime;
+
+    private final int flapThreshold;
+
+    private final long flapWindow;
+
+    private final LongSupplier clock;
+
+    private final Map<BrickStateKey, BrickTracking> trackings;
+
+    public FlapSuppressingBrickStateEventRepository(BrickStateEventRepository delegate, int minObservations, long minDwellTime, int flapThreshold, long flapWindow, int maxTrackedBricks) {
+        this(delegate, minObservations, minDwellTime, flapThreshold, flapWindow, maxTrackedBricks, System::currentTimeMillis);
+    }
+
+    FlapSuppressingBrickStateEventRepository(BrickStateEventRepository delegate, int minObservations, long minDwellTime, int flapThreshold, long flapWindow, int maxTrackedBricks, LongSupplier clock) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(clock, "clock must be defined.");
+        if (minObservations <= 0) {
+            throw new IllegalArgumentException("minObservations must be greater than 0.");
+        }
+        if (flapThreshold <= 1) {
+            throw new IllegalArgumentException("flapThreshold must be greater than 1.");
+        }
+        if (maxTrackedBricks <= 0) {
+            throw new IllegalArgumentException("maxTrackedBricks must be greater than 0.");
+        }
+        this.delegate = delegate;
+        this.minObservations = minObservations;
+        this.minDwellTime = minDwellTime;
+        this.flapThreshold = flapThreshold;
+        this.flapWindow = flapWindow;
+        this.clock = clock;
+        this.trackings = new LinkedHashMap<BrickStateKey, BrickTracking>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BrickStateKey, BrickTracking> eldest) {
+                return size() > maxTrackedBricks;
+            }
+        };
+    }
+
+    @Override
+    public Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        return suppressFlapping(brickStateEvents, delegate.compareAndUpdate(brickStateEvents));
+    }
+
+    @Override
+    public Set<BrickStateEvent> update(Set<BrickStateEvent> brickStateEvents) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        return suppressFlapping(brickStateEvents, delegate.update(brickStateEvents));
+    }
+
+    private Set<BrickStateEvent> suppressFlapping(Set<BrickStateEvent> brickStateEvents, Set<BrickStateEvent> changes) {
+        long now = clock.getAsLong();
+        Set<BrickStateEvent> res = new HashSet<>();
+
+        Set<BrickStateKey> observedKeys = new HashSet<>();
+        for (BrickStateEvent brickStateEvent : brickStateEvents) {
+            BrickStateKey key = BrickStateKey.from(brickStateEvent);
+            observedKeys.add(key);
+            byte state = (byte) brickStateEvent.getState().ordinal();
+            BrickTracking tracking = trackings.get(key);
+            if (tracking == null) {
+                trackings.put(key, new BrickTracking(state, now));
+                if (changes.contains(brickStateEvent)) {
+                    res.add(brickStateEvent);
+                }
+            } else {
+                int decision = tracking.observe(state, now);
+                if (decision == START_FLAPPING) {
+                    LOGGER.info("Brick {} of projectConfigurationId '{}' is flapping, its changes are suppressed until it stays {}ms in a same state.", brickStateEvent.getBrickName(), brickStateEvent.getProjectConfigurationIdentifier(), flapWindow);
+                    res.add(new FlappingBrickStateEvent(brickStateEvent));
+                } else if (decision == EMIT) {
+                    res.add(brickStateEvent);
+                }
+            }
+        }
+
+        //  Bricks removed from orchestrator.
+        for (BrickStateEvent change : changes) {
+            BrickStateKey key = BrickStateKey.from(change);
+            if (!observedKeys.contains(key)) {
+                trackings.remove(key);
+                res.add(change);
+            }
+        }
+        return res;
+    }
+
+    int getTrackedBrickCount() {
+        return trackings.size();
+    }
+
+    /**
+     * Debounce state of a brick. States are stored as ordinals of {@link BrickStateEvent.State}.
+     */
+    private class BrickTracking {
+
+        private byte emittedState;
+
+        private byte lastObservedState;
+
+        private byte candidateState = NO_STATE;
+
+        private int candidateCount;
+
+        private long candidateSince;
+
+        private int transitionCount;
+
+        private long windowStart;
+
+        private long lastTransitionDate;
+
+        private boolean flapping;
+
+        BrickTracking(byte state, long now) {
+            this.emittedState = state;
+            this.lastObservedState = state;
+            this.windowStart = now;
+        }
+
+        /**
+         * @return {@link #START_FLAPPING} if brick starts flapping, {@link #EMIT} if observed state must be emitted,
+         * {@link #HOLD} otherwise.
+         */
+        int observe(byte state, long now) {
+            if (state != lastObservedState) {
+                if (now - windowStart > flapWindow) {
+                    windowStart = now;
+                    transitionCount = 0;
+                }
+                transitionCount++;
+                lastObservedState = state;
+                lastTransitionDate = now;
+            }
+
+            if (flapping) {
+                if (now - lastTransitionDate < flapWindow) {
+                    return HOLD;
+                }
+                flapping = false;
+                transitionCount = 0;
+                windowStart = now;
+                return emit(state);
+            }
+            if (transitionCount >= flapThreshold) {
+                flapping = true;
+                emittedState = state;
+                candidateState = NO_STATE;
+                return START_FLAPPING;
+            }
+
+            if (state == emittedState) {
+                candidateState = NO_STATE;
+                return HOLD;
+            }
+            if (state != candidateState) {
+                candidateState = state;
+                candidateCount = 0;
+                candidateSince = now;
+            }
+            candidateCount++;
+            if (candidateCount >= minObservations || (minDwellTime > 0 && now - candidateSince >= minDwellTime)) {
+                return emit(state);
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Hold state {} observed {} times since {}.", STATES[state], candidateCount, candidateSince);
+            }
+            return HOLD;
+        }
+
+        private int emit(byte state) {
+            candidateState = NO_STATE;
+            if (state == emittedState) {
+                return HOLD;
+            }
+            emittedState = state;
+            return EMIT;
+        }
+    }
+
+    private static final byte NO_STATE = -1;
+
+    private static final int HOLD = 0;
+
+    private static final int EMIT = 1;
+
+    private static final int START_FLAPPING = 2;
+
+}
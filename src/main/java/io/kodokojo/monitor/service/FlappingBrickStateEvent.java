@@ -0,0 +1,28 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+
+/**
+ * A brick state change reported while the brick flaps between states; its state is the last observed one.
+ * <p>
+ * The <code>flapping</code> marker is serialized along other attributes, so consumers can tell it from a stable change.
+ * </p>
+ */
+public class FlappingBrickStateEvent extends BrickStateEvent {
+
+    private final boolean flapping = true;
+
+    public FlappingBrickStateEvent(BrickStateEvent brickStateEvent) {
+        super(brickStateEvent.getProjectConfigurationIdentifier(),
+                brickStateEvent.getStackName(),
+                brickStateEvent.getBrickType(),
+                brickStateEvent.getBrickName(),
+                brickStateEvent.getState(),
+                brickStateEvent.getUrl(),
+                brickStateEvent.getVersion());
+    }
+
+    public boolean isFlapping() {
+        return flapping;
+    }
+}
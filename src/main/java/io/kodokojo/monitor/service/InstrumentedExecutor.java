@@ -0,0 +1,127 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import io.kodokojo.monitor.service.metrics.Timer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Executor which measures how many tasks wait for a thread and how long tasks run, to size the underlying executor.
+ * <p>
+ * Wait and run times are recorded in {@link MonitorMetrics}; queue depth and active tasks are exported once registered
+ * with {@link MonitorMetrics#registerBlockingExecutor(InstrumentedExecutor)}.
+ * </p>
+ */
+public class InstrumentedExecutor implements Executor {
+
+    private final Executor delegate;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+
+    private final AtomicLong activeCount = new AtomicLong();
+
+    private final LongAdder completedCount = new LongAdder();
+
+    private final LongAdder totalRunTime = new LongAdder();
+
+    private final LongAdder totalWaitTime = new LongAdder();
+
+    private final AtomicLong maxRunTime = new AtomicLong();
+
+    private final Timer runTimer;
+
+    private final Timer waitTimer;
+
+    public InstrumentedExecutor(Executor delegate) {
+        this(delegate, new MonitorMetrics());
+    }
+
+    public InstrumentedExecutor(Executor delegate, MonitorMetrics metrics) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(metrics, "metrics must be defined.");
+        this.delegate = delegate;
+        this.runTimer = metrics.getBlockingTaskRunTime();
+        this.waitTimer = metrics.getBlockingTaskWaitTime();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        requireNonNull(command, "command must be defined.");
+        long submitDate = System.nanoTime();
+        queueDepth.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                long startDate = System.nanoTime();
+                queueDepth.decrementAndGet();
+                activeCount.incrementAndGet();
+                totalWaitTime.add(startDate - submitDate);
+                waitTimer.record(startDate - submitDate);
+                try {
+                    command.run();
+                } finally {
+                    long runTime = System.nanoTime() - startDate;
+                    activeCount.decrementAndGet();
+                    completedCount.increment();
+                    totalRunTime.add(runTime);
+                    maxRunTime.accumulateAndGet(runTime, Math::max);
+                    runTimer.record(runTime);
+                }
+            });
+        } catch (RuntimeException e) {
+            queueDepth.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of tasks submitted and not yet started.
+     */
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getActiveCount() {
+        return activeCount.get();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    /**
+     * @return cumulated run time of completed tasks, in nanoseconds.
+     */
+    public long getTotalRunTime() {
+        return totalRunTime.sum();
+    }
+
+    /**
+     * @return cumulated time tasks waited for a thread, in nanoseconds.
+     */
+    public long getTotalWaitTime() {
+        return totalWaitTime.sum();
+    }
+
+    /**
+     * @return run time of the longest task, in nanoseconds.
+     */
+    public long getMaxRunTime() {
+        return maxRunTime.get();
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedExecutor{" +
+                "queueDepth=" + getQueueDepth() +
+                ", activeCount=" + getActiveCount() +
+                ", completedCount=" + getCompletedCount() +
+                ", totalRunTime=" + getTotalRunTime() +
+                ", totalWaitTime=" + getTotalWaitTime() +
+                ", maxRunTime=" + getMaxRunTime() +
+                '}';
+    }
+}
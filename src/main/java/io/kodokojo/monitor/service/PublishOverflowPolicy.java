@@ -0,0 +1,31 @@
+package io.kodokojo.monitor.service;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * What an {@link AsyncBrickStateEventPublisher} does with a change when its queue is full.
+ */
+public enum PublishOverflowPolicy {
+
+    /**
+     * Wait until the worker makes room in the queue.
+     */
+    BLOCK,
+
+    /**
+     * Drop the oldest queued change.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Keep only the latest queued state of each brick; when the queue is full of distinct bricks, drop the oldest change.
+     */
+    COALESCE;
+
+    public static PublishOverflowPolicy fromConfig(String value) {
+        if (StringUtils.isBlank(value)) {
+            return BLOCK;
+        }
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,169 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Store brick states in a Redis hash shared by several monitor instances.
+ * <p>
+ * Each brick is a field of the hash, its value holds the last known state of the brick. Comparison and update are done
+ * by a Lua script called with <code>EVALSHA</code>, atomically and in a single round trip whatever the number of
+ * bricks; when several instances observe a same change, only the first one gets it back.
+ * </p>
+ */
+public class RedisBrickStateEventRepository implements BrickStateEventRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisBrickStateEventRepository.class);
+
+    private final JedisPool jedisPool;
+
+    private final String key;
+
+    private final String script;
+
+    private volatile String scriptSha;
+
+    public RedisBrickStateEventRepository(JedisPool jedisPool, String keyPrefix) {
+        requireNonNull(jedisPool, "jedisPool must be defined.");
+        if (StringUtils.isBlank(keyPrefix)) {
+            throw new IllegalArgumentException("keyPrefix must be defined.");
+        }
+        this.jedisPool = jedisPool;
+        this.key = keyPrefix + BRICK_STATES_KEY_SUFFIX;
+        this.script = readScript();
+    }
+
+    @Override
+    public Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents) {
+        return compareAndUpdate(brickStateEvents, true);
+    }
+
+    @Override
+    public Set<BrickStateEvent> update(Set<BrickStateEvent> brickStateEvents) {
+        return compareAndUpdate(brickStateEvents, false);
+    }
+
+    private Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents, boolean removeMissing) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        List<String> args = new ArrayList<>(brickStateEvents.size() * 2 + 1);
+        args.add(removeMissing ? REMOVE_MISSING : KEEP_MISSING);
+        for (BrickStateEvent brickStateEvent : brickStateEvents) {
+            args.add(encodeKey(brickStateEvent));
+            args.add(encodeState(brickStateEvent));
+        }
+
+        List<?> result;
+        try (Jedis jedis = jedisPool.getResource()) {
+            result = (List<?>) evalScript(jedis, args);
+        }
+
+        Set<BrickStateEvent> res = new HashSet<>();
+        for (int i = 0; i + 2 < result.size(); i += 3) {
+            String kind = (String) result.get(i);
+            BrickStateEvent brickStateEvent = decode((String) result.get(i + 1), (String) result.get(i + 2));
+            if (REMOVED.equals(kind)) {
+                LOGGER.info("Remove brick {} from projectConfigurationId '{}'; Brick not anymore defined in Marathon. Generating BrickStateEvent {}", brickStateEvent.getBrickName(), brickStateEvent.getProjectConfigurationIdentifier(), BrickStateEvent.State.STOPPED);
+                brickStateEvent = new BrickStateEvent(
+                        brickStateEvent.getProjectConfigurationIdentifier(),
+                        brickStateEvent.getStackName(),
+                        brickStateEvent.getBrickType(),
+                        brickStateEvent.getBrickName(),
+                        BrickStateEvent.State.STOPPED,
+                        brickStateEvent.getVersion()
+                );
+            }
+            res.add(brickStateEvent);
+        }
+        return res;
+    }
+
+    private Object evalScript(Jedis jedis, List<String> args) {
+        String sha = scriptSha;
+        if (sha == null) {
+            sha = loadScript(jedis);
+        }
+        try {
+            return jedis.evalsha(sha, Collections.singletonList(key), args);
+        } catch (JedisDataException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith(NOSCRIPT)) {
+                throw e;
+            }
+            //  Script cache flushed or Redis restarted.
+            LOGGER.debug("Script {} unknown by Redis, loading it again.", sha);
+            return jedis.evalsha(loadScript(jedis), Collections.singletonList(key), args);
+        }
+    }
+
+    private String loadScript(Jedis jedis) {
+        String sha = jedis.scriptLoad(script);
+        scriptSha = sha;
+        return sha;
+    }
+
+    static String encodeKey(BrickStateEvent brickStateEvent) {
+        return brickStateEvent.getProjectConfigurationIdentifier() + SEPARATOR + brickStateEvent.getStackName() + SEPARATOR + brickStateEvent.getBrickName();
+    }
+
+    /**
+     * Encoded state starts with state name, so the script compares states without decoding other attributes.
+     */
+    static String encodeState(BrickStateEvent brickStateEvent) {
+        return brickStateEvent.getState().name() + SEPARATOR +
+                brickStateEvent.getBrickType() + SEPARATOR +
+                StringUtils.defaultString(brickStateEvent.getVersion()) + SEPARATOR +
+                StringUtils.defaultString(brickStateEvent.getUrl());
+    }
+
+    static BrickStateEvent decode(String encodedKey, String encodedState) {
+        String[] key = StringUtils.splitPreserveAllTokens(encodedKey, SEPARATOR);
+        String[] state = StringUtils.splitPreserveAllTokens(encodedState, SEPARATOR);
+        if (key.length != 3 || state.length != 4) {
+            throw new IllegalStateException("Unable to decode brick state '" + encodedKey + "' stored in Redis.");
+        }
+        return new BrickStateEvent(key[0], key[1], state[1], key[2], BrickStateEvent.State.valueOf(state[0]), StringUtils.trimToNull(state[3]), StringUtils.trimToNull(state[2]));
+    }
+
+    private static String readScript() {
+        try (InputStream input = RedisBrickStateEventRepository.class.getResourceAsStream(SCRIPT_RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("Unable to find script " + SCRIPT_RESOURCE + ".");
+            }
+            return IOUtils.toString(input, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read script " + SCRIPT_RESOURCE + ".", e);
+        }
+    }
+
+    private static final String SCRIPT_RESOURCE = "/redis/compareAndUpdate.lua";
+
+    private static final String BRICK_STATES_KEY_SUFFIX = ":brickStates";
+
+    private static final String NOSCRIPT = "NOSCRIPT";
+
+    private static final String REMOVED = "r";
+
+    private static final String REMOVE_MISSING = "1";
+
+    private static final String KEEP_MISSING = "0";
+
+    //  ASCII unit separator, never part of identifiers, names, versions nor urls.
+    private static final char SEPARATOR = '\u001F';
+
+}
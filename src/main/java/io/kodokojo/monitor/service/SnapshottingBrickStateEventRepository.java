@@ -0,0 +1,181 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Periodically save brick states known by a delegate repository in a {@link BrickStateSnapshotStore}, so a restarted
+ * monitor computes its first diff against the states known before it stopped.
+ * <p>
+ * After each <code>compareAndUpdate</code>, the delegate knows exactly the observed bricks; those are saved from a
+ * single dedicated thread when they changed and at least <code>interval</code> elapsed since previous save. Observations
+ * are compared with the previous one rather than relying on reported changes, as a decorating delegate may hold back
+ * changes it already keeps track of. Partial observations given to <code>update</code> are merged into the last
+ * complete one. Only the latest pending states are written, a tick never waits for the disk.
+ * </p>
+ */
+public class SnapshottingBrickStateEventRepository implements BrickStateEventRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshottingBrickStateEventRepository.class);
+
+    private final BrickStateEventRepository delegate;
+
+    private final BrickStateSnapshotStore snapshotStore;
+
+    private final long interval;
+
+    private final LongSupplier clock;
+
+    private final ExecutorService writer;
+
+    private final AtomicReference<List<BrickStateEvent>> pendingSnapshot = new AtomicReference<>();
+
+    //  Updated by successive ticks which may run on different threads, and read on stop.
+    private volatile boolean dirty = false;
+
+    private volatile long lastSnapshotDate;
+
+    //  Replaced, never modified, so it can be handed to the writer thread as is.
+    private volatile Map<BrickStateKey, BrickStateEvent> lastObserved;
+
+    public SnapshottingBrickStateEventRepository(BrickStateEventRepository delegate, BrickStateSnapshotStore snapshotStore, long interval) {
+        this(delegate, snapshotStore, interval, System::currentTimeMillis);
+    }
+
+    SnapshottingBrickStateEventRepository(BrickStateEventRepository delegate, BrickStateSnapshotStore snapshotStore, long interval, LongSupplier clock) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(snapshotStore, "snapshotStore must be defined.");
+        requireNonNull(clock, "clock must be defined.");
+        this.delegate = delegate;
+        this.snapshotStore = snapshotStore;
+        this.interval = interval;
+        this.clock = clock;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "brick-state-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Prime delegate with the brick states of the last snapshot. Must be called before the first lookup.
+     * @param maxAge maximum age in milliseconds of an usable snapshot.
+     * @return <code>true</code> if a snapshot had been loaded.
+     */
+    public boolean restore(long maxAge) {
+        long begin = System.nanoTime();
+        Set<BrickStateEvent> brickStateEvents = snapshotStore.load(maxAge);
+        if (brickStateEvents == null) {
+            return false;
+        }
+        delegate.compareAndUpdate(brickStateEvents);
+        lastObserved = byKey(brickStateEvents);
+        lastSnapshotDate = clock.getAsLong();
+        LOGGER.info("Restored {} brick states from snapshot {} in {}ms.", brickStateEvents.size(), snapshotStore.getPath(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+        return true;
+    }
+
+    @Override
+    public Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents) {
+        Set<BrickStateEvent> res = delegate.compareAndUpdate(brickStateEvents);
+        Map<BrickStateKey, BrickStateEvent> observed = byKey(brickStateEvents);
+        if (!res.isEmpty() || !observed.equals(lastObserved)) {
+            dirty = true;
+        }
+        lastObserved = observed;
+        snapshotIfDue();
+        return res;
+    }
+
+    /**
+     * Bricks missing from a partial observation keep their last complete observation in the snapshot.
+     */
+    @Override
+    public Set<BrickStateEvent> update(Set<BrickStateEvent> brickStateEvents) {
+        Set<BrickStateEvent> res = delegate.update(brickStateEvents);
+        Map<BrickStateKey, BrickStateEvent> previous = lastObserved;
+        if (previous != null && !brickStateEvents.isEmpty()) {
+            Map<BrickStateKey, BrickStateEvent> observed = new HashMap<>(previous);
+            brickStateEvents.forEach(brickStateEvent -> observed.put(BrickStateKey.from(brickStateEvent), brickStateEvent));
+            if (!observed.equals(previous)) {
+                dirty = true;
+                lastObserved = observed;
+                snapshotIfDue();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Write last observed brick states, then stop snapshot thread.
+     * @param timeout maximum time in milliseconds to wait for the writes.
+     */
+    public void stop(long timeout) {
+        if (lastObserved != null && dirty) {
+            dirty = false;
+            scheduleSnapshot(new ArrayList<>(lastObserved.values()));
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Brick state snapshot not written before {}ms.", timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void snapshotIfDue() {
+        long now = clock.getAsLong();
+        if (dirty && now - lastSnapshotDate >= interval) {
+            dirty = false;
+            lastSnapshotDate = now;
+            scheduleSnapshot(new ArrayList<>(lastObserved.values()));
+        }
+    }
+
+    private static Map<BrickStateKey, BrickStateEvent> byKey(Set<BrickStateEvent> brickStateEvents) {
+        Map<BrickStateKey, BrickStateEvent> res = new HashMap<>(brickStateEvents.size() * 2);
+        brickStateEvents.forEach(brickStateEvent -> res.put(BrickStateKey.from(brickStateEvent), brickStateEvent));
+        return res;
+    }
+
+    private void scheduleSnapshot(List<BrickStateEvent> brickStateEvents) {
+        //  A write already scheduled takes the latest states, no need to schedule another one.
+        if (pendingSnapshot.getAndSet(brickStateEvents) == null) {
+            writer.execute(this::writeSnapshot);
+        }
+    }
+
+    private void writeSnapshot() {
+        List<BrickStateEvent> brickStateEvents = pendingSnapshot.getAndSet(null);
+        if (brickStateEvents == null) {
+            return;
+        }
+        long begin = System.nanoTime();
+        try {
+            snapshotStore.write(brickStateEvents);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Wrote {} brick states to snapshot {} in {}ms.", brickStateEvents.size(), snapshotStore.getPath(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Unable to write brick state snapshot {}.", snapshotStore.getPath(), e);
+        }
+    }
+
+}
@@ -1,28 +1,68 @@
 package io.kodokojo.monitor.service.actor;
 
 import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.Props;
 import akka.event.LoggingAdapter;
 import akka.japi.pf.ReceiveBuilder;
 import com.google.gson.GsonBuilder;
-import io.kodokojo.commons.event.Event;
-import io.kodokojo.commons.event.EventBuilder;
 import io.kodokojo.commons.event.EventBuilderFactory;
 import io.kodokojo.commons.event.EventBus;
 import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.AdaptiveTickInterval;
+import io.kodokojo.monitor.service.BrickStateEventPublisher;
 import io.kodokojo.monitor.service.BrickStateEventRepository;
 import io.kodokojo.monitor.service.BrickStateLookup;
+import io.kodokojo.monitor.service.BrickStateLookupResult;
+import io.kodokojo.monitor.service.DefaultBrickStateEventPublisher;
+import io.kodokojo.monitor.service.trace.TickTrace;
+import io.kodokojo.monitor.service.trace.Tracer;
+import scala.concurrent.duration.Duration;
 
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static akka.event.Logging.getLogger;
 import static java.util.Objects.requireNonNull;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 
+/**
+ * Lookup brick states on each tick and publish changes with a {@link BrickStateEventPublisher}.
+ * <p>
+ * Lookup, compare and publish are blocking, they run on the given executor and their outcome is sent back to this
+ * actor, so the actor never blocks its dispatcher. A single tick runs at a time, ticks received meanwhile are
+ * coalesced into one tick run once the current one completes. On {@link #STOP}, the actor stops once the running tick,
+ * if any, completes, so the repository is no longer updated by it when the actor is terminated.
+ * </p>
+ */
 public class LookupOrchestratorAndFireEventActor extends AbstractActor {
 
     private final LoggingAdapter LOGGER = getLogger(getContext().system(), this);
 
+    private final BrickStateLookup brickStateLookup;
+
+    private final BrickStateEventRepository brickStateEventRepository;
+
+    private final BrickStateEventPublisher brickStateEventPublisher;
+
+    private final AdaptiveTickInterval adaptiveTickInterval;
+
+    private final Executor blockingExecutor;
+
+    private final Tracer tracer;
+
+    private Cancellable nextTick;
+
+    private boolean tickRunning = false;
+
+    private boolean tickPending = false;
+
+    private boolean stopping = false;
+
     public static Props PROPS(BrickStateLookup brickStateLookup, BrickStateEventRepository brickStateEventRepository, EventBuilderFactory eventBuilderFactory, EventBus eventBus) {
         requireNonNull(brickStateLookup, "brickStateLookup must be defined.");
         requireNonNull(brickStateEventRepository, "brickStateEventRepository must be defined.");
@@ -30,36 +70,177 @@ public class LookupOrchestratorAndFireEventActor extends AbstractActor {
         return Props.create(LookupOrchestratorAndFireEventActor.class, brickStateLookup, brickStateEventRepository, eventBuilderFactory, eventBus);
     }
 
+    /**
+     * @param adaptiveTickInterval if defined, actor schedules its own next tick, <code>null</code> to rely on an external tick.
+     * @param blockingExecutor executor running blocking lookups and publications, <code>null</code> to run them on the actor.
+     */
+    public static Props PROPS(BrickStateLookup brickStateLookup, BrickStateEventRepository brickStateEventRepository, BrickStateEventPublisher brickStateEventPublisher, AdaptiveTickInterval adaptiveTickInterval, Executor blockingExecutor) {
+        return PROPS(brickStateLookup, brickStateEventRepository, brickStateEventPublisher, adaptiveTickInterval, blockingExecutor, null);
+    }
+
+    /**
+     * @param tracer tracer recording spans of each tick, <code>null</code> to not trace ticks.
+     */
+    public static Props PROPS(BrickStateLookup brickStateLookup, BrickStateEventRepository brickStateEventRepository, BrickStateEventPublisher brickStateEventPublisher, AdaptiveTickInterval adaptiveTickInterval, Executor blockingExecutor, Tracer tracer) {
+        requireNonNull(brickStateLookup, "brickStateLookup must be defined.");
+        requireNonNull(brickStateEventRepository, "brickStateEventRepository must be defined.");
+        requireNonNull(brickStateEventPublisher, "brickStateEventPublisher must be defined.");
+        return Props.create(LookupOrchestratorAndFireEventActor.class, brickStateLookup, brickStateEventRepository, brickStateEventPublisher, adaptiveTickInterval, blockingExecutor, tracer);
+    }
+
     public LookupOrchestratorAndFireEventActor(BrickStateLookup brickStateLookup, BrickStateEventRepository brickStateEventRepository, EventBuilderFactory eventBuilderFactory, EventBus eventBus) {
+        this(brickStateLookup, brickStateEventRepository, new DefaultBrickStateEventPublisher(eventBuilderFactory, eventBus), null, null, null);
+    }
+
+    public LookupOrchestratorAndFireEventActor(BrickStateLookup brickStateLookup, BrickStateEventRepository brickStateEventRepository, BrickStateEventPublisher brickStateEventPublisher, AdaptiveTickInterval adaptiveTickInterval, Executor blockingExecutor, Tracer tracer) {
+        this.tracer = tracer;
+        this.brickStateLookup = brickStateLookup;
+        this.brickStateEventRepository = brickStateEventRepository;
+        this.brickStateEventPublisher = brickStateEventPublisher;
+        this.adaptiveTickInterval = adaptiveTickInterval;
+        this.blockingExecutor = blockingExecutor == null ? Runnable::run : blockingExecutor;
 
-        receive(ReceiveBuilder.match(String.class, msg -> {
+        receive(ReceiveBuilder.matchEquals(STOP, msg -> {
+            stopping = true;
+            if (!tickRunning) {
+                getContext().stop(self());
+            }
+        }).match(String.class, msg -> {
             LOGGER.debug("Receive a tick.");
-            Set<BrickStateEvent> brickStateEvents = brickStateLookup.lookup();
-            Set<BrickStateEvent> brickStateEventsToSend = brickStateEventRepository.compareAndUpdate(brickStateEvents);
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Receive {} brick event state, generate {} brick state change.", brickStateEvents.size(), brickStateEventsToSend.size());
+            if (stopping) {
+                LOGGER.debug("Stopping, tick ignored.");
+            } else if (tickRunning) {
+                tickPending = true;
+            } else {
+                runTick();
+            }
+        }).match(TickCompleted.class, tickCompleted -> {
+            tickRunning = false;
+            if (stopping) {
+                getContext().stop(self());
+            } else if (tickPending) {
+                tickPending = false;
+                runTick();
+            } else if (adaptiveTickInterval != null) {
+                scheduleNextTick(adaptiveTickInterval.nextDelay(tickCompleted.brickStateEvents, tickCompleted.changeCount, tickCompleted.lookupFailed));
             }
+        }).matchAny(this::unhandled)
+                .build());
+    }
 
-            if (isNotEmpty(brickStateEventsToSend)) {
-                LOGGER.info("Sending {} brick state event changed.", brickStateEvents.size());
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Sending following events: \n{}", new GsonBuilder().setPrettyPrinting().create().toJson(brickStateEvents));
-                }
-                EventBuilder builder = eventBuilderFactory.create();
-                builder.setEventType(Event.BRICK_STATE_UPDATE);
-                brickStateEventsToSend.forEach(brickStateEvent -> {
-                    builder.addCustomHeader(Event.PROJECTCONFIGURATION_ID_CUSTOM_HEADER, brickStateEvent.getProjectConfigurationIdentifier())
-                            .setPayload(brickStateEvent);
-                    Event event = builder.build();
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("Broadcasting event :{}", Event.convertToPrettyJson(event));
+    private void runTick() {
+        tickRunning = true;
+        ActorRef self = self();
+        CompletableFuture.supplyAsync(this::tracedLookupCompareAndPublish, blockingExecutor)
+                .whenComplete((tickCompleted, throwable) -> {
+                    if (throwable != null) {
+                        LOGGER.error(throwable, "Unable to lookup and publish brick states.");
+                        self.tell(new TickCompleted(Collections.emptySet(), 0, true), ActorRef.noSender());
+                    } else {
+                        self.tell(tickCompleted, ActorRef.noSender());
                     }
-                    eventBus.send(event);
                 });
+    }
+
+    private TickCompleted tracedLookupCompareAndPublish() {
+        TickTrace trace = tracer == null ? null : tracer.begin(TICK_TRACE);
+        try {
+            return lookupCompareAndPublish();
+        } finally {
+            if (trace != null) {
+                tracer.end(trace);
             }
-        }).matchAny(this::unhandled)
-                .build());
+        }
     }
 
+    private TickCompleted lookupCompareAndPublish() {
+        long start = System.nanoTime();
+        BrickStateLookupResult lookupResult = brickStateLookup.lookupResult();
+        TickTrace.span(LOOKUP_SPAN, start);
+        Set<BrickStateEvent> brickStateEvents = lookupResult.getBrickStateEvents();
+        Set<BrickStateEvent> brickStateEventsToSend;
+        start = System.nanoTime();
+        if (lookupResult.isComplete()) {
+            brickStateEventsToSend = brickStateEventRepository.compareAndUpdate(brickStateEvents);
+        } else {
+            //  Bricks missing from an incomplete lookup may still exist, they must not be reported stopped.
+            LOGGER.warning("Lookup is {}, brick removals are not checked.", lookupResult.getStatus());
+            brickStateEventsToSend = brickStateEventRepository.update(brickStateEvents);
+        }
+        TickTrace.span(COMPARE_AND_UPDATE_SPAN, start);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Receive {} brick event state, generate {} brick state change.", brickStateEvents.size(), brickStateEventsToSend.size());
+        }
+
+        if (isNotEmpty(brickStateEventsToSend)) {
+            LOGGER.info("Sending {} brick state event changed.", brickStateEvents.size());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Sending following events: \n{}", new GsonBuilder().setPrettyPrinting().create().toJson(brickStateEvents));
+            }
+            start = System.nanoTime();
+            brickStateEventPublisher.publish(brickStateEventsToSend);
+            TickTrace.span(PUBLISH_SPAN, start);
+        }
+        return new TickCompleted(brickStateEvents, brickStateEventsToSend.size(), lookupResult.isFailed());
+    }
+
+    @Override
+    public void postRestart(Throwable reason) throws Exception {
+        super.postRestart(reason);
+        //  Pending tick had been cancelled when previous instance stopped.
+        if (adaptiveTickInterval != null) {
+            scheduleNextTick(adaptiveTickInterval.nextDelay(Collections.emptySet(), 0, true));
+        }
+    }
+
+    @Override
+    public void postStop() throws Exception {
+        if (nextTick != null) {
+            nextTick.cancel();
+        }
+        super.postStop();
+    }
+
+    private void scheduleNextTick(long delay) {
+        //  A tick sent by someone else, like the Marathon event stream, replaces the pending one.
+        if (nextTick != null) {
+            nextTick.cancel();
+        }
+        LOGGER.debug("Next tick in {}ms.", delay);
+        nextTick = getContext().system().scheduler().scheduleOnce(Duration.create(delay, TimeUnit.MILLISECONDS), self(), TICK, getContext().dispatcher(), ActorRef.noSender());
+    }
+
+    /**
+     * Outcome of a tick, sent back to the actor by the blocking executor.
+     */
+    private static class TickCompleted {
+
+        private final Set<BrickStateEvent> brickStateEvents;
+
+        private final int changeCount;
+
+        private final boolean lookupFailed;
+
+        TickCompleted(Set<BrickStateEvent> brickStateEvents, int changeCount, boolean lookupFailed) {
+            this.brickStateEvents = brickStateEvents;
+            this.changeCount = changeCount;
+            this.lookupFailed = lookupFailed;
+        }
+    }
+
+    /**
+     * Stop the actor once the running tick completes.
+     */
+    public static final String STOP = "Stop";
+
+    private static final String TICK = "Tick";
+
+    private static final String TICK_TRACE = "tick";
+
+    private static final String LOOKUP_SPAN = "lookup";
+
+    private static final String COMPARE_AND_UPDATE_SPAN = "compareAndUpdate";
+
+    private static final String PUBLISH_SPAN = "publish";
 
 }
@@ -0,0 +1,143 @@
+package io.kodokojo.monitor.service.actor;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import akka.actor.Props;
+import akka.pattern.Patterns;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.concurrent.Await;
+import scala.concurrent.Future;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Start and stop the {@link LookupOrchestratorAndFireEventActor} and its ticks, so only a leader monitor looks up and
+ * publishes brick states.
+ * <p>
+ * With a fixed interval, ticks are scheduled by this controller; with an adaptive interval, a single tick is sent and
+ * the actor schedules the following ones itself. A stopped actor completes its running tick before terminating, a new
+ * one is only started once the previous one terminated, so two ticks never update the repository concurrently.
+ * </p>
+ */
+public class TickController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TickController.class);
+
+    private final ActorSystem actorSystem;
+
+    private final Props actorProps;
+
+    private final boolean adaptive;
+
+    private final long interval;
+
+    private ActorRef actorRef;
+
+    private Cancellable scheduledTicks;
+
+    private Future<Boolean> stopped;
+
+    /**
+     * @param adaptive <code>true</code> if actor schedules its own ticks.
+     * @param interval delay in milliseconds between ticks, when not adaptive.
+     */
+    public TickController(ActorSystem actorSystem, Props actorProps, boolean adaptive, long interval) {
+        requireNonNull(actorSystem, "actorSystem must be defined.");
+        requireNonNull(actorProps, "actorProps must be defined.");
+        this.actorSystem = actorSystem;
+        this.actorProps = actorProps;
+        this.adaptive = adaptive;
+        this.interval = interval;
+    }
+
+    public void start() {
+        do {
+            awaitStopped();
+        } while (!tryStart());
+    }
+
+    /**
+     * @return <code>false</code> if lookups were stopped again while waiting for a previous stop.
+     */
+    private synchronized boolean tryStart() {
+        if (actorRef != null) {
+            return true;
+        }
+        if (stopped != null) {
+            return false;
+        }
+        LOGGER.info("Starting brick state lookups.");
+        actorRef = actorSystem.actorOf(actorProps);
+        if (adaptive) {
+            actorRef.tell(TICK, ActorRef.noSender());
+        } else {
+            scheduledTicks = actorSystem.scheduler().schedule(Duration.Zero(), Duration.create(interval, TimeUnit.MILLISECONDS), actorRef, TICK, actorSystem.dispatcher(), ActorRef.noSender());
+        }
+        return true;
+    }
+
+    /**
+     * Stop ticks; the running tick, if any, completes before the actor stops.
+     */
+    public synchronized void stop() {
+        if (actorRef == null) {
+            return;
+        }
+        LOGGER.info("Stopping brick state lookups.");
+        if (scheduledTicks != null) {
+            scheduledTicks.cancel();
+            scheduledTicks = null;
+        }
+        stopped = Patterns.gracefulStop(actorRef, Duration.create(STOP_TIMEOUT, TimeUnit.MILLISECONDS), LookupOrchestratorAndFireEventActor.STOP);
+        actorRef = null;
+    }
+
+    /**
+     * Wait for the tick running when lookups were last stopped, if any, to complete. Waits without holding the lock of
+     * this controller, so {@link #isStarted()} and {@link #tick()} don't block meanwhile.
+     */
+    public void awaitStopped() {
+        Future<Boolean> previous;
+        synchronized (this) {
+            previous = stopped;
+        }
+        if (previous == null) {
+            return;
+        }
+        try {
+            Await.result(previous, Duration.create(STOP_TIMEOUT, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.warn("Brick state lookups not stopped after {}ms.", STOP_TIMEOUT, e);
+        }
+        synchronized (this) {
+            if (stopped == previous) {
+                stopped = null;
+            }
+        }
+    }
+
+    /**
+     * Request a tick now, ignored if lookups are stopped.
+     */
+    public synchronized void tick() {
+        if (actorRef != null) {
+            actorRef.tell(TICK, ActorRef.noSender());
+        }
+    }
+
+    public synchronized boolean isStarted() {
+        return actorRef != null;
+    }
+
+    private static final String TICK = "Tick";
+
+    private static final long STOP_TIMEOUT = 60000;
+
+}
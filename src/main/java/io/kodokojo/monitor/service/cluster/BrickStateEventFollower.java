@@ -0,0 +1,73 @@
+package io.kodokojo.monitor.service.cluster;
+
+import io.kodokojo.commons.event.Event;
+import io.kodokojo.commons.event.EventBus;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventBatch;
+import io.kodokojo.monitor.service.BrickStateKey;
+import javaslang.control.Try;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keep the last state of each brick published by the leader monitor, so a standby monitor taking over knows which
+ * changes were already published.
+ * <p>
+ * Follows both single change and batch events. A brick reported STOPPED is forgotten, as the leader forgets removed bricks.
+ * </p>
+ */
+public class BrickStateEventFollower implements EventBus.EventListener {
+
+    private final Map<BrickStateKey, BrickStateEvent> brickStates = new ConcurrentHashMap<>();
+
+    /**
+     * @param brickStateEvents brick states known before following events, from a lookup done on startup.
+     */
+    public void seed(Collection<BrickStateEvent> brickStateEvents) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        brickStateEvents.forEach(this::apply);
+    }
+
+    @Override
+    public Try<Boolean> receive(Event event) {
+        if (event == null) {
+            return Try.success(Boolean.FALSE);
+        }
+        if (Event.BRICK_STATE_UPDATE.equals(event.getEventType())) {
+            return Try.of(() -> {
+                apply(event.getPayload(BrickStateEvent.class));
+                return Boolean.TRUE;
+            });
+        }
+        if (BrickStateEventBatch.BRICK_STATE_UPDATE_BATCH.equals(event.getEventType())) {
+            return Try.of(() -> {
+                event.getPayload(BrickStateEventBatch.class).getBrickStateEvents().forEach(this::apply);
+                return Boolean.TRUE;
+            });
+        }
+        return Try.success(Boolean.FALSE);
+    }
+
+    public Set<BrickStateEvent> getBrickStateEvents() {
+        return new HashSet<>(brickStates.values());
+    }
+
+    private void apply(BrickStateEvent brickStateEvent) {
+        if (brickStateEvent == null) {
+            return;
+        }
+        //  Removed bricks are reported STOPPED and never again, kept they would pile up and be reported removed by a new leader.
+        if (brickStateEvent.getState() == BrickStateEvent.State.STOPPED) {
+            brickStates.remove(BrickStateKey.from(brickStateEvent));
+        } else {
+            brickStates.put(BrickStateKey.from(brickStateEvent), brickStateEvent);
+        }
+    }
+
+}
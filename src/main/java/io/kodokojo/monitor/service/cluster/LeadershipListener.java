@@ -0,0 +1,12 @@
+package io.kodokojo.monitor.service.cluster;
+
+/**
+ * Notified, in order and from a single dedicated thread, when this monitor instance gains or loses leadership.
+ */
+public interface LeadershipListener {
+
+    void leadershipAcquired();
+
+    void leadershipLost();
+
+}
@@ -0,0 +1,258 @@
+package io.kodokojo.monitor.service.cluster;
+
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.ZooKeeper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Elect a single leader among monitor instances with ZooKeeper.
+ * <p>
+ * Each candidate creates an ephemeral sequential node under the election path; the candidate owning the lowest node is
+ * the leader, every other one watches its predecessor only, so a leader failure wakes up a single candidate.
+ * Leadership is given up as soon as the ZooKeeper connection is lost, and claimed again once reconnected, so two
+ * instances never consider themselves leader while one of them is partitioned. An expired session is replaced by a new
+ * one.
+ * </p>
+ * <p>
+ * The listener is notified in order from a dedicated thread, so a slow listener doesn't hold ZooKeeper's event thread
+ * and connection loss keeps being noticed meanwhile. An acquisition which is stale once its notification runs is
+ * skipped, the loss following it is notified.
+ * </p>
+ */
+public class ZooKeeperLeaderElection implements Watcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZooKeeperLeaderElection.class);
+
+    private final String connectString;
+
+    private final int sessionTimeout;
+
+    private final String electionPath;
+
+    private final String candidateName;
+
+    private final LeadershipListener listener;
+
+    private ZooKeeper zooKeeper;
+
+    private String candidateNode;
+
+    private volatile boolean leader = false;
+
+    private boolean started = false;
+
+    private ExecutorService listenerExecutor;
+
+    public ZooKeeperLeaderElection(String connectString, int sessionTimeout, String electionPath, String candidateName, LeadershipListener listener) {
+        requireNonNull(connectString, "connectString must be defined.");
+        requireNonNull(electionPath, "electionPath must be defined.");
+        requireNonNull(candidateName, "candidateName must be defined.");
+        requireNonNull(listener, "listener must be defined.");
+        if (!electionPath.startsWith(PATH_SEPARATOR) || electionPath.endsWith(PATH_SEPARATOR)) {
+            throw new IllegalArgumentException("electionPath must be an absolute path without trailing separator.");
+        }
+        this.connectString = connectString;
+        this.sessionTimeout = sessionTimeout;
+        this.electionPath = electionPath;
+        this.candidateName = candidateName;
+        this.listener = listener;
+    }
+
+    public synchronized void start() throws IOException {
+        if (started) {
+            return;
+        }
+        started = true;
+        listenerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leader-election-listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+        connect();
+    }
+
+    /**
+     * Leave the election, then wait at most <code>timeout</code> milliseconds for pending notifications of the listener,
+     * the loss of leadership included, to complete.
+     */
+    public void stop(long timeout) {
+        ExecutorService executor;
+        synchronized (this) {
+            if (!started) {
+                return;
+            }
+            started = false;
+            relinquish();
+            candidateNode = null;
+            //  Closing the session deletes the candidate node, next candidate is elected without waiting for a timeout.
+            close();
+            executor = listenerExecutor;
+            listenerExecutor = null;
+        }
+        executor.shutdown();
+        try {
+            //  Waited without lock, a notification running meanwhile must not hold ZooKeeper's event thread.
+            if (!executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Leadership listener still running after {}ms.", timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    @Override
+    public synchronized void process(WatchedEvent event) {
+        if (!started) {
+            return;
+        }
+        if (event.getType() == Event.EventType.None) {
+            switch (event.getState()) {
+                case SyncConnected:
+                    LOGGER.debug("Connected to ZooKeeper {}.", connectString);
+                    elect();
+                    break;
+                case Disconnected:
+                    LOGGER.warn("Disconnected from ZooKeeper {}, giving up leadership until reconnected.", connectString);
+                    relinquish();
+                    break;
+                case Expired:
+                    LOGGER.warn("ZooKeeper session expired, joining election again.");
+                    relinquish();
+                    candidateNode = null;
+                    close();
+                    try {
+                        connect();
+                    } catch (IOException e) {
+                        LOGGER.error("Unable to connect to ZooKeeper {}.", connectString, e);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } else if (event.getType() == Event.EventType.NodeDeleted) {
+            elect();
+        }
+    }
+
+    private void connect() throws IOException {
+        zooKeeper = new ZooKeeper(connectString, sessionTimeout, this);
+    }
+
+    /**
+     * Release threads and connection of current handle, even once its session expired.
+     */
+    private void close() {
+        try {
+            zooKeeper.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void elect() {
+        try {
+            if (candidateNode == null) {
+                createParents();
+                candidateNode = zooKeeper.create(electionPath + PATH_SEPARATOR + CANDIDATE_PREFIX, candidateName.getBytes(StandardCharsets.UTF_8), ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL_SEQUENTIAL);
+                LOGGER.info("Candidate {} joined election as {}.", candidateName, candidateNode);
+            }
+            String candidate = candidateNode.substring(electionPath.length() + 1);
+            while (true) {
+                List<String> candidates = zooKeeper.getChildren(electionPath, false);
+                Collections.sort(candidates);
+                int index = candidates.indexOf(candidate);
+                if (index < 0) {
+                    //  Node deleted by an expired session we weren't notified of yet.
+                    candidateNode = null;
+                    elect();
+                    return;
+                }
+                if (index == 0) {
+                    acquire();
+                    return;
+                }
+                relinquish();
+                String predecessor = electionPath + PATH_SEPARATOR + candidates.get(index - 1);
+                if (zooKeeper.exists(predecessor, this) != null) {
+                    LOGGER.debug("Candidate {} is watching {}.", candidateName, predecessor);
+                    return;
+                }
+            }
+        } catch (KeeperException e) {
+            //  Connection loss is followed by a Disconnected or Expired event which resumes the election.
+            LOGGER.warn("Unable to run election on {}.", electionPath, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void createParents() throws KeeperException, InterruptedException {
+        StringBuilder path = new StringBuilder();
+        for (String element : electionPath.substring(1).split(PATH_SEPARATOR)) {
+            path.append(PATH_SEPARATOR).append(element);
+            try {
+                zooKeeper.create(path.toString(), new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+            } catch (KeeperException.NodeExistsException e) {
+                //  Created by another candidate.
+            }
+        }
+    }
+
+    private void acquire() {
+        if (!leader) {
+            leader = true;
+            LOGGER.info("Candidate {} is now leader.", candidateName);
+            notifyListener(true);
+        }
+    }
+
+    private void relinquish() {
+        if (leader) {
+            leader = false;
+            LOGGER.info("Candidate {} is not leader anymore.", candidateName);
+            notifyListener(false);
+        }
+    }
+
+    private void notifyListener(boolean acquired) {
+        listenerExecutor.execute(() -> {
+            if (acquired && !leader) {
+                LOGGER.debug("Leadership of candidate {} already lost, acquisition not notified.", candidateName);
+                return;
+            }
+            try {
+                if (acquired) {
+                    listener.leadershipAcquired();
+                } else {
+                    listener.leadershipLost();
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Leadership listener failed.", e);
+            }
+        });
+    }
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private static final String CANDIDATE_PREFIX = "candidate-";
+
+}
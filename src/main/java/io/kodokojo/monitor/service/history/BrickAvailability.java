@@ -0,0 +1,83 @@
+package io.kodokojo.monitor.service.history;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Time spent in each state by one or several bricks over a time range, only counting the time they were observed.
+ */
+public class BrickAvailability {
+
+    private final long[] timeByState = new long[STATES.length];
+
+    private int failureCount;
+
+    private int repairCount;
+
+    private long repairTime;
+
+    /**
+     * @return time observed, in milliseconds.
+     */
+    public long getObservedTime() {
+        long res = 0;
+        for (long time : timeByState) {
+            res += time;
+        }
+        return res;
+    }
+
+    /**
+     * @return time spent in given state, in milliseconds.
+     */
+    public long getTime(BrickStateEvent.State state) {
+        requireNonNull(state, "state must be defined.");
+        return timeByState[state.ordinal()];
+    }
+
+    /**
+     * @return ratio of observed time spent {@link BrickStateEvent.State#RUNNING}, <code>-1</code> if nothing was observed.
+     */
+    public double getUptime() {
+        long observedTime = getObservedTime();
+        return observedTime == 0 ? -1 : timeByState[BrickStateEvent.State.RUNNING.ordinal()] / (double) observedTime;
+    }
+
+    /**
+     * @return number of times a brick entered {@link BrickStateEvent.State#ONFAILURE}.
+     */
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return number of failures which ended.
+     */
+    public int getRepairCount() {
+        return repairCount;
+    }
+
+    /**
+     * @return mean duration of failures which ended, in milliseconds, <code>-1</code> if none ended.
+     */
+    public long getMeanTimeToRepair() {
+        return repairCount == 0 ? -1 : repairTime / repairCount;
+    }
+
+    void addTime(BrickStateEvent.State state, long time) {
+        timeByState[state.ordinal()] += time;
+    }
+
+    void addFailure() {
+        failureCount++;
+    }
+
+    void addRepair(long time) {
+        repairCount++;
+        repairTime += time;
+    }
+
+    static final BrickStateEvent.State[] STATES = BrickStateEvent.State.values();
+
+}
@@ -0,0 +1,126 @@
+package io.kodokojo.monitor.service.history;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State transitions of a single brick, oldest first, in a fixed-size ring buffer.
+ * <p>
+ * Each transition is packed in a single <code>long</code>, its date in milliseconds shifted left of the state ordinal,
+ * so a brick costs <code>8 * capacity</code> bytes whatever its activity. When full, oldest transition is overwritten.
+ * </p>
+ */
+class BrickHistory {
+
+    private final long[] transitions;
+
+    private int head = 0;
+
+    private int size = 0;
+
+    BrickHistory(int capacity) {
+        this.transitions = new long[capacity];
+    }
+
+    synchronized void record(long timestamp, BrickStateEvent.State state) {
+        if (size > 0) {
+            long last = transitions[index(size - 1)];
+            if (stateOf(last) == state) {
+                return;
+            }
+            //  Wall clock may go back, keep transitions ordered.
+            timestamp = Math.max(timestamp, timestampOf(last));
+        }
+        long transition = timestamp << STATE_BITS | state.ordinal();
+        if (size == transitions.length) {
+            transitions[head] = transition;
+            head = (head + 1) % transitions.length;
+        } else {
+            transitions[index(size)] = transition;
+            size++;
+        }
+    }
+
+    /**
+     * Drop transitions older than a date, keeping the last one before it since it gives the state at this date.
+     */
+    synchronized void expire(long before) {
+        while (size > 1 && timestampOf(transitions[index(1)]) <= before) {
+            head = (head + 1) % transitions.length;
+            size--;
+        }
+    }
+
+    /**
+     * @return date of the last transition, <code>-1</code> if none.
+     */
+    synchronized long lastTimestamp() {
+        return size == 0 ? -1 : timestampOf(transitions[index(size - 1)]);
+    }
+
+    /**
+     * @return transitions which occurred within <code>[from, to)</code>.
+     */
+    synchronized List<BrickStateTransition> transitions(long from, long to) {
+        List<BrickStateTransition> res = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            long transition = transitions[index(i)];
+            long timestamp = timestampOf(transition);
+            if (timestamp >= to) {
+                break;
+            }
+            if (timestamp >= from) {
+                res.add(new BrickStateTransition(timestamp, stateOf(transition)));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Add time spent in each state within <code>[from, to)</code> to an availability, the current state lasting until <code>now</code>.
+     */
+    synchronized void accumulate(BrickAvailability availability, long from, long to, long now) {
+        to = Math.min(to, now);
+        for (int i = 0; i < size; i++) {
+            long transition = transitions[index(i)];
+            long start = timestampOf(transition);
+            if (start >= to) {
+                break;
+            }
+            BrickStateEvent.State state = stateOf(transition);
+            boolean ended = i + 1 < size;
+            long end = ended ? timestampOf(transitions[index(i + 1)]) : now;
+            long overlap = Math.min(end, to) - Math.max(start, from);
+            if (overlap > 0) {
+                availability.addTime(state, overlap);
+            }
+            if (state == BrickStateEvent.State.ONFAILURE) {
+                if (start >= from) {
+                    availability.addFailure();
+                }
+                if (ended && end >= from && end < to) {
+                    availability.addRepair(end - start);
+                }
+            }
+        }
+    }
+
+    private int index(int i) {
+        return (head + i) % transitions.length;
+    }
+
+    private static long timestampOf(long transition) {
+        return transition >>> STATE_BITS;
+    }
+
+    private static BrickStateEvent.State stateOf(long transition) {
+        return BrickAvailability.STATES[(int) (transition & STATE_MASK)];
+    }
+
+    private static final int STATE_BITS = 4;
+
+    private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+
+}
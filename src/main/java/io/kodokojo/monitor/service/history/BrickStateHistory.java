@@ -0,0 +1,142 @@
+package io.kodokojo.monitor.service.history;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * History of brick state transitions, to answer questions like "how long was gitlab on failure last night".
+ * <p>
+ * Each brick keeps at most <code>maxTransitions</code> transitions, younger than <code>retention</code>, and at most
+ * <code>maxBricks</code> bricks are tracked, so memory is bounded to about <code>8 * maxTransitions * maxBricks</code>
+ * bytes. The history of a removed brick is kept until it expires.
+ * </p>
+ */
+public class BrickStateHistory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrickStateHistory.class);
+
+    private final Map<BrickStateKey, BrickHistory> histories = new ConcurrentHashMap<>();
+
+    private final int maxTransitions;
+
+    private final long retention;
+
+    private final int maxBricks;
+
+    private final LongSupplier clock;
+
+    private final LongAdder droppedTransitionCount = new LongAdder();
+
+    public BrickStateHistory(int maxTransitions, long retention, int maxBricks) {
+        this(maxTransitions, retention, maxBricks, System::currentTimeMillis);
+    }
+
+    BrickStateHistory(int maxTransitions, long retention, int maxBricks, LongSupplier clock) {
+        requireNonNull(clock, "clock must be defined.");
+        if (maxTransitions <= 1) {
+            throw new IllegalArgumentException("maxTransitions must be greater than 1.");
+        }
+        if (retention <= 0) {
+            throw new IllegalArgumentException("retention must be greater than 0.");
+        }
+        if (maxBricks <= 0) {
+            throw new IllegalArgumentException("maxBricks must be greater than 0.");
+        }
+        this.maxTransitions = maxTransitions;
+        this.retention = retention;
+        this.maxBricks = maxBricks;
+        this.clock = clock;
+    }
+
+    /**
+     * Record brick states entered now.
+     */
+    public void record(Collection<BrickStateEvent> brickStateEvents) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        if (brickStateEvents.isEmpty()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        for (BrickStateEvent brickStateEvent : brickStateEvents) {
+            BrickStateKey key = BrickStateKey.from(brickStateEvent);
+            BrickHistory history = histories.get(key);
+            if (history == null) {
+                if (histories.size() >= maxBricks) {
+                    expire(now);
+                }
+                if (histories.size() >= maxBricks) {
+                    droppedTransitionCount.increment();
+                    LOGGER.debug("Unable to record state of brick {}, {} bricks already tracked.", key, maxBricks);
+                    continue;
+                }
+                history = new BrickHistory(maxTransitions);
+                histories.put(key, history);
+            }
+            history.record(now, brickStateEvent.getState());
+            history.expire(now - retention);
+        }
+    }
+
+    /**
+     * @return transitions of a brick which occurred within <code>[from, to)</code>, oldest first.
+     */
+    public List<BrickStateTransition> getTransitions(BrickStateKey key, long from, long to) {
+        requireNonNull(key, "key must be defined.");
+        BrickHistory history = histories.get(key);
+        return history == null ? Collections.emptyList() : history.transitions(from, to);
+    }
+
+    /**
+     * @return availability of a brick within <code>[from, to)</code>.
+     */
+    public BrickAvailability getAvailability(BrickStateKey key, long from, long to) {
+        requireNonNull(key, "key must be defined.");
+        BrickAvailability res = new BrickAvailability();
+        BrickHistory history = histories.get(key);
+        if (history != null) {
+            history.accumulate(res, from, to, clock.getAsLong());
+        }
+        return res;
+    }
+
+    /**
+     * @return availability of all bricks of a project within <code>[from, to)</code>, times of its bricks being summed.
+     */
+    public BrickAvailability getProjectAvailability(String projectConfigurationId, long from, long to) {
+        requireNonNull(projectConfigurationId, "projectConfigurationId must be defined.");
+        BrickAvailability res = new BrickAvailability();
+        long now = clock.getAsLong();
+        //  Scanning is bounded by maxBricks and only done on request.
+        histories.forEach((key, history) -> {
+            if (projectConfigurationId.equals(key.getProjectConfigurationIdentifier())) {
+                history.accumulate(res, from, to, now);
+            }
+        });
+        return res;
+    }
+
+    public int getTrackedBrickCount() {
+        return histories.size();
+    }
+
+    public long getDroppedTransitionCount() {
+        return droppedTransitionCount.sum();
+    }
+
+    private void expire(long now) {
+        histories.values().removeIf(history -> history.lastTimestamp() < now - retention);
+    }
+
+}
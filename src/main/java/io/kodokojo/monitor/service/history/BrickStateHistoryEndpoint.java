@@ -0,0 +1,105 @@
+package io.kodokojo.monitor.service.history;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateKey;
+import io.kodokojo.monitor.service.http.HttpStatusException;
+import io.kodokojo.monitor.service.http.ReadOnlyHttpHandler;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Show the history of a brick, or the availability of a project, over a time range.
+ * <p>
+ * <code>projectConfigurationId</code> query parameter is mandatory; with <code>stack</code> and <code>brickName</code>
+ * the transitions and availability of this brick are returned. <code>from</code> and <code>to</code> are dates in
+ * milliseconds since epoch, default to the last 24 hours.
+ * </p>
+ */
+public class BrickStateHistoryEndpoint extends ReadOnlyHttpHandler {
+
+    private final BrickStateHistory history;
+
+    public BrickStateHistoryEndpoint(BrickStateHistory history) {
+        super(JSON_CONTENT_TYPE);
+        requireNonNull(history, "history must be defined.");
+        this.history = history;
+    }
+
+    @Override
+    protected String read(String query) throws IOException, HttpStatusException {
+        Map<String, String> parameters = readParameters(query);
+        String projectConfigurationId = parameters.get(PROJECT_CONFIGURATION_ID_PARAMETER);
+        String stackName = parameters.get(STACK_PARAMETER);
+        String brickName = parameters.get(BRICK_NAME_PARAMETER);
+        long to;
+        long from;
+        try {
+            to = parameters.containsKey(TO_PARAMETER) ? Long.parseLong(parameters.get(TO_PARAMETER)) : System.currentTimeMillis();
+            from = parameters.containsKey(FROM_PARAMETER) ? Long.parseLong(parameters.get(FROM_PARAMETER)) : to - DEFAULT_RANGE;
+        } catch (NumberFormatException e) {
+            throw new HttpStatusException(HTTP_BAD_REQUEST);
+        }
+        if (projectConfigurationId == null || (stackName == null) != (brickName == null) || from > to) {
+            throw new HttpStatusException(HTTP_BAD_REQUEST);
+        }
+
+        JsonObject res = new JsonObject();
+        res.addProperty("projectConfigurationId", projectConfigurationId);
+        res.addProperty("from", from);
+        res.addProperty("to", to);
+        if (stackName == null) {
+            res.add("availability", toJson(history.getProjectAvailability(projectConfigurationId, from, to)));
+        } else {
+            BrickStateKey key = new BrickStateKey(projectConfigurationId, stackName, brickName);
+            res.addProperty("stack", stackName);
+            res.addProperty("brickName", brickName);
+            res.add("availability", toJson(history.getAvailability(key, from, to)));
+            JsonArray transitions = new JsonArray();
+            history.getTransitions(key, from, to).forEach(transition -> {
+                JsonObject json = new JsonObject();
+                json.addProperty("timestamp", transition.getTimestamp());
+                json.addProperty("state", transition.getState().name());
+                transitions.add(json);
+            });
+            res.add("transitions", transitions);
+        }
+        return res.toString();
+    }
+
+    private static JsonObject toJson(BrickAvailability availability) {
+        JsonObject res = new JsonObject();
+        res.addProperty("observedTime", availability.getObservedTime());
+        JsonObject timeByState = new JsonObject();
+        for (BrickStateEvent.State state : BrickAvailability.STATES) {
+            long time = availability.getTime(state);
+            if (time > 0) {
+                timeByState.addProperty(state.name(), time);
+            }
+        }
+        res.add("timeByState", timeByState);
+        res.addProperty("uptime", availability.getUptime());
+        res.addProperty("failureCount", availability.getFailureCount());
+        res.addProperty("repairCount", availability.getRepairCount());
+        res.addProperty("meanTimeToRepair", availability.getMeanTimeToRepair());
+        return res;
+    }
+
+    private static final String PROJECT_CONFIGURATION_ID_PARAMETER = "projectConfigurationId";
+
+    private static final String STACK_PARAMETER = "stack";
+
+    private static final String BRICK_NAME_PARAMETER = "brickName";
+
+    private static final String FROM_PARAMETER = "from";
+
+    private static final String TO_PARAMETER = "to";
+
+    private static final long DEFAULT_RANGE = TimeUnit.DAYS.toMillis(1);
+
+}
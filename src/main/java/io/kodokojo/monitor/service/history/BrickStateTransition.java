@@ -0,0 +1,55 @@
+package io.kodokojo.monitor.service.history;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A brick entered a state at a given date.
+ */
+public final class BrickStateTransition {
+
+    private final long timestamp;
+
+    private final BrickStateEvent.State state;
+
+    public BrickStateTransition(long timestamp, BrickStateEvent.State state) {
+        requireNonNull(state, "state must be defined.");
+        this.timestamp = timestamp;
+        this.state = state;
+    }
+
+    /**
+     * @return date of the transition, in milliseconds since epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public BrickStateEvent.State getState() {
+        return state;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        BrickStateTransition that = (BrickStateTransition) o;
+
+        return timestamp == that.timestamp && state == that.state;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(timestamp) + state.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "BrickStateTransition{" +
+                "timestamp=" + timestamp +
+                ", state=" + state +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package io.kodokojo.monitor.service.history;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventRepository;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Record in a {@link BrickStateHistory} the changes returned by a delegate {@link BrickStateEventRepository}.
+ */
+public class HistoryRecordingBrickStateEventRepository implements BrickStateEventRepository {
+
+    private final BrickStateEventRepository delegate;
+
+    private final BrickStateHistory history;
+
+    public HistoryRecordingBrickStateEventRepository(BrickStateEventRepository delegate, BrickStateHistory history) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(history, "history must be defined.");
+        this.delegate = delegate;
+        this.history = history;
+    }
+
+    @Override
+    public Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents) {
+        Set<BrickStateEvent> res = delegate.compareAndUpdate(brickStateEvents);
+        history.record(res);
+        return res;
+    }
+
+    @Override
+    public Set<BrickStateEvent> update(Set<BrickStateEvent> brickStateEvents) {
+        Set<BrickStateEvent> res = delegate.update(brickStateEvents);
+        history.record(res);
+        return res;
+    }
+
+}
@@ -0,0 +1,21 @@
+package io.kodokojo.monitor.service.http;
+
+/**
+ * Thrown by a {@link ReadOnlyHttpHandler} to answer with an error status and no body.
+ */
+public class HttpStatusException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public HttpStatusException(int status) {
+        super("HTTP status " + status);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+}
@@ -0,0 +1,109 @@
+package io.kodokojo.monitor.service.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serve a read-only resource: <code>GET</code> is answered with the body built by {@link #read(String)}, any other
+ * method with a <code>405</code>.
+ */
+public abstract class ReadOnlyHttpHandler implements HttpHandler {
+
+    private final String contentType;
+
+    protected ReadOnlyHttpHandler(String contentType) {
+        requireNonNull(contentType, "contentType must be defined.");
+        this.contentType = contentType;
+    }
+
+    public static ReadOnlyHttpHandler of(String contentType, Resource resource) {
+        requireNonNull(resource, "resource must be defined.");
+        return new ReadOnlyHttpHandler(contentType) {
+            @Override
+            protected String read(String query) throws IOException, HttpStatusException {
+                return resource.read(query);
+            }
+        };
+    }
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!GET.equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(HTTP_METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+            byte[] body;
+            try {
+                body = read(exchange.getRequestURI().getRawQuery()).getBytes(StandardCharsets.UTF_8);
+            } catch (HttpStatusException e) {
+                exchange.sendResponseHeaders(e.getStatus(), -1);
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(HTTP_OK, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @param query raw query of the request URI, may be <code>null</code>.
+     * @return body of the response.
+     * @throws HttpStatusException to answer with another status than <code>200</code>.
+     */
+    protected abstract String read(String query) throws IOException, HttpStatusException;
+
+    /**
+     * @param query raw query of a request URI, may be <code>null</code>.
+     * @return decoded query parameters.
+     */
+    public static Map<String, String> readParameters(String query) throws UnsupportedEncodingException {
+        Map<String, String> res = new HashMap<>();
+        if (query == null) {
+            return res;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                res.put(URLDecoder.decode(parameter.substring(0, separator), UTF_8), URLDecoder.decode(parameter.substring(separator + 1), UTF_8));
+            }
+        }
+        return res;
+    }
+
+    @FunctionalInterface
+    public interface Resource {
+
+        String read(String query) throws IOException, HttpStatusException;
+
+    }
+
+    public static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    public static final int HTTP_BAD_REQUEST = 400;
+
+    public static final int HTTP_SERVICE_UNAVAILABLE = 503;
+
+    private static final String GET = "GET";
+
+    private static final String UTF_8 = "UTF-8";
+
+    private static final int HTTP_OK = 200;
+
+    private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+
+}
@@ -0,0 +1,168 @@
+package io.kodokojo.monitor.service.journal;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Log each brick state change emitted to a {@link TransitionLog} before publishing it with a delegate.
+ * <p>
+ * Changes are queued and appended by a dedicated writer, by batches of at most <code>maxBatchSize</code> synced
+ * together, so the tick never waits for the disk unless the queue is full. The writer compacts the log every
+ * <code>compactionInterval</code> milliseconds.
+ * </p>
+ */
+public class JournalingBrickStateEventPublisher implements BrickStateEventPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalingBrickStateEventPublisher.class);
+
+    private final BrickStateEventPublisher delegate;
+
+    private final TransitionLog transitionLog;
+
+    private final BlockingQueue<LoggedTransition> queue;
+
+    private final int maxBatchSize;
+
+    private final long compactionInterval;
+
+    private final LongAdder loggedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private volatile boolean started = false;
+
+    private Thread writer;
+
+    /**
+     * @param compactionInterval delay in milliseconds between two compactions, <code>0</code> to never compact.
+     */
+    public JournalingBrickStateEventPublisher(BrickStateEventPublisher delegate, TransitionLog transitionLog, int queueCapacity, int maxBatchSize, long compactionInterval) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(transitionLog, "transitionLog must be defined.");
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be greater than 0.");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0.");
+        }
+        this.delegate = delegate;
+        this.transitionLog = transitionLog;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.compactionInterval = compactionInterval;
+    }
+
+    @Override
+    public void publish(Set<BrickStateEvent> brickStateEvents) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        long now = System.currentTimeMillis();
+        try {
+            for (BrickStateEvent brickStateEvent : brickStateEvents) {
+                //  An audit log must not lose changes, a full queue slows the tick down instead.
+                queue.put(new LoggedTransition(now, brickStateEvent));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for room in transition log queue, some brick state changes are not logged.");
+        }
+        delegate.publish(brickStateEvents);
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        writer = new Thread(this::writeQueue, "transition-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the writer once queued changes are logged, waiting at most <code>timeout</code> milliseconds, then close the log.
+     */
+    public synchronized void stop(long timeout) {
+        if (!started) {
+            return;
+        }
+        started = false;
+        try {
+            writer.join(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            LOGGER.warn("Transition log writer not stopped after {}ms, {} changes may not be logged.", timeout, queue.size());
+        } else {
+            try {
+                transitionLog.close();
+            } catch (IOException e) {
+                LOGGER.warn("Unable to close transition log.", e);
+            }
+        }
+        writer = null;
+    }
+
+    private void writeQueue() {
+        List<LoggedTransition> batch = new ArrayList<>(maxBatchSize);
+        long lastCompaction = System.currentTimeMillis();
+        while (started || !queue.isEmpty()) {
+            LoggedTransition first;
+            try {
+                first = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                try {
+                    transitionLog.append(batch);
+                    loggedCount.add(batch.size());
+                } catch (IOException | RuntimeException e) {
+                    failedCount.add(batch.size());
+                    LOGGER.error("Unable to log {} brick state changes.", batch.size(), e);
+                }
+                batch.clear();
+            }
+            long now = System.currentTimeMillis();
+            if (compactionInterval > 0 && now - lastCompaction >= compactionInterval) {
+                lastCompaction = now;
+                try {
+                    transitionLog.compact();
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.error("Unable to compact transition log.", e);
+                }
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getLoggedCount() {
+        return loggedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    private static final long POLL_TIMEOUT = 200;
+
+}
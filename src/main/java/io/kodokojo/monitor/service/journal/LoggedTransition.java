@@ -0,0 +1,40 @@
+package io.kodokojo.monitor.service.journal;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A brick state change emitted by the monitor, with the date it was emitted.
+ */
+public final class LoggedTransition {
+
+    private final long timestamp;
+
+    private final BrickStateEvent brickStateEvent;
+
+    public LoggedTransition(long timestamp, BrickStateEvent brickStateEvent) {
+        requireNonNull(brickStateEvent, "brickStateEvent must be defined.");
+        this.timestamp = timestamp;
+        this.brickStateEvent = brickStateEvent;
+    }
+
+    /**
+     * @return emission date, in milliseconds since epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public BrickStateEvent getBrickStateEvent() {
+        return brickStateEvent;
+    }
+
+    @Override
+    public String toString() {
+        return "LoggedTransition{" +
+                "timestamp=" + timestamp +
+                ", brickStateEvent=" + brickStateEvent +
+                '}';
+    }
+}
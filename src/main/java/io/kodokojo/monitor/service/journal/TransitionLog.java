@@ -0,0 +1,438 @@
+package io.kodokojo.monitor.service.journal;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Append-only log of brick state transitions, split in numbered segment files.
+ * <p>
+ * Each record is its length, its content then a checksum of its content. A batch of records is written with a single
+ * channel write followed by a single sync. Once the active segment exceeds <code>segmentSize</code> a new one is
+ * started; an incomplete record left at the end of the active segment by a crash is truncated on open.
+ * </p>
+ * <p>
+ * Compaction rewrites sealed segments down to the latest transition of each brick, into the newest of them, then
+ * deletes the older ones. Bricks whose latest transition is {@link BrickStateEvent.State#STOPPED} were removed, they
+ * are dropped. The compacted segment is marked in its header, so older segments left by a crash before their deletion
+ * are deleted on open rather than replayed.
+ * </p>
+ */
+public class TransitionLog implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransitionLog.class);
+
+    private static final BrickStateEvent.State[] STATES = BrickStateEvent.State.values();
+
+    private final Path directory;
+
+    private final long segmentSize;
+
+    private final List<Path> sealedSegments = new ArrayList<>();
+
+    private final CRC32 crc = new CRC32();
+
+    private Path activeSegment;
+
+    private long activeSegmentNumber;
+
+    private FileChannel channel;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    private long appendedCount = 0;
+
+    /**
+     * @param segmentSize size in bytes from which the active segment is sealed.
+     */
+    public TransitionLog(Path directory, long segmentSize) throws IOException {
+        requireNonNull(directory, "directory must be defined.");
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("segmentSize must be greater than 0.");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        open();
+    }
+
+    private void open() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String fileName = path.getFileName().toString();
+                if (fileName.endsWith(COMPACTING_SUFFIX)) {
+                    //  Left by a compaction interrupted before its move, segments it was reading are intact.
+                    Files.delete(path);
+                } else if (fileName.endsWith(SEGMENT_SUFFIX)) {
+                    segments.add(path);
+                }
+            }
+        }
+        segments.sort((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        for (int i = segments.size() - 1; i > 0; i--) {
+            if (isCompacted(segments.get(i))) {
+                //  Left by a compaction interrupted before deleting them, the compacted segment supersedes them.
+                List<Path> superseded = segments.subList(0, i);
+                for (Path segment : superseded) {
+                    LOGGER.info("Delete transition log segment {}, already compacted.", segment);
+                    Files.delete(segment);
+                }
+                superseded.clear();
+                break;
+            }
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+            return;
+        }
+        activeSegment = segments.remove(segments.size() - 1);
+        activeSegmentNumber = segmentNumber(activeSegment);
+        sealedSegments.addAll(segments);
+        long validSize = scan(activeSegment, transition -> {
+        });
+        channel = FileChannel.open(activeSegment, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (validSize < channel.size()) {
+            LOGGER.warn("Truncate transition log segment {} from {} to {} bytes, its end was not completely written.", activeSegment, channel.size(), validSize);
+        }
+        if (validSize < HEADER_SIZE) {
+            channel.truncate(0);
+            writeHeader(channel);
+        } else {
+            channel.truncate(validSize);
+            channel.position(validSize);
+        }
+    }
+
+    /**
+     * Append transitions then sync them to disk.
+     */
+    public synchronized void append(Collection<LoggedTransition> transitions) throws IOException {
+        requireNonNull(transitions, "transitions must be defined.");
+        if (transitions.isEmpty()) {
+            return;
+        }
+        buffer.clear();
+        for (LoggedTransition transition : transitions) {
+            encode(transition);
+        }
+        write(channel);
+        channel.force(false);
+        appendedCount += transitions.size();
+        if (channel.size() >= segmentSize) {
+            roll();
+        }
+    }
+
+    /**
+     * Rewrite sealed segments down to the latest transition of each brick.
+     * @return <code>true</code> if segments were compacted.
+     */
+    public synchronized boolean compact() throws IOException {
+        if (sealedSegments.size() < 2) {
+            return false;
+        }
+        Map<BrickStateKey, LoggedTransition> latest = new LinkedHashMap<>();
+        for (Path segment : sealedSegments) {
+            scan(segment, transition -> {
+                BrickStateKey key = BrickStateKey.from(transition.getBrickStateEvent());
+                //  Re-inserted so transitions stay ordered by their last occurrence.
+                latest.remove(key);
+                latest.put(key, transition);
+            });
+        }
+        latest.values().removeIf(transition -> transition.getBrickStateEvent().getState() == BrickStateEvent.State.STOPPED);
+        Path target = sealedSegments.get(sealedSegments.size() - 1);
+        Path tmp = target.resolveSibling(target.getFileName() + COMPACTING_SUFFIX);
+        try (FileChannel output = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(output, COMPACTED_FORMAT_VERSION);
+            buffer.clear();
+            for (LoggedTransition transition : latest.values()) {
+                encode(transition);
+                if (buffer.position() >= FLUSH_THRESHOLD) {
+                    write(output);
+                    buffer.clear();
+                }
+            }
+            write(output);
+            output.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        int compactedSegmentCount = sealedSegments.size();
+        for (Path segment : sealedSegments.subList(0, compactedSegmentCount - 1)) {
+            Files.deleteIfExists(segment);
+        }
+        sealedSegments.clear();
+        sealedSegments.add(target);
+        LOGGER.info("Compacted {} transition log segments into {}, {} transitions kept.", compactedSegmentCount, target, latest.size());
+        return true;
+    }
+
+    /**
+     * Read all transitions, oldest first.
+     */
+    public synchronized void replay(Consumer<LoggedTransition> consumer) throws IOException {
+        requireNonNull(consumer, "consumer must be defined.");
+        for (Path segment : sealedSegments) {
+            scan(segment, consumer);
+        }
+        scan(activeSegment, consumer);
+    }
+
+    /**
+     * Read transitions emitted within <code>[from, to)</code>, oldest first.
+     */
+    public void replay(long from, long to, Consumer<LoggedTransition> consumer) throws IOException {
+        requireNonNull(consumer, "consumer must be defined.");
+        replay(transition -> {
+            if (transition.getTimestamp() >= from && transition.getTimestamp() < to) {
+                consumer.accept(transition);
+            }
+        });
+    }
+
+    /**
+     * @return last logged state of each brick not removed, to restore a repository.
+     */
+    public Set<BrickStateEvent> latestStates() throws IOException {
+        Map<BrickStateKey, BrickStateEvent> latest = new LinkedHashMap<>();
+        replay(transition -> latest.put(BrickStateKey.from(transition.getBrickStateEvent()), transition.getBrickStateEvent()));
+        Set<BrickStateEvent> res = new HashSet<>();
+        for (BrickStateEvent brickStateEvent : latest.values()) {
+            if (brickStateEvent.getState() != BrickStateEvent.State.STOPPED) {
+                res.add(brickStateEvent);
+            }
+        }
+        return res;
+    }
+
+    public synchronized int getSegmentCount() {
+        return sealedSegments.size() + 1;
+    }
+
+    public synchronized long getAppendedCount() {
+        return appendedCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        sealedSegments.add(activeSegment);
+        openSegment(activeSegmentNumber + 1);
+    }
+
+    private void openSegment(long number) throws IOException {
+        activeSegmentNumber = number;
+        activeSegment = directory.resolve(String.format(SEGMENT_NAME_FORMAT, number));
+        channel = FileChannel.open(activeSegment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeHeader(channel);
+        channel.force(true);
+    }
+
+    /**
+     * Read valid records of a segment, stopping at the first incomplete or corrupted one.
+     * @return size in bytes of the valid part of segment.
+     */
+    private long scan(Path segment, Consumer<LoggedTransition> consumer) throws IOException {
+        try (FileChannel input = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = input.size();
+            if (size < HEADER_SIZE) {
+                return 0;
+            }
+            MappedByteBuffer mapped = input.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int magic = mapped.getInt();
+            byte version = mapped.get();
+            if (magic != MAGIC || (version != FORMAT_VERSION && version != COMPACTED_FORMAT_VERSION)) {
+                LOGGER.warn("Transition log segment {} has an unknown format, ignoring it.", segment);
+                return 0;
+            }
+            CRC32 checksum = new CRC32();
+            while (mapped.remaining() >= Integer.BYTES) {
+                int start = mapped.position();
+                int length = mapped.getInt();
+                if (length <= 0 || length > mapped.remaining() - Integer.BYTES) {
+                    mapped.position(start);
+                    break;
+                }
+                ByteBuffer content = mapped.slice();
+                content.limit(length);
+                checksum.reset();
+                checksum.update(content.duplicate());
+                mapped.position(mapped.position() + length);
+                if ((int) checksum.getValue() != mapped.getInt()) {
+                    LOGGER.warn("Transition log segment {} is corrupted at offset {}, ignoring its end.", segment, start);
+                    mapped.position(start);
+                    break;
+                }
+                LoggedTransition transition;
+                try {
+                    transition = decode(content);
+                } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+                    LOGGER.warn("Transition log segment {} is inconsistent at offset {}, ignoring its end.", segment, start, e);
+                    mapped.position(start);
+                    break;
+                }
+                consumer.accept(transition);
+            }
+            return mapped.position();
+        }
+    }
+
+    private void encode(LoggedTransition transition) {
+        BrickStateEvent brickStateEvent = transition.getBrickStateEvent();
+        byte[][] values = {
+                bytesOf(brickStateEvent.getProjectConfigurationIdentifier()),
+                bytesOf(brickStateEvent.getStackName()),
+                bytesOf(brickStateEvent.getBrickType()),
+                bytesOf(brickStateEvent.getBrickName()),
+                bytesOf(brickStateEvent.getUrl()),
+                bytesOf(brickStateEvent.getVersion())
+        };
+        int length = Long.BYTES + 1;
+        for (byte[] value : values) {
+            length += Integer.BYTES + (value == null ? 0 : value.length);
+        }
+        ensureCapacity(Integer.BYTES + length + Integer.BYTES);
+        buffer.putInt(length);
+        int start = buffer.position();
+        buffer.putLong(transition.getTimestamp());
+        buffer.put((byte) brickStateEvent.getState().ordinal());
+        for (byte[] value : values) {
+            if (value == null) {
+                buffer.putInt(NULL_LENGTH);
+            } else {
+                buffer.putInt(value.length);
+                buffer.put(value);
+            }
+        }
+        crc.reset();
+        crc.update(buffer.array(), buffer.arrayOffset() + start, length);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private static LoggedTransition decode(ByteBuffer content) {
+        long timestamp = content.getLong();
+        BrickStateEvent.State state = STATES[content.get()];
+        String projectConfigurationIdentifier = readString(content);
+        String stackName = readString(content);
+        String brickType = readString(content);
+        String brickName = readString(content);
+        String url = readString(content);
+        String version = readString(content);
+        return new LoggedTransition(timestamp, new BrickStateEvent(projectConfigurationIdentifier, stackName, brickType, brickName, state, url, version));
+    }
+
+    private void ensureCapacity(int size) {
+        if (buffer.remaining() < size) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private void write(FileChannel output) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+    }
+
+    private static boolean isCompacted(Path segment) throws IOException {
+        try (FileChannel input = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && input.read(header) >= 0) {
+                //  Read until header is full or segment ends.
+            }
+            header.flip();
+            return header.remaining() == HEADER_SIZE && header.getInt() == MAGIC && header.get() == COMPACTED_FORMAT_VERSION;
+        }
+    }
+
+    private static void writeHeader(FileChannel output) throws IOException {
+        writeHeader(output, FORMAT_VERSION);
+    }
+
+    private static void writeHeader(FileChannel output, byte version) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.put(version);
+        header.flip();
+        while (header.hasRemaining()) {
+            output.write(header);
+        }
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer content) {
+        int length = content.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        content.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long segmentNumber(Path segment) {
+        String fileName = segment.getFileName().toString();
+        return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final int MAGIC = 0x4B4B544C;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    //  Same record format, written by compaction.
+    private static final byte COMPACTED_FORMAT_VERSION = 2;
+
+    private static final int HEADER_SIZE = Integer.BYTES + 1;
+
+    private static final int NULL_LENGTH = -1;
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private static final int FLUSH_THRESHOLD = 1024 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String SEGMENT_NAME_FORMAT = "%020d" + SEGMENT_SUFFIX;
+
+    private static final String COMPACTING_SUFFIX = ".compacting";
+
+}
@@ -0,0 +1,179 @@
+package io.kodokojo.monitor.service.marathon;
+
+import io.kodokojo.commons.model.BrickConfiguration;
+import io.kodokojo.commons.service.BrickFactory;
+import io.kodokojo.commons.service.BrickUrlFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Memoize brick metadata computed by {@link BrickFactory} and {@link BrickUrlFactory}.
+ * <p>
+ * Type and version of a brick are cached by brick name, urls by project, stack, type and brick name. Both caches are
+ * bounded, least recently used entries are evicted first. Cached strings are interned, so a lookup of unchanged bricks
+ * returns the same instances on each tick and allocates nothing.
+ * </p>
+ */
+public class BrickMetadataCache {
+
+    private final BrickFactory brickFactory;
+
+    private final BrickUrlFactory brickUrlFactory;
+
+    private final Map<String, BrickMetadata> brickMetadataByName;
+
+    private final Map<UrlKey, String> urlByKey;
+
+    //  Reused to look up urls without allocating a key, only accessed while holding the urlByKey lock.
+    private final UrlKey urlProbe = new UrlKey();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    public BrickMetadataCache(BrickFactory brickFactory, BrickUrlFactory brickUrlFactory, int maxSize) {
+        requireNonNull(brickFactory, "brickFactory must be defined.");
+        requireNonNull(brickUrlFactory, "brickUrlFactory must be defined.");
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0.");
+        }
+        this.brickFactory = brickFactory;
+        this.brickUrlFactory = brickUrlFactory;
+        this.brickMetadataByName = new LruMap<>(maxSize);
+        this.urlByKey = new LruMap<>(maxSize);
+    }
+
+    public BrickMetadata getBrickMetadata(String brickName) {
+        requireNonNull(brickName, "brickName must be defined.");
+        synchronized (brickMetadataByName) {
+            BrickMetadata brickMetadata = brickMetadataByName.get(brickName);
+            if (brickMetadata != null) {
+                hitCount.increment();
+                return brickMetadata;
+            }
+        }
+        missCount.increment();
+        BrickConfiguration brickConfiguration = brickFactory.createBrick(brickName);
+        BrickMetadata brickMetadata = new BrickMetadata(intern(brickConfiguration.getType().name()), intern(brickConfiguration.getVersion()));
+        synchronized (brickMetadataByName) {
+            brickMetadataByName.put(brickName, brickMetadata);
+        }
+        return brickMetadata;
+    }
+
+    public String getUrl(String projectName, String stackName, String brickType, String brickName) {
+        synchronized (urlByKey) {
+            String url = urlByKey.get(urlProbe.set(projectName, stackName, brickType, brickName));
+            if (url != null) {
+                hitCount.increment();
+                return url;
+            }
+        }
+        missCount.increment();
+        String url = intern(brickUrlFactory.forgeUrl(projectName, stackName, brickType, brickName));
+        if (url != null) {
+            synchronized (urlByKey) {
+                urlByKey.put(new UrlKey().set(projectName, stackName, brickType, brickName), url);
+            }
+        }
+        return url;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    public static final class BrickMetadata {
+
+        private final String type;
+
+        private final String version;
+
+        BrickMetadata(String type, String version) {
+            this.type = type;
+            this.version = version;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+    }
+
+    private static final class UrlKey {
+
+        private String projectName;
+
+        private String stackName;
+
+        private String brickType;
+
+        private String brickName;
+
+        private int hash;
+
+        UrlKey set(String projectName, String stackName, String brickType, String brickName) {
+            this.projectName = projectName;
+            this.stackName = stackName;
+            this.brickType = brickType;
+            this.brickName = brickName;
+            //  Not Objects.hash() which allocates its varargs array.
+            int h = Objects.hashCode(projectName);
+            h = 31 * h + Objects.hashCode(stackName);
+            h = 31 * h + Objects.hashCode(brickType);
+            this.hash = 31 * h + Objects.hashCode(brickName);
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof UrlKey)) return false;
+            UrlKey that = (UrlKey) o;
+            return hash == that.hash &&
+                    Objects.equals(brickName, that.brickName) &&
+                    Objects.equals(projectName, that.projectName) &&
+                    Objects.equals(stackName, that.stackName) &&
+                    Objects.equals(brickType, that.brickType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+}
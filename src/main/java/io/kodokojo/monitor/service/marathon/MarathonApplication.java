@@ -0,0 +1,93 @@
+package io.kodokojo.monitor.service.marathon;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Subset of a Marathon application definition needed to compute the state of a brick managed by Kodo Kojo.
+ */
+public class MarathonApplication {
+
+    private final String id;
+
+    private final int instances;
+
+    private final int tasksHealthy;
+
+    private final int tasksUnhealthy;
+
+    private final int tasksStaged;
+
+    private final int tasksRunning;
+
+    public MarathonApplication(String id, int instances, int tasksHealthy, int tasksUnhealthy, int tasksStaged, int tasksRunning) {
+        requireNonNull(id, "id must be defined.");
+        this.id = id;
+        this.instances = instances;
+        this.tasksHealthy = tasksHealthy;
+        this.tasksUnhealthy = tasksUnhealthy;
+        this.tasksStaged = tasksStaged;
+        this.tasksRunning = tasksRunning;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getInstances() {
+        return instances;
+    }
+
+    public int getTasksHealthy() {
+        return tasksHealthy;
+    }
+
+    public int getTasksUnhealthy() {
+        return tasksUnhealthy;
+    }
+
+    public int getTasksStaged() {
+        return tasksStaged;
+    }
+
+    public int getTasksRunning() {
+        return tasksRunning;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        MarathonApplication that = (MarathonApplication) o;
+
+        if (instances != that.instances) return false;
+        if (tasksHealthy != that.tasksHealthy) return false;
+        if (tasksUnhealthy != that.tasksUnhealthy) return false;
+        if (tasksStaged != that.tasksStaged) return false;
+        if (tasksRunning != that.tasksRunning) return false;
+        return id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = id.hashCode();
+        result = 31 * result + instances;
+        result = 31 * result + tasksHealthy;
+        result = 31 * result + tasksUnhealthy;
+        result = 31 * result + tasksStaged;
+        result = 31 * result + tasksRunning;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "MarathonApplication{" +
+                "id='" + id + '\'' +
+                ", instances=" + instances +
+                ", tasksHealthy=" + tasksHealthy +
+                ", tasksUnhealthy=" + tasksUnhealthy +
+                ", tasksStaged=" + tasksStaged +
+                ", tasksRunning=" + tasksRunning +
+                '}';
+    }
+}
@@ -0,0 +1,185 @@
+package io.kodokojo.monitor.service.marathon;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pull parser of the Marathon <code>/v2/apps</code> response.
+ * <p>
+ * Only applications labelled <code>managedByKodoKojoHa</code> are materialized, every other application and every
+ * attribute not needed to compute a brick state are skipped while reading the stream.
+ * </p>
+ */
+public class MarathonApplicationParser {
+
+    public void parseApplications(Reader reader, Consumer<MarathonApplication> consumer) throws IOException {
+        requireNonNull(reader, "reader must be defined.");
+        requireNonNull(consumer, "consumer must be defined.");
+
+        JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (APPS.equals(name) && jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    MarathonApplication application = readApplication(jsonReader);
+                    if (application != null) {
+                        consumer.accept(application);
+                    }
+                }
+                jsonReader.endArray();
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+    }
+
+    /**
+     * Parse the response of a single application request, <code>/v2/apps/{appId}</code>.
+     * @param reader response body.
+     * @return the application, or <code>null</code> if application isn't managed by Kodo Kojo.
+     */
+    public MarathonApplication parseApplication(Reader reader) throws IOException {
+        requireNonNull(reader, "reader must be defined.");
+
+        MarathonApplication res = null;
+        JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (APP.equals(name)) {
+                res = readApplication(jsonReader);
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return res;
+    }
+
+    /**
+     * Read an application object.
+     * @param jsonReader reader positioned on the application object.
+     * @return the application, or <code>null</code> if application isn't managed by Kodo Kojo.
+     */
+    private MarathonApplication readApplication(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+            jsonReader.skipValue();
+            return null;
+        }
+        String id = null;
+        boolean managed = false;
+        int instances = 0;
+        int tasksHealthy = 0;
+        int tasksUnhealthy = 0;
+        int tasksStaged = 0;
+        int tasksRunning = 0;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            switch (name) {
+                case ID:
+                    id = readString(jsonReader);
+                    break;
+                case LABELS:
+                    managed = readManagedLabel(jsonReader);
+                    break;
+                case INSTANCES:
+                    instances = readInt(jsonReader);
+                    break;
+                case TASKS_HEALTHY:
+                    tasksHealthy = readInt(jsonReader);
+                    break;
+                case TASKS_UNHEALTHY:
+                    tasksUnhealthy = readInt(jsonReader);
+                    break;
+                case TASKS_STAGED:
+                    tasksStaged = readInt(jsonReader);
+                    break;
+                case TASKS_RUNNING:
+                    tasksRunning = readInt(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        if (!managed || id == null) {
+            return null;
+        }
+        return new MarathonApplication(id, instances, tasksHealthy, tasksUnhealthy, tasksStaged, tasksRunning);
+    }
+
+    private static boolean readManagedLabel(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+            jsonReader.skipValue();
+            return false;
+        }
+        boolean managed = false;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (MANAGED_BY_KODO_KOJO_HA.equals(name)) {
+                JsonToken token = jsonReader.peek();
+                if (token == JsonToken.BOOLEAN) {
+                    managed = jsonReader.nextBoolean();
+                } else if (token == JsonToken.STRING) {
+                    managed = Boolean.parseBoolean(jsonReader.nextString());
+                } else {
+                    jsonReader.skipValue();
+                }
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return managed;
+    }
+
+    private static String readString(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.STRING) {
+            return jsonReader.nextString();
+        }
+        jsonReader.skipValue();
+        return null;
+    }
+
+    private static int readInt(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NUMBER) {
+            return jsonReader.nextInt();
+        }
+        jsonReader.skipValue();
+        return 0;
+    }
+
+    private static final String APPS = "apps";
+
+    private static final String APP = "app";
+
+    private static final String LABELS = "labels";
+
+    private static final String MANAGED_BY_KODO_KOJO_HA = "managedByKodoKojoHa";
+
+    private static final String ID = "id";
+
+    private static final String TASKS_HEALTHY = "tasksHealthy";
+
+    private static final String TASKS_UNHEALTHY = "tasksUnhealthy";
+
+    private static final String TASKS_STAGED = "tasksStaged";
+
+    private static final String TASKS_RUNNING = "tasksRunning";
+
+    private static final String INSTANCES = "instances";
+
+}
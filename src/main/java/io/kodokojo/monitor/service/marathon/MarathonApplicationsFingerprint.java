@@ -0,0 +1,61 @@
+package io.kodokojo.monitor.service.marathon;
+
+/**
+ * Order independent fingerprint of the managed applications returned by Marathon.
+ * <p>
+ * Only what is used to compute brick states is fingerprinted, unrelated changes such as task timestamps or unmanaged
+ * applications don't change it.
+ * </p>
+ */
+final class MarathonApplicationsFingerprint {
+
+    private int count;
+
+    private long sum;
+
+    private long xor;
+
+    void add(MarathonApplication application) {
+        long hash = hash(application);
+        count++;
+        sum += hash;
+        xor ^= Long.rotateLeft(hash, 17);
+    }
+
+    private static long hash(MarathonApplication application) {
+        long hash = FNV_OFFSET_BASIS;
+        String id = application.getId();
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * FNV_PRIME;
+        }
+        hash = (hash ^ application.getInstances()) * FNV_PRIME;
+        hash = (hash ^ application.getTasksHealthy()) * FNV_PRIME;
+        hash = (hash ^ application.getTasksUnhealthy()) * FNV_PRIME;
+        hash = (hash ^ application.getTasksStaged()) * FNV_PRIME;
+        hash = (hash ^ application.getTasksRunning()) * FNV_PRIME;
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        MarathonApplicationsFingerprint that = (MarathonApplicationsFingerprint) o;
+
+        return count == that.count && sum == that.sum && xor == that.xor;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = count;
+        result = 31 * result + (int) (sum ^ (sum >>> 32));
+        result = 31 * result + (int) (xor ^ (xor >>> 32));
+        return result;
+    }
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+}
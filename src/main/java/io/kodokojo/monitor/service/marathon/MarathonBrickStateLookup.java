@@ -1,33 +1,50 @@
 package io.kodokojo.monitor.service.marathon;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import io.kodokojo.commons.config.MarathonConfig;
-import io.kodokojo.commons.model.BrickConfiguration;
 import io.kodokojo.commons.model.Project;
 import io.kodokojo.commons.model.ProjectConfiguration;
 import io.kodokojo.commons.service.BrickFactory;
 import io.kodokojo.commons.service.BrickUrlFactory;
 import io.kodokojo.commons.service.actor.message.BrickStateEvent;
-import io.kodokojo.commons.service.repository.ProjectFetcher;
+import io.kodokojo.monitor.config.MarathonLookupConfig;
 import io.kodokojo.monitor.service.BrickStateLookup;
+import io.kodokojo.monitor.service.BrickStateLookupResult;
+import io.kodokojo.monitor.service.metrics.Counter;
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import io.kodokojo.monitor.service.project.ProjectResolver;
+import io.kodokojo.monitor.service.project.ResolvedProject;
+import io.kodokojo.monitor.service.shard.ShardOwnership;
+import io.kodokojo.monitor.service.trace.TickTrace;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.inject.Inject;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import static java.util.Objects.requireNonNull;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
@@ -38,83 +55,237 @@ public class MarathonBrickStateLookup implements BrickStateLookup {
 
     private final MarathonConfig marathonConfig;
 
-    private final ProjectFetcher projectFetcher;
+    private final ProjectResolver projectResolver;
 
-    private final BrickFactory brickFactory;
-
-    private final BrickUrlFactory brickUrlFactory;
+    private final BrickMetadataCache brickMetadataCache;
 
     private final OkHttpClient httpClient;
 
-    @Inject
-    public MarathonBrickStateLookup(MarathonConfig marathonConfig, ProjectFetcher projectFetcher, BrickFactory brickFactory, BrickUrlFactory brickUrlFactory, OkHttpClient httpClient) {
+    private final MarathonFetchMode fetchMode;
+
+    private final String labelSelector;
+
+    private final long fastPathMaxAge;
+
+    private final ShardOwnership shardOwnership;
+
+    private final MonitorMetrics metrics;
+
+    private final MarathonApplicationParser applicationParser = new MarathonApplicationParser();
+
+    private final LongAdder fastPathHitCount = new LongAdder();
+
+    private final LongAdder fastPathMissCount = new LongAdder();
+
+    //  State of the previous full lookup, used to short-circuit resolution when Marathon didn't change.
+
+    private Map<String, BrickStateEvent> previousBrickStates;
+
+    private MarathonApplicationsFingerprint previousFingerprint;
+
+    private long previousResolutionDate;
+
+    private String previousETag;
+
+    private String previousLastModified;
+
+    private String responseETag;
+
+    private String responseLastModified;
+
+    private boolean notModified;
+
+    public MarathonBrickStateLookup(MarathonConfig marathonConfig, ProjectResolver projectResolver, BrickFactory brickFactory, BrickUrlFactory brickUrlFactory, OkHttpClient httpClient, Options options) {
         requireNonNull(marathonConfig, "marathonConfig must be defined.");
-        requireNonNull(projectFetcher, "projectFetcher must be defined.");
-        requireNonNull(brickFactory, "brickFactory must be defined.");
-        requireNonNull(brickUrlFactory, "brickUrlFactory must be defined.");
+        requireNonNull(projectResolver, "projectResolver must be defined.");
         requireNonNull(httpClient, "httpClient must be defined.");
-        this.projectFetcher = projectFetcher;
-        this.brickFactory = brickFactory;
-        this.brickUrlFactory = brickUrlFactory;
+        requireNonNull(options, "options must be defined.");
+        this.projectResolver = projectResolver;
+        this.brickMetadataCache = new BrickMetadataCache(brickFactory, brickUrlFactory, options.brickMetadataCacheSize);
         this.marathonConfig = marathonConfig;
         this.httpClient = httpClient;
+        this.fetchMode = options.fetchMode;
+        this.labelSelector = options.labelSelector;
+        this.fastPathMaxAge = options.fastPathMaxAge;
+        this.shardOwnership = options.shardOwnership;
+        this.metrics = options.metrics;
     }
 
     @Override
     public Set<BrickStateEvent> lookup() {
+        return lookupResult().getBrickStateEvents();
+    }
 
-        Set<BrickStateEvent> res = new HashSet<>();
-
-        String body = fetchMarathon();
+    /**
+     * @return a failed result, without brick, if Marathon can't be reached or its response can't be read.
+     */
+    @Override
+    public BrickStateLookupResult lookupResult() {
+        try {
+            return BrickStateLookupResult.complete(new HashSet<>(fetchBrickStates().values()));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("An error occur while trying to read Marathon applications from url {}.", marathonConfig.url(), e);
+        }
+        return BrickStateLookupResult.failed(new HashSet<>());
+    }
 
-        JsonParser parser = new JsonParser();
+    /**
+     * Fetch all the applications defined in Marathon and compute the state of managed bricks.
+     * <p>
+     * When Marathon answers not modified, or when managed applications are the same as on the previous call, bricks are
+     * not resolved again and the previous result is returned, as long as it is younger than the fast path max age.
+     * Otherwise the distinct projects of all applications are resolved in a single batch before brick states are computed.
+     * When sharded, applications of projects owned by other instances are skipped before resolution.
+     * </p>
+     * @return brick states indexed by Marathon application id.
+     * @throws IOException if Marathon can't be reached or its response can't be read.
+     */
+    public synchronized Map<String, BrickStateEvent> fetchBrickStates() throws IOException {
+        List<MarathonApplication> applications = new ArrayList<>();
+        MarathonApplicationsFingerprint fingerprint = new MarathonApplicationsFingerprint();
+
+        try (Reader body = fetchMarathon()) {
+            if (notModified && previousBrickStates != null) {
+                return fastPathHit("Marathon respond not modified");
+            }
+            if (body == null) {
+                throw new IOException("Unable to fetch Marathon applications from url " + marathonConfig.url() + ".");
+            }
+            long parseStart = System.nanoTime();
+            applicationParser.parseApplications(body, app -> {
+                applications.add(app);
+                fingerprint.add(app);
+            });
+            metrics.getMarathonParseTime().recordSince(parseStart);
+            TickTrace.span(PARSE_SPAN, parseStart);
+        }
 
-        if (StringUtils.isNotBlank(body)) {
+        long now = System.currentTimeMillis();
+        if (previousBrickStates != null && fingerprint.equals(previousFingerprint) && isFastPathAllowed(now)) {
+            return fastPathHit("managed applications didn't change");
+        }
+        fastPathMissCount.increment();
+        metrics.getMarathonFastPathMisses().increment();
 
-            JsonObject root = (JsonObject) parser.parse(body);
-            JsonArray apps = root.getAsJsonArray(APPS);
+        Map<String, BrickStateEvent> res = processMarathonApplications(applications);
 
-            for (JsonElement el : apps) {
-                JsonObject app = (JsonObject) el;
-                Optional<BrickStateEvent> brickStateEvent = processMarathonApplication(app);
-                brickStateEvent.ifPresent(res::add);
-            }
-        }
+        previousBrickStates = res;
+        previousFingerprint = fingerprint;
+        previousResolutionDate = now;
+        previousETag = responseETag;
+        previousLastModified = responseLastModified;
+        return new HashMap<>(res);
+    }
 
-        return res;
+    /**
+     * @return number of full lookups which reused previous result.
+     */
+    public long getFastPathHitCount() {
+        return fastPathHitCount.sum();
     }
 
-    private Optional<BrickStateEvent> processMarathonApplication(JsonObject app) {
-        if (app.has(ID) &&
-                app.has(LABELS) &&
-                app.getAsJsonObject(LABELS).has(MANAGED_BY_KODO_KOJO_HA) &&
-                app.getAsJsonObject(LABELS).getAsJsonPrimitive(MANAGED_BY_KODO_KOJO_HA).getAsBoolean()
-                ) {
+    /**
+     * @return number of full lookups which resolved bricks.
+     */
+    public long getFastPathMissCount() {
+        return fastPathMissCount.sum();
+    }
 
-            String id = app.getAsJsonPrimitive(ID).getAsString();
-            String[] splitedId = id.substring(1).split(SEPARATOR);
-            if (splitedId.length == NB_ELEMENT_EXPECTED) {
-                String projectName = splitedId[PROJECT_NAME_INDEX];
-                String brickName = splitedId[BRICK_NAME_INDEX];
+    private Map<String, BrickStateEvent> fastPathHit(String reason) {
+        fastPathHitCount.increment();
+        metrics.getMarathonFastPathHits().increment();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reuse previous brick states, {}.", reason);
+        }
+        return new HashMap<>(previousBrickStates);
+    }
 
-                BrickStateEvent.State state = computeBrickState(app);
+    private boolean isFastPathAllowed(long now) {
+        return now - previousResolutionDate < fastPathMaxAge;
+    }
 
-                return computeBrickStateEvent(projectName, brickName, state);
+    /**
+     * Fetch a single Marathon application and compute its brick state.
+     * @param applicationId Marathon application id, as <code>/project/brick</code>.
+     * @return the brick state, empty if application doesn't exist anymore or isn't a managed brick.
+     * @throws IOException if Marathon can't be reached or its response can't be read.
+     */
+    public Optional<BrickStateEvent> fetchBrickState(String applicationId) throws IOException {
+        requireNonNull(applicationId, "applicationId must be defined.");
+
+        HttpUrl url = HttpUrl.parse(marathonConfig.url() + V2_APPS_PATH + applicationId).newBuilder()
+                .addQueryParameter(EMBED_PARAMETER, EMBED_APP_COUNTS)
+                .build();
+        try (Response response = httpClient.newCall(newRequest(url).get().build()).execute()) {
+            if (response.code() == HTTP_NOT_FOUND) {
+                return Optional.empty();
             }
+            if (!response.isSuccessful()) {
+                throw new IOException("Unable to fetch Marathon application " + applicationId + ", Marathon respond with status code " + response.code() + ".");
+            }
+            MarathonApplication application = applicationParser.parseApplication(response.body().charStream());
+            if (application == null) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(processMarathonApplications(Collections.singletonList(application)).get(application.getId()));
         }
-        return Optional.empty();
     }
 
-    private Optional<BrickStateEvent> computeBrickStateEvent(String projectName, String brickName, BrickStateEvent.State state) {
-        ProjectConfiguration projectConfiguration = projectFetcher.getProjectConfigurationByName(projectName);
+    /**
+     * Compute brick states of applications in two phases: collect distinct project names, resolve them all in a single
+     * call, then compute each brick state from resolved projects.
+     * @return brick states indexed by Marathon application id.
+     */
+    private Map<String, BrickStateEvent> processMarathonApplications(List<MarathonApplication> applications) {
+        Set<String> projectNames = new HashSet<>();
+        for (MarathonApplication app : applications) {
+            String[] splitedId = splitApplicationId(app);
+            if (splitedId != null && isOwned(splitedId[PROJECT_NAME_INDEX])) {
+                projectNames.add(splitedId[PROJECT_NAME_INDEX]);
+            }
+        }
+        if (projectNames.isEmpty()) {
+            return new HashMap<>();
+        }
 
-        if (projectConfiguration == null) {
-            return Optional.empty();
+        Map<String, ResolvedProject> resolvedProjects = projectResolver.resolveProjects(projectNames);
+
+        Map<String, BrickStateEvent> res = new HashMap<>();
+        for (MarathonApplication app : applications) {
+            String[] splitedId = splitApplicationId(app);
+            if (splitedId != null) {
+                ResolvedProject resolvedProject = resolvedProjects.get(splitedId[PROJECT_NAME_INDEX]);
+                if (resolvedProject != null) {
+                    if (shardOwnership != null) {
+                        shardOwnership.registerProject(resolvedProject.getProjectConfiguration().getIdentifier(), splitedId[PROJECT_NAME_INDEX]);
+                    }
+                    BrickStateEvent.State state = computeBrickState(app);
+                    computeBrickStateEvent(resolvedProject, splitedId[BRICK_NAME_INDEX], state)
+                            .ifPresent(brickStateEvent -> res.put(app.getId(), brickStateEvent));
+                }
+            }
         }
+        return res;
+    }
+
+    private boolean isOwned(String projectName) {
+        return shardOwnership == null || shardOwnership.ownsProject(projectName);
+    }
+
+    /**
+     * @return project and brick names of a Marathon application id, <code>null</code> if application isn't a brick.
+     */
+    private static String[] splitApplicationId(MarathonApplication app) {
+        String[] splitedId = app.getId().substring(1).split(SEPARATOR);
+        return splitedId.length == NB_ELEMENT_EXPECTED ? splitedId : null;
+    }
+
+    private Optional<BrickStateEvent> computeBrickStateEvent(ResolvedProject resolvedProject, String brickName, BrickStateEvent.State state) {
+        ProjectConfiguration projectConfiguration = resolvedProject.getProjectConfiguration();
 
         String projectConfigurationId = projectConfiguration.getIdentifier();
         String stackName = projectConfiguration.getDefaultStackConfiguration().getName();
-        Project project = projectFetcher.getProjectByProjectConfigurationId(projectConfigurationId);
+        Project project = resolvedProject.getProject();
         AtomicBoolean isStartingByBrickManager = new AtomicBoolean(false);
         if (project != null && isNotEmpty(project.getStacks())) {
             project.getStacks().stream()
@@ -128,20 +299,19 @@ public class MarathonBrickStateLookup implements BrickStateLookup {
             return Optional.empty();
         }
 
-        BrickConfiguration brickConfiguration = brickFactory.createBrick(brickName);
-        String brickType = brickConfiguration.getType().name();
-        String version = brickConfiguration.getVersion();
-        String url = brickUrlFactory.forgeUrl(projectConfiguration.getName(), stackName, brickType, brickName);
+        BrickMetadataCache.BrickMetadata brickMetadata = brickMetadataCache.getBrickMetadata(brickName);
+        String brickType = brickMetadata.getType();
+        String version = brickMetadata.getVersion();
+        String url = brickMetadataCache.getUrl(projectConfiguration.getName(), stackName, brickType, brickName);
 
         return Optional.of(new BrickStateEvent(projectConfigurationId, stackName, brickType, brickName, state, url, version));
     }
 
-    private BrickStateEvent.State computeBrickState(JsonObject app) {
-        int nbInstances = extractValue(app, INSTANCES);
-        int tasksHealthy = extractValue(app, TASKS_HEALTHY);
-        int tasksUnhealthy = extractValue(app, TASKS_UNHEALTHY);
-        int tasksStaged = extractValue(app, TASKS_STAGED);
-        int tasksRunning = extractValue(app, TASKS_RUNNING);
+    private BrickStateEvent.State computeBrickState(MarathonApplication app) {
+        int nbInstances = app.getInstances();
+        int tasksUnhealthy = app.getTasksUnhealthy();
+        int tasksStaged = app.getTasksStaged();
+        int tasksRunning = app.getTasksRunning();
 
 
         BrickStateEvent.State state = BrickStateEvent.State.UNKNOWN;
@@ -162,57 +332,185 @@ public class MarathonBrickStateLookup implements BrickStateLookup {
         return state;
     }
 
-    protected String fetchMarathon() {
-        Request.Builder requestBuilder = new Request.Builder();
-        Request.Builder builder = requestBuilder.url(marathonConfig.url() + V2_APPS_PATH).get();
-        if (StringUtils.isNotBlank(marathonConfig.login())) {
-            String basicAuthenticationValue = "Basic " + Base64.getEncoder().encodeToString(String.format("%s:%s", marathonConfig.login(), marathonConfig.password()).getBytes());
-            builder.addHeader("Authorization", basicAuthenticationValue);
+    /**
+     * Open the Marathon applications response body. Closing the returned reader release the underlying connection.
+     * @return a reader on the <code>/v2/apps</code> body, or <code>null</code> if Marathon can't be reached.
+     */
+    protected Reader fetchMarathon() {
+        notModified = false;
+        responseETag = null;
+        responseLastModified = null;
+
+        Request.Builder builder = newRequest(appsUrl()).get();
+        if (previousBrickStates != null && isFastPathAllowed(System.currentTimeMillis())) {
+            if (previousETag != null) {
+                builder.header(IF_NONE_MATCH, previousETag);
+            }
+            if (previousLastModified != null) {
+                builder.header(IF_MODIFIED_SINCE, previousLastModified);
+            }
         }
         Request request = builder.build();
         Response response = null;
         try {
+            long start = System.nanoTime();
             response = httpClient.newCall(request).execute();
-            return response.body().string();
+            metrics.getMarathonFetchTime().recordSince(start);
+            TickTrace.span(FETCH_SPAN, start);
+            if (response.code() == HTTP_NOT_MODIFIED) {
+                notModified = true;
+            } else if (response.isSuccessful()) {
+                responseETag = response.header(ETAG);
+                responseLastModified = response.header(LAST_MODIFIED);
+                return countingReader(response.body());
+            } else {
+                LOGGER.error("Unable to fetch Marathon application on url {}, Marathon respond with status code {}.", marathonConfig.url(), response.code());
+            }
         } catch (IOException e) {
             LOGGER.error("An error occur while trying to fetch Marathon application on url {}.", marathonConfig.url(), e);
-        } finally {
-            if (response != null) {
-                IOUtils.closeQuietly(response);
-            }
+        }
+        if (response != null) {
+            IOUtils.closeQuietly(response);
         }
         return null;
     }
 
-    private int extractValue(JsonObject el, String attributeName) {
-        assert el != null : "el must be defined";
-        assert StringUtils.isNotBlank(attributeName) : "attributeName must be defined";
+    /**
+     * @return a reader on the body which counts the bytes read as Marathon payload.
+     */
+    private Reader countingReader(ResponseBody body) {
+        Counter payloadBytes = metrics.getMarathonPayloadBytes();
+        BufferedSource source = Okio.buffer(new ForwardingSource(body.source()) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long read = super.read(sink, byteCount);
+                if (read > 0) {
+                    payloadBytes.add(read);
+                }
+                return read;
+            }
+        });
+        MediaType contentType = body.contentType();
+        return new InputStreamReader(source.inputStream(), contentType == null ? StandardCharsets.UTF_8 : contentType.charset(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Create a request on Marathon, authenticated if a login is configured.
+     */
+    Request.Builder newRequest(HttpUrl url) {
+        Request.Builder builder = new Request.Builder().url(url);
+        if (StringUtils.isNotBlank(marathonConfig.login())) {
+            String basicAuthenticationValue = "Basic " + Base64.getEncoder().encodeToString(String.format("%s:%s", marathonConfig.login(), marathonConfig.password()).getBytes());
+            builder.addHeader("Authorization", basicAuthenticationValue);
+        }
+        return builder;
+    }
+
+    protected HttpUrl appsUrl() {
+        HttpUrl.Builder builder = HttpUrl.parse(marathonConfig.url() + V2_APPS_PATH).newBuilder();
+        if (fetchMode == MarathonFetchMode.SELECTOR) {
+            if (StringUtils.isNotBlank(labelSelector)) {
+                builder.addQueryParameter(LABEL_PARAMETER, labelSelector);
+            }
+            builder.addQueryParameter(EMBED_PARAMETER, EMBED_COUNTS);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Optional settings of a {@link MarathonBrickStateLookup}, defaults fetch all applications and always resolve bricks.
+     */
+    public static class Options {
+
+        private MarathonFetchMode fetchMode = MarathonFetchMode.ALL;
+
+        private String labelSelector;
+
+        private long fastPathMaxAge = 0;
+
+        private int brickMetadataCacheSize = DEFAULT_BRICK_METADATA_CACHE_SIZE;
+
+        private ShardOwnership shardOwnership;
 
-        if (el.has(attributeName)) {
-            return el.getAsJsonPrimitive(attributeName).getAsInt();
+        private MonitorMetrics metrics = new MonitorMetrics();
+
+        public static Options fromConfig(MarathonLookupConfig marathonLookupConfig) {
+            requireNonNull(marathonLookupConfig, "marathonLookupConfig must be defined.");
+            return new Options()
+                    .withFetchMode(MarathonFetchMode.fromConfig(marathonLookupConfig.fetchMode()))
+                    .withLabelSelector(marathonLookupConfig.labelSelector())
+                    .withFastPathMaxAge(marathonLookupConfig.fastPathMaxAge())
+                    .withBrickMetadataCacheSize(marathonLookupConfig.brickMetadataCacheSize());
+        }
+
+        public Options withFetchMode(MarathonFetchMode fetchMode) {
+            requireNonNull(fetchMode, "fetchMode must be defined.");
+            this.fetchMode = fetchMode;
+            return this;
+        }
+
+        public Options withLabelSelector(String labelSelector) {
+            this.labelSelector = labelSelector;
+            return this;
+        }
+
+        /**
+         * @param fastPathMaxAge duration in milliseconds during which a previous result may be returned as is when
+         *                       Marathon didn't change, <code>0</code> to always resolve bricks.
+         */
+        public Options withFastPathMaxAge(long fastPathMaxAge) {
+            this.fastPathMaxAge = fastPathMaxAge;
+            return this;
+        }
+
+        public Options withBrickMetadataCacheSize(int brickMetadataCacheSize) {
+            this.brickMetadataCacheSize = brickMetadataCacheSize;
+            return this;
+        }
+
+        /**
+         * @param shardOwnership projects watched by this instance, <code>null</code> to watch all projects.
+         */
+        public Options withShardOwnership(ShardOwnership shardOwnership) {
+            this.shardOwnership = shardOwnership;
+            return this;
+        }
+
+        public Options withMetrics(MonitorMetrics metrics) {
+            requireNonNull(metrics, "metrics must be defined.");
+            this.metrics = metrics;
+            return this;
         }
-        return 0;
     }
 
+    private static final int DEFAULT_BRICK_METADATA_CACHE_SIZE = 4096;
+
+    private static final String FETCH_SPAN = "fetch";
+
+    private static final String PARSE_SPAN = "parse";
+
     private static final String V2_APPS_PATH = "/v2/apps";
 
-    private static final String TASKS_HEALTHY = "tasksHealthy";
+    private static final String LABEL_PARAMETER = "label";
+
+    private static final String EMBED_PARAMETER = "embed";
 
-    private static final String TASKS_UNHEALTHY = "tasksUnhealthy";
+    //  Task counts are the only embedded resource needed to compute brick state, tasks themselves are never read.
+    private static final String EMBED_COUNTS = "apps.counts";
 
-    private static final String TASKS_STAGED = "tasksStaged";
+    private static final String EMBED_APP_COUNTS = "app.counts";
 
-    private static final String TASKS_RUNNING = "tasksRunning";
+    private static final int HTTP_NOT_FOUND = 404;
 
-    private static final String INSTANCES = "instances";
+    private static final int HTTP_NOT_MODIFIED = 304;
 
-    private static final String APPS = "apps";
+    private static final String ETAG = "ETag";
 
-    private static final String LABELS = "labels";
+    private static final String LAST_MODIFIED = "Last-Modified";
 
-    private static final String MANAGED_BY_KODO_KOJO_HA = "managedByKodoKojoHa";
+    private static final String IF_NONE_MATCH = "If-None-Match";
 
-    private static final String ID = "id";
+    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
 
     private static final String SEPARATOR = "/";
 
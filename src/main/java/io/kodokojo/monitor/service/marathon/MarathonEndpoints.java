@@ -0,0 +1,68 @@
+package io.kodokojo.monitor.service.marathon;
+
+import io.kodokojo.commons.config.MarathonConfig;
+import org.apache.commons.lang.StringUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Configuration of several Marathon clusters, defined as <code>name=url,name=url</code>.
+ */
+public final class MarathonEndpoints {
+
+    private MarathonEndpoints() {
+        //  Utility class.
+    }
+
+    /**
+     * @return url of each Marathon cluster indexed by cluster name, in definition order.
+     */
+    public static Map<String, String> parse(String endpoints) {
+        Map<String, String> res = new LinkedHashMap<>();
+        for (String endpoint : StringUtils.split(StringUtils.defaultString(endpoints), ',')) {
+            if (StringUtils.isBlank(endpoint)) {
+                continue;
+            }
+            int separatorIndex = endpoint.indexOf('=');
+            if (separatorIndex <= 0 || separatorIndex == endpoint.length() - 1) {
+                throw new IllegalArgumentException("Marathon endpoint '" + endpoint.trim() + "' must be defined as name=url.");
+            }
+            String name = endpoint.substring(0, separatorIndex).trim();
+            if (res.put(name, endpoint.substring(separatorIndex + 1).trim()) != null) {
+                throw new IllegalArgumentException("Marathon endpoint '" + name + "' is defined twice.");
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return a configuration answering <code>url</code>, every other attribute is read from the given configuration.
+     */
+    public static MarathonConfig withUrl(MarathonConfig marathonConfig, String url) {
+        requireNonNull(marathonConfig, "marathonConfig must be defined.");
+        requireNonNull(url, "url must be defined.");
+        return (MarathonConfig) Proxy.newProxyInstance(MarathonConfig.class.getClassLoader(), new Class<?>[]{MarathonConfig.class}, (proxy, method, args) -> {
+            if (URL.equals(method.getName()) && method.getParameterCount() == 0) {
+                return url;
+            }
+            if (TO_STRING.equals(method.getName()) && method.getParameterCount() == 0) {
+                return "MarathonConfig{url='" + url + "'}";
+            }
+            try {
+                return method.invoke(marathonConfig, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private static final String URL = "url";
+
+    private static final String TO_STRING = "toString";
+
+}
@@ -0,0 +1,320 @@
+package io.kodokojo.monitor.service.marathon;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.kodokojo.commons.config.MarathonConfig;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateLookup;
+import io.kodokojo.monitor.service.BrickStateLookupResult;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.BufferedSource;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keep an in-memory view of brick states up to date by following the Marathon <code>/v2/events</code> server-sent event stream.
+ * <p>
+ * Each event related to an application refreshes this single application. A full lookup is done each time the stream
+ * is (re)connected, since events may have been missed, and when the view is older than the reconciliation interval.
+ * Change listeners are notified each time the view changes.
+ * </p>
+ * <p>
+ * Full synchronisations run on the tick thread, refreshes on the event stream thread; both fetch and apply while holding
+ * a single lock, so they never use the Marathon lookup at the same time and an older result never overwrites a newer
+ * one.
+ * </p>
+ */
+public class MarathonEventStreamBrickStateLookup implements BrickStateLookup {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MarathonEventStreamBrickStateLookup.class);
+
+    private final MarathonConfig marathonConfig;
+
+    private final MarathonBrickStateLookup marathonBrickStateLookup;
+
+    private final OkHttpClient streamHttpClient;
+
+    private final long reconciliationInterval;
+
+    private final long maxReconnectDelay;
+
+    private final Object lock = new Object();
+
+    //  Guarded by lock, as is the Marathon lookup.
+    private final Map<String, BrickStateEvent> brickStateByApplicationId = new HashMap<>();
+
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    private final JsonParser jsonParser = new JsonParser();
+
+    private volatile long lastSynchronisation = 0;
+
+    private volatile boolean started = false;
+
+    private volatile Response streamResponse;
+
+    private Thread streamThread;
+
+    public MarathonEventStreamBrickStateLookup(MarathonConfig marathonConfig, MarathonBrickStateLookup marathonBrickStateLookup, OkHttpClient httpClient, long reconciliationInterval, long maxReconnectDelay) {
+        requireNonNull(marathonConfig, "marathonConfig must be defined.");
+        requireNonNull(marathonBrickStateLookup, "marathonBrickStateLookup must be defined.");
+        requireNonNull(httpClient, "httpClient must be defined.");
+        if (maxReconnectDelay < INITIAL_RECONNECT_DELAY) {
+            throw new IllegalArgumentException("maxReconnectDelay must be greater than " + INITIAL_RECONNECT_DELAY + ".");
+        }
+        this.marathonConfig = marathonConfig;
+        this.marathonBrickStateLookup = marathonBrickStateLookup;
+        //  Event stream is a long living response, it must not be interrupted by read timeout.
+        this.streamHttpClient = httpClient.newBuilder().readTimeout(0, TimeUnit.MILLISECONDS).build();
+        this.reconciliationInterval = reconciliationInterval;
+        this.maxReconnectDelay = maxReconnectDelay;
+    }
+
+    @Override
+    public Set<BrickStateEvent> lookup() {
+        return lookupResult().getBrickStateEvents();
+    }
+
+    /**
+     * @return a failed result, with the brick states last known, if a due reconciliation failed.
+     */
+    @Override
+    public BrickStateLookupResult lookupResult() {
+        boolean failed = false;
+        if (lastSynchronisation == 0 || System.currentTimeMillis() - lastSynchronisation >= reconciliationInterval) {
+            try {
+                synchronise(false);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Unable to reconcile brick states with Marathon {}.", marathonConfig.url(), e);
+                //  Reconciled again on next lookup, the view may have missed events meanwhile.
+                lastSynchronisation = 0;
+                failed = true;
+            }
+        }
+        Set<BrickStateEvent> brickStateEvents;
+        synchronized (lock) {
+            brickStateEvents = new HashSet<>(brickStateByApplicationId.values());
+        }
+        return failed ? BrickStateLookupResult.failed(brickStateEvents) : BrickStateLookupResult.complete(brickStateEvents);
+    }
+
+    /**
+     * @param listener called, from the event stream thread, each time a brick state change.
+     */
+    public void addChangeListener(Runnable listener) {
+        requireNonNull(listener, "listener must be defined.");
+        changeListeners.add(listener);
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        streamThread = new Thread(this::followEventStream, "marathon-event-stream");
+        streamThread.setDaemon(true);
+        streamThread.start();
+    }
+
+    public synchronized void stop() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        Response response = streamResponse;
+        if (response != null) {
+            IOUtils.closeQuietly(response);
+        }
+        streamThread.interrupt();
+        streamThread = null;
+    }
+
+    private void followEventStream() {
+        long reconnectDelay = INITIAL_RECONNECT_DELAY;
+        while (started) {
+            boolean connected = false;
+            try {
+                connected = consumeEventStream();
+            } catch (IOException | RuntimeException e) {
+                if (started) {
+                    LOGGER.warn("Marathon event stream {} interrupted, reconnecting in {}ms.", marathonConfig.url(), reconnectDelay, e);
+                }
+            }
+            if (connected) {
+                reconnectDelay = INITIAL_RECONNECT_DELAY;
+            }
+            if (started) {
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, maxReconnectDelay);
+            }
+        }
+    }
+
+    /**
+     * Connect to event stream and consume it until it ends.
+     * @return <code>true</code> if stream had been connected and synchronised.
+     */
+    private boolean consumeEventStream() throws IOException {
+        Request request = marathonBrickStateLookup.newRequest(HttpUrl.parse(marathonConfig.url() + V2_EVENTS_PATH))
+                .header("Accept", EVENT_STREAM_MEDIA_TYPE)
+                .get()
+                .build();
+        try (Response response = streamHttpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unable to subscribe to Marathon event stream, Marathon respond with status code " + response.code() + ".");
+            }
+            streamResponse = response;
+            LOGGER.info("Subscribed to Marathon event stream {}.", marathonConfig.url());
+
+            //  Events may have been missed while disconnected.
+            synchronise(true);
+
+            BufferedSource source = response.body().source();
+            String eventType = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+            while (started && (line = source.readUtf8Line()) != null) {
+                if (line.isEmpty()) {
+                    if (data.length() > 0) {
+                        handleEvent(eventType, data.toString());
+                    }
+                    eventType = null;
+                    data.setLength(0);
+                } else if (line.startsWith(EVENT_FIELD)) {
+                    eventType = line.substring(EVENT_FIELD.length()).trim();
+                } else if (line.startsWith(DATA_FIELD)) {
+                    if (data.length() > 0) {
+                        data.append('\n');
+                    }
+                    data.append(line.substring(DATA_FIELD.length()).trim());
+                }
+            }
+            LOGGER.info("Marathon event stream {} closed.", marathonConfig.url());
+            return true;
+        } finally {
+            streamResponse = null;
+        }
+    }
+
+    private void handleEvent(String eventType, String data) {
+        String applicationId;
+        try {
+            applicationId = extractApplicationId(data);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to read Marathon event {}.", eventType, e);
+            return;
+        }
+        if (applicationId == null || !isBrickApplicationId(applicationId)) {
+            return;
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Receive Marathon event {} for application {}.", eventType, applicationId);
+        }
+        refresh(applicationId);
+    }
+
+    private void refresh(String applicationId) {
+        Optional<BrickStateEvent> brickStateEvent;
+        BrickStateEvent previous;
+        synchronized (lock) {
+            try {
+                brickStateEvent = marathonBrickStateLookup.fetchBrickState(applicationId);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Unable to refresh Marathon application {}, a full synchronisation will be done on next lookup.", applicationId, e);
+                lastSynchronisation = 0;
+                return;
+            }
+            previous = brickStateEvent.isPresent() ?
+                    brickStateByApplicationId.put(applicationId, brickStateEvent.get()) :
+                    brickStateByApplicationId.remove(applicationId);
+        }
+        if (!Objects.equals(previous, brickStateEvent.orElse(null))) {
+            fireChange();
+        }
+    }
+
+    private void synchronise(boolean notify) throws IOException {
+        boolean changed;
+        synchronized (lock) {
+            Map<String, BrickStateEvent> brickStates = marathonBrickStateLookup.fetchBrickStates();
+            changed = !brickStateByApplicationId.equals(brickStates);
+            brickStateByApplicationId.clear();
+            brickStateByApplicationId.putAll(brickStates);
+            lastSynchronisation = System.currentTimeMillis();
+        }
+        if (notify && changed) {
+            fireChange();
+        }
+    }
+
+    private void fireChange() {
+        changeListeners.forEach(listener -> {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Brick state change listener failed.", e);
+            }
+        });
+    }
+
+    private String extractApplicationId(String data) {
+        JsonElement root = jsonParser.parse(data);
+        if (!root.isJsonObject()) {
+            return null;
+        }
+        JsonObject event = root.getAsJsonObject();
+        if (event.has(APP_ID) && event.get(APP_ID).isJsonPrimitive()) {
+            return event.get(APP_ID).getAsString();
+        }
+        if (event.has(APP_DEFINITION) && event.get(APP_DEFINITION).isJsonObject()) {
+            JsonObject appDefinition = event.getAsJsonObject(APP_DEFINITION);
+            if (appDefinition.has(ID) && appDefinition.get(ID).isJsonPrimitive()) {
+                return appDefinition.get(ID).getAsString();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBrickApplicationId(String applicationId) {
+        return applicationId.startsWith(SEPARATOR) && StringUtils.countMatches(applicationId, SEPARATOR) == NB_SEPARATOR_EXPECTED;
+    }
+
+    private static final String V2_EVENTS_PATH = "/v2/events";
+
+    private static final String EVENT_STREAM_MEDIA_TYPE = "text/event-stream";
+
+    private static final String EVENT_FIELD = "event:";
+
+    private static final String DATA_FIELD = "data:";
+
+    private static final String APP_ID = "appId";
+
+    private static final String APP_DEFINITION = "appDefinition";
+
+    private static final String ID = "id";
+
+    private static final String SEPARATOR = "/";
+
+    private static final int NB_SEPARATOR_EXPECTED = 2;
+
+    private static final long INITIAL_RECONNECT_DELAY = 500;
+
+}
@@ -0,0 +1,23 @@
+package io.kodokojo.monitor.service.marathon;
+
+import org.apache.commons.lang.StringUtils;
+
+public enum MarathonFetchMode {
+
+    /**
+     * Fetch all applications defined in Marathon, managed applications are filtered by the monitor.
+     */
+    ALL,
+
+    /**
+     * Ask Marathon to filter applications with a label selector and to only embed task counts.
+     */
+    SELECTOR;
+
+    public static MarathonFetchMode fromConfig(String value) {
+        if (StringUtils.isBlank(value)) {
+            return ALL;
+        }
+        return valueOf(value.trim().toUpperCase());
+    }
+}
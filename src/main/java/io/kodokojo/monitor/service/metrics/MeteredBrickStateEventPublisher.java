@@ -0,0 +1,37 @@
+package io.kodokojo.monitor.service.metrics;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventPublisher;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Count brick state changes by state and measure the time a delegate {@link BrickStateEventPublisher} takes to send
+ * them on the event bus.
+ */
+public class MeteredBrickStateEventPublisher implements BrickStateEventPublisher {
+
+    private final BrickStateEventPublisher delegate;
+
+    private final MonitorMetrics metrics;
+
+    public MeteredBrickStateEventPublisher(BrickStateEventPublisher delegate, MonitorMetrics metrics) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(metrics, "metrics must be defined.");
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void publish(Set<BrickStateEvent> brickStateEvents) {
+        long start = System.nanoTime();
+        delegate.publish(brickStateEvents);
+        metrics.getEventBusSendTime().recordSince(start);
+        for (BrickStateEvent brickStateEvent : brickStateEvents) {
+            metrics.getBrickStateEventCount(brickStateEvent.getState()).increment();
+        }
+    }
+
+}
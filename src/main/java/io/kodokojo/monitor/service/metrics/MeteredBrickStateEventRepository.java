@@ -0,0 +1,46 @@
+package io.kodokojo.monitor.service.metrics;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventRepository;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Measure the time spent comparing observed brick states by a delegate {@link BrickStateEventRepository}.
+ */
+public class MeteredBrickStateEventRepository implements BrickStateEventRepository {
+
+    private final BrickStateEventRepository delegate;
+
+    private final Timer diffTime;
+
+    public MeteredBrickStateEventRepository(BrickStateEventRepository delegate, MonitorMetrics metrics) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(metrics, "metrics must be defined.");
+        this.delegate = delegate;
+        this.diffTime = metrics.getDiffTime();
+    }
+
+    @Override
+    public Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents) {
+        long start = System.nanoTime();
+        try {
+            return delegate.compareAndUpdate(brickStateEvents);
+        } finally {
+            diffTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public Set<BrickStateEvent> update(Set<BrickStateEvent> brickStateEvents) {
+        long start = System.nanoTime();
+        try {
+            return delegate.update(brickStateEvents);
+        } finally {
+            diffTime.recordSince(start);
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package io.kodokojo.monitor.service.metrics;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.kodokojo.monitor.service.http.ReadOnlyHttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Expose a {@link MetricsRegistry} to Prometheus scrapes.
+ */
+public class MetricsEndpoint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsEndpoint.class);
+
+    private final MetricsRegistry registry;
+
+    private final int port;
+
+    private final String path;
+
+    private final Map<String, HttpHandler> handlers = new LinkedHashMap<>();
+
+    private HttpServer server;
+
+    /**
+     * @param port listening port, <code>0</code> to pick a free one.
+     */
+    public MetricsEndpoint(MetricsRegistry registry, int port, String path) {
+        requireNonNull(registry, "registry must be defined.");
+        requireNonNull(path, "path must be defined.");
+        if (port < 0) {
+            throw new IllegalArgumentException("port must be greater or equal to 0.");
+        }
+        this.registry = registry;
+        this.port = port;
+        this.path = path;
+    }
+
+    /**
+     * Serve another monitoring resource, like traces, on the same port. Must be called before {@link #start()}.
+     */
+    public synchronized void addHandler(String handlerPath, HttpHandler handler) {
+        requireNonNull(handlerPath, "handlerPath must be defined.");
+        requireNonNull(handler, "handler must be defined.");
+        if (server != null) {
+            throw new IllegalStateException("Handlers must be added before endpoint is started.");
+        }
+        handlers.put(handlerPath, handler);
+    }
+
+    public synchronized void start() {
+        if (server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to listen on port " + port + " to expose metrics.", e);
+        }
+        server.createContext(path, ReadOnlyHttpHandler.of(CONTENT_TYPE, query -> registry.toPrometheus()));
+        handlers.forEach(server::createContext);
+        server.start();
+        LOGGER.info("Metrics exposed on http://0.0.0.0:{}{}.", getPort(), path);
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    /**
+     * @return port actually listened, once started.
+     */
+    public synchronized int getPort() {
+        return server == null ? port : server.getAddress().getPort();
+    }
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+}
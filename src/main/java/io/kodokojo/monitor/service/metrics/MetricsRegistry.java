@@ -0,0 +1,223 @@
+package io.kodokojo.monitor.service.metrics;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Registry of meters, exported with the Prometheus text format.
+ * <p>
+ * Meters are registered once, at startup, and kept by the components which record them: recording only touches
+ * primitive counters. Gauges are read when exported.
+ * </p>
+ */
+public class MetricsRegistry {
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /**
+     * @param labels label names and values, alternated.
+     */
+    public synchronized Counter counter(String name, String help, String... labels) {
+        Counter counter = new Counter();
+        register(name, help, COUNTER, labels, counter);
+        return counter;
+    }
+
+    /**
+     * Register a counter kept by its owner.
+     * @param value read each time metrics are exported, must never decrease.
+     * @param labels label names and values, alternated.
+     */
+    public synchronized void counter(String name, String help, LongSupplier value, String... labels) {
+        requireNonNull(value, "value must be defined.");
+        register(name, help, COUNTER, labels, value);
+    }
+
+    /**
+     * Register a timer, exported in seconds as an histogram.
+     * @param labels label names and values, alternated.
+     */
+    public synchronized Timer timer(String name, String help, String... labels) {
+        Timer timer = new Timer(Timer.DEFAULT_BUCKET_BOUNDS);
+        register(name, help, HISTOGRAM, labels, timer);
+        return timer;
+    }
+
+    /**
+     * @param value read each time metrics are exported.
+     * @param labels label names and values, alternated.
+     */
+    public synchronized void gauge(String name, String help, LongSupplier value, String... labels) {
+        requireNonNull(value, "value must be defined.");
+        register(name, help, GAUGE, labels, value);
+    }
+
+    /**
+     * Write all meters with the Prometheus text exposition format, version 0.0.4.
+     */
+    public synchronized void writePrometheus(StringBuilder output) {
+        requireNonNull(output, "output must be defined.");
+        for (Family family : families.values()) {
+            output.append("# HELP ").append(family.name).append(' ').append(escapeHelp(family.help)).append('\n');
+            output.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Meter meter : family.meters) {
+                if (meter.value instanceof Counter) {
+                    appendSample(output, family.name, meter.labels, null, ((Counter) meter.value).get());
+                } else if (meter.value instanceof Timer) {
+                    appendHistogram(output, family.name, meter.labels, (Timer) meter.value);
+                } else {
+                    appendSample(output, family.name, meter.labels, null, ((LongSupplier) meter.value).getAsLong());
+                }
+            }
+        }
+    }
+
+    public String toPrometheus() {
+        StringBuilder output = new StringBuilder();
+        writePrometheus(output);
+        return output.toString();
+    }
+
+    private void register(String name, String help, String type, String[] labels, Object value) {
+        if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("name '" + name + "' isn't a valid metric name.");
+        }
+        String renderedLabels = renderLabels(labels);
+        Family family = families.get(name);
+        if (family == null) {
+            family = new Family(name, StringUtils.defaultString(help), type);
+            families.put(name, family);
+        } else if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type + ".");
+        }
+        for (Meter meter : family.meters) {
+            if (meter.labels.equals(renderedLabels)) {
+                throw new IllegalArgumentException("Metric " + name + "{" + renderedLabels + "} is already registered.");
+            }
+        }
+        family.meters.add(new Meter(renderedLabels, value));
+    }
+
+    private static void appendHistogram(StringBuilder output, String name, String labels, Timer timer) {
+        long[] bounds = timer.getBucketBounds();
+        long[] counts = timer.getCumulativeBucketCounts();
+        //  Count read last, so it is never lower than a bucket.
+        long count = timer.getCount();
+        for (int i = 0; i < bounds.length; i++) {
+            appendSample(output, name + BUCKET_SUFFIX, labels, Double.toString(toSeconds(bounds[i])), counts[i]);
+        }
+        appendSample(output, name + BUCKET_SUFFIX, labels, INFINITY, count);
+        output.append(name).append(SUM_SUFFIX);
+        appendLabels(output, labels, null);
+        output.append(' ').append(toSeconds(timer.getSum())).append('\n');
+        appendSample(output, name + COUNT_SUFFIX, labels, null, count);
+    }
+
+    private static void appendSample(StringBuilder output, String name, String labels, String le, long value) {
+        output.append(name);
+        appendLabels(output, labels, le);
+        output.append(' ').append(value).append('\n');
+    }
+
+    private static void appendLabels(StringBuilder output, String labels, String le) {
+        if (labels.isEmpty() && le == null) {
+            return;
+        }
+        output.append('{').append(labels);
+        if (le != null) {
+            if (!labels.isEmpty()) {
+                output.append(',');
+            }
+            output.append("le=\"").append(le).append('"');
+        }
+        output.append('}');
+    }
+
+    private static String renderLabels(String[] labels) {
+        if (labels == null || labels.length == 0) {
+            return "";
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("labels must be pairs of name and value.");
+        }
+        StringBuilder res = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (labels[i] == null || !LABEL_NAME_PATTERN.matcher(labels[i]).matches()) {
+                throw new IllegalArgumentException("label '" + labels[i] + "' isn't a valid label name.");
+            }
+            if (i > 0) {
+                res.append(',');
+            }
+            res.append(labels[i]).append("=\"").append(escapeLabelValue(StringUtils.defaultString(labels[i + 1]))).append('"');
+        }
+        return res.toString();
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static class Family {
+
+        private final String name;
+
+        private final String help;
+
+        private final String type;
+
+        private final List<Meter> meters = new ArrayList<>();
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static class Meter {
+
+        private final String labels;
+
+        private final Object value;
+
+        Meter(String labels, Object value) {
+            this.labels = labels;
+            this.value = value;
+        }
+    }
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+    private static final Pattern LABEL_NAME_PATTERN = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    private static final String COUNTER = "counter";
+
+    private static final String GAUGE = "gauge";
+
+    private static final String HISTOGRAM = "histogram";
+
+    private static final String BUCKET_SUFFIX = "_bucket";
+
+    private static final String SUM_SUFFIX = "_sum";
+
+    private static final String COUNT_SUFFIX = "_count";
+
+    private static final String INFINITY = "+Inf";
+
+}
@@ -0,0 +1,156 @@
+package io.kodokojo.monitor.service.metrics;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.AsyncBrickStateEventPublisher;
+import io.kodokojo.monitor.service.InstrumentedExecutor;
+import io.kodokojo.monitor.service.history.BrickStateHistory;
+import io.kodokojo.monitor.service.journal.JournalingBrickStateEventPublisher;
+
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Meters of the monitor loop, registered once in a {@link MetricsRegistry}.
+ */
+public class MonitorMetrics {
+
+    private final MetricsRegistry registry;
+
+    private final Timer marathonFetchTime;
+
+    private final Counter marathonPayloadBytes;
+
+    private final Timer marathonParseTime;
+
+    private final Counter marathonFastPathHits;
+
+    private final Counter marathonFastPathMisses;
+
+    private final Timer projectFetchTime;
+
+    private final Timer diffTime;
+
+    private final Timer eventBusSendTime;
+
+    private final Counter[] brickStateEventCounts;
+
+    private final Timer blockingTaskRunTime;
+
+    private final Timer blockingTaskWaitTime;
+
+    /**
+     * Meters recorded but not exported, for components created without a registry.
+     */
+    public MonitorMetrics() {
+        this(new MetricsRegistry());
+    }
+
+    public MonitorMetrics(MetricsRegistry registry) {
+        requireNonNull(registry, "registry must be defined.");
+        this.registry = registry;
+        marathonFetchTime = registry.timer(PREFIX + "marathon_fetch_seconds", "Time to get the response headers of the Marathon applications request.");
+        marathonPayloadBytes = registry.counter(PREFIX + "marathon_payload_bytes_total", "Bytes of Marathon applications responses read.");
+        marathonParseTime = registry.timer(PREFIX + "marathon_parse_seconds", "Time to read and parse the Marathon applications response.");
+        String fastPathHelp = "Marathon lookups by outcome of the short-circuit, hit when previous brick states were reused.";
+        marathonFastPathHits = registry.counter(PREFIX + "marathon_fast_path_total", fastPathHelp, "result", "hit");
+        marathonFastPathMisses = registry.counter(PREFIX + "marathon_fast_path_total", fastPathHelp, "result", "miss");
+        projectFetchTime = registry.timer(PREFIX + "project_fetch_seconds", "Time of ProjectFetcher calls.");
+        diffTime = registry.timer(PREFIX + "brick_state_diff_seconds", "Time to compare observed brick states with known ones.");
+        eventBusSendTime = registry.timer(PREFIX + "event_bus_send_seconds", "Time to send a set of brick state changes on the event bus.");
+        blockingTaskRunTime = registry.timer(PREFIX + "blocking_task_run_seconds", "Run time of lookups and publications on the blocking dispatcher.");
+        blockingTaskWaitTime = registry.timer(PREFIX + "blocking_task_wait_seconds", "Time lookups and publications waited for a thread of the blocking dispatcher.");
+        BrickStateEvent.State[] states = BrickStateEvent.State.values();
+        brickStateEventCounts = new Counter[states.length];
+        for (BrickStateEvent.State state : states) {
+            brickStateEventCounts[state.ordinal()] = registry.counter(PREFIX + "brick_state_events_total", "Brick state changes sent on the event bus, by state.", "state", state.name());
+        }
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    public Timer getMarathonFetchTime() {
+        return marathonFetchTime;
+    }
+
+    public Counter getMarathonPayloadBytes() {
+        return marathonPayloadBytes;
+    }
+
+    public Timer getMarathonParseTime() {
+        return marathonParseTime;
+    }
+
+    public Counter getMarathonFastPathHits() {
+        return marathonFastPathHits;
+    }
+
+    public Counter getMarathonFastPathMisses() {
+        return marathonFastPathMisses;
+    }
+
+    public Timer getProjectFetchTime() {
+        return projectFetchTime;
+    }
+
+    public Timer getDiffTime() {
+        return diffTime;
+    }
+
+    public Timer getEventBusSendTime() {
+        return eventBusSendTime;
+    }
+
+    public Counter getBrickStateEventCount(BrickStateEvent.State state) {
+        return brickStateEventCounts[state.ordinal()];
+    }
+
+    public Timer getBlockingTaskRunTime() {
+        return blockingTaskRunTime;
+    }
+
+    public Timer getBlockingTaskWaitTime() {
+        return blockingTaskWaitTime;
+    }
+
+    /**
+     * @param size read each time metrics are exported.
+     */
+    public void registerBrickStateCacheSize(LongSupplier size) {
+        registry.gauge(PREFIX + "brick_state_cache_size", "Number of brick states held by the repository.", size);
+    }
+
+    public void registerBlockingExecutor(InstrumentedExecutor executor) {
+        requireNonNull(executor, "executor must be defined.");
+        registry.gauge(PREFIX + "blocking_queue_depth", "Lookups and publications waiting for a thread of the blocking dispatcher.", executor::getQueueDepth);
+        registry.gauge(PREFIX + "blocking_active_tasks", "Lookups and publications running on the blocking dispatcher.", executor::getActiveCount);
+    }
+
+    public void registerAsyncPublisher(AsyncBrickStateEventPublisher publisher) {
+        requireNonNull(publisher, "publisher must be defined.");
+        registry.gauge(PREFIX + "publish_queue_depth", "Brick state changes waiting to be sent on the event bus.", publisher::getQueueDepth);
+        String help = "Brick state changes taken by the publish queue, by outcome.";
+        registry.counter(PREFIX + "publish_queue_events_total", help, publisher::getPublishedCount, "outcome", "published");
+        registry.counter(PREFIX + "publish_queue_events_total", help, publisher::getDroppedCount, "outcome", "dropped");
+        registry.counter(PREFIX + "publish_queue_events_total", help, publisher::getCoalescedCount, "outcome", "coalesced");
+    }
+
+    public void registerBrickStateHistory(BrickStateHistory history) {
+        requireNonNull(history, "history must be defined.");
+        registry.gauge(PREFIX + "history_tracked_bricks", "Bricks whose state transitions are kept.", history::getTrackedBrickCount);
+        registry.counter(PREFIX + "history_dropped_transitions_total", "State transitions not recorded as the maximum number of bricks were already tracked.", history::getDroppedTransitionCount);
+    }
+
+    public void registerJournalingPublisher(JournalingBrickStateEventPublisher publisher) {
+        requireNonNull(publisher, "publisher must be defined.");
+        registry.gauge(PREFIX + "transition_log_queue_depth", "Brick state changes waiting to be written to the transition log.", publisher::getQueueDepth);
+        String help = "Brick state changes written to the transition log, by outcome.";
+        registry.counter(PREFIX + "transition_log_transitions_total", help, publisher::getLoggedCount, "outcome", "logged");
+        registry.counter(PREFIX + "transition_log_transitions_total", help, publisher::getFailedCount, "outcome", "failed");
+    }
+
+    private static final String PREFIX = "kodokojo_monitor_";
+
+}
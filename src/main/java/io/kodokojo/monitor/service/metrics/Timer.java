@@ -0,0 +1,98 @@
+package io.kodokojo.monitor.service.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with fixed buckets, recording doesn't allocate.
+ * <p>
+ * Each bucket counts durations falling between the previous bound and its own bound, buckets are cumulated when
+ * exported.
+ * </p>
+ */
+public class Timer {
+
+    private final long[] bucketBounds;
+
+    private final LongAdder[] bucketCounts;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * @param bucketBounds upper bounds of buckets in nanoseconds, in ascending order.
+     */
+    Timer(long[] bucketBounds) {
+        this.bucketBounds = bucketBounds.clone();
+        this.bucketCounts = new LongAdder[bucketBounds.length];
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param duration duration in nanoseconds.
+     */
+    public void record(long duration) {
+        //  Count incremented before the bucket, so an export reading buckets then count never sees a bucket above count.
+        count.increment();
+        sum.add(duration);
+        for (int i = 0; i < bucketBounds.length; i++) {
+            if (duration <= bucketBounds[i]) {
+                bucketCounts[i].increment();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Record the duration elapsed since given start.
+     * @param start start date from {@link System#nanoTime()}.
+     */
+    public void recordSince(long start) {
+        record(System.nanoTime() - start);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return sum of recorded durations, in nanoseconds.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    long[] getBucketBounds() {
+        return bucketBounds;
+    }
+
+    /**
+     * @return number of durations lower or equal to the bound of each bucket.
+     */
+    long[] getCumulativeBucketCounts() {
+        long[] res = new long[bucketCounts.length];
+        long cumulated = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            cumulated += bucketCounts[i].sum();
+            res[i] = cumulated;
+        }
+        return res;
+    }
+
+    static final long[] DEFAULT_BUCKET_BOUNDS = {
+            TimeUnit.MICROSECONDS.toNanos(100),
+            TimeUnit.MILLISECONDS.toNanos(1),
+            TimeUnit.MILLISECONDS.toNanos(5),
+            TimeUnit.MILLISECONDS.toNanos(10),
+            TimeUnit.MILLISECONDS.toNanos(50),
+            TimeUnit.MILLISECONDS.toNanos(100),
+            TimeUnit.MILLISECONDS.toNanos(500),
+            TimeUnit.SECONDS.toNanos(1),
+            TimeUnit.SECONDS.toNanos(5),
+            TimeUnit.SECONDS.toNanos(10)
+    };
+
+}
@@ -0,0 +1,216 @@
+package io.kodokojo.monitor.service.project;
+
+import io.kodokojo.commons.model.Project;
+import io.kodokojo.commons.model.ProjectConfiguration;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Cache project configurations by name of a delegate {@link ProjectResolver}.
+ * <p>
+ * The cache is bounded, least recently used entries are evicted first. Entries expire after a TTL, unknown projects
+ * are cached too with their own TTL so a Marathon application of a deleted project doesn't hit the store on each lookup.
+ * Bulk resolutions delegate the projects missing from cache in a single call, and fetch the projects of cached
+ * project configurations in another single call.
+ * </p>
+ * <p>
+ * Projects aren't cached: they hold the bricks being started by the brick manager, whose changes must not be reported
+ * meanwhile, and nothing tells when they change.
+ * </p>
+ */
+public class CachingProjectResolver implements ProjectResolver {
+
+    private final ProjectResolver delegate;
+
+    private final TtlCache<String, ProjectConfiguration> projectConfigurationByName;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    public CachingProjectResolver(ProjectResolver delegate, int maxSize, long ttl, long negativeTtl) {
+        this(delegate, maxSize, ttl, negativeTtl, System::currentTimeMillis);
+    }
+
+    CachingProjectResolver(ProjectResolver delegate, int maxSize, long ttl, long negativeTtl, LongSupplier clock) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(clock, "clock must be defined.");
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0.");
+        }
+        this.delegate = delegate;
+        this.projectConfigurationByName = new TtlCache<>(maxSize, ttl, negativeTtl, clock);
+    }
+
+    @Override
+    public ProjectConfiguration getProjectConfigurationByName(String projectName) {
+        return projectConfigurationByName.get(projectName, delegate::getProjectConfigurationByName);
+    }
+
+    @Override
+    public Project getProjectByProjectConfigurationId(String projectConfigurationId) {
+        return delegate.getProjectByProjectConfigurationId(projectConfigurationId);
+    }
+
+    @Override
+    public Map<String, Project> getProjectsByProjectConfigurationIds(Set<String> projectConfigurationIds) {
+        return delegate.getProjectsByProjectConfigurationIds(projectConfigurationIds);
+    }
+
+    @Override
+    public Map<String, ResolvedProject> resolveProjects(Set<String> projectNames) {
+        requireNonNull(projectNames, "projectNames must be defined.");
+        Map<String, ResolvedProject> res = new HashMap<>();
+        Map<String, ProjectConfiguration> cachedProjectConfigurations = new HashMap<>();
+        Set<String> missingProjectNames = new HashSet<>();
+        for (String projectName : projectNames) {
+            CacheEntry<ProjectConfiguration> entry = projectConfigurationByName.getIfPresent(projectName);
+            if (entry == null) {
+                missingProjectNames.add(projectName);
+            } else if (entry.value != null) {
+                cachedProjectConfigurations.put(projectName, entry.value);
+            }
+        }
+        if (!cachedProjectConfigurations.isEmpty()) {
+            Set<String> projectConfigurationIds = cachedProjectConfigurations.values().stream()
+                    .map(ProjectConfiguration::getIdentifier)
+                    .collect(Collectors.toSet());
+            Map<String, Project> projects = delegate.getProjectsByProjectConfigurationIds(projectConfigurationIds);
+            cachedProjectConfigurations.forEach((projectName, projectConfiguration) -> res.put(projectName, new ResolvedProject(projectConfiguration, projects.get(projectConfiguration.getIdentifier()))));
+        }
+        if (!missingProjectNames.isEmpty()) {
+            Map<String, ResolvedProject> resolvedProjects = delegate.resolveProjects(missingProjectNames);
+            for (String projectName : missingProjectNames) {
+                ResolvedProject resolvedProject = resolvedProjects.get(projectName);
+                if (resolvedProject == null) {
+                    projectConfigurationByName.put(projectName, null);
+                } else {
+                    projectConfigurationByName.put(projectName, resolvedProject.getProjectConfiguration());
+                    res.put(projectName, resolvedProject);
+                }
+            }
+        }
+        return res;
+    }
+
+    public void invalidateAll() {
+        projectConfigurationByName.clear();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public int size() {
+        return projectConfigurationByName.size();
+    }
+
+    private class TtlCache<K, V> {
+
+        private final int maxSize;
+
+        private final long ttl;
+
+        private final long negativeTtl;
+
+        private final LongSupplier clock;
+
+        private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+        TtlCache(int maxSize, long ttl, long negativeTtl, LongSupplier clock) {
+            this.maxSize = maxSize;
+            this.ttl = ttl;
+            this.negativeTtl = negativeTtl;
+            this.clock = clock;
+            this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                    boolean evict = size() > TtlCache.this.maxSize;
+                    if (evict) {
+                        evictionCount.increment();
+                    }
+                    return evict;
+                }
+            };
+        }
+
+        V get(K key, Function<K, V> loader) {
+            CacheEntry<V> entry = getIfPresent(key);
+            if (entry != null) {
+                return entry.value;
+            }
+            //  Loading outside of the lock, concurrent misses on a same key may load it twice.
+            V value = loader.apply(key);
+            put(key, value);
+            return value;
+        }
+
+        /**
+         * @return the entry of this key, <code>null</code> if absent or expired.
+         */
+        CacheEntry<V> getIfPresent(K key) {
+            long now = clock.getAsLong();
+            synchronized (entries) {
+                CacheEntry<V> entry = entries.get(key);
+                if (entry != null && entry.expirationDate > now) {
+                    hitCount.increment();
+                    return entry;
+                }
+            }
+            missCount.increment();
+            return null;
+        }
+
+        void put(K key, V value) {
+            long expirationDate = clock.getAsLong() + (value == null ? negativeTtl : ttl);
+            synchronized (entries) {
+                entries.put(key, new CacheEntry<>(value, expirationDate));
+            }
+        }
+
+        void clear() {
+            synchronized (entries) {
+                entries.clear();
+            }
+        }
+
+        int size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+    }
+
+    private static class CacheEntry<V> {
+
+        private final V value;
+
+        private final long expirationDate;
+
+        CacheEntry(V value, long expirationDate) {
+            this.value = value;
+            this.expirationDate = expirationDate;
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package io.kodokojo.monitor.service.project;
+
+import io.kodokojo.commons.model.Project;
+import io.kodokojo.commons.model.ProjectConfiguration;
+import io.kodokojo.commons.service.repository.ProjectFetcher;
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import io.kodokojo.monitor.service.metrics.Timer;
+import io.kodokojo.monitor.service.trace.TickTrace;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Resolve projects with a {@link ProjectFetcher}.
+ * <p>
+ * {@link ProjectFetcher} doesn't offer bulk lookups, so when an executor is given, the projects of a batch are fetched
+ * concurrently and a batch costs about the latency of its slowest project instead of the sum of all of them. This goes
+ * for batches of project names as well as batches of project configuration identifiers.
+ * </p>
+ */
+public class DefaultProjectResolver implements ProjectResolver {
+
+    private final ProjectFetcher projectFetcher;
+
+    private final Executor executor;
+
+    private final Timer projectFetchTime;
+
+    public DefaultProjectResolver(ProjectFetcher projectFetcher) {
+        this(projectFetcher, null);
+    }
+
+    /**
+     * @param executor executor used to fetch projects of a batch concurrently, <code>null</code> to fetch them sequentially.
+     */
+    public DefaultProjectResolver(ProjectFetcher projectFetcher, Executor executor) {
+        this(projectFetcher, executor, new MonitorMetrics());
+    }
+
+    public DefaultProjectResolver(ProjectFetcher projectFetcher, Executor executor, MonitorMetrics metrics) {
+        requireNonNull(projectFetcher, "projectFetcher must be defined.");
+        requireNonNull(metrics, "metrics must be defined.");
+        this.projectFetcher = projectFetcher;
+        this.executor = executor;
+        this.projectFetchTime = metrics.getProjectFetchTime();
+    }
+
+    @Override
+    public ProjectConfiguration getProjectConfigurationByName(String projectName) {
+        long start = System.nanoTime();
+        try {
+            return projectFetcher.getProjectConfigurationByName(projectName);
+        } finally {
+            projectFetchTime.recordSince(start);
+            TickTrace.span(RESOLVE_SPAN, projectName, start);
+        }
+    }
+
+    @Override
+    public Project getProjectByProjectConfigurationId(String projectConfigurationId) {
+        long start = System.nanoTime();
+        try {
+            return projectFetcher.getProjectByProjectConfigurationId(projectConfigurationId);
+        } finally {
+            projectFetchTime.recordSince(start);
+            TickTrace.span(RESOLVE_SPAN, projectConfigurationId, start);
+        }
+    }
+
+    @Override
+    public Map<String, ResolvedProject> resolveProjects(Set<String> projectNames) {
+        requireNonNull(projectNames, "projectNames must be defined.");
+        if (executor == null || projectNames.size() <= 1) {
+            return ProjectResolver.super.resolveProjects(projectNames);
+        }
+        return fetchConcurrently(projectNames, this::resolveProject);
+    }
+
+    @Override
+    public Map<String, Project> getProjectsByProjectConfigurationIds(Set<String> projectConfigurationIds) {
+        requireNonNull(projectConfigurationIds, "projectConfigurationIds must be defined.");
+        if (executor == null || projectConfigurationIds.size() <= 1) {
+            return ProjectResolver.super.getProjectsByProjectConfigurationIds(projectConfigurationIds);
+        }
+        return fetchConcurrently(projectConfigurationIds, this::getProjectByProjectConfigurationId);
+    }
+
+    private <V> Map<String, V> fetchConcurrently(Set<String> keys, Function<String, V> fetch) {
+        Map<String, CompletableFuture<V>> futures = new HashMap<>();
+        TickTrace trace = TickTrace.current();
+        for (String key : keys) {
+            futures.put(key, CompletableFuture.supplyAsync(() -> TickTrace.callWith(trace, () -> fetch.apply(key)), executor));
+        }
+        Map<String, V> res = new HashMap<>();
+        try {
+            for (Map.Entry<String, CompletableFuture<V>> entry : futures.entrySet()) {
+                V value = entry.getValue().join();
+                if (value != null) {
+                    res.put(entry.getKey(), value);
+                }
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return res;
+    }
+
+    private ResolvedProject resolveProject(String projectName) {
+        ProjectConfiguration projectConfiguration = getProjectConfigurationByName(projectName);
+        if (projectConfiguration == null) {
+            return null;
+        }
+        return new ResolvedProject(projectConfiguration, getProjectByProjectConfigurationId(projectConfiguration.getIdentifier()));
+    }
+
+    private static final String RESOLVE_SPAN = "resolve";
+
+}
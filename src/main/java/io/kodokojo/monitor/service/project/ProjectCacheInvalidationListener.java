@@ -0,0 +1,40 @@
+package io.kodokojo.monitor.service.project;
+
+import io.kodokojo.commons.event.Event;
+import io.kodokojo.commons.event.EventBus;
+import javaslang.control.Try;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Invalidate cached projects when an event notifying a project change is received from the {@link EventBus}.
+ */
+public class ProjectCacheInvalidationListener implements EventBus.EventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectCacheInvalidationListener.class);
+
+    private final CachingProjectResolver cachingProjectResolver;
+
+    private final Set<String> invalidationEventTypes;
+
+    public ProjectCacheInvalidationListener(CachingProjectResolver cachingProjectResolver, Set<String> invalidationEventTypes) {
+        requireNonNull(cachingProjectResolver, "cachingProjectResolver must be defined.");
+        requireNonNull(invalidationEventTypes, "invalidationEventTypes must be defined.");
+        this.cachingProjectResolver = cachingProjectResolver;
+        this.invalidationEventTypes = invalidationEventTypes;
+    }
+
+    @Override
+    public Try<Boolean> receive(Event event) {
+        if (event != null && invalidationEventTypes.contains(event.getEventType())) {
+            LOGGER.debug("Receive event {}, invalidate project cache.", event.getEventType());
+            cachingProjectResolver.invalidateAll();
+            return Try.success(Boolean.TRUE);
+        }
+        return Try.success(Boolean.FALSE);
+    }
+}
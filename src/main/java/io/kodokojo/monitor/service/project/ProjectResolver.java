@@ -0,0 +1,51 @@
+package io.kodokojo.monitor.service.project;
+
+import io.kodokojo.commons.model.Project;
+import io.kodokojo.commons.model.ProjectConfiguration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Project lookups needed by the monitor to resolve a brick from a Marathon application.
+ */
+public interface ProjectResolver {
+
+    ProjectConfiguration getProjectConfigurationByName(String projectName);
+
+    Project getProjectByProjectConfigurationId(String projectConfigurationId);
+
+    /**
+     * Resolve all the given projects in a single call.
+     * @param projectNames names of projects to resolve.
+     * @return resolved projects by project name, unknown projects are absent.
+     */
+    default Map<String, ResolvedProject> resolveProjects(Set<String> projectNames) {
+        Map<String, ResolvedProject> res = new HashMap<>();
+        for (String projectName : projectNames) {
+            ProjectConfiguration projectConfiguration = getProjectConfigurationByName(projectName);
+            if (projectConfiguration != null) {
+                res.put(projectName, new ResolvedProject(projectConfiguration, getProjectByProjectConfigurationId(projectConfiguration.getIdentifier())));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Fetch the projects of all the given project configurations in a single call.
+     * @param projectConfigurationIds identifiers of project configurations.
+     * @return projects by project configuration identifier, project configurations without project are absent.
+     */
+    default Map<String, Project> getProjectsByProjectConfigurationIds(Set<String> projectConfigurationIds) {
+        Map<String, Project> res = new HashMap<>();
+        for (String projectConfigurationId : projectConfigurationIds) {
+            Project project = getProjectByProjectConfigurationId(projectConfigurationId);
+            if (project != null) {
+                res.put(projectConfigurationId, project);
+            }
+        }
+        return res;
+    }
+
+}
@@ -0,0 +1,33 @@
+package io.kodokojo.monitor.service.project;
+
+import io.kodokojo.commons.model.Project;
+import io.kodokojo.commons.model.ProjectConfiguration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Project configuration of a project name, with its project when it had been started.
+ */
+public class ResolvedProject {
+
+    private final ProjectConfiguration projectConfiguration;
+
+    private final Project project;
+
+    public ResolvedProject(ProjectConfiguration projectConfiguration, Project project) {
+        requireNonNull(projectConfiguration, "projectConfiguration must be defined.");
+        this.projectConfiguration = projectConfiguration;
+        this.project = project;
+    }
+
+    public ProjectConfiguration getProjectConfiguration() {
+        return projectConfiguration;
+    }
+
+    /**
+     * @return the project, <code>null</code> if none exist for this project configuration.
+     */
+    public Project getProject() {
+        return project;
+    }
+}
@@ -0,0 +1,177 @@
+package io.kodokojo.monitor.service.query;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateKey;
+import javaslang.collection.HashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Current brick states, indexed by project configuration, stack, state and brick type.
+ * <p>
+ * Indexes are persistent maps held by an immutable snapshot: each update builds a new snapshot sharing most of the
+ * previous one then publishes it through a volatile reference, so readers never lock and never see a partial update.
+ * </p>
+ */
+public class BrickStateIndex {
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Apply changes observed by a comparison.
+     * @param updated bricks added or which changed of state.
+     * @param removed bricks not anymore defined.
+     */
+    public synchronized void apply(Iterable<BrickStateEvent> updated, Iterable<BrickStateKey> removed) {
+        requireNonNull(updated, "updated must be defined.");
+        requireNonNull(removed, "removed must be defined.");
+        Snapshot next = snapshot;
+        for (BrickStateKey key : removed) {
+            next = next.remove(key);
+        }
+        for (BrickStateEvent brickStateEvent : updated) {
+            next = next.remove(BrickStateKey.from(brickStateEvent)).add(brickStateEvent);
+        }
+        snapshot = next;
+    }
+
+    public int size() {
+        return snapshot.bricks.size();
+    }
+
+    public List<BrickStateEvent> findAll() {
+        return toList(snapshot.bricks);
+    }
+
+    public List<BrickStateEvent> findByProjectConfigurationId(String projectConfigurationId) {
+        requireNonNull(projectConfigurationId, "projectConfigurationId must be defined.");
+        return toList(snapshot.byProjectConfigurationId.get(projectConfigurationId).getOrElse(EMPTY_BUCKET));
+    }
+
+    public List<BrickStateEvent> findByStack(String stackName) {
+        requireNonNull(stackName, "stackName must be defined.");
+        return toList(snapshot.byStack.get(stackName).getOrElse(EMPTY_BUCKET));
+    }
+
+    public List<BrickStateEvent> findByState(BrickStateEvent.State state) {
+        requireNonNull(state, "state must be defined.");
+        return toList(snapshot.byState.get(state.name()).getOrElse(EMPTY_BUCKET));
+    }
+
+    public List<BrickStateEvent> findByBrickType(String brickType) {
+        requireNonNull(brickType, "brickType must be defined.");
+        return toList(snapshot.byBrickType.get(brickType).getOrElse(EMPTY_BUCKET));
+    }
+
+    /**
+     * Find bricks matching every given criterion, all on a same snapshot.
+     * @param projectConfigurationId criterion ignored if <code>null</code>, as are the others.
+     */
+    public List<BrickStateEvent> find(String projectConfigurationId, String stackName, BrickStateEvent.State state, String brickType) {
+        Snapshot current = snapshot;
+        //  Scan the smallest bucket, then check the other criteria on each of its bricks.
+        HashMap<BrickStateKey, BrickStateEvent> candidates = current.bricks;
+        candidates = smallest(candidates, current.byProjectConfigurationId, projectConfigurationId);
+        candidates = smallest(candidates, current.byStack, stackName);
+        candidates = smallest(candidates, current.byState, state == null ? null : state.name());
+        candidates = smallest(candidates, current.byBrickType, brickType);
+        List<BrickStateEvent> res = new ArrayList<>();
+        for (BrickStateEvent brickStateEvent : candidates.values()) {
+            if ((projectConfigurationId == null || projectConfigurationId.equals(brickStateEvent.getProjectConfigurationIdentifier())) &&
+                    (stackName == null || stackName.equals(brickStateEvent.getStackName())) &&
+                    (state == null || state == brickStateEvent.getState()) &&
+                    (brickType == null || brickType.equals(brickStateEvent.getBrickType()))) {
+                res.add(brickStateEvent);
+            }
+        }
+        return res;
+    }
+
+    private static HashMap<BrickStateKey, BrickStateEvent> smallest(HashMap<BrickStateKey, BrickStateEvent> candidates, HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> index, String value) {
+        if (value == null) {
+            return candidates;
+        }
+        HashMap<BrickStateKey, BrickStateEvent> bucket = index.get(value).getOrElse(EMPTY_BUCKET);
+        return bucket.size() < candidates.size() ? bucket : candidates;
+    }
+
+    private static List<BrickStateEvent> toList(HashMap<BrickStateKey, BrickStateEvent> bricks) {
+        List<BrickStateEvent> res = new ArrayList<>(bricks.size());
+        for (BrickStateEvent brickStateEvent : bricks.values()) {
+            res.add(brickStateEvent);
+        }
+        return res;
+    }
+
+    private static class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(HashMap.empty(), HashMap.empty(), HashMap.empty(), HashMap.empty(), HashMap.empty());
+
+        private final HashMap<BrickStateKey, BrickStateEvent> bricks;
+
+        private final HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> byProjectConfigurationId;
+
+        private final HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> byStack;
+
+        private final HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> byState;
+
+        private final HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> byBrickType;
+
+        Snapshot(HashMap<BrickStateKey, BrickStateEvent> bricks,
+                 HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> byProjectConfigurationId,
+                 HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> byStack,
+                 HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> byState,
+                 HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> byBrickType) {
+            this.bricks = bricks;
+            this.byProjectConfigurationId = byProjectConfigurationId;
+            this.byStack = byStack;
+            this.byState = byState;
+            this.byBrickType = byBrickType;
+        }
+
+        Snapshot add(BrickStateEvent brickStateEvent) {
+            BrickStateKey key = BrickStateKey.from(brickStateEvent);
+            return new Snapshot(bricks.put(key, brickStateEvent),
+                    addTo(byProjectConfigurationId, BrickStateEvent::getProjectConfigurationIdentifier, key, brickStateEvent),
+                    addTo(byStack, BrickStateEvent::getStackName, key, brickStateEvent),
+                    addTo(byState, b -> b.getState().name(), key, brickStateEvent),
+                    addTo(byBrickType, BrickStateEvent::getBrickType, key, brickStateEvent));
+        }
+
+        Snapshot remove(BrickStateKey key) {
+            BrickStateEvent previous = bricks.get(key).getOrElse((BrickStateEvent) null);
+            if (previous == null) {
+                return this;
+            }
+            return new Snapshot(bricks.remove(key),
+                    removeFrom(byProjectConfigurationId, BrickStateEvent::getProjectConfigurationIdentifier, key, previous),
+                    removeFrom(byStack, BrickStateEvent::getStackName, key, previous),
+                    removeFrom(byState, b -> b.getState().name(), key, previous),
+                    removeFrom(byBrickType, BrickStateEvent::getBrickType, key, previous));
+        }
+
+        private static HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> addTo(HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> index, Function<BrickStateEvent, String> attribute, BrickStateKey key, BrickStateEvent brickStateEvent) {
+            String value = attribute.apply(brickStateEvent);
+            if (value == null) {
+                return index;
+            }
+            return index.put(value, index.get(value).getOrElse(EMPTY_BUCKET).put(key, brickStateEvent));
+        }
+
+        private static HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> removeFrom(HashMap<String, HashMap<BrickStateKey, BrickStateEvent>> index, Function<BrickStateEvent, String> attribute, BrickStateKey key, BrickStateEvent previous) {
+            String value = attribute.apply(previous);
+            if (value == null) {
+                return index;
+            }
+            HashMap<BrickStateKey, BrickStateEvent> bucket = index.get(value).getOrElse(EMPTY_BUCKET).remove(key);
+            return bucket.isEmpty() ? index.remove(value) : index.put(value, bucket);
+        }
+    }
+
+    private static final HashMap<BrickStateKey, BrickStateEvent> EMPTY_BUCKET = HashMap.empty();
+
+}
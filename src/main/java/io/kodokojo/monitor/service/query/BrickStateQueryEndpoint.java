@@ -0,0 +1,137 @@
+package io.kodokojo.monitor.service.query;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.http.HttpStatusException;
+import io.kodokojo.monitor.service.http.ReadOnlyHttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Read-only HTTP API over a {@link BrickStateIndex}.
+ * <p>
+ * <code>GET {path}</code> returns current brick states as a JSON array, optionally filtered by the
+ * <code>projectConfigurationId</code>, <code>stack</code>, <code>state</code> and <code>brickType</code> query
+ * parameters; given criteria are combined. While the index isn't authoritative, like on a standby instance whose index
+ * isn't updated by ticks, requests are answered with a <code>503</code>.
+ * </p>
+ */
+public class BrickStateQueryEndpoint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrickStateQueryEndpoint.class);
+
+    private final BrickStateIndex index;
+
+    private final int port;
+
+    private final String path;
+
+    private final BooleanSupplier authoritative;
+
+    private final Gson gson = new Gson();
+
+    private final Map<String, HttpHandler> handlers = new LinkedHashMap<>();
+
+    private HttpServer server;
+
+    /**
+     * @param port listening port, <code>0</code> to pick a free one.
+     */
+    public BrickStateQueryEndpoint(BrickStateIndex index, int port, String path) {
+        this(index, port, path, () -> true);
+    }
+
+    /**
+     * @param authoritative tell whether the index holds the current brick states, read on each request.
+     */
+    public BrickStateQueryEndpoint(BrickStateIndex index, int port, String path, BooleanSupplier authoritative) {
+        requireNonNull(index, "index must be defined.");
+        requireNonNull(path, "path must be defined.");
+        requireNonNull(authoritative, "authoritative must be defined.");
+        if (port < 0) {
+            throw new IllegalArgumentException("port must be greater or equal to 0.");
+        }
+        this.index = index;
+        this.port = port;
+        this.path = path;
+        this.authoritative = authoritative;
+    }
+
+    /**
+     * Serve another brick state resource on the same port. Must be called before {@link #start()}.
+     */
+    public synchronized void addHandler(String handlerPath, HttpHandler handler) {
+        requireNonNull(handlerPath, "handlerPath must be defined.");
+        requireNonNull(handler, "handler must be defined.");
+        if (server != null) {
+            throw new IllegalStateException("Handlers must be added before endpoint is started.");
+        }
+        handlers.put(handlerPath, handler);
+    }
+
+    public synchronized void start() {
+        if (server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to listen on port " + port + " to expose brick states.", e);
+        }
+        server.createContext(path, ReadOnlyHttpHandler.of(ReadOnlyHttpHandler.JSON_CONTENT_TYPE, this::query));
+        handlers.forEach(server::createContext);
+        server.start();
+        LOGGER.info("Brick states exposed on http://0.0.0.0:{}{}.", getPort(), path);
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    /**
+     * @return port actually listened, once started.
+     */
+    public synchronized int getPort() {
+        return server == null ? port : server.getAddress().getPort();
+    }
+
+    private String query(String query) throws IOException, HttpStatusException {
+        if (!authoritative.getAsBoolean()) {
+            throw new HttpStatusException(ReadOnlyHttpHandler.HTTP_SERVICE_UNAVAILABLE);
+        }
+        Map<String, String> parameters = ReadOnlyHttpHandler.readParameters(query);
+        BrickStateEvent.State state = null;
+        if (parameters.containsKey(STATE_PARAMETER)) {
+            try {
+                state = BrickStateEvent.State.valueOf(parameters.get(STATE_PARAMETER));
+            } catch (IllegalArgumentException e) {
+                throw new HttpStatusException(ReadOnlyHttpHandler.HTTP_BAD_REQUEST);
+            }
+        }
+        List<BrickStateEvent> brickStateEvents = index.find(parameters.get(PROJECT_CONFIGURATION_ID_PARAMETER), parameters.get(STACK_PARAMETER), state, parameters.get(BRICK_TYPE_PARAMETER));
+        return gson.toJson(brickStateEvents);
+    }
+
+    private static final String PROJECT_CONFIGURATION_ID_PARAMETER = "projectConfigurationId";
+
+    private static final String STACK_PARAMETER = "stack";
+
+    private static final String STATE_PARAMETER = "state";
+
+    private static final String BRICK_TYPE_PARAMETER = "brickType";
+
+}
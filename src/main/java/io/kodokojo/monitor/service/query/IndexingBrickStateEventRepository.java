@@ -0,0 +1,75 @@
+package io.kodokojo.monitor.service.query;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventRepository;
+import io.kodokojo.monitor.service.BrickStateKey;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keep a {@link BrickStateIndex} up to date with the changes returned by a delegate {@link BrickStateEventRepository}.
+ * <p>
+ * Only changes are applied, so maintaining the index costs nothing on ticks where no brick changed. A STOPPED change
+ * returned by <code>compareAndUpdate</code> for a brick absent of the observed states is the removal of this brick.
+ * </p>
+ */
+public class IndexingBrickStateEventRepository implements BrickStateEventRepository {
+
+    private final BrickStateEventRepository delegate;
+
+    private final BrickStateIndex index;
+
+    public IndexingBrickStateEventRepository(BrickStateEventRepository delegate, BrickStateIndex index) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(index, "index must be defined.");
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    @Override
+    public Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents) {
+        Set<BrickStateEvent> res = delegate.compareAndUpdate(brickStateEvents);
+        index(brickStateEvents, res, true);
+        return res;
+    }
+
+    @Override
+    public Set<BrickStateEvent> update(Set<BrickStateEvent> brickStateEvents) {
+        Set<BrickStateEvent> res = delegate.update(brickStateEvents);
+        index(brickStateEvents, res, false);
+        return res;
+    }
+
+    private void index(Set<BrickStateEvent> observed, Set<BrickStateEvent> changes, boolean removeMissing) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<BrickStateEvent> updated = new ArrayList<>(changes.size());
+        List<BrickStateKey> removed = new ArrayList<>();
+        Set<BrickStateKey> observedKeys = null;
+        for (BrickStateEvent change : changes) {
+            //  Removed bricks are reported STOPPED, observed keys are only computed when such a change may be one.
+            if (removeMissing && change.getState() == BrickStateEvent.State.STOPPED && !observed.contains(change)) {
+                if (observedKeys == null) {
+                    observedKeys = new HashSet<>(observed.size());
+                    for (BrickStateEvent brickStateEvent : observed) {
+                        observedKeys.add(BrickStateKey.from(brickStateEvent));
+                    }
+                }
+                BrickStateKey key = BrickStateKey.from(change);
+                if (!observedKeys.contains(key)) {
+                    removed.add(key);
+                    continue;
+                }
+            }
+            updated.add(change);
+        }
+        index.apply(updated, removed);
+    }
+
+}
@@ -0,0 +1,109 @@
+package io.kodokojo.monitor.service.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable consistent hash ring of monitor instances.
+ * <p>
+ * Each member is placed on the ring at <code>virtualNodes</code> points, a key is owned by the member of the first point
+ * following the hash of the key. When a member joins or leaves, only the keys of its points move. Points are kept in a
+ * sorted array searched by dichotomy.
+ * </p>
+ */
+public final class ConsistentHashRing {
+
+    private final List<String> members;
+
+    private final long[] points;
+
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        requireNonNull(members, "members must be defined.");
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("members must contain at least one member.");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be greater than 0.");
+        }
+        //  Sorted, so every instance builds a same ring from a same membership whatever its order.
+        this.members = Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(members)));
+        int size = this.members.size() * virtualNodes;
+        long[] unsortedPoints = new long[size];
+        int[] memberIndexes = new int[size];
+        Integer[] order = new Integer[size];
+        int i = 0;
+        for (int memberIndex = 0; memberIndex < this.members.size(); memberIndex++) {
+            String member = this.members.get(memberIndex);
+            for (int virtualNode = 0; virtualNode < virtualNodes; virtualNode++) {
+                unsortedPoints[i] = hash(member + VIRTUAL_NODE_SEPARATOR + virtualNode);
+                memberIndexes[i] = memberIndex;
+                order[i] = i;
+                i++;
+            }
+        }
+        Arrays.sort(order, (left, right) -> Long.compare(unsortedPoints[left], unsortedPoints[right]));
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (i = 0; i < size; i++) {
+            points[i] = unsortedPoints[order[i]];
+            owners[i] = this.members.get(memberIndexes[order[i]]);
+        }
+    }
+
+    public String ownerOf(String key) {
+        requireNonNull(key, "key must be defined.");
+        if (members.size() == 1) {
+            return members.get(0);
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> getMembers() {
+        return members;
+    }
+
+    /**
+     * 64 bits FNV-1a of UTF-8 bytes, followed by a finalizer which spreads close keys over the whole ring.
+     */
+    static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsistentHashRing{" +
+                "members=" + members +
+                ", points=" + points.length +
+                '}';
+    }
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private static final String VIRTUAL_NODE_SEPARATOR = "#";
+
+}
@@ -0,0 +1,90 @@
+package io.kodokojo.monitor.service.shard;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventRepository;
+import io.kodokojo.monitor.service.BrickStateKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Drop the removals computed by a delegate repository for bricks whose project moved to another shard.
+ * <p>
+ * Bricks move when instances restart with other members, while the repository still holds the states restored from
+ * a previous run. A brick which merely moved isn't stopped: the instance now owning it keeps reporting its state. Decorators above
+ * this repository never see these bricks leave, so their keys are given to a listener instead.
+ * </p>
+ */
+public class ShardFilteringBrickStateEventRepository implements BrickStateEventRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardFilteringBrickStateEventRepository.class);
+
+    private final BrickStateEventRepository delegate;
+
+    private final ShardOwnership shardOwnership;
+
+    private final Consumer<Set<BrickStateKey>> movedAwayListener;
+
+    public ShardFilteringBrickStateEventRepository(BrickStateEventRepository delegate, ShardOwnership shardOwnership) {
+        this(delegate, shardOwnership, movedAway -> {});
+    }
+
+    /**
+     * @param movedAwayListener called with the keys of the bricks moved to another shard, on the thread comparing states.
+     */
+    public ShardFilteringBrickStateEventRepository(BrickStateEventRepository delegate, ShardOwnership shardOwnership, Consumer<Set<BrickStateKey>> movedAwayListener) {
+        requireNonNull(delegate, "delegate must be defined.");
+        requireNonNull(shardOwnership, "shardOwnership must be defined.");
+        requireNonNull(movedAwayListener, "movedAwayListener must be defined.");
+        this.delegate = delegate;
+        this.shardOwnership = shardOwnership;
+        this.movedAwayListener = movedAwayListener;
+    }
+
+    @Override
+    public Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents) {
+        requireNonNull(brickStateEvents, "brickStateEvents must be defined.");
+        Set<BrickStateEvent> res = delegate.compareAndUpdate(brickStateEvents);
+        Set<BrickStateKey> observedKeys = null;
+        Set<BrickStateKey> movedAway = null;
+        Iterator<BrickStateEvent> iterator = res.iterator();
+        while (iterator.hasNext()) {
+            BrickStateEvent brickStateEvent = iterator.next();
+            if (brickStateEvent.getState() != BrickStateEvent.State.STOPPED || shardOwnership.ownsProjectConfiguration(brickStateEvent.getProjectConfigurationIdentifier())) {
+                continue;
+            }
+            if (observedKeys == null) {
+                observedKeys = new HashSet<>();
+                for (BrickStateEvent observed : brickStateEvents) {
+                    observedKeys.add(BrickStateKey.from(observed));
+                }
+            }
+            BrickStateKey key = BrickStateKey.from(brickStateEvent);
+            if (!observedKeys.contains(key)) {
+                LOGGER.debug("Brick {} of projectConfigurationId '{}' moved to another shard, not reporting it stopped.", brickStateEvent.getBrickName(), brickStateEvent.getProjectConfigurationIdentifier());
+                iterator.remove();
+                if (movedAway == null) {
+                    movedAway = new HashSet<>();
+                }
+                movedAway.add(key);
+            }
+        }
+        if (movedAway != null) {
+            movedAwayListener.accept(movedAway);
+        }
+        return res;
+    }
+
+    @Override
+    public Set<BrickStateEvent> update(Set<BrickStateEvent> brickStateEvents) {
+        //  No brick is removed, none may be wrongly reported stopped.
+        return delegate.update(brickStateEvents);
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.kodokojo.monitor.service.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Tell which projects are watched by this monitor instance, from a consistent hash of project names over the members
+ * of the monitor cluster.
+ * <p>
+ * Bricks are identified by project configuration identifier while shards are computed from project names, so the
+ * lookup registers the name of each project it resolves; a project this instance never resolved is considered owned by
+ * another instance, so its bricks are never reported stopped by this one.
+ * Members are fixed at startup: moving projects to new members requires restarting every instance with the new
+ * member list.
+ * </p>
+ */
+public class ShardOwnership {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardOwnership.class);
+
+    private final String self;
+
+    private final int virtualNodes;
+
+    private final Map<String, String> projectNameByProjectConfigurationId = new ConcurrentHashMap<>();
+
+    private final ConsistentHashRing ring;
+
+    public ShardOwnership(String self, Collection<String> members, int virtualNodes) {
+        requireNonNull(self, "self must be defined.");
+        requireNonNull(members, "members must be defined.");
+        this.self = self;
+        this.virtualNodes = virtualNodes;
+        this.ring = createRing(members);
+    }
+
+    /**
+     * @return an ownership of all projects, for a monitor running alone.
+     */
+    public static ShardOwnership single(String self) {
+        return new ShardOwnership(self, Collections.singleton(self), 1);
+    }
+
+    public boolean ownsProject(String projectName) {
+        requireNonNull(projectName, "projectName must be defined.");
+        return self.equals(ring.ownerOf(projectName));
+    }
+
+    public boolean ownsProjectConfiguration(String projectConfigurationIdentifier) {
+        requireNonNull(projectConfigurationIdentifier, "projectConfigurationIdentifier must be defined.");
+        String projectName = projectNameByProjectConfigurationId.get(projectConfigurationIdentifier);
+        return projectName != null && ownsProject(projectName);
+    }
+
+    public void registerProject(String projectConfigurationIdentifier, String projectName) {
+        requireNonNull(projectConfigurationIdentifier, "projectConfigurationIdentifier must be defined.");
+        requireNonNull(projectName, "projectName must be defined.");
+        projectNameByProjectConfigurationId.put(projectConfigurationIdentifier, projectName);
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public Collection<String> getMembers() {
+        return ring.getMembers();
+    }
+
+    private ConsistentHashRing createRing(Collection<String> members) {
+        if (!members.contains(self)) {
+            LOGGER.warn("Shard members {} don't contain {}, no project is watched by this instance.", members, self);
+        }
+        return members.isEmpty() ? new ConsistentHashRing(Collections.singleton(NO_MEMBER), 1) : new ConsistentHashRing(members, virtualNodes);
+    }
+
+    //  Owner of all projects when there is no member, never equals to an instance name.
+    private static final String NO_MEMBER = "";
+
+}
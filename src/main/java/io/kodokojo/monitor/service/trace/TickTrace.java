@@ -0,0 +1,186 @@
+package io.kodokojo.monitor.service.trace;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Spans recorded during a tick.
+ * <p>
+ * The trace of the running tick is bound to the tick thread; components record their spans with the static
+ * {@link #span(String, String, long)} which does nothing when no trace is bound, so tracing costs nothing to code run
+ * outside a tick. Spans are kept in preallocated arrays, spans beyond capacity are counted and dropped.
+ * </p>
+ */
+public class TickTrace {
+
+    private static final ThreadLocal<TickTrace> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+
+    private final long startDate;
+
+    private final long start;
+
+    private final String[] spanNames;
+
+    private final String[] spanDetails;
+
+    private final long[] spanOffsets;
+
+    private final long[] spanDurations;
+
+    private int spanCount;
+
+    private int droppedSpanCount;
+
+    private long duration = -1;
+
+    TickTrace(String name, int maxSpans) {
+        this.name = name;
+        this.startDate = System.currentTimeMillis();
+        this.start = System.nanoTime();
+        this.spanNames = new String[maxSpans];
+        this.spanDetails = new String[maxSpans];
+        this.spanOffsets = new long[maxSpans];
+        this.spanDurations = new long[maxSpans];
+    }
+
+    /**
+     * @return trace bound to current thread, <code>null</code> if none.
+     */
+    public static TickTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Record a span in the trace bound to current thread, if any.
+     * @param start start date of the span, from {@link System#nanoTime()}.
+     */
+    public static void span(String name, long start) {
+        span(name, null, start);
+    }
+
+    /**
+     * Record a span in the trace bound to current thread, if any.
+     * @param detail what the span worked on, like a project name, may be <code>null</code>.
+     * @param start start date of the span, from {@link System#nanoTime()}.
+     */
+    public static void span(String name, String detail, long start) {
+        TickTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.record(name, detail, start, System.nanoTime());
+        }
+    }
+
+    /**
+     * Run a task on behalf of a trace, used to keep tracing work handed over to another thread.
+     * @param trace trace to bind while task runs, may be <code>null</code>.
+     */
+    public static <T> T callWith(TickTrace trace, Supplier<T> task) {
+        requireNonNull(task, "task must be defined.");
+        TickTrace previous = CURRENT.get();
+        bind(trace);
+        try {
+            return task.get();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    static void bind(TickTrace trace) {
+        if (trace == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(trace);
+        }
+    }
+
+    synchronized void record(String spanName, String detail, long spanStart, long spanEnd) {
+        //  Work handed over to another thread may complete after the tick.
+        if (duration >= 0) {
+            return;
+        }
+        if (spanCount == spanNames.length) {
+            droppedSpanCount++;
+            return;
+        }
+        spanNames[spanCount] = spanName;
+        spanDetails[spanCount] = detail;
+        spanOffsets[spanCount] = spanStart - start;
+        spanDurations[spanCount] = spanEnd - spanStart;
+        spanCount++;
+    }
+
+    synchronized void end() {
+        if (duration < 0) {
+            duration = System.nanoTime() - start;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return start date, in milliseconds since epoch.
+     */
+    public long getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * @return duration in nanoseconds, <code>-1</code> while running.
+     */
+    public synchronized long getDuration() {
+        return duration;
+    }
+
+    public synchronized int getSpanCount() {
+        return spanCount;
+    }
+
+    public synchronized String getSpanName(int index) {
+        return spanNames[index];
+    }
+
+    public synchronized long getSpanDuration(int index) {
+        return spanDurations[index];
+    }
+
+    public synchronized int getDroppedSpanCount() {
+        return droppedSpanCount;
+    }
+
+    public synchronized JsonObject toJson() {
+        JsonObject res = new JsonObject();
+        res.addProperty("name", name);
+        res.addProperty("startDate", startDate);
+        res.addProperty("durationMs", toMillis(duration));
+        JsonArray spans = new JsonArray();
+        for (int i = 0; i < spanCount; i++) {
+            JsonObject span = new JsonObject();
+            span.addProperty("name", spanNames[i]);
+            if (spanDetails[i] != null) {
+                span.addProperty("detail", spanDetails[i]);
+            }
+            span.addProperty("offsetMs", toMillis(spanOffsets[i]));
+            span.addProperty("durationMs", toMillis(spanDurations[i]));
+            spans.add(span);
+        }
+        res.add("spans", spans);
+        if (droppedSpanCount > 0) {
+            res.addProperty("droppedSpans", droppedSpanCount);
+        }
+        return res;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
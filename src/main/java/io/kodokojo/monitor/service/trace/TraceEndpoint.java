@@ -0,0 +1,47 @@
+package io.kodokojo.monitor.service.trace;
+
+import com.google.gson.JsonArray;
+import io.kodokojo.monitor.service.http.ReadOnlyHttpHandler;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Show the slowest recent ticks as JSON, <code>limit</code> query parameter sets how many.
+ */
+public class TraceEndpoint extends ReadOnlyHttpHandler {
+
+    private final Tracer tracer;
+
+    public TraceEndpoint(Tracer tracer) {
+        super(JSON_CONTENT_TYPE);
+        requireNonNull(tracer, "tracer must be defined.");
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected String read(String query) throws IOException {
+        JsonArray traces = new JsonArray();
+        tracer.slowest(readLimit(query)).forEach(trace -> traces.add(trace.toJson()));
+        return traces.toString();
+    }
+
+    static int readLimit(String query) throws UnsupportedEncodingException {
+        String limit = readParameters(query).get(LIMIT_PARAMETER);
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(limit));
+        } catch (NumberFormatException e) {
+            return DEFAULT_LIMIT;
+        }
+    }
+
+    private static final String LIMIT_PARAMETER = "limit";
+
+    private static final int DEFAULT_LIMIT = 10;
+
+}
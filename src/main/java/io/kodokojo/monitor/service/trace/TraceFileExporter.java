@@ -0,0 +1,174 @@
+package io.kodokojo.monitor.service.trace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Append traces to a local file, one JSON object per line.
+ * <p>
+ * Traces are queued and written by a dedicated thread, so a tick never waits for the disk; when the queue is full,
+ * traces are dropped. Once the file would exceed <code>maxSize</code> bytes, it is renamed with a <code>.1</code>
+ * suffix, replacing the previous one, and a new file is started.
+ * </p>
+ */
+public class TraceFileExporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TraceFileExporter.class);
+
+    private final Path path;
+
+    private final Path rotatedPath;
+
+    private final long minDuration;
+
+    private final long maxSize;
+
+    private final BlockingQueue<TickTrace> queue;
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private volatile boolean closed = false;
+
+    private volatile Thread writerThread;
+
+    //  Only used by the writer thread.
+    private BufferedWriter writer;
+
+    private long size;
+
+    /**
+     * @param minDuration minimum duration in milliseconds of an exported trace, to only keep slow ticks.
+     * @param maxSize size in bytes from which the file is rotated.
+     */
+    public TraceFileExporter(Path path, long minDuration, long maxSize, int queueCapacity) {
+        requireNonNull(path, "path must be defined.");
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0.");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be greater than 0.");
+        }
+        this.path = path;
+        this.rotatedPath = path.resolveSibling(path.getFileName() + ROTATED_SUFFIX);
+        this.minDuration = TimeUnit.MILLISECONDS.toNanos(minDuration);
+        this.maxSize = maxSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public void export(TickTrace trace) {
+        requireNonNull(trace, "trace must be defined.");
+        if (closed || trace.getDuration() < minDuration) {
+            return;
+        }
+        if (!queue.offer(trace)) {
+            droppedCount.increment();
+            return;
+        }
+        if (writerThread == null) {
+            startWriter();
+        }
+    }
+
+    /**
+     * Write queued traces, waiting at most a few seconds, then close the file.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (writerThread != null) {
+            try {
+                writerThread.join(CLOSE_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writerThread.isAlive()) {
+                LOGGER.warn("Trace exporter not stopped after {}ms, {} traces may not be exported.", CLOSE_TIMEOUT, queue.size());
+            }
+        }
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    private synchronized void startWriter() {
+        if (writerThread != null || closed) {
+            return;
+        }
+        Thread thread = new Thread(this::writeQueue, "trace-exporter");
+        thread.setDaemon(true);
+        thread.start();
+        writerThread = thread;
+    }
+
+    private void writeQueue() {
+        while (!closed || !queue.isEmpty()) {
+            TickTrace trace;
+            try {
+                trace = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (trace != null) {
+                write(trace.toJson().toString());
+            }
+        }
+        closeWriter();
+    }
+
+    private void write(String line) {
+        long lineSize = line.getBytes(StandardCharsets.UTF_8).length + 1;
+        try {
+            if (writer != null && size > 0 && size + lineSize > maxSize) {
+                closeWriter();
+                Files.move(path, rotatedPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (writer == null) {
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                size = Files.size(path);
+            }
+            writer.write(line);
+            writer.write('\n');
+            size += lineSize;
+            //  Flushed once the queue is drained, traces of a burst are written together.
+            if (queue.isEmpty()) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to export trace to {}.", path, e);
+            closeWriter();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.debug("Unable to close trace file {}.", path, e);
+            }
+            writer = null;
+        }
+    }
+
+    private static final String ROTATED_SUFFIX = ".1";
+
+    private static final long POLL_TIMEOUT = 200;
+
+    private static final long CLOSE_TIMEOUT = 5000;
+
+}
@@ -0,0 +1,87 @@
+package io.kodokojo.monitor.service.trace;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Trace ticks and keep the last ones in a fixed-size ring buffer.
+ */
+public class Tracer {
+
+    private final TickTrace[] traces;
+
+    private final int maxSpans;
+
+    private final TraceFileExporter exporter;
+
+    private int next = 0;
+
+    /**
+     * @param capacity number of traces kept.
+     * @param maxSpans maximum number of spans recorded by a trace.
+     * @param exporter exporter of ended traces, <code>null</code> to only keep them in memory.
+     */
+    public Tracer(int capacity, int maxSpans, TraceFileExporter exporter) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0.");
+        }
+        if (maxSpans <= 0) {
+            throw new IllegalArgumentException("maxSpans must be greater than 0.");
+        }
+        this.traces = new TickTrace[capacity];
+        this.maxSpans = maxSpans;
+        this.exporter = exporter;
+    }
+
+    /**
+     * Start a trace and bind it to current thread.
+     */
+    public TickTrace begin(String name) {
+        requireNonNull(name, "name must be defined.");
+        TickTrace trace = new TickTrace(name, maxSpans);
+        TickTrace.bind(trace);
+        return trace;
+    }
+
+    /**
+     * End a trace started by current thread, then keep and export it.
+     */
+    public void end(TickTrace trace) {
+        requireNonNull(trace, "trace must be defined.");
+        trace.end();
+        TickTrace.bind(null);
+        synchronized (traces) {
+            traces[next] = trace;
+            next = (next + 1) % traces.length;
+        }
+        if (exporter != null) {
+            exporter.export(trace);
+        }
+    }
+
+    /**
+     * @return slowest kept traces, slowest first.
+     */
+    public List<TickTrace> slowest(int limit) {
+        List<TickTrace> res = new ArrayList<>(traces.length);
+        synchronized (traces) {
+            for (TickTrace trace : traces) {
+                if (trace != null) {
+                    res.add(trace);
+                }
+            }
+        }
+        res.sort(Comparator.comparingLong(TickTrace::getDuration).reversed());
+        return res.size() > limit ? new ArrayList<>(res.subList(0, Math.max(0, limit))) : res;
+    }
+
+    public void close() {
+        if (exporter != null) {
+            exporter.close();
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+-- Compare observed brick states with the states stored in hash KEYS[1], and update them atomically.
+-- ARGV[1] is '1' to remove bricks missing from observed ones, '0' to keep them. Following ARGV hold pairs of brick key
+-- and encoded brick state; an encoded state starts with the state name, followed by the unit separator.
+-- Returns a flat array of triplets: 'c' or 'r' for a changed or removed brick, its brick key and its encoded state.
+local key = KEYS[1]
+local res = {}
+local observed = {}
+for i = 2, #ARGV, 2 do
+    local field = ARGV[i]
+    local value = ARGV[i + 1]
+    observed[field] = true
+    local current = redis.call('HGET', key, field)
+    if not current or string.match(current, '^[^\31]*') ~= string.match(value, '^[^\31]*') then
+        redis.call('HSET', key, field, value)
+        res[#res + 1] = 'c'
+        res[#res + 1] = field
+        res[#res + 1] = value
+    end
+end
+if ARGV[1] ~= '1' then
+    return res
+end
+local stored = redis.call('HGETALL', key)
+for i = 1, #stored, 2 do
+    local field = stored[i]
+    if not observed[field] then
+        redis.call('HDEL', key, field)
+        res[#res + 1] = 'r'
+        res[#res + 1] = field
+        res[#res + 1] = stored[i + 1]
+    end
+end
+return res
@@ -0,0 +1,62 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveTickIntervalTest {
+
+    private final AdaptiveTickInterval adaptiveTickInterval = new AdaptiveTickInterval(5, 60, 300, 2);
+
+    @Test
+    public void transitioning_brick_shorten_interval_test() {
+        //  given
+        Set<BrickStateEvent> brickStateEvents = Collections.singleton(aBrickStateEvent(BrickStateEvent.State.STARTING));
+
+        //  when
+        long delay = adaptiveTickInterval.nextDelay(brickStateEvents, 1, false);
+
+        //  then
+        assertThat(delay).isEqualTo(5);
+    }
+
+    @Test
+    public void stable_cluster_back_off_up_to_max_interval_test() {
+        //  given
+        Set<BrickStateEvent> brickStateEvents = Collections.singleton(aBrickStateEvent(BrickStateEvent.State.RUNNING));
+
+        //  when
+        long first = adaptiveTickInterval.nextDelay(brickStateEvents, 0, false);
+        long second = adaptiveTickInterval.nextDelay(brickStateEvents, 0, false);
+        long third = adaptiveTickInterval.nextDelay(brickStateEvents, 0, false);
+        long changed = adaptiveTickInterval.nextDelay(brickStateEvents, 1, false);
+
+        //  then
+        assertThat(first).isEqualTo(120);
+        assertThat(second).isEqualTo(240);
+        assertThat(third).isEqualTo(300);
+        assertThat(changed).isEqualTo(60);
+    }
+
+    @Test
+    public void failing_lookup_back_off_even_while_transitioning_test() {
+        //  given
+        adaptiveTickInterval.nextDelay(Collections.singleton(aBrickStateEvent(BrickStateEvent.State.CONFIGURING)), 1, false);
+
+        //  when
+        long delay = adaptiveTickInterval.nextDelay(Collections.emptySet(), 0, true);
+
+        //  then
+        assertThat(delay).isEqualTo(120);
+    }
+
+    private static BrickStateEvent aBrickStateEvent(BrickStateEvent.State state) {
+        return new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", state, "1.651.3");
+    }
+
+}
@@ -0,0 +1,129 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncBrickStateEventPublisherTest {
+
+    private final List<BrickStateEvent> published = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch publishAllowed = new CountDownLatch(1);
+
+    private AsyncBrickStateEventPublisher publisher;
+
+    @After
+    public void tearDown() {
+        publishAllowed.countDown();
+        if (publisher != null) {
+            publisher.stop(1000);
+        }
+    }
+
+    @Test
+    public void coalesce_keep_latest_state_of_each_brick_test() throws InterruptedException {
+        //  given
+        publisher = new AsyncBrickStateEventPublisher(published::addAll, 10, PublishOverflowPolicy.COALESCE);
+        publisher.publish(Collections.singleton(jenkins("project1", BrickStateEvent.State.STARTING)));
+        publisher.publish(Collections.singleton(jenkins("project2", BrickStateEvent.State.RUNNING)));
+        publisher.publish(Collections.singleton(jenkins("project1", BrickStateEvent.State.RUNNING)));
+
+        //  when
+        int queueDepth = publisher.getQueueDepth();
+        publisher.start();
+        publisher.stop(1000);
+
+        //  then
+        assertThat(queueDepth).isEqualTo(2);
+        assertThat(publisher.getCoalescedCount()).isEqualTo(1);
+        assertThat(published).containsExactly(jenkins("project1", BrickStateEvent.State.RUNNING), jenkins("project2", BrickStateEvent.State.RUNNING));
+    }
+
+    @Test
+    public void drop_oldest_when_queue_is_full_test() {
+        //  given
+        publisher = new AsyncBrickStateEventPublisher(published::addAll, 2, PublishOverflowPolicy.DROP_OLDEST);
+
+        //  when
+        publisher.publish(Collections.singleton(jenkins("project1", BrickStateEvent.State.STARTING)));
+        publisher.publish(Collections.singleton(jenkins("project2", BrickStateEvent.State.STARTING)));
+        publisher.publish(Collections.singleton(jenkins("project3", BrickStateEvent.State.STARTING)));
+
+        //  then
+        assertThat(publisher.getQueueDepth()).isEqualTo(2);
+        assertThat(publisher.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void export_queue_depth_and_drops_test() {
+        //  given
+        publisher = new AsyncBrickStateEventPublisher(published::addAll, 1, PublishOverflowPolicy.DROP_OLDEST);
+        MonitorMetrics metrics = new MonitorMetrics();
+        metrics.registerAsyncPublisher(publisher);
+
+        //  when
+        publisher.publish(Collections.singleton(jenkins("project1", BrickStateEvent.State.STARTING)));
+        publisher.publish(Collections.singleton(jenkins("project2", BrickStateEvent.State.STARTING)));
+
+        //  then
+        String output = metrics.getRegistry().toPrometheus();
+        assertThat(output).contains("kodokojo_monitor_publish_queue_depth 1\n");
+        assertThat(output).contains("kodokojo_monitor_publish_queue_events_total{outcome=\"dropped\"} 1\n");
+        assertThat(output).contains("kodokojo_monitor_publish_queue_events_total{outcome=\"published\"} 0\n");
+    }
+
+    @Test
+    public void slow_event_bus_does_not_delay_publish_test() throws InterruptedException {
+        //  given
+        CountDownLatch publishStarted = new CountDownLatch(1);
+        publisher = new AsyncBrickStateEventPublisher(brickStateEvents -> {
+            publishStarted.countDown();
+            awaitQuietly(publishAllowed);
+            published.addAll(brickStateEvents);
+        }, 10, PublishOverflowPolicy.BLOCK);
+        publisher.start();
+        publisher.publish(Collections.singleton(jenkins("project1", BrickStateEvent.State.STARTING)));
+        assertThat(publishStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //  when
+        long begin = System.currentTimeMillis();
+        Set<BrickStateEvent> brickStateEvents = new HashSet<>();
+        brickStateEvents.add(jenkins("project2", BrickStateEvent.State.STARTING));
+        brickStateEvents.add(jenkins("project3", BrickStateEvent.State.STARTING));
+        publisher.publish(brickStateEvents);
+        long duration = System.currentTimeMillis() - begin;
+
+        //  then
+        assertThat(duration).isLessThan(1000);
+        assertThat(publisher.getQueueDepth()).isEqualTo(2);
+        publishAllowed.countDown();
+        publisher.stop(5000);
+        assertThat(published).hasSize(3);
+        assertThat(publisher.getPublishedCount()).isEqualTo(3);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BrickStateEvent jenkins(String projectConfigurationIdentifier, BrickStateEvent.State state) {
+        return new BrickStateEvent(projectConfigurationIdentifier, "build-A", BrickType.CI.name(), "jenkins", state, "1.651.3");
+    }
+
+}
@@ -0,0 +1,146 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.config.MicroServiceConfig;
+import io.kodokojo.commons.event.DefaultEventBuilderFactory;
+import io.kodokojo.commons.event.Event;
+import io.kodokojo.commons.event.EventBuilderFactory;
+import io.kodokojo.commons.event.EventBus;
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BatchBrickStateEventPublisherTest {
+
+    private EventBus eventBus;
+
+    private EventBuilderFactory eventBuilderFactory;
+
+    @Before
+    public void setup() {
+        eventBus = mock(EventBus.class);
+        String uuid = UUID.randomUUID().toString();
+        eventBuilderFactory = new DefaultEventBuilderFactory(new MicroServiceConfig() {
+            @Override
+            public String name() {
+                return "mock";
+            }
+
+            @Override
+            public String uuid() {
+                return uuid;
+            }
+        });
+    }
+
+    @Test
+    public void changes_are_packed_by_max_batch_size_test() {
+        //  given
+        BatchBrickStateEventPublisher publisher = new BatchBrickStateEventPublisher(eventBuilderFactory, eventBus, 2, Long.MAX_VALUE);
+
+        //  when
+        publisher.publish(aBrickStateEvents(5));
+
+        //  then
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(eventBus, times(3)).send(captor.capture());
+        List<Event> events = captor.getAllValues();
+        assertThat(events).extracting(Event::getEventType).containsOnly(BrickStateEventBatch.BRICK_STATE_UPDATE_BATCH);
+        int brickStateEventCount = events.stream().mapToInt(event -> event.getPayload(BrickStateEventBatch.class).getBrickStateEvents().size()).sum();
+        assertThat(brickStateEventCount).isEqualTo(5);
+    }
+
+    @Test
+    public void changes_are_packed_by_max_batch_bytes_test() {
+        //  given
+        BatchBrickStateEventPublisher publisher = new BatchBrickStateEventPublisher(eventBuilderFactory, eventBus, 100, 1);
+
+        //  when
+        List<BrickStateEventBatch> batches = publisher.split(aBrickStateEvents(3));
+
+        //  then
+        assertThat(batches).hasSize(3);
+        assertThat(batches).extracting(batch -> batch.getBrickStateEvents().size()).containsOnly(1);
+    }
+
+    @Test
+    public void changes_of_all_project_configurations_are_packed_together_test() {
+        //  given
+        BatchBrickStateEventPublisher publisher = new BatchBrickStateEventPublisher(eventBuilderFactory, eventBus, 100, Long.MAX_VALUE);
+        Set<BrickStateEvent> brickStateEvents = aBrickStateEvents(3);
+        brickStateEvents.addAll(anotherProjectBrickStateEvents());
+
+        //  when
+        publisher.publish(brickStateEvents);
+
+        //  then
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(eventBus, times(1)).send(captor.capture());
+        List<BrickStateEvent> batch = captor.getValue().getPayload(BrickStateEventBatch.class).getBrickStateEvents();
+        assertThat(batch).hasSize(5);
+        assertThat(batch).extracting(BrickStateEvent::getProjectConfigurationIdentifier).containsOnly("1234", "5678");
+    }
+
+    @Test
+    public void changes_are_grouped_by_project_configuration_test() {
+        //  given
+        BatchBrickStateEventPublisher publisher = new BatchBrickStateEventPublisher(eventBuilderFactory, eventBus, 100, Long.MAX_VALUE, true);
+        Set<BrickStateEvent> brickStateEvents = aBrickStateEvents(3);
+        brickStateEvents.addAll(anotherProjectBrickStateEvents());
+
+        //  when
+        publisher.publish(brickStateEvents);
+
+        //  then
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(eventBus, times(2)).send(captor.capture());
+        Set<String> projectConfigurationIds = new HashSet<>();
+        for (Event event : captor.getAllValues()) {
+            List<BrickStateEvent> batch = event.getPayload(BrickStateEventBatch.class).getBrickStateEvents();
+            String projectConfigurationId = batch.get(0).getProjectConfigurationIdentifier();
+            assertThat(batch).extracting(BrickStateEvent::getProjectConfigurationIdentifier).containsOnly(projectConfigurationId);
+            projectConfigurationIds.add(projectConfigurationId);
+        }
+        assertThat(projectConfigurationIds).containsOnly("1234", "5678");
+    }
+
+    @Test
+    public void all_changes_of_a_tick_fit_in_one_batch_test() {
+        //  given
+        BatchBrickStateEventPublisher publisher = new BatchBrickStateEventPublisher(eventBuilderFactory, eventBus, 500, 256 * 1024);
+
+        //  when
+        publisher.publish(aBrickStateEvents(200));
+
+        //  then
+        verify(eventBus, times(1)).send(any(Event.class));
+    }
+
+    private static Set<BrickStateEvent> aBrickStateEvents(int count) {
+        Set<BrickStateEvent> res = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            res.add(new BrickStateEvent("1234", "build-A", BrickType.CI.name(), "jenkins" + i, BrickStateEvent.State.ONFAILURE, "1.651.3"));
+        }
+        return res;
+    }
+
+    private static Set<BrickStateEvent> anotherProjectBrickStateEvents() {
+        Set<BrickStateEvent> res = new HashSet<>();
+        res.add(new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", BrickStateEvent.State.RUNNING, "1.651.3"));
+        res.add(new BrickStateEvent("5678", "build-A", BrickType.SCM.name(), "gitlab", BrickStateEvent.State.RUNNING, "8.5.2-ce"));
+        return res;
+    }
+
+}
@@ -0,0 +1,152 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompositeBrickStateLookupTest implements MonitorDataBuilder {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final CountDownLatch slowLookupReleased = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        slowLookupReleased.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void merge_brick_states_of_each_orchestrator_test() {
+        //  given
+        Set<BrickStateEvent> other = Collections.singleton(gitlab("9999", BrickStateEvent.State.RUNNING));
+        CompositeBrickStateLookup lookup = new CompositeBrickStateLookup(lookups(new FakeLookup(aBrickStateEvents()), new FakeLookup(other)), executor, 1000);
+
+        //  when
+        Set<BrickStateEvent> brickStateEvents = lookup.lookup();
+
+        //  then
+        Set<BrickStateEvent> expected = new HashSet<>(aBrickStateEvents());
+        expected.addAll(other);
+        assertThat(brickStateEvents).containsOnlyElementsOf(expected).hasSize(expected.size());
+        assertThat(lookup.getLastFailedLookups()).isEmpty();
+    }
+
+    @Test
+    public void failed_orchestrator_keep_its_last_known_brick_states_test() {
+        //  given
+        FakeLookup failing = new FakeLookup(Collections.singleton(gitlab("9999", BrickStateEvent.State.RUNNING)));
+        CompositeBrickStateLookup lookup = new CompositeBrickStateLookup(lookups(new FakeLookup(aBrickStateEvents()), failing), executor, 1000);
+        DefaultBrickStateEventRepository repository = new DefaultBrickStateEventRepository();
+        repository.compareAndUpdate(lookup.lookup());
+
+        //  when
+        failing.failed.set(true);
+        Set<BrickStateEvent> changes = repository.compareAndUpdate(lookup.lookup());
+
+        //  then
+        assertThat(changes).isEmpty();
+        assertThat(lookup.getLastFailedLookups()).containsOnly("b");
+        assertThat(lookup.lookupResult().getStatus()).isEqualTo(BrickStateLookupResult.Status.PARTIAL);
+    }
+
+    @Test
+    public void slow_orchestrator_is_not_waited_after_timeout_test() {
+        //  given
+        FakeLookup slow = new FakeLookup(Collections.singleton(gitlab("9999", BrickStateEvent.State.RUNNING)));
+        CompositeBrickStateLookup lookup = new CompositeBrickStateLookup(lookups(new FakeLookup(aBrickStateEvents()), slow), executor, 200);
+        lookup.lookup();
+        slow.slow.set(true);
+
+        //  when
+        long start = System.currentTimeMillis();
+        Set<BrickStateEvent> first = lookup.lookup();
+        Set<BrickStateEvent> second = lookup.lookup();
+        long duration = System.currentTimeMillis() - start;
+
+        //  then
+        assertThat(duration).isLessThan(2000);
+        assertThat(first).contains(gitlab("9999", BrickStateEvent.State.RUNNING));
+        assertThat(second).contains(gitlab("9999", BrickStateEvent.State.RUNNING));
+        assertThat(lookup.getLastFailedLookups()).containsOnly("b");
+        //  Still running lookup isn't started again.
+        assertThat(slow.lookupCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void every_orchestrator_failed_test() {
+        //  given
+        FakeLookup first = new FakeLookup(aBrickStateEvents());
+        FakeLookup second = new FakeLookup(Collections.emptySet());
+        first.failed.set(true);
+        second.failed.set(true);
+        CompositeBrickStateLookup lookup = new CompositeBrickStateLookup(lookups(first, second), executor, 1000);
+
+        //  when
+        BrickStateLookupResult result = lookup.lookupResult();
+
+        //  then
+        assertThat(result.getBrickStateEvents()).isEmpty();
+        assertThat(result.getStatus()).isEqualTo(BrickStateLookupResult.Status.FAILED);
+        assertThat(lookup.getLastFailedLookups()).containsOnly("a", "b");
+    }
+
+    private static Map<String, BrickStateLookup> lookups(BrickStateLookup a, BrickStateLookup b) {
+        Map<String, BrickStateLookup> res = new LinkedHashMap<>();
+        res.put("a", a);
+        res.put("b", b);
+        return res;
+    }
+
+    private static BrickStateEvent gitlab(String projectConfigurationIdentifier, BrickStateEvent.State state) {
+        return new BrickStateEvent(projectConfigurationIdentifier, "build-A", BrickType.SCM.name(), "gitlab", state, "8.17.2-ce.0");
+    }
+
+    private class FakeLookup implements BrickStateLookup {
+
+        private final Set<BrickStateEvent> brickStateEvents;
+
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        private final AtomicBoolean slow = new AtomicBoolean();
+
+        private final AtomicInteger lookupCount = new AtomicInteger();
+
+        FakeLookup(Set<BrickStateEvent> brickStateEvents) {
+            this.brickStateEvents = brickStateEvents;
+        }
+
+        @Override
+        public Set<BrickStateEvent> lookup() {
+            return lookupResult().getBrickStateEvents();
+        }
+
+        @Override
+        public BrickStateLookupResult lookupResult() {
+            lookupCount.incrementAndGet();
+            if (slow.get()) {
+                try {
+                    slowLookupReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return failed.get() ? BrickStateLookupResult.failed(Collections.emptySet()) : BrickStateLookupResult.complete(brickStateEvents);
+        }
+    }
+
+}
@@ -4,6 +4,7 @@ import io.kodokojo.commons.model.BrickType;
 import io.kodokojo.commons.service.actor.message.BrickStateEvent;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -207,4 +208,62 @@ public class DefaultBrickStateEventRepositoryTest implements MonitorDataBuilder
         assertThat(result).containsOnly(gitlabUpdatedBis);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void unchanged_bricks_generate_no_event_repository_test() {
+        //  given
+        DefaultBrickStateEventRepository defaultBrickStateEventRepository = new DefaultBrickStateEventRepository();
+        Set<BrickStateEvent> initialBrickStateEvents = aBrickStateEvents();
+        defaultBrickStateEventRepository.compareAndUpdate(initialBrickStateEvents);
+
+        //  when
+        Set<BrickStateEvent> result = defaultBrickStateEventRepository.compareAndUpdate(new HashSet<>(initialBrickStateEvents));
+
+        //  then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void removed_brick_generate_stopped_event_only_once_repository_test() {
+        //  given
+        DefaultBrickStateEventRepository defaultBrickStateEventRepository = new DefaultBrickStateEventRepository();
+        String projectConfigurationIdentifier = "5678";
+        String stackName = "build-A";
+        BrickStateEvent jenkins = new BrickStateEvent(projectConfigurationIdentifier, stackName, BrickType.CI.name(), "jenkins", BrickStateEvent.State.RUNNING, "1.651.3");
+        BrickStateEvent gitlab = new BrickStateEvent(projectConfigurationIdentifier, stackName, BrickType.SCM.name(), "gitlab", BrickStateEvent.State.RUNNING, "8.13.0-ce.0");
+        Set<BrickStateEvent> initialBrickStateEvents = new HashSet<>();
+        initialBrickStateEvents.add(jenkins);
+        initialBrickStateEvents.add(gitlab);
+        defaultBrickStateEventRepository.compareAndUpdate(initialBrickStateEvents);
+
+        Set<BrickStateEvent> withoutGitlab = Collections.singleton(jenkins);
+        Set<BrickStateEvent> firstRemoval = defaultBrickStateEventRepository.compareAndUpdate(withoutGitlab);
+
+        //  when
+        Set<BrickStateEvent> result = defaultBrickStateEventRepository.compareAndUpdate(withoutGitlab);
+
+        //  then
+        BrickStateEvent gitlabStopped = new BrickStateEvent(projectConfigurationIdentifier, stackName, BrickType.SCM.name(), "gitlab", BrickStateEvent.State.STOPPED, "8.13.0-ce.0");
+        assertThat(firstRemoval).containsOnly(gitlabStopped);
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void update_keep_missing_brick_repository_test() {
+        //  given
+        DefaultBrickStateEventRepository defaultBrickStateEventRepository = new DefaultBrickStateEventRepository();
+        defaultBrickStateEventRepository.compareAndUpdate(aBrickStateEvents());
+        BrickStateEvent jenkins = new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", BrickStateEvent.State.ONFAILURE, "1.651.3");
+
+        //  when
+        Set<BrickStateEvent> partial = defaultBrickStateEventRepository.update(Collections.singleton(jenkins));
+        Set<BrickStateEvent> failed = defaultBrickStateEventRepository.update(Collections.emptySet());
+        Set<BrickStateEvent> recovered = defaultBrickStateEventRepository.compareAndUpdate(aBrickStateEvents());
+
+        //  then
+        assertThat(partial).containsOnly(jenkins);
+        assertThat(failed).isEmpty();
+        assertThat(recovered).extracting(BrickStateEvent::getState).containsOnly(BrickStateEvent.State.RUNNING);
+        assertThat(recovered).hasSize(1);
+    }
+
+}
@@ -0,0 +1,149 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlapSuppressingBrickStateEventRepositoryTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private FlapSuppressingBrickStateEventRepository repository;
+
+    @Before
+    public void setup() {
+        repository = new FlapSuppressingBrickStateEventRepository(new DefaultBrickStateEventRepository(), 2, 0, 4, 60000, 100, clock::get);
+    }
+
+    @Test
+    public void new_brick_is_emitted_immediately_test() {
+        //  given
+        BrickStateEvent running = jenkins(BrickStateEvent.State.RUNNING);
+
+        //  when
+        Set<BrickStateEvent> result = observe(running);
+
+        //  then
+        assertThat(result).containsOnly(running);
+    }
+
+    @Test
+    public void state_change_is_emitted_once_observed_enough_times_test() {
+        //  given
+        observe(jenkins(BrickStateEvent.State.RUNNING));
+        BrickStateEvent onFailure = jenkins(BrickStateEvent.State.ONFAILURE);
+
+        //  when
+        Set<BrickStateEvent> first = observe(onFailure);
+        Set<BrickStateEvent> second = observe(onFailure);
+        Set<BrickStateEvent> third = observe(onFailure);
+
+        //  then
+        assertThat(first).isEmpty();
+        assertThat(second).containsOnly(onFailure);
+        assertThat(third).isEmpty();
+    }
+
+    @Test
+    public void transient_state_is_not_emitted_test() {
+        //  given
+        observe(jenkins(BrickStateEvent.State.RUNNING));
+
+        //  when
+        Set<BrickStateEvent> first = observe(jenkins(BrickStateEvent.State.ONFAILURE));
+        Set<BrickStateEvent> second = observe(jenkins(BrickStateEvent.State.RUNNING));
+        Set<BrickStateEvent> third = observe(jenkins(BrickStateEvent.State.RUNNING));
+
+        //  then
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        assertThat(third).isEmpty();
+    }
+
+    @Test
+    public void state_change_is_emitted_after_min_dwell_time_test() {
+        //  given
+        repository = new FlapSuppressingBrickStateEventRepository(new DefaultBrickStateEventRepository(), 10, 5000, 4, 60000, 100, clock::get);
+        observe(jenkins(BrickStateEvent.State.RUNNING));
+        BrickStateEvent onFailure = jenkins(BrickStateEvent.State.ONFAILURE);
+        assertThat(observe(onFailure)).isEmpty();
+
+        //  when
+        clock.addAndGet(5000);
+        Set<BrickStateEvent> result = observe(onFailure);
+
+        //  then
+        assertThat(result).containsOnly(onFailure);
+    }
+
+    @Test
+    public void flapping_brick_is_reported_once_then_suppressed_test() {
+        //  given
+        observe(jenkins(BrickStateEvent.State.RUNNING));
+        observe(jenkins(BrickStateEvent.State.ONFAILURE));
+        observe(jenkins(BrickStateEvent.State.RUNNING));
+        observe(jenkins(BrickStateEvent.State.ONFAILURE));
+
+        //  when
+        Set<BrickStateEvent> flapping = observe(jenkins(BrickStateEvent.State.RUNNING));
+        Set<BrickStateEvent> suppressed = observe(jenkins(BrickStateEvent.State.ONFAILURE));
+
+        //  then
+        assertThat(flapping).hasSize(1);
+        BrickStateEvent flappingEvent = flapping.iterator().next();
+        assertThat(flappingEvent).isInstanceOf(FlappingBrickStateEvent.class);
+        assertThat(flappingEvent.getState()).isEqualTo(BrickStateEvent.State.RUNNING);
+        assertThat(suppressed).isEmpty();
+    }
+
+    @Test
+    public void flapping_brick_emit_its_state_once_stable_test() {
+        //  given
+        observe(jenkins(BrickStateEvent.State.RUNNING));
+        observe(jenkins(BrickStateEvent.State.ONFAILURE));
+        observe(jenkins(BrickStateEvent.State.RUNNING));
+        observe(jenkins(BrickStateEvent.State.ONFAILURE));
+        observe(jenkins(BrickStateEvent.State.RUNNING));
+        BrickStateEvent onFailure = jenkins(BrickStateEvent.State.ONFAILURE);
+        observe(onFailure);
+
+        //  when
+        clock.addAndGet(30000);
+        Set<BrickStateEvent> stillFlapping = observe(onFailure);
+        clock.addAndGet(30000);
+        Set<BrickStateEvent> stable = observe(onFailure);
+
+        //  then
+        assertThat(stillFlapping).isEmpty();
+        assertThat(stable).containsOnly(onFailure);
+    }
+
+    @Test
+    public void removed_brick_is_emitted_immediately_test() {
+        //  given
+        observe(jenkins(BrickStateEvent.State.RUNNING));
+
+        //  when
+        Set<BrickStateEvent> result = repository.compareAndUpdate(Collections.emptySet());
+
+        //  then
+        assertThat(result).containsOnly(jenkins(BrickStateEvent.State.STOPPED));
+        assertThat(repository.getTrackedBrickCount()).isZero();
+    }
+
+    private Set<BrickStateEvent> observe(BrickStateEvent brickStateEvent) {
+        return repository.compareAndUpdate(Collections.singleton(brickStateEvent));
+    }
+
+    private static BrickStateEvent jenkins(BrickStateEvent.State state) {
+        return new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", state, "1.651.3");
+    }
+
+}
@@ -0,0 +1,63 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InstrumentedExecutorTest {
+
+    @Test
+    public void measure_queue_depth_and_run_time_test() {
+        //  given
+        List<Runnable> tasks = new ArrayList<>();
+        InstrumentedExecutor executor = new InstrumentedExecutor(tasks::add);
+        executor.execute(() -> sleep(10));
+        executor.execute(() -> {});
+
+        //  when
+        long queueDepthBeforeRun = executor.getQueueDepth();
+        tasks.forEach(Runnable::run);
+
+        //  then
+        assertThat(queueDepthBeforeRun).isEqualTo(2);
+        assertThat(executor.getQueueDepth()).isEqualTo(0);
+        assertThat(executor.getActiveCount()).isEqualTo(0);
+        assertThat(executor.getCompletedCount()).isEqualTo(2);
+        assertThat(executor.getMaxRunTime()).isGreaterThanOrEqualTo(10_000_000L);
+        assertThat(executor.getTotalRunTime()).isGreaterThanOrEqualTo(executor.getMaxRunTime());
+    }
+
+    @Test
+    public void export_queue_depth_and_run_time_test() {
+        //  given
+        List<Runnable> tasks = new ArrayList<>();
+        MonitorMetrics metrics = new MonitorMetrics();
+        InstrumentedExecutor executor = new InstrumentedExecutor(tasks::add, metrics);
+        metrics.registerBlockingExecutor(executor);
+        executor.execute(() -> {});
+        executor.execute(() -> {});
+        tasks.remove(0).run();
+
+        //  when
+        String output = metrics.getRegistry().toPrometheus();
+
+        //  then
+        assertThat(output).contains("kodokojo_monitor_blocking_queue_depth 1\n");
+        assertThat(output).contains("kodokojo_monitor_blocking_active_tasks 0\n");
+        assertThat(output).contains("kodokojo_monitor_blocking_task_run_seconds_count 1\n");
+        assertThat(output).contains("kodokojo_monitor_blocking_task_wait_seconds_count 1\n");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RedisBrickStateEventRepositoryIntTest implements MonitorDataBuilder {
+
+    private static final String CMDSTAT_EVALSHA = "cmdstat_evalsha:calls=";
+
+    private RedisServer redisServer;
+
+    private JedisPool jedisPool;
+
+    @Before
+    public void setup() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        jedisPool = new JedisPool("localhost", port);
+    }
+
+    @After
+    public void tearDown() {
+        jedisPool.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    public void init_repository_test() {
+        //  given
+        RedisBrickStateEventRepository repository = new RedisBrickStateEventRepository(jedisPool, "test");
+        Set<BrickStateEvent> initialBrickStateEvents = aBrickStateEvents();
+
+        //  when
+        Set<BrickStateEvent> brickStateEvents = repository.compareAndUpdate(initialBrickStateEvents);
+
+        //  then
+        assertThat(brickStateEvents).containsOnlyElementsOf(initialBrickStateEvents);
+        assertThat(brickStateEvents).hasSameSizeAs(initialBrickStateEvents);
+    }
+
+    @Test
+    public void change_and_remove_brick_test() {
+        //  given
+        RedisBrickStateEventRepository repository = new RedisBrickStateEventRepository(jedisPool, "test");
+        repository.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.RUNNING)));
+        BrickStateEvent nexus = new BrickStateEvent("5678", "build-A", BrickType.REPOSITORY.name(), "nexus", BrickStateEvent.State.RUNNING, "2.13");
+        repository.compareAndUpdate(new HashSet<>(Arrays.asList(jenkins(BrickStateEvent.State.RUNNING), nexus)));
+
+        //  when
+        Set<BrickStateEvent> changed = repository.compareAndUpdate(new HashSet<>(Arrays.asList(jenkins(BrickStateEvent.State.ONFAILURE), nexus)));
+        Set<BrickStateEvent> removed = repository.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.ONFAILURE)));
+        Set<BrickStateEvent> unchanged = repository.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.ONFAILURE)));
+
+        //  then
+        assertThat(changed).containsOnly(jenkins(BrickStateEvent.State.ONFAILURE));
+        assertThat(removed).containsOnly(new BrickStateEvent("5678", "build-A", BrickType.REPOSITORY.name(), "nexus", BrickStateEvent.State.STOPPED, "2.13"));
+        assertThat(unchanged).isEmpty();
+    }
+
+    @Test
+    public void update_keep_missing_brick_test() {
+        //  given
+        RedisBrickStateEventRepository repository = new RedisBrickStateEventRepository(jedisPool, "test");
+        repository.compareAndUpdate(aBrickStateEvents());
+
+        //  when
+        Set<BrickStateEvent> changed = repository.update(Collections.singleton(jenkins(BrickStateEvent.State.ONFAILURE)));
+        Set<BrickStateEvent> unchanged = repository.update(Collections.emptySet());
+
+        //  then
+        assertThat(changed).containsOnly(jenkins(BrickStateEvent.State.ONFAILURE));
+        assertThat(unchanged).isEmpty();
+        assertThat(repository.compareAndUpdate(aBrickStateEvents())).containsOnly(jenkins(BrickStateEvent.State.RUNNING));
+    }
+
+    @Test
+    public void change_is_returned_to_a_single_instance_test() {
+        //  given
+        RedisBrickStateEventRepository first = new RedisBrickStateEventRepository(jedisPool, "test");
+        RedisBrickStateEventRepository second = new RedisBrickStateEventRepository(jedisPool, "test");
+        first.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.RUNNING)));
+
+        //  when
+        Set<BrickStateEvent> firstResult = first.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.ONFAILURE)));
+        Set<BrickStateEvent> secondResult = second.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.ONFAILURE)));
+
+        //  then
+        assertThat(firstResult).containsOnly(jenkins(BrickStateEvent.State.ONFAILURE));
+        assertThat(secondResult).isEmpty();
+    }
+
+    @Test
+    public void single_round_trip_per_compare_and_update_whatever_brick_count_test() {
+        //  given
+        RedisBrickStateEventRepository repository = new RedisBrickStateEventRepository(jedisPool, "test");
+        Set<BrickStateEvent> brickStateEvents = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            brickStateEvents.add(new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins-" + i, BrickStateEvent.State.RUNNING, "1.651.3"));
+        }
+        repository.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.RUNNING)));
+        long before = evalshaCount();
+
+        //  when
+        repository.compareAndUpdate(brickStateEvents);
+        repository.compareAndUpdate(brickStateEvents);
+
+        //  then
+        assertThat(evalshaCount() - before).isEqualTo(2);
+    }
+
+    @Test
+    public void reload_script_flushed_from_redis_test() {
+        //  given
+        RedisBrickStateEventRepository repository = new RedisBrickStateEventRepository(jedisPool, "test");
+        repository.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.RUNNING)));
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.scriptFlush();
+        }
+
+        //  when
+        Set<BrickStateEvent> result = repository.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.ONFAILURE)));
+
+        //  then
+        assertThat(result).containsOnly(jenkins(BrickStateEvent.State.ONFAILURE));
+    }
+
+    /**
+     * @return number of <code>EVALSHA</code> calls processed by Redis; commands called from the script are counted apart.
+     */
+    private long evalshaCount() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            for (String line : jedis.info("commandstats").split("\r\n")) {
+                if (line.startsWith(CMDSTAT_EVALSHA)) {
+                    return Long.parseLong(line.substring(CMDSTAT_EVALSHA.length(), line.indexOf(',')));
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static BrickStateEvent jenkins(BrickStateEvent.State state) {
+        return new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", state, "1.651.3");
+    }
+
+}
@@ -0,0 +1,126 @@
+package io.kodokojo.monitor.service;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshottingBrickStateEventRepositoryTest implements MonitorDataBuilder {
+
+    private static final long MAX_AGE = TimeUnit.HOURS.toMillis(1);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void write_and_load_snapshot_test() throws IOException {
+        //  given
+        BrickStateSnapshotStore snapshotStore = new BrickStateSnapshotStore(temporaryFolder.getRoot().toPath().resolve("brick-states.snapshot"));
+        Set<BrickStateEvent> brickStateEvents = new HashSet<>(aBrickStateEvents());
+        brickStateEvents.add(new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", BrickStateEvent.State.RUNNING, "https://ci-myproject.kodokojo.dev", "1.651.3"));
+
+        //  when
+        snapshotStore.write(brickStateEvents);
+        Set<BrickStateEvent> result = snapshotStore.load(MAX_AGE);
+
+        //  then
+        assertThat(result).containsOnlyElementsOf(brickStateEvents);
+        assertThat(result).hasSameSizeAs(brickStateEvents);
+    }
+
+    @Test
+    public void ignore_corrupted_snapshot_test() throws IOException {
+        //  given
+        Path path = temporaryFolder.getRoot().toPath().resolve("brick-states.snapshot");
+        BrickStateSnapshotStore snapshotStore = new BrickStateSnapshotStore(path);
+        snapshotStore.write(aBrickStateEvents());
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(path, bytes);
+
+        //  when
+        Set<BrickStateEvent> result = snapshotStore.load(MAX_AGE);
+
+        //  then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void first_diff_after_restart_only_contains_changes_test() {
+        //  given
+        BrickStateSnapshotStore snapshotStore = new BrickStateSnapshotStore(temporaryFolder.getRoot().toPath().resolve("brick-states.snapshot"));
+        SnapshottingBrickStateEventRepository beforeRestart = new SnapshottingBrickStateEventRepository(new DefaultBrickStateEventRepository(), snapshotStore, 0);
+        Set<BrickStateEvent> initialBrickStateEvents = aBrickStateEvents();
+        beforeRestart.compareAndUpdate(initialBrickStateEvents);
+        beforeRestart.stop(TimeUnit.SECONDS.toMillis(5));
+
+        SnapshottingBrickStateEventRepository afterRestart = new SnapshottingBrickStateEventRepository(new DefaultBrickStateEventRepository(), snapshotStore, 0);
+        BrickStateEvent nexus = new BrickStateEvent("91011", "build-A", BrickType.REPOSITORY.name(), "nexus", BrickStateEvent.State.RUNNING, "1.651.3");
+        Set<BrickStateEvent> observed = new HashSet<>(initialBrickStateEvents);
+        observed.add(nexus);
+
+        //  when
+        boolean restored = afterRestart.restore(MAX_AGE);
+        Set<BrickStateEvent> result = afterRestart.compareAndUpdate(observed);
+
+        //  then
+        assertThat(restored).isTrue();
+        assertThat(result).containsOnly(nexus);
+        afterRestart.stop(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Test
+    public void snapshot_observations_held_back_by_delegate_test() {
+        //  given
+        BrickStateSnapshotStore snapshotStore = new BrickStateSnapshotStore(temporaryFolder.getRoot().toPath().resolve("brick-states.snapshot"));
+        BrickStateEventRepository holdingBackRepository = new BrickStateEventRepository() {
+            @Override
+            public Set<BrickStateEvent> compareAndUpdate(Set<BrickStateEvent> brickStateEvents) {
+                return Collections.emptySet();
+            }
+
+            @Override
+            public Set<BrickStateEvent> update(Set<BrickStateEvent> brickStateEvents) {
+                return Collections.emptySet();
+            }
+        };
+        SnapshottingBrickStateEventRepository repository = new SnapshottingBrickStateEventRepository(holdingBackRepository, snapshotStore, TimeUnit.HOURS.toMillis(1));
+        repository.compareAndUpdate(aBrickStateEvents());
+        BrickStateEvent nexus = new BrickStateEvent("91011", "build-A", BrickType.REPOSITORY.name(), "nexus", BrickStateEvent.State.ONFAILURE, "1.651.3");
+        Set<BrickStateEvent> observed = new HashSet<>(aBrickStateEvents());
+        observed.add(nexus);
+
+        //  when
+        repository.compareAndUpdate(observed);
+        repository.stop(TimeUnit.SECONDS.toMillis(5));
+
+        //  then
+        assertThat(snapshotStore.load(MAX_AGE)).containsOnlyElementsOf(observed).hasSameSizeAs(observed);
+    }
+
+    @Test
+    public void nothing_restored_without_snapshot_test() {
+        //  given
+        BrickStateSnapshotStore snapshotStore = new BrickStateSnapshotStore(temporaryFolder.getRoot().toPath().resolve("missing.snapshot"));
+        SnapshottingBrickStateEventRepository repository = new SnapshottingBrickStateEventRepository(new DefaultBrickStateEventRepository(), snapshotStore, 0);
+
+        //  when
+        boolean restored = repository.restore(MAX_AGE);
+
+        //  then
+        assertThat(restored).isFalse();
+        repository.stop(TimeUnit.SECONDS.toMillis(5));
+    }
+
+}
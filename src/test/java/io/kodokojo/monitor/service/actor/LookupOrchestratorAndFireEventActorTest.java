@@ -3,6 +3,7 @@ package io.kodokojo.monitor.service.actor;
 import akka.actor.Actor;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
+import akka.pattern.Patterns;
 import akka.testkit.TestActorRef;
 import io.kodokojo.commons.config.MicroServiceConfig;
 import io.kodokojo.commons.event.DefaultEventBuilderFactory;
@@ -12,6 +13,9 @@ import io.kodokojo.commons.event.EventBus;
 import io.kodokojo.commons.service.actor.message.BrickStateEvent;
 import io.kodokojo.monitor.service.BrickStateEventRepository;
 import io.kodokojo.monitor.service.BrickStateLookup;
+import io.kodokojo.monitor.service.BrickStateLookupResult;
+import io.kodokojo.monitor.service.DefaultBrickStateEventRepository;
+import io.kodokojo.monitor.service.DefaultBrickStateEventPublisher;
 import io.kodokojo.monitor.service.MonitorDataBuilder;
 import io.kodokojo.test.DataBuilder;
 import org.assertj.core.api.Assertions;
@@ -21,15 +25,22 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import scala.concurrent.Await;
+import scala.concurrent.Future;
+import scala.concurrent.duration.Duration;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -72,7 +83,7 @@ public class LookupOrchestratorAndFireEventActorTest implements DataBuilder, Mon
 
         BrickStateEvent brickStateEvent = aBrickStateEvents().iterator().next();
             Set<BrickStateEvent> brickStateEvents = Collections.singleton(brickStateEvent);
-        when(brickStateLookup.lookup()).thenAnswer(invocationOnMock -> brickStateEvents);
+        when(brickStateLookup.lookupResult()).thenAnswer(invocationOnMock -> BrickStateLookupResult.complete(brickStateEvents));
 
         when(brickStateEventRepository.compareAndUpdate(brickStateEvents)).thenReturn(brickStateEvents);
 
@@ -105,4 +116,115 @@ public class LookupOrchestratorAndFireEventActorTest implements DataBuilder, Mon
         assertThat(payload.getBrickName()).isEqualTo(brickStateEvent.getBrickName());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void coalesce_ticks_received_while_a_tick_is_running_test() {
+        // given
+
+        Set<BrickStateEvent> brickStateEvents = Collections.singleton(aBrickStateEvents().iterator().next());
+        when(brickStateLookup.lookupResult()).thenReturn(BrickStateLookupResult.complete(brickStateEvents));
+        when(brickStateEventRepository.compareAndUpdate(brickStateEvents)).thenReturn(Collections.emptySet());
+        List<Runnable> blockingTasks = new ArrayList<>();
+
+        TestActorRef<Actor> subject = TestActorRef.create(
+                actorSystem,
+                LookupOrchestratorAndFireEventActor.PROPS(
+                        brickStateLookup,
+                        brickStateEventRepository,
+                        new DefaultBrickStateEventPublisher(eventBuilderFactory, eventBus),
+                        null,
+                        blockingTasks::add
+                ));
+
+        // when
+
+        subject.tell("Tick", ActorRef.noSender());
+        subject.tell("Tick", ActorRef.noSender());
+        subject.tell("Tick", ActorRef.noSender());
+        int runningTickCount = blockingTasks.size();
+        blockingTasks.remove(0).run();
+
+        // then
+
+        assertThat(runningTickCount).isEqualTo(1);
+        assertThat(blockingTasks).hasSize(1);
+        verify(brickStateLookup, times(1)).lookupResult();
+    }
+
+    @Test
+    public void stop_once_running_tick_completes_test() throws Exception {
+        // given
+
+        Set<BrickStateEvent> brickStateEvents = Collections.singleton(aBrickStateEvents().iterator().next());
+        when(brickStateLookup.lookupResult()).thenReturn(BrickStateLookupResult.complete(brickStateEvents));
+        when(brickStateEventRepository.compareAndUpdate(brickStateEvents)).thenReturn(Collections.emptySet());
+        List<Runnable> blockingTasks = new ArrayList<>();
+
+        TestActorRef<Actor> subject = TestActorRef.create(
+                actorSystem,
+                LookupOrchestratorAndFireEventActor.PROPS(
+                        brickStateLookup,
+                        brickStateEventRepository,
+                        new DefaultBrickStateEventPublisher(eventBuilderFactory, eventBus),
+                        null,
+                        blockingTasks::add
+                ));
+        subject.tell("Tick", ActorRef.noSender());
+
+        // when
+
+        Future<Boolean> stopped = Patterns.gracefulStop(subject, Duration.create(5, TimeUnit.SECONDS), LookupOrchestratorAndFireEventActor.STOP);
+        subject.tell("Tick", ActorRef.noSender());
+        boolean stoppedWhileTickRunning = stopped.isCompleted();
+        blockingTasks.remove(0).run();
+
+        // then
+
+        assertThat(stoppedWhileTickRunning).isFalse();
+        assertThat(Await.result(stopped, Duration.create(5, TimeUnit.SECONDS))).isTrue();
+        assertThat(blockingTasks).isEmpty();
+    }
+
+    @Test
+    public void no_brick_state_event_sent_during_orchestrator_outage_test() {
+        // given
+
+        Set<BrickStateEvent> brickStateEvents = aBrickStateEvents();
+        AtomicBoolean outage = new AtomicBoolean(false);
+        BrickStateLookup outageLookup = new BrickStateLookup() {
+            @Override
+            public Set<BrickStateEvent> lookup() {
+                return lookupResult().getBrickStateEvents();
+            }
+
+            @Override
+            public BrickStateLookupResult lookupResult() {
+                return outage.get() ? BrickStateLookupResult.failed(Collections.emptySet()) : BrickStateLookupResult.complete(brickStateEvents);
+            }
+        };
+
+        TestActorRef<Actor> subject = TestActorRef.create(
+                actorSystem,
+                LookupOrchestratorAndFireEventActor.PROPS(
+                        outageLookup,
+                        new DefaultBrickStateEventRepository(),
+                        eventBuilderFactory,
+                        eventBus
+                ));
+        subject.tell("Tick", ActorRef.noSender());
+        verify(eventBus, times(brickStateEvents.size())).send(Mockito.any(Event.class));
+
+        // when
+
+        outage.set(true);
+        for (int i = 0; i < 5; i++) {
+            subject.tell("Tick", ActorRef.noSender());
+        }
+        outage.set(false);
+        subject.tell("Tick", ActorRef.noSender());
+
+        // then
+
+        verify(eventBus, times(brickStateEvents.size())).send(Mockito.any(Event.class));
+    }
+
+}
@@ -0,0 +1,95 @@
+package io.kodokojo.monitor.service.cluster;
+
+import io.kodokojo.commons.config.MicroServiceConfig;
+import io.kodokojo.commons.event.DefaultEventBuilderFactory;
+import io.kodokojo.commons.event.Event;
+import io.kodokojo.commons.event.EventBuilder;
+import io.kodokojo.commons.event.EventBuilderFactory;
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventBatch;
+import io.kodokojo.monitor.service.DefaultBrickStateEventRepository;
+import io.kodokojo.monitor.service.MonitorDataBuilder;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BrickStateEventFollowerTest implements MonitorDataBuilder {
+
+    private final EventBuilderFactory eventBuilderFactory = new DefaultEventBuilderFactory(new MicroServiceConfig() {
+
+        private final String uuid = UUID.randomUUID().toString();
+
+        @Override
+        public String name() {
+            return "mock";
+        }
+
+        @Override
+        public String uuid() {
+            return uuid;
+        }
+    });
+
+    @Test
+    public void new_leader_does_not_publish_changes_already_published_test() {
+        //  given
+        BrickStateEventFollower follower = new BrickStateEventFollower();
+        follower.seed(aBrickStateEvents());
+        BrickStateEvent jenkins = new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", BrickStateEvent.State.ONFAILURE, "1.651.3");
+        BrickStateEvent nexus = new BrickStateEvent("5678", "build-A", BrickType.REPOSITORY.name(), "nexus", BrickStateEvent.State.RUNNING, "2.13");
+        follower.receive(anEvent(Event.BRICK_STATE_UPDATE, jenkins));
+        follower.receive(anEvent(BrickStateEventBatch.BRICK_STATE_UPDATE_BATCH, new BrickStateEventBatch(Collections.singleton(nexus))));
+
+        DefaultBrickStateEventRepository repository = new DefaultBrickStateEventRepository();
+        repository.compareAndUpdate(follower.getBrickStateEvents());
+
+        //  when
+        Set<BrickStateEvent> observed = new HashSet<>(follower.getBrickStateEvents());
+        Set<BrickStateEvent> result = repository.compareAndUpdate(observed);
+
+        //  then
+        assertThat(follower.getBrickStateEvents()).contains(jenkins, nexus).hasSize(aBrickStateEvents().size());
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void forget_stopped_brick_test() {
+        //  given
+        BrickStateEventFollower follower = new BrickStateEventFollower();
+        BrickStateEvent jenkins = new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", BrickStateEvent.State.RUNNING, "1.651.3");
+        follower.seed(Collections.singleton(jenkins));
+
+        //  when
+        follower.receive(anEvent(Event.BRICK_STATE_UPDATE, new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", BrickStateEvent.State.STOPPED, "1.651.3")));
+
+        //  then
+        assertThat(follower.getBrickStateEvents()).isEmpty();
+    }
+
+    @Test
+    public void ignore_unrelated_event_test() {
+        //  given
+        BrickStateEventFollower follower = new BrickStateEventFollower();
+
+        //  when
+        Boolean handled = follower.receive(anEvent("project_updated", "myproject")).get();
+
+        //  then
+        assertThat(handled).isFalse();
+        assertThat(follower.getBrickStateEvents()).isEmpty();
+    }
+
+    private Event anEvent(String eventType, Object payload) {
+        EventBuilder builder = eventBuilderFactory.create();
+        builder.setEventType(eventType);
+        builder.setPayload(payload);
+        return builder.build();
+    }
+
+}
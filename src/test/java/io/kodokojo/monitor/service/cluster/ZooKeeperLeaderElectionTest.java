@@ -0,0 +1,167 @@
+package io.kodokojo.monitor.service.cluster;
+
+import org.apache.zookeeper.server.ServerCnxnFactory;
+import org.apache.zookeeper.server.ZooKeeperServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZooKeeperLeaderElectionTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ServerCnxnFactory serverFactory;
+
+    private String connectString;
+
+    private ZooKeeperLeaderElection first;
+
+    private ZooKeeperLeaderElection second;
+
+    private final CountingListener firstListener = new CountingListener();
+
+    private final CountingListener secondListener = new CountingListener();
+
+    @Before
+    public void setup() throws IOException, InterruptedException {
+        ZooKeeperServer server = new ZooKeeperServer(temporaryFolder.newFolder("snapshot"), temporaryFolder.newFolder("log"), 500);
+        serverFactory = ServerCnxnFactory.createFactory(new InetSocketAddress("localhost", 0), 10);
+        serverFactory.startup(server);
+        connectString = "localhost:" + serverFactory.getLocalPort();
+        first = new ZooKeeperLeaderElection(connectString, 5000, "/kodokojo/monitor/election", "first", firstListener);
+        second = new ZooKeeperLeaderElection(connectString, 5000, "/kodokojo/monitor/election", "second", secondListener);
+    }
+
+    @After
+    public void tearDown() {
+        first.stop(STOP_TIMEOUT);
+        second.stop(STOP_TIMEOUT);
+        serverFactory.shutdown();
+    }
+
+    @Test
+    public void single_leader_is_elected_test() throws IOException {
+        //  given
+        first.start();
+        waitUntil(first::isLeader);
+
+        //  when
+        second.start();
+        sleep(500);
+
+        //  then
+        assertThat(first.isLeader()).isTrue();
+        assertThat(second.isLeader()).isFalse();
+        assertThat(firstListener.acquired.get()).isEqualTo(1);
+        assertThat(secondListener.acquired.get()).isZero();
+    }
+
+    @Test
+    public void standby_takes_over_when_leader_stops_test() throws IOException {
+        //  given
+        first.start();
+        waitUntil(first::isLeader);
+        second.start();
+
+        //  when
+        first.stop(STOP_TIMEOUT);
+
+        //  then
+        waitUntil(second::isLeader);
+        waitUntil(() -> firstListener.lost.get() == 1 && secondListener.acquired.get() == 1);
+    }
+
+    @Test
+    public void leadership_is_given_up_when_zookeeper_is_lost_test() throws IOException {
+        //  given
+        first.start();
+        waitUntil(first::isLeader);
+
+        //  when
+        serverFactory.shutdown();
+
+        //  then
+        waitUntil(() -> !first.isLeader());
+        waitUntil(() -> firstListener.lost.get() == 1);
+    }
+
+    @Test
+    public void connection_loss_is_noticed_while_listener_is_busy_test() throws IOException {
+        //  given
+        CountDownLatch released = new CountDownLatch(1);
+        CountingListener busyListener = new CountingListener() {
+            @Override
+            public void leadershipAcquired() {
+                super.leadershipAcquired();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ZooKeeperLeaderElection busy = new ZooKeeperLeaderElection(connectString, 5000, "/kodokojo/monitor/busy", "busy", busyListener);
+        busy.start();
+        waitUntil(() -> busyListener.acquired.get() == 1);
+
+        //  when
+        serverFactory.shutdown();
+
+        //  then
+        waitUntil(() -> !busy.isLeader());
+        assertThat(busyListener.lost.get()).isZero();
+        released.countDown();
+        waitUntil(() -> busyListener.lost.get() == 1);
+        busy.stop(STOP_TIMEOUT);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long timeout = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > timeout) {
+                throw new AssertionError("Condition not reached before timeout.");
+            }
+            sleep(20);
+        }
+    }
+
+    private static void sleep(long duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+
+    private static class CountingListener implements LeadershipListener {
+
+        private final AtomicInteger acquired = new AtomicInteger();
+
+        private final AtomicInteger lost = new AtomicInteger();
+
+        @Override
+        public void leadershipAcquired() {
+            acquired.incrementAndGet();
+        }
+
+        @Override
+        public void leadershipLost() {
+            lost.incrementAndGet();
+        }
+    }
+
+    private static final long STOP_TIMEOUT = 5000;
+
+}
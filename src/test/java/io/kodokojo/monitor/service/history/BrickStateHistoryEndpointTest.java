@@ -0,0 +1,101 @@
+package io.kodokojo.monitor.service.history;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.query.BrickStateIndex;
+import io.kodokojo.monitor.service.query.BrickStateQueryEndpoint;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BrickStateHistoryEndpointTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private BrickStateQueryEndpoint endpoint;
+
+    @Before
+    public void setup() {
+        BrickStateHistory history = new BrickStateHistory(16, 100000, 10, clock::get);
+        record(history, BrickStateEvent.State.RUNNING, 1000);
+        record(history, BrickStateEvent.State.ONFAILURE, 2000);
+        record(history, BrickStateEvent.State.RUNNING, 3000);
+        clock.set(4000);
+        endpoint = new BrickStateQueryEndpoint(new BrickStateIndex(), 0, "/bricks");
+        endpoint.addHandler("/history", new BrickStateHistoryEndpoint(history));
+        endpoint.start();
+    }
+
+    @After
+    public void tearDown() {
+        endpoint.stop();
+    }
+
+    @Test
+    public void brick_history_test() throws IOException {
+        //  when
+        JsonObject res = get("/history?projectConfigurationId=1234&stack=build-A&brickName=gitlab&from=0&to=4000");
+
+        //  then
+        assertThat(res.get("from").getAsLong()).isEqualTo(0);
+        assertThat(res.get("to").getAsLong()).isEqualTo(4000);
+        assertThat(res.get("brickName").getAsString()).isEqualTo("gitlab");
+        assertThat(res.getAsJsonArray("transitions").size()).isEqualTo(3);
+        assertThat(res.getAsJsonObject("availability").get("failureCount").getAsInt()).isEqualTo(1);
+        assertThat(res.getAsJsonObject("availability").get("uptime").getAsDouble()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    public void project_availability_over_default_range_test() throws IOException {
+        //  when
+        JsonObject res = get("/history?projectConfigurationId=1234&to=4000");
+
+        //  then
+        assertThat(res.get("from").getAsLong()).isEqualTo(4000 - 24 * 60 * 60 * 1000L);
+        assertThat(res.has("transitions")).isFalse();
+        assertThat(res.getAsJsonObject("availability").get("repairCount").getAsInt()).isEqualTo(1);
+    }
+
+    @Test
+    public void reject_invalid_parameters_test() throws IOException {
+        assertThat(status("/history")).isEqualTo(400);
+        assertThat(status("/history?projectConfigurationId=1234&stack=build-A")).isEqualTo(400);
+        assertThat(status("/history?projectConfigurationId=1234&from=abc")).isEqualTo(400);
+        assertThat(status("/history?projectConfigurationId=1234&from=2000&to=1000")).isEqualTo(400);
+    }
+
+    private JsonObject get(String path) throws IOException {
+        HttpURLConnection connection = open(path);
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        try (InputStream input = connection.getInputStream()) {
+            return new JsonParser().parse(IOUtils.toString(input, StandardCharsets.UTF_8)).getAsJsonObject();
+        }
+    }
+
+    private int status(String path) throws IOException {
+        return open(path).getResponseCode();
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + endpoint.getPort() + path).openConnection();
+    }
+
+    private void record(BrickStateHistory history, BrickStateEvent.State state, long timestamp) {
+        clock.set(timestamp);
+        history.record(Collections.singleton(new BrickStateEvent("1234", "build-A", BrickType.SCM.name(), "gitlab", state, "1.0.0")));
+    }
+
+}
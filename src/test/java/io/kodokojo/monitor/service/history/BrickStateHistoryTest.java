@@ -0,0 +1,157 @@
+package io.kodokojo.monitor.service.history;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateKey;
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BrickStateHistoryTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private static final BrickStateKey GITLAB = new BrickStateKey("1234", "build-A", "gitlab");
+
+    @Test
+    public void compute_time_in_state_uptime_and_mttr_test() {
+        //  given
+        BrickStateHistory history = new BrickStateHistory(16, 100000, 10, clock::get);
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 1000);
+        record(history, "gitlab", BrickStateEvent.State.ONFAILURE, 2000);
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 2500);
+        record(history, "gitlab", BrickStateEvent.State.ONFAILURE, 3000);
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 4500);
+        clock.set(5000);
+
+        //  when
+        BrickAvailability availability = history.getAvailability(GITLAB, 0, 10000);
+
+        //  then
+        assertThat(availability.getObservedTime()).isEqualTo(4000);
+        assertThat(availability.getTime(BrickStateEvent.State.ONFAILURE)).isEqualTo(2000);
+        assertThat(availability.getTime(BrickStateEvent.State.RUNNING)).isEqualTo(2000);
+        assertThat(availability.getUptime()).isEqualTo(0.5);
+        assertThat(availability.getFailureCount()).isEqualTo(2);
+        assertThat(availability.getRepairCount()).isEqualTo(2);
+        assertThat(availability.getMeanTimeToRepair()).isEqualTo(1000);
+    }
+
+    @Test
+    public void clip_aggregates_to_time_range_test() {
+        //  given
+        BrickStateHistory history = new BrickStateHistory(16, 100000, 10, clock::get);
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 1000);
+        record(history, "gitlab", BrickStateEvent.State.ONFAILURE, 2000);
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 4000);
+        clock.set(6000);
+
+        //  when
+        BrickAvailability availability = history.getAvailability(GITLAB, 3000, 5000);
+
+        //  then
+        assertThat(availability.getTime(BrickStateEvent.State.ONFAILURE)).isEqualTo(1000);
+        assertThat(availability.getTime(BrickStateEvent.State.RUNNING)).isEqualTo(1000);
+        assertThat(availability.getFailureCount()).isEqualTo(0);
+        assertThat(availability.getRepairCount()).isEqualTo(1);
+        assertThat(availability.getMeanTimeToRepair()).isEqualTo(2000);
+        assertThat(history.getTransitions(GITLAB, 3000, 5000)).containsExactly(new BrickStateTransition(4000, BrickStateEvent.State.RUNNING));
+    }
+
+    @Test
+    public void bound_transitions_kept_by_brick_test() {
+        //  given
+        BrickStateHistory history = new BrickStateHistory(3, 100000, 10, clock::get);
+
+        //  when
+        for (int i = 0; i < 10; i++) {
+            record(history, "gitlab", i % 2 == 0 ? BrickStateEvent.State.RUNNING : BrickStateEvent.State.ONFAILURE, 1000 + i * 100);
+        }
+
+        //  then
+        assertThat(history.getTransitions(GITLAB, 0, 10000)).containsExactly(
+                new BrickStateTransition(1700, BrickStateEvent.State.ONFAILURE),
+                new BrickStateTransition(1800, BrickStateEvent.State.RUNNING),
+                new BrickStateTransition(1900, BrickStateEvent.State.ONFAILURE));
+    }
+
+    @Test
+    public void expire_transitions_older_than_retention_test() {
+        //  given
+        BrickStateHistory history = new BrickStateHistory(16, 1000, 10, clock::get);
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 1000);
+        record(history, "gitlab", BrickStateEvent.State.ONFAILURE, 2000);
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 2500);
+
+        //  when
+        record(history, "gitlab", BrickStateEvent.State.ONFAILURE, 3200);
+
+        //  then
+        assertThat(history.getTransitions(GITLAB, 0, 10000)).containsExactly(
+                new BrickStateTransition(2000, BrickStateEvent.State.ONFAILURE),
+                new BrickStateTransition(2500, BrickStateEvent.State.RUNNING),
+                new BrickStateTransition(3200, BrickStateEvent.State.ONFAILURE));
+    }
+
+    @Test
+    public void ignore_unchanged_state_test() {
+        //  given
+        BrickStateHistory history = new BrickStateHistory(16, 100000, 10, clock::get);
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 1000);
+
+        //  when
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 2000);
+
+        //  then
+        assertThat(history.getTransitions(GITLAB, 0, 10000)).containsExactly(new BrickStateTransition(1000, BrickStateEvent.State.RUNNING));
+    }
+
+    @Test
+    public void aggregate_bricks_of_project_test() {
+        //  given
+        BrickStateHistory history = new BrickStateHistory(16, 100000, 10, clock::get);
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 1000);
+        record(history, "jenkins", BrickStateEvent.State.ONFAILURE, 1000);
+        record(history, "jenkins", BrickStateEvent.State.RUNNING, 2000);
+        history.record(Collections.singleton(new BrickStateEvent("5678", "build-B", BrickType.CI.name(), "jenkins", BrickStateEvent.State.ONFAILURE, "1.0.0")));
+        clock.set(3000);
+
+        //  when
+        BrickAvailability availability = history.getProjectAvailability("1234", 0, 10000);
+
+        //  then
+        assertThat(availability.getObservedTime()).isEqualTo(4000);
+        assertThat(availability.getUptime()).isEqualTo(0.75);
+        assertThat(availability.getFailureCount()).isEqualTo(1);
+        assertThat(availability.getMeanTimeToRepair()).isEqualTo(1000);
+    }
+
+    @Test
+    public void bound_tracked_bricks_test() {
+        //  given
+        BrickStateHistory history = new BrickStateHistory(16, 100000, 1, clock::get);
+        record(history, "gitlab", BrickStateEvent.State.RUNNING, 1000);
+
+        //  when
+        record(history, "jenkins", BrickStateEvent.State.RUNNING, 2000);
+
+        //  then
+        assertThat(history.getTrackedBrickCount()).isEqualTo(1);
+        assertThat(history.getDroppedTransitionCount()).isEqualTo(1);
+        MonitorMetrics metrics = new MonitorMetrics();
+        metrics.registerBrickStateHistory(history);
+        assertThat(metrics.getRegistry().toPrometheus())
+                .contains("kodokojo_monitor_history_tracked_bricks 1\n")
+                .contains("kodokojo_monitor_history_dropped_transitions_total 1\n");
+    }
+
+    private void record(BrickStateHistory history, String brickName, BrickStateEvent.State state, long timestamp) {
+        clock.set(timestamp);
+        history.record(Collections.singleton(new BrickStateEvent("1234", "build-A", BrickType.SCM.name(), brickName, state, "1.0.0")));
+    }
+
+}
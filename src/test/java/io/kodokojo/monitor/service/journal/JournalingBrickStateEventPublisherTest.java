@@ -0,0 +1,119 @@
+package io.kodokojo.monitor.service.journal;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventPublisher;
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class JournalingBrickStateEventPublisherTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final BrickStateEventPublisher delegate = mock(BrickStateEventPublisher.class);
+
+    @Test
+    public void log_changes_in_publication_order_test() throws IOException {
+        //  given
+        JournalingBrickStateEventPublisher publisher = new JournalingBrickStateEventPublisher(delegate, transitionLog(), 16, 2, 0);
+        publisher.start();
+
+        //  when
+        publisher.publish(jenkins(BrickStateEvent.State.STARTING));
+        publisher.publish(jenkins(BrickStateEvent.State.RUNNING));
+        publisher.publish(jenkins(BrickStateEvent.State.ONFAILURE));
+        publisher.stop(5000);
+
+        //  then
+        InOrder inOrder = inOrder(delegate);
+        inOrder.verify(delegate).publish(jenkins(BrickStateEvent.State.STARTING));
+        inOrder.verify(delegate).publish(jenkins(BrickStateEvent.State.RUNNING));
+        inOrder.verify(delegate).publish(jenkins(BrickStateEvent.State.ONFAILURE));
+        assertThat(replayedStates()).containsExactly(BrickStateEvent.State.STARTING, BrickStateEvent.State.RUNNING, BrickStateEvent.State.ONFAILURE);
+    }
+
+    @Test
+    public void stop_once_queued_changes_are_logged_test() throws IOException {
+        //  given
+        JournalingBrickStateEventPublisher publisher = new JournalingBrickStateEventPublisher(delegate, transitionLog(), 256, 16, 0);
+        MonitorMetrics metrics = new MonitorMetrics();
+        metrics.registerJournalingPublisher(publisher);
+        publisher.start();
+        for (int i = 0; i < 200; i++) {
+            publisher.publish(jenkins(i % 2 == 0 ? BrickStateEvent.State.RUNNING : BrickStateEvent.State.ONFAILURE));
+        }
+
+        //  when
+        publisher.stop(5000);
+
+        //  then
+        assertThat(publisher.getQueueDepth()).isEqualTo(0);
+        assertThat(publisher.getLoggedCount()).isEqualTo(200);
+        assertThat(replayedStates()).hasSize(200);
+        assertThat(metrics.getRegistry().toPrometheus())
+                .contains("kodokojo_monitor_transition_log_queue_depth 0\n")
+                .contains("kodokojo_monitor_transition_log_transitions_total{outcome=\"logged\"} 200\n")
+                .contains("kodokojo_monitor_transition_log_transitions_total{outcome=\"failed\"} 0\n");
+    }
+
+    @Test
+    public void full_queue_blocks_publish_test() throws IOException, InterruptedException {
+        //  given
+        JournalingBrickStateEventPublisher publisher = new JournalingBrickStateEventPublisher(delegate, transitionLog(), 1, 1, 0);
+        publisher.publish(jenkins(BrickStateEvent.State.STARTING));
+        Thread blockedPublish = new Thread(() -> publisher.publish(jenkins(BrickStateEvent.State.RUNNING)));
+
+        //  when
+        blockedPublish.start();
+        blockedPublish.join(300);
+
+        //  then
+        assertThat(blockedPublish.isAlive()).isTrue();
+        verify(delegate, never()).publish(jenkins(BrickStateEvent.State.RUNNING));
+
+        //  when
+        publisher.start();
+        blockedPublish.join(5000);
+        publisher.stop(5000);
+
+        //  then
+        assertThat(blockedPublish.isAlive()).isFalse();
+        verify(delegate).publish(jenkins(BrickStateEvent.State.RUNNING));
+        assertThat(replayedStates()).containsExactly(BrickStateEvent.State.STARTING, BrickStateEvent.State.RUNNING);
+    }
+
+    private TransitionLog transitionLog() throws IOException {
+        return new TransitionLog(temporaryFolder.getRoot().toPath(), SEGMENT_SIZE);
+    }
+
+    private List<BrickStateEvent.State> replayedStates() throws IOException {
+        List<BrickStateEvent.State> res = new ArrayList<>();
+        try (TransitionLog log = transitionLog()) {
+            log.replay(transition -> res.add(transition.getBrickStateEvent().getState()));
+        }
+        return res;
+    }
+
+    private static Set<BrickStateEvent> jenkins(BrickStateEvent.State state) {
+        return Collections.singleton(new BrickStateEvent("1234", "build-A", BrickType.CI.name(), "jenkins", state, "1.0.0"));
+    }
+
+    private static final long SEGMENT_SIZE = 1024 * 1024;
+
+}
@@ -0,0 +1,196 @@
+package io.kodokojo.monitor.service.journal;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventPublisher;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class TransitionLogTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void replay_appended_transitions_after_reopen_test() throws IOException {
+        //  given
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (TransitionLog log = new TransitionLog(directory, SEGMENT_SIZE)) {
+            log.append(Arrays.asList(transition(1000, "jenkins", BrickStateEvent.State.STARTING), transition(1000, "gitlab", BrickStateEvent.State.RUNNING)));
+            log.append(Collections.singletonList(transition(2000, "jenkins", BrickStateEvent.State.RUNNING)));
+        }
+
+        //  when
+        List<LoggedTransition> replayed = new ArrayList<>();
+        try (TransitionLog log = new TransitionLog(directory, SEGMENT_SIZE)) {
+            log.replay(replayed::add);
+        }
+
+        //  then
+        assertThat(replayed).extracting(LoggedTransition::getTimestamp).containsExactly(1000L, 1000L, 2000L);
+        assertThat(replayed.get(2).getBrickStateEvent()).isEqualTo(brick("jenkins", BrickStateEvent.State.RUNNING));
+    }
+
+    @Test
+    public void replay_time_range_test() throws IOException {
+        //  given
+        try (TransitionLog log = new TransitionLog(temporaryFolder.getRoot().toPath(), SEGMENT_SIZE)) {
+            log.append(Arrays.asList(transition(1000, "jenkins", BrickStateEvent.State.STARTING), transition(2000, "jenkins", BrickStateEvent.State.RUNNING), transition(3000, "jenkins", BrickStateEvent.State.ONFAILURE)));
+
+            //  when
+            List<LoggedTransition> replayed = new ArrayList<>();
+            log.replay(2000, 3000, replayed::add);
+
+            //  then
+            assertThat(replayed).extracting(LoggedTransition::getTimestamp).containsExactly(2000L);
+        }
+    }
+
+    @Test
+    public void truncate_incomplete_record_on_open_test() throws IOException {
+        //  given
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (TransitionLog log = new TransitionLog(directory, SEGMENT_SIZE)) {
+            log.append(Collections.singletonList(transition(1000, "jenkins", BrickStateEvent.State.RUNNING)));
+            log.append(Collections.singletonList(transition(2000, "gitlab", BrickStateEvent.State.RUNNING)));
+        }
+        Path segment = Files.list(directory).findFirst().get();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        //  when
+        List<LoggedTransition> replayed = new ArrayList<>();
+        try (TransitionLog log = new TransitionLog(directory, SEGMENT_SIZE)) {
+            log.append(Collections.singletonList(transition(3000, "nexus", BrickStateEvent.State.RUNNING)));
+            log.replay(replayed::add);
+        }
+
+        //  then
+        assertThat(replayed).extracting(LoggedTransition::getTimestamp).containsExactly(1000L, 3000L);
+    }
+
+    @Test
+    public void compact_sealed_segments_to_latest_states_test() throws IOException {
+        //  given
+        try (TransitionLog log = new TransitionLog(temporaryFolder.getRoot().toPath(), 1)) {
+            log.append(Collections.singletonList(transition(1000, "jenkins", BrickStateEvent.State.STARTING)));
+            log.append(Collections.singletonList(transition(1000, "gitlab", BrickStateEvent.State.RUNNING)));
+            log.append(Collections.singletonList(transition(2000, "jenkins", BrickStateEvent.State.RUNNING)));
+            log.append(Collections.singletonList(transition(3000, "gitlab", BrickStateEvent.State.ONFAILURE)));
+            assertThat(log.getSegmentCount()).isEqualTo(5);
+
+            //  when
+            boolean compacted = log.compact();
+
+            //  then
+            assertThat(compacted).isTrue();
+            assertThat(log.getSegmentCount()).isEqualTo(2);
+            assertThat(Files.list(temporaryFolder.getRoot().toPath()).count()).isEqualTo(2);
+            List<LoggedTransition> replayed = new ArrayList<>();
+            log.replay(replayed::add);
+            assertThat(replayed).extracting(LoggedTransition::getTimestamp).containsExactly(2000L, 3000L);
+            assertThat(log.latestStates()).containsOnly(brick("jenkins", BrickStateEvent.State.RUNNING), brick("gitlab", BrickStateEvent.State.ONFAILURE));
+            assertThat(log.compact()).isFalse();
+        }
+    }
+
+    @Test
+    public void drop_stopped_bricks_test() throws IOException {
+        //  given
+        try (TransitionLog log = new TransitionLog(temporaryFolder.getRoot().toPath(), 1)) {
+            log.append(Collections.singletonList(transition(1000, "jenkins", BrickStateEvent.State.RUNNING)));
+            log.append(Collections.singletonList(transition(2000, "jenkins", BrickStateEvent.State.STOPPED)));
+            log.append(Collections.singletonList(transition(2000, "gitlab", BrickStateEvent.State.RUNNING)));
+            assertThat(log.latestStates()).containsOnly(brick("gitlab", BrickStateEvent.State.RUNNING));
+
+            //  when
+            boolean compacted = log.compact();
+
+            //  then
+            assertThat(compacted).isTrue();
+            List<LoggedTransition> replayed = new ArrayList<>();
+            log.replay(replayed::add);
+            assertThat(replayed).extracting(LoggedTransition::getBrickStateEvent).containsExactly(brick("gitlab", BrickStateEvent.State.RUNNING));
+        }
+    }
+
+    @Test
+    public void delete_segments_left_by_interrupted_compaction_test() throws IOException {
+        //  given
+        Path directory = temporaryFolder.getRoot().toPath();
+        byte[] firstSegmentContent;
+        Path firstSegment;
+        try (TransitionLog log = new TransitionLog(directory, 1)) {
+            log.append(Collections.singletonList(transition(1000, "jenkins", BrickStateEvent.State.RUNNING)));
+            log.append(Collections.singletonList(transition(2000, "jenkins", BrickStateEvent.State.STOPPED)));
+            log.append(Collections.singletonList(transition(2000, "gitlab", BrickStateEvent.State.RUNNING)));
+            firstSegment = Files.list(directory).sorted().findFirst().get();
+            firstSegmentContent = Files.readAllBytes(firstSegment);
+            log.compact();
+        }
+        //  As if the compaction was interrupted before deleting the segments it read.
+        Files.write(firstSegment, firstSegmentContent);
+
+        //  when
+        List<LoggedTransition> replayed = new ArrayList<>();
+        try (TransitionLog log = new TransitionLog(directory, 1)) {
+            log.replay(replayed::add);
+        }
+
+        //  then
+        assertThat(Files.exists(firstSegment)).isFalse();
+        assertThat(replayed).extracting(LoggedTransition::getBrickStateEvent).containsExactly(brick("gitlab", BrickStateEvent.State.RUNNING));
+    }
+
+    @Test
+    public void journal_published_changes_test() throws IOException {
+        //  given
+        BrickStateEventPublisher delegate = mock(BrickStateEventPublisher.class);
+        TransitionLog log = new TransitionLog(temporaryFolder.getRoot().toPath(), SEGMENT_SIZE);
+        JournalingBrickStateEventPublisher publisher = new JournalingBrickStateEventPublisher(delegate, log, 16, 4, 0);
+        publisher.start();
+        HashSet<BrickStateEvent> brickStateEvents = new HashSet<>(Arrays.asList(brick("jenkins", BrickStateEvent.State.RUNNING), brick("gitlab", BrickStateEvent.State.RUNNING)));
+
+        //  when
+        publisher.publish(brickStateEvents);
+        publisher.stop(5000);
+
+        //  then
+        verify(delegate).publish(brickStateEvents);
+        assertThat(publisher.getLoggedCount()).isEqualTo(2);
+        try (TransitionLog reopened = new TransitionLog(temporaryFolder.getRoot().toPath(), SEGMENT_SIZE)) {
+            List<BrickStateEvent> replayed = new ArrayList<>();
+            reopened.replay(transition -> replayed.add(transition.getBrickStateEvent()));
+            assertThat(replayed.stream().collect(Collectors.toSet())).isEqualTo(brickStateEvents);
+        }
+    }
+
+    private static LoggedTransition transition(long timestamp, String brickName, BrickStateEvent.State state) {
+        return new LoggedTransition(timestamp, brick(brickName, state));
+    }
+
+    private static BrickStateEvent brick(String brickName, BrickStateEvent.State state) {
+        return new BrickStateEvent("1234", "build-A", BrickType.CI.name(), brickName, state, "1.0.0");
+    }
+
+    private static final long SEGMENT_SIZE = 1024 * 1024;
+
+}
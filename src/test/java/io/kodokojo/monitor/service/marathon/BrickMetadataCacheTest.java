@@ -0,0 +1,85 @@
+package io.kodokojo.monitor.service.marathon;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.BrickFactory;
+import io.kodokojo.commons.service.BrickUrlFactory;
+import io.kodokojo.commons.service.DefaultBrickFactory;
+import io.kodokojo.commons.service.DefaultBrickUrlFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BrickMetadataCacheTest {
+
+    private BrickFactory brickFactory;
+
+    private BrickUrlFactory brickUrlFactory;
+
+    @Before
+    public void setup() {
+        BrickFactory defaultBrickFactory = new DefaultBrickFactory();
+        BrickUrlFactory defaultBrickUrlFactory = new DefaultBrickUrlFactory("kodokojo.dev");
+        brickFactory = mock(BrickFactory.class);
+        when(brickFactory.createBrick(anyString())).thenAnswer(invocation -> defaultBrickFactory.createBrick((String) invocation.getArguments()[0]));
+        brickUrlFactory = mock(BrickUrlFactory.class);
+        when(brickUrlFactory.forgeUrl(anyString(), anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            Object[] arguments = invocation.getArguments();
+            return defaultBrickUrlFactory.forgeUrl((String) arguments[0], (String) arguments[1], (String) arguments[2], (String) arguments[3]);
+        });
+    }
+
+    @Test
+    public void brick_metadata_are_computed_once_test() {
+        //  given
+        BrickMetadataCache brickMetadataCache = new BrickMetadataCache(brickFactory, brickUrlFactory, 10);
+
+        //  when
+        BrickMetadataCache.BrickMetadata first = brickMetadataCache.getBrickMetadata("jenkins");
+        BrickMetadataCache.BrickMetadata second = brickMetadataCache.getBrickMetadata("jenkins");
+
+        //  then
+        assertThat(second).isSameAs(first);
+        assertThat(first.getType()).isEqualTo(BrickType.CI.name());
+        verify(brickFactory, times(1)).createBrick("jenkins");
+    }
+
+    @Test
+    public void url_is_forged_once_per_brick_test() {
+        //  given
+        BrickMetadataCache brickMetadataCache = new BrickMetadataCache(brickFactory, brickUrlFactory, 10);
+
+        //  when
+        String first = brickMetadataCache.getUrl("myproject", "build-A", BrickType.CI.name(), "jenkins");
+        String second = brickMetadataCache.getUrl(new String("myproject"), "build-A", BrickType.CI.name(), "jenkins");
+        String other = brickMetadataCache.getUrl("myproject", "build-B", BrickType.CI.name(), "jenkins");
+
+        //  then
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotNull();
+        verify(brickUrlFactory, times(1)).forgeUrl("myproject", "build-A", BrickType.CI.name(), "jenkins");
+        verify(brickUrlFactory, times(1)).forgeUrl("myproject", "build-B", BrickType.CI.name(), "jenkins");
+        assertThat(brickMetadataCache.getHitCount()).isEqualTo(1);
+        assertThat(brickMetadataCache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void least_recently_used_url_is_evicted_test() {
+        //  given
+        BrickMetadataCache brickMetadataCache = new BrickMetadataCache(brickFactory, brickUrlFactory, 1);
+        brickMetadataCache.getUrl("myproject", "build-A", BrickType.CI.name(), "jenkins");
+
+        //  when
+        brickMetadataCache.getUrl("myproject", "build-A", BrickType.SCM.name(), "gitlab");
+        brickMetadataCache.getUrl("myproject", "build-A", BrickType.CI.name(), "jenkins");
+
+        //  then
+        verify(brickUrlFactory, times(2)).forgeUrl("myproject", "build-A", BrickType.CI.name(), "jenkins");
+    }
+
+}
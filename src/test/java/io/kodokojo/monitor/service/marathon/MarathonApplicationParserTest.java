@@ -0,0 +1,59 @@
+package io.kodokojo.monitor.service.marathon;
+
+import io.kodokojo.monitor.service.MonitorDataBuilder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MarathonApplicationParserTest implements MonitorDataBuilder {
+
+    @Test
+    public void parse_only_managed_applications_test() throws IOException {
+        //  given
+        MarathonApplicationParser parser = new MarathonApplicationParser();
+        List<MarathonApplication> applications = new ArrayList<>();
+
+        //  when
+        parser.parseApplications(new StringReader(fetchAllMarathonAppsResponse()), applications::add);
+
+        //  then
+        assertThat(applications).extracting("id").doesNotContain("/kodokojo/redis", "/kodokojo/haproxy-agent");
+        assertThat(applications).extracting("id").contains("/myproject/jenkins", "/myproject/nexus", "/myproject/gitlab");
+    }
+
+    @Test
+    public void parse_tasks_count_test() throws IOException {
+        //  given
+        MarathonApplicationParser parser = new MarathonApplicationParser();
+        List<MarathonApplication> applications = new ArrayList<>();
+
+        //  when
+        parser.parseApplications(new StringReader(fetchJenkinsHealthyMarathonAppsResponse()), applications::add);
+
+        //  then
+        assertThat(applications).containsOnly(new MarathonApplication("/myproject/jenkins", 1, 1, 0, 0, 1));
+    }
+
+    @Test
+    public void parse_boolean_label_and_skip_unexpected_values_test() throws IOException {
+        //  given
+        MarathonApplicationParser parser = new MarathonApplicationParser();
+        List<MarathonApplication> applications = new ArrayList<>();
+        String body = "{\"apps\":[" +
+                "{\"id\":\"/a/jenkins\",\"labels\":{\"managedByKodoKojoHa\":true},\"instances\":null,\"container\":{\"docker\":{\"image\":\"jenkins\"}}}," +
+                "{\"id\":\"/b/jenkins\",\"labels\":{\"managedByKodoKojoHa\":\"false\"},\"instances\":1}" +
+                "]}";
+
+        //  when
+        parser.parseApplications(new StringReader(body), applications::add);
+
+        //  then
+        assertThat(applications).containsOnly(new MarathonApplication("/a/jenkins", 0, 0, 0, 0, 0));
+    }
+
+}
@@ -0,0 +1,161 @@
+package io.kodokojo.monitor.service.marathon;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.kodokojo.commons.config.MarathonConfig;
+import io.kodokojo.commons.model.ProjectConfigurationBuilder;
+import io.kodokojo.commons.service.DefaultBrickFactory;
+import io.kodokojo.commons.service.DefaultBrickUrlFactory;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.commons.service.repository.ProjectFetcher;
+import io.kodokojo.monitor.service.MonitorDataBuilder;
+import io.kodokojo.monitor.service.metrics.MonitorMetrics;
+import io.kodokojo.monitor.service.project.DefaultProjectResolver;
+import io.kodokojo.test.DataBuilder;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MarathonBrickStateLookupFetchModeTest implements MonitorDataBuilder, DataBuilder {
+
+    private MockWebServer marathon;
+
+    private MarathonConfig marathonConfig;
+
+    private ProjectFetcher projectFetcher;
+
+    @Before
+    public void setup() throws IOException {
+        String allApps = fetchAllMarathonAppsResponse();
+        String managedApps = filterManagedApplications(allApps);
+
+        marathon = new MockWebServer();
+        marathon.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (!request.getPath().startsWith("/v2/apps")) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                //  Emulate Marathon label selector, only a query on the label embedding counts gets managed applications without tasks.
+                String path = decode(request.getPath());
+                boolean filtered = path.contains("label=") && path.contains("embed=apps.counts");
+                return new MockResponse().setBody(filtered ? managedApps : allApps);
+            }
+        });
+        marathon.start();
+
+        marathonConfig = mock(MarathonConfig.class);
+        when(marathonConfig.url()).thenReturn("http://" + marathon.getHostName() + ":" + marathon.getPort());
+
+        projectFetcher = mock(ProjectFetcher.class);
+        when(projectFetcher.getProjectConfigurationByName("myproject")).thenReturn(aProjectConfiguration());
+        ProjectConfigurationBuilder builder = new ProjectConfigurationBuilder(aProjectConfiguration());
+        builder.setName("bisproject");
+        builder.setIdentifier("0123ss");
+        when(projectFetcher.getProjectConfigurationByName("bisproject")).thenReturn(builder.build());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        marathon.shutdown();
+    }
+
+    @Test
+    public void selector_fetch_mode_request_filtered_applications_test() throws Exception {
+        //  given
+        MarathonBrickStateLookup brickStateLookup = aMarathonBrickStateLookup(MarathonFetchMode.SELECTOR);
+
+        //  when
+        Set<BrickStateEvent> brickStateEvents = brickStateLookup.lookup();
+
+        //  then
+        RecordedRequest request = marathon.takeRequest();
+        String path = decode(request.getPath());
+        assertThat(path).startsWith("/v2/apps?");
+        assertThat(path).contains("label=managedByKodoKojoHa==true");
+        assertThat(path).contains("embed=apps.counts");
+        assertThat(brickStateEvents).containsOnlyElementsOf(aBrickStateEvents());
+    }
+
+    @Test
+    public void all_fetch_mode_request_all_applications_test() throws Exception {
+        //  given
+        MarathonBrickStateLookup brickStateLookup = aMarathonBrickStateLookup(MarathonFetchMode.ALL);
+
+        //  when
+        Set<BrickStateEvent> brickStateEvents = brickStateLookup.lookup();
+
+        //  then
+        assertThat(marathon.takeRequest().getPath()).isEqualTo("/v2/apps");
+        assertThat(brickStateEvents).containsOnlyElementsOf(aBrickStateEvents());
+    }
+
+    @Test
+    public void selector_fetch_mode_read_less_bytes_with_same_result_test() throws Exception {
+        //  given
+        MonitorMetrics allMetrics = new MonitorMetrics();
+        MonitorMetrics selectorMetrics = new MonitorMetrics();
+        MarathonBrickStateLookup allLookup = aMarathonBrickStateLookup(MarathonFetchMode.ALL, allMetrics);
+        MarathonBrickStateLookup selectorLookup = aMarathonBrickStateLookup(MarathonFetchMode.SELECTOR, selectorMetrics);
+
+        //  when
+        Set<BrickStateEvent> allBrickStateEvents = allLookup.lookup();
+        Set<BrickStateEvent> selectorBrickStateEvents = selectorLookup.lookup();
+
+        //  then
+        long allBytes = allMetrics.getMarathonPayloadBytes().get();
+        long selectorBytes = selectorMetrics.getMarathonPayloadBytes().get();
+        assertThat(selectorBrickStateEvents).isNotEmpty().isEqualTo(allBrickStateEvents);
+        assertThat(allBytes).isGreaterThan(0);
+        assertThat(selectorBytes).isGreaterThan(0).isLessThan(allBytes / 2);
+    }
+
+    private MarathonBrickStateLookup aMarathonBrickStateLookup(MarathonFetchMode fetchMode) {
+        return aMarathonBrickStateLookup(fetchMode, new MonitorMetrics());
+    }
+
+    private MarathonBrickStateLookup aMarathonBrickStateLookup(MarathonFetchMode fetchMode, MonitorMetrics metrics) {
+        return new MarathonBrickStateLookup(marathonConfig, new DefaultProjectResolver(projectFetcher), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), new OkHttpClient(), new MarathonBrickStateLookup.Options().withFetchMode(fetchMode).withLabelSelector("managedByKodoKojoHa==true").withMetrics(metrics));
+    }
+
+    private static String decode(String path) {
+        try {
+            return URLDecoder.decode(path, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String filterManagedApplications(String allApps) {
+        JsonObject root = (JsonObject) new JsonParser().parse(allApps);
+        JsonArray managed = new JsonArray();
+        for (JsonElement el : root.getAsJsonArray("apps")) {
+            JsonObject app = (JsonObject) el;
+            JsonObject labels = app.getAsJsonObject("labels");
+            if (labels != null && labels.has("managedByKodoKojoHa") && labels.getAsJsonPrimitive("managedByKodoKojoHa").getAsBoolean()) {
+                app.remove("tasks");
+                managed.add(app);
+            }
+        }
+        JsonObject res = new JsonObject();
+        res.add("apps", managed);
+        return res.toString();
+    }
+
+}
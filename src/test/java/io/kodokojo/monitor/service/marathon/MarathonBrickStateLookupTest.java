@@ -8,17 +8,28 @@ import io.kodokojo.commons.service.DefaultBrickUrlFactory;
 import io.kodokojo.commons.service.actor.message.BrickStateEvent;
 import io.kodokojo.commons.service.repository.ProjectFetcher;
 import io.kodokojo.monitor.service.BrickStateLookup;
+import io.kodokojo.monitor.service.BrickStateLookupResult;
 import io.kodokojo.monitor.service.MonitorDataBuilder;
+import io.kodokojo.monitor.service.project.DefaultProjectResolver;
+import io.kodokojo.monitor.service.project.ProjectResolver;
 import io.kodokojo.test.DataBuilder;
 import okhttp3.OkHttpClient;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class MarathonBrickStateLookupTest implements MonitorDataBuilder, DataBuilder {
@@ -45,10 +56,10 @@ public class MarathonBrickStateLookupTest implements MonitorDataBuilder, DataBui
 
     @Test
     public void lookup_simple_healthy_application_test() {
-        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, projectFetcher, new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient) {
+        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, new DefaultProjectResolver(projectFetcher), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient, new MarathonBrickStateLookup.Options()) {
             @Override
-            protected String fetchMarathon() {
-                return fetchJenkinsHealthyMarathonAppsResponse();
+            protected Reader fetchMarathon() {
+                return new StringReader(fetchJenkinsHealthyMarathonAppsResponse());
             }
         };
 
@@ -58,10 +69,10 @@ public class MarathonBrickStateLookupTest implements MonitorDataBuilder, DataBui
     @Test
     public void lookup_simple_fail_application_test() {
 
-        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, projectFetcher, new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient) {
+        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, new DefaultProjectResolver(projectFetcher), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient, new MarathonBrickStateLookup.Options()) {
             @Override
-            protected String fetchMarathon() {
-                return fetchJenkinsFailMarathonAppsResponse();
+            protected Reader fetchMarathon() {
+                return new StringReader(fetchJenkinsFailMarathonAppsResponse());
             }
         };
 
@@ -73,10 +84,10 @@ public class MarathonBrickStateLookupTest implements MonitorDataBuilder, DataBui
     @Test
     public void lookup_simple_running_application_test() {
 
-        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, projectFetcher, new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient) {
+        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, new DefaultProjectResolver(projectFetcher), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient, new MarathonBrickStateLookup.Options()) {
             @Override
-            protected String fetchMarathon() {
-                return fetchJenkinsRunningMarathonAppsResponse();
+            protected Reader fetchMarathon() {
+                return new StringReader(fetchJenkinsRunningMarathonAppsResponse());
             }
         };
 
@@ -87,10 +98,10 @@ public class MarathonBrickStateLookupTest implements MonitorDataBuilder, DataBui
     @Test
     public void lookup_simple_stopped_application_test() {
 
-        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, projectFetcher, new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient) {
+        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, new DefaultProjectResolver(projectFetcher), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient, new MarathonBrickStateLookup.Options()) {
             @Override
-            protected String fetchMarathon() {
-                return fetchJenkinsStoppedMarathonAppsResponse();
+            protected Reader fetchMarathon() {
+                return new StringReader(fetchJenkinsStoppedMarathonAppsResponse());
             }
         };
 
@@ -101,10 +112,10 @@ public class MarathonBrickStateLookupTest implements MonitorDataBuilder, DataBui
     @Test
     public void lookup_simple_staged_application_test() {
 
-        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, projectFetcher, new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient) {
+        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, new DefaultProjectResolver(projectFetcher), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient, new MarathonBrickStateLookup.Options()) {
             @Override
-            protected String fetchMarathon() {
-                return fetchJenkinsStageMarathonAppsResponse();
+            protected Reader fetchMarathon() {
+                return new StringReader(fetchJenkinsStageMarathonAppsResponse());
             }
         };
 
@@ -115,10 +126,10 @@ public class MarathonBrickStateLookupTest implements MonitorDataBuilder, DataBui
     @Test
     public void acceptance_test() {
 
-        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, projectFetcher, new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient) {
+        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, new DefaultProjectResolver(projectFetcher), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient, new MarathonBrickStateLookup.Options()) {
             @Override
-            protected String fetchMarathon() {
-                return fetchAllMarathonAppsResponse();
+            protected Reader fetchMarathon() {
+                return new StringReader(fetchAllMarathonAppsResponse());
             }
         };
 
@@ -132,6 +143,69 @@ public class MarathonBrickStateLookupTest implements MonitorDataBuilder, DataBui
     }
 
 
+    @Test
+    public void unchanged_marathon_applications_reuse_previous_result_test() {
+        //  given
+        AtomicReference<String> marathonResponse = new AtomicReference<>(fetchJenkinsHealthyMarathonAppsResponse());
+        MarathonBrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, new DefaultProjectResolver(projectFetcher), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient, new MarathonBrickStateLookup.Options().withFastPathMaxAge(TimeUnit.MINUTES.toMillis(5))) {
+            @Override
+            protected Reader fetchMarathon() {
+                return new StringReader(marathonResponse.get());
+            }
+        };
+        Set<BrickStateEvent> first = brickStateLookup.lookup();
+
+        //  when
+        Set<BrickStateEvent> second = brickStateLookup.lookup();
+        marathonResponse.set(fetchJenkinsFailMarathonAppsResponse());
+        Set<BrickStateEvent> third = brickStateLookup.lookup();
+
+        //  then
+        assertThat(second).isEqualTo(first);
+        assertThat(third).containsOnly(new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", BrickStateEvent.State.ONFAILURE, "1.651.3"));
+        assertThat(brickStateLookup.getFastPathHitCount()).isEqualTo(1);
+        assertThat(brickStateLookup.getFastPathMissCount()).isEqualTo(2);
+        verify(projectFetcher, times(2)).getProjectConfigurationByName("myproject");
+    }
+
+    @Test
+    public void project_of_several_bricks_is_resolved_once_per_lookup_test() {
+        //  given
+        ProjectResolver projectResolver = spy(new DefaultProjectResolver(projectFetcher));
+        MarathonBrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, projectResolver, new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient, new MarathonBrickStateLookup.Options()) {
+            @Override
+            protected Reader fetchMarathon() {
+                return new StringReader(fetchAllMarathonAppsResponse());
+            }
+        };
+
+        //  when
+        Set<BrickStateEvent> brickStateEvents = brickStateLookup.lookup();
+
+        //  then
+        assertThat(brickStateEvents).containsOnlyElementsOf(aBrickStateEvents());
+        verify(projectResolver, times(1)).resolveProjects(anySetOf(String.class));
+        verify(projectFetcher, times(1)).getProjectConfigurationByName("myproject");
+    }
+
+    @Test
+    public void unreachable_marathon_gives_failed_result_test() {
+        //  given
+        BrickStateLookup brickStateLookup = new MarathonBrickStateLookup(marathonConfig, new DefaultProjectResolver(projectFetcher), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient, new MarathonBrickStateLookup.Options()) {
+            @Override
+            protected Reader fetchMarathon() {
+                return null;
+            }
+        };
+
+        //  when
+        BrickStateLookupResult result = brickStateLookup.lookupResult();
+
+        //  then
+        assertThat(result.isFailed()).isTrue();
+        assertThat(result.getBrickStateEvents()).isEmpty();
+    }
+
     private void lookup_simple_application_test(BrickStateLookup brickStateLookup, BrickStateEvent.State expectedState) {
         //  When
 
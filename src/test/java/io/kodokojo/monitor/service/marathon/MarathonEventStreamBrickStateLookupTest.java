@@ -0,0 +1,199 @@
+package io.kodokojo.monitor.service.marathon;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.kodokojo.commons.config.MarathonConfig;
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.DefaultBrickFactory;
+import io.kodokojo.commons.service.DefaultBrickUrlFactory;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.commons.service.repository.ProjectFetcher;
+import io.kodokojo.monitor.service.MonitorDataBuilder;
+import io.kodokojo.monitor.service.project.DefaultProjectResolver;
+import io.kodokojo.test.DataBuilder;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MarathonEventStreamBrickStateLookupTest implements MonitorDataBuilder, DataBuilder {
+
+    private static final String STREAM_ATTACHED = "event: event_stream_attached\ndata: {\"remoteAddress\":\"127.0.0.1\"}\n\n";
+
+    private MockWebServer marathon;
+
+    private final AtomicReference<String> allApps = new AtomicReference<>();
+
+    private final AtomicReference<String> jenkinsApp = new AtomicReference<>();
+
+    //  Body of each event stream connection, in connection order; a connection waits until its body is given.
+    private final BlockingQueue<MockResponse> eventStreams = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger allAppsRequestCount = new AtomicInteger();
+
+    private final AtomicInteger jenkinsAppRequestCount = new AtomicInteger();
+
+    private final AtomicInteger otherAppRequestCount = new AtomicInteger();
+
+    private final AtomicInteger eventStreamConnectionCount = new AtomicInteger();
+
+    private final AtomicInteger changeCount = new AtomicInteger();
+
+    private MarathonEventStreamBrickStateLookup brickStateLookup;
+
+    @Before
+    public void setup() throws IOException {
+        allApps.set(fetchJenkinsHealthyMarathonAppsResponse());
+        jenkinsApp.set(singleApplication(fetchJenkinsFailMarathonAppsResponse()));
+
+        marathon = new MockWebServer();
+        marathon.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                String path = request.getPath();
+                if ("/v2/apps".equals(path)) {
+                    allAppsRequestCount.incrementAndGet();
+                    return json(allApps.get());
+                }
+                if (path.startsWith("/v2/apps/myproject/jenkins")) {
+                    jenkinsAppRequestCount.incrementAndGet();
+                    return json(jenkinsApp.get());
+                }
+                if ("/v2/events".equals(path)) {
+                    eventStreamConnectionCount.incrementAndGet();
+                    MockResponse eventStream = eventStreams.poll(10, TimeUnit.SECONDS);
+                    return eventStream == null ? new MockResponse().setResponseCode(503) : eventStream;
+                }
+                otherAppRequestCount.incrementAndGet();
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        marathon.start();
+
+        MarathonConfig marathonConfig = mock(MarathonConfig.class);
+        when(marathonConfig.url()).thenReturn("http://" + marathon.getHostName() + ":" + marathon.getPort());
+        ProjectFetcher projectFetcher = mock(ProjectFetcher.class);
+        when(projectFetcher.getProjectConfigurationByName("myproject")).thenReturn(aProjectConfiguration());
+        OkHttpClient httpClient = new OkHttpClient();
+
+        MarathonBrickStateLookup marathonBrickStateLookup = new MarathonBrickStateLookup(marathonConfig, new DefaultProjectResolver(projectFetcher), new DefaultBrickFactory(), new DefaultBrickUrlFactory("kodokojo.dev"), httpClient, new MarathonBrickStateLookup.Options());
+        brickStateLookup = new MarathonEventStreamBrickStateLookup(marathonConfig, marathonBrickStateLookup, httpClient, TimeUnit.HOURS.toMillis(1), 1000);
+        brickStateLookup.addChangeListener(changeCount::incrementAndGet);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        brickStateLookup.stop();
+        //  Release a connection waiting for its event stream.
+        eventStreams.add(new MockResponse().setResponseCode(503));
+        marathon.shutdown();
+    }
+
+    @Test
+    public void push_brick_state_change_from_event_stream_test() {
+        //  given
+        eventStreams.add(eventStream(STREAM_ATTACHED, "event: status_update_event\ndata: {\"eventType\":\"status_update_event\",\"appId\":\"/myproject/jenkins\",\"taskStatus\":\"TASK_RUNNING\"}\n\n"));
+
+        //  when
+        brickStateLookup.start();
+        waitUntil(() -> changeCount.get() == 2);
+
+        //  then
+        assertThat(brickStateLookup.lookup()).containsOnly(jenkins(BrickStateEvent.State.ONFAILURE));
+        assertThat(allAppsRequestCount.get()).isEqualTo(1);
+        assertThat(jenkinsAppRequestCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void ignore_event_of_unrelated_application_test() {
+        //  given
+        eventStreams.add(eventStream(STREAM_ATTACHED,
+                "event: deployment_info\ndata: {\"eventType\":\"deployment_info\",\"plan\":{}}\n\n",
+                "event: status_update_event\ndata: {\"eventType\":\"status_update_event\",\"appId\":\"/kodokojo/back/api\"}\n\n",
+                //  Events are handled in order, once this one is handled previous ones were ignored.
+                "event: status_update_event\ndata: {\"eventType\":\"status_update_event\",\"appId\":\"/myproject/jenkins\"}\n\n"));
+
+        //  when
+        brickStateLookup.start();
+        waitUntil(() -> jenkinsAppRequestCount.get() == 1 && changeCount.get() == 2);
+
+        //  then
+        assertThat(otherAppRequestCount.get()).isEqualTo(0);
+        assertThat(allAppsRequestCount.get()).isEqualTo(1);
+        assertThat(changeCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void resynchronise_after_reconnect_test() {
+        //  given
+        eventStreams.add(eventStream(STREAM_ATTACHED));
+        brickStateLookup.start();
+        waitUntil(() -> changeCount.get() == 1);
+        assertThat(brickStateLookup.lookup()).containsOnly(jenkins(BrickStateEvent.State.RUNNING));
+
+        //  when
+        allApps.set(fetchJenkinsStoppedMarathonAppsResponse());
+        eventStreams.add(eventStream(STREAM_ATTACHED));
+        waitUntil(() -> changeCount.get() == 2);
+
+        //  then
+        assertThat(eventStreamConnectionCount.get()).isGreaterThanOrEqualTo(2);
+        assertThat(allAppsRequestCount.get()).isEqualTo(2);
+        assertThat(brickStateLookup.lookup()).containsOnly(jenkins(BrickStateEvent.State.STOPPED));
+    }
+
+    private static MockResponse eventStream(String... events) {
+        return new MockResponse()
+                .setHeader("Content-Type", "text/event-stream")
+                .setBody(String.join("", events));
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(body);
+    }
+
+    private static String singleApplication(String apps) {
+        JsonObject root = (JsonObject) new JsonParser().parse(apps);
+        JsonObject res = new JsonObject();
+        res.add("app", root.getAsJsonArray("apps").get(0));
+        return res.toString();
+    }
+
+    private static BrickStateEvent jenkins(BrickStateEvent.State state) {
+        return new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", state, "1.651.3");
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long timeout = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > timeout) {
+                throw new AssertionError("Condition not reached before timeout.");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+}
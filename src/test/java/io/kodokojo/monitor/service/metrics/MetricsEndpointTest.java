@@ -0,0 +1,52 @@
+package io.kodokojo.monitor.service.metrics;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsEndpointTest {
+
+    private MetricsRegistry registry;
+
+    private MetricsEndpoint endpoint;
+
+    @Before
+    public void setup() {
+        registry = new MetricsRegistry();
+        endpoint = new MetricsEndpoint(registry, 0, "/metrics");
+        endpoint.start();
+    }
+
+    @After
+    public void tearDown() {
+        endpoint.stop();
+    }
+
+    @Test
+    public void scrape_metrics_test() throws IOException {
+        //  given
+        registry.counter("events_total", "Events.").add(3);
+
+        //  when
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + endpoint.getPort() + "/metrics").openConnection();
+        String body;
+        try (InputStream input = connection.getInputStream()) {
+            body = IOUtils.toString(input, StandardCharsets.UTF_8);
+        }
+
+        //  then
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getContentType()).startsWith("text/plain; version=0.0.4");
+        assertThat(body).contains("events_total 3\n");
+    }
+
+}
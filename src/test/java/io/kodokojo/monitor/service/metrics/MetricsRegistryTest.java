@@ -0,0 +1,81 @@
+package io.kodokojo.monitor.service.metrics;
+
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void export_counters_and_gauges_test() {
+        //  given
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter running = registry.counter("events_total", "Events by state.", "state", "RUNNING");
+        Counter stopped = registry.counter("events_total", "Events by state.", "state", "STOPPED");
+        registry.gauge("cache_size", "Cache size.", () -> 42);
+
+        //  when
+        running.increment();
+        running.increment();
+        stopped.add(5);
+        String output = registry.toPrometheus();
+
+        //  then
+        assertThat(output).isEqualTo("# HELP events_total Events by state.\n" +
+                "# TYPE events_total counter\n" +
+                "events_total{state=\"RUNNING\"} 2\n" +
+                "events_total{state=\"STOPPED\"} 5\n" +
+                "# HELP cache_size Cache size.\n" +
+                "# TYPE cache_size gauge\n" +
+                "cache_size 42\n");
+    }
+
+    @Test
+    public void export_timer_as_cumulative_histogram_test() {
+        //  given
+        MetricsRegistry registry = new MetricsRegistry();
+        Timer timer = registry.timer("fetch_seconds", "Fetch time.");
+
+        //  when
+        timer.record(TimeUnit.MICROSECONDS.toNanos(50));
+        timer.record(TimeUnit.MILLISECONDS.toNanos(3));
+        timer.record(TimeUnit.SECONDS.toNanos(30));
+        String output = registry.toPrometheus();
+
+        //  then
+        assertThat(output).contains("# TYPE fetch_seconds histogram\n");
+        assertThat(output).contains("fetch_seconds_bucket{le=\"1.0E-4\"} 1\n");
+        assertThat(output).contains("fetch_seconds_bucket{le=\"0.005\"} 2\n");
+        assertThat(output).contains("fetch_seconds_bucket{le=\"10.0\"} 2\n");
+        assertThat(output).contains("fetch_seconds_bucket{le=\"+Inf\"} 3\n");
+        assertThat(output).contains("fetch_seconds_count 3\n");
+        assertThat(output).contains("fetch_seconds_sum 30.00305\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reject_a_meter_registered_twice_test() {
+        //  given
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("events_total", "Events.", "state", "RUNNING");
+
+        //  when
+        registry.counter("events_total", "Events.", "state", "RUNNING");
+    }
+
+    @Test
+    public void monitor_metrics_count_events_by_state_test() {
+        //  given
+        MonitorMetrics metrics = new MonitorMetrics();
+
+        //  when
+        metrics.getBrickStateEventCount(BrickStateEvent.State.ONFAILURE).increment();
+
+        //  then
+        assertThat(metrics.getRegistry().toPrometheus()).contains("kodokojo_monitor_brick_state_events_total{state=\"ONFAILURE\"} 1\n");
+        assertThat(metrics.getBrickStateEventCount(BrickStateEvent.State.RUNNING).get()).isEqualTo(0);
+    }
+
+}
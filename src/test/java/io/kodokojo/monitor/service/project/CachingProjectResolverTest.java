@@ -0,0 +1,189 @@
+package io.kodokojo.monitor.service.project;
+
+import io.kodokojo.commons.model.ProjectConfiguration;
+import io.kodokojo.commons.model.ProjectConfigurationBuilder;
+import io.kodokojo.commons.service.repository.ProjectFetcher;
+import io.kodokojo.test.DataBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingProjectResolverTest implements DataBuilder {
+
+    private ProjectResolver delegate;
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    @Before
+    public void setup() {
+        delegate = mock(ProjectResolver.class);
+        when(delegate.getProjectConfigurationByName("myproject")).thenReturn(aProjectConfiguration());
+    }
+
+    @Test
+    public void cached_project_configuration_is_fetched_once_test() {
+        //  given
+        CachingProjectResolver projectResolver = new CachingProjectResolver(delegate, 10, 1000, 100, clock::get);
+
+        //  when
+        ProjectConfiguration first = projectResolver.getProjectConfigurationByName("myproject");
+        ProjectConfiguration second = projectResolver.getProjectConfigurationByName("myproject");
+
+        //  then
+        assertThat(second).isSameAs(first);
+        verify(delegate, times(1)).getProjectConfigurationByName("myproject");
+        assertThat(projectResolver.getHitCount()).isEqualTo(1);
+        assertThat(projectResolver.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void expired_entry_is_fetched_again_test() {
+        //  given
+        CachingProjectResolver projectResolver = new CachingProjectResolver(delegate, 10, 1000, 100, clock::get);
+        projectResolver.getProjectConfigurationByName("myproject");
+
+        //  when
+        clock.addAndGet(1000);
+        projectResolver.getProjectConfigurationByName("myproject");
+
+        //  then
+        verify(delegate, times(2)).getProjectConfigurationByName("myproject");
+    }
+
+    @Test
+    public void unknown_project_is_cached_with_negative_ttl_test() {
+        //  given
+        CachingProjectResolver projectResolver = new CachingProjectResolver(delegate, 10, 1000, 100, clock::get);
+
+        //  when
+        assertThat(projectResolver.getProjectConfigurationByName("unknown")).isNull();
+        assertThat(projectResolver.getProjectConfigurationByName("unknown")).isNull();
+        clock.addAndGet(100);
+        assertThat(projectResolver.getProjectConfigurationByName("unknown")).isNull();
+
+        //  then
+        verify(delegate, times(2)).getProjectConfigurationByName("unknown");
+    }
+
+    @Test
+    public void least_recently_used_entry_is_evicted_test() {
+        //  given
+        CachingProjectResolver projectResolver = new CachingProjectResolver(delegate, 2, 1000, 1000, clock::get);
+        projectResolver.getProjectConfigurationByName("myproject");
+        projectResolver.getProjectConfigurationByName("a");
+        projectResolver.getProjectConfigurationByName("myproject");
+
+        //  when
+        projectResolver.getProjectConfigurationByName("b");
+        projectResolver.getProjectConfigurationByName("myproject");
+        projectResolver.getProjectConfigurationByName("a");
+
+        //  then
+        verify(delegate, times(1)).getProjectConfigurationByName("myproject");
+        verify(delegate, times(2)).getProjectConfigurationByName("a");
+        assertThat(projectResolver.getEvictionCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void batch_resolution_delegate_only_missing_projects_test() {
+        //  given
+        CachingProjectResolver projectResolver = new CachingProjectResolver(delegate, 10, 1000, 100, clock::get);
+        projectResolver.getProjectConfigurationByName("myproject");
+        Set<String> missingProjectNames = new HashSet<>(Arrays.asList("a", "unknown"));
+        ProjectConfiguration projectConfigurationA = aProjectConfiguration();
+        when(delegate.resolveProjects(missingProjectNames)).thenReturn(Collections.singletonMap("a", new ResolvedProject(projectConfigurationA, null)));
+
+        //  when
+        Map<String, ResolvedProject> resolvedProjects = projectResolver.resolveProjects(new HashSet<>(Arrays.asList("myproject", "a", "unknown")));
+        Map<String, ResolvedProject> cachedResolvedProjects = projectResolver.resolveProjects(new HashSet<>(Arrays.asList("myproject", "a", "unknown")));
+
+        //  then
+        assertThat(resolvedProjects).containsOnlyKeys("myproject", "a");
+        assertThat(resolvedProjects.get("a").getProjectConfiguration()).isSameAs(projectConfigurationA);
+        assertThat(cachedResolvedProjects).containsOnlyKeys("myproject", "a");
+        verify(delegate, times(1)).resolveProjects(missingProjectNames);
+        verify(delegate, times(1)).getProjectConfigurationByName("myproject");
+    }
+
+    @Test
+    public void project_is_fetched_on_each_resolution_test() {
+        //  given
+        CachingProjectResolver projectResolver = new CachingProjectResolver(delegate, 10, 1000, 100, clock::get);
+        String projectConfigurationId = projectResolver.getProjectConfigurationByName("myproject").getIdentifier();
+
+        //  when
+        projectResolver.resolveProjects(Collections.singleton("myproject"));
+        projectResolver.resolveProjects(Collections.singleton("myproject"));
+
+        //  then
+        verify(delegate, times(1)).getProjectConfigurationByName("myproject");
+        verify(delegate, times(2)).getProjectsByProjectConfigurationIds(Collections.singleton(projectConfigurationId));
+    }
+
+    @Test
+    public void projects_of_cached_project_configurations_are_fetched_concurrently_test() throws InterruptedException {
+        //  given
+        ProjectFetcher projectFetcher = mock(ProjectFetcher.class);
+        when(projectFetcher.getProjectConfigurationByName("myproject")).thenReturn(aProjectConfiguration());
+        ProjectConfigurationBuilder builder = new ProjectConfigurationBuilder(aProjectConfiguration());
+        builder.setName("bisproject");
+        builder.setIdentifier("0123ss");
+        when(projectFetcher.getProjectConfigurationByName("bisproject")).thenReturn(builder.build());
+        CountDownLatch bothFetching = new CountDownLatch(2);
+        AtomicInteger concurrentFetches = new AtomicInteger();
+        when(projectFetcher.getProjectByProjectConfigurationId(anyString())).thenAnswer(invocation -> {
+            bothFetching.countDown();
+            if (bothFetching.await(5, TimeUnit.SECONDS)) {
+                concurrentFetches.incrementAndGet();
+            }
+            return null;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CachingProjectResolver projectResolver = new CachingProjectResolver(new DefaultProjectResolver(projectFetcher, executor), 10, 1000, 100, clock::get);
+        projectResolver.getProjectConfigurationByName("myproject");
+        projectResolver.getProjectConfigurationByName("bisproject");
+
+        //  when
+        Map<String, ResolvedProject> resolvedProjects = projectResolver.resolveProjects(new HashSet<>(Arrays.asList("myproject", "bisproject")));
+        executor.shutdownNow();
+
+        //  then
+        assertThat(resolvedProjects).containsOnlyKeys("myproject", "bisproject");
+        assertThat(concurrentFetches.get()).isEqualTo(2);
+        verify(projectFetcher, times(1)).getProjectConfigurationByName("myproject");
+        verify(projectFetcher, times(1)).getProjectConfigurationByName("bisproject");
+    }
+
+    @Test
+    public void invalidate_all_test() {
+        //  given
+        CachingProjectResolver projectResolver = new CachingProjectResolver(delegate, 10, 1000, 100, clock::get);
+        projectResolver.getProjectConfigurationByName("myproject");
+
+        //  when
+        projectResolver.invalidateAll();
+        projectResolver.getProjectConfigurationByName("myproject");
+
+        //  then
+        verify(delegate, times(2)).getProjectConfigurationByName("myproject");
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.kodokojo.monitor.service.query;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BrickStateQueryEndpointTest {
+
+    private final AtomicBoolean authoritative = new AtomicBoolean(true);
+
+    private BrickStateQueryEndpoint endpoint;
+
+    @Before
+    public void setup() {
+        BrickStateIndex index = new BrickStateIndex();
+        index.apply(Arrays.asList(
+                new BrickStateEvent("1234", "build-A", BrickType.CI.name(), "jenkins", BrickStateEvent.State.RUNNING, "1.651.3"),
+                new BrickStateEvent("1234", "build-A", BrickType.SCM.name(), "gitlab", BrickStateEvent.State.ONFAILURE, "8.5.2"),
+                new BrickStateEvent("5678", "build-B", BrickType.CI.name(), "jenkins", BrickStateEvent.State.RUNNING, "1.651.3")
+        ), Collections.emptyList());
+        endpoint = new BrickStateQueryEndpoint(index, 0, "/bricks", authoritative::get);
+        endpoint.start();
+    }
+
+    @After
+    public void tearDown() {
+        endpoint.stop();
+    }
+
+    @Test
+    public void query_all_bricks_test() throws IOException {
+        //  when
+        JsonArray bricks = get("/bricks");
+
+        //  then
+        assertThat(bricks.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void query_bricks_by_criteria_test() throws IOException {
+        //  when
+        JsonArray bricks = get("/bricks?projectConfigurationId=1234&state=RUNNING");
+
+        //  then
+        assertThat(bricks.size()).isEqualTo(1);
+        assertThat(bricks.get(0).toString()).contains("jenkins");
+        assertThat(get("/bricks?brickType=CI&stack=build-B").size()).isEqualTo(1);
+        assertThat(get("/bricks?stack=unknown").size()).isEqualTo(0);
+    }
+
+    @Test
+    public void reject_unknown_state_test() throws IOException {
+        //  when
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + endpoint.getPort() + "/bricks?state=SLEEPING").openConnection();
+
+        //  then
+        assertThat(connection.getResponseCode()).isEqualTo(400);
+    }
+
+    @Test
+    public void unavailable_while_index_is_not_authoritative_test() throws IOException {
+        //  given
+        authoritative.set(false);
+
+        //  when
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + endpoint.getPort() + "/bricks").openConnection();
+
+        //  then
+        assertThat(connection.getResponseCode()).isEqualTo(503);
+    }
+
+    private JsonArray get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + endpoint.getPort() + path).openConnection();
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        try (InputStream input = connection.getInputStream()) {
+            return new JsonParser().parse(IOUtils.toString(input, StandardCharsets.UTF_8)).getAsJsonArray();
+        }
+    }
+
+}
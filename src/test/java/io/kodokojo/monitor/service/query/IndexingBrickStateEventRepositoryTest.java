@@ -0,0 +1,122 @@
+package io.kodokojo.monitor.service.query;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.DefaultBrickStateEventRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexingBrickStateEventRepositoryTest {
+
+    private BrickStateIndex index;
+
+    private IndexingBrickStateEventRepository repository;
+
+    @Before
+    public void setup() {
+        index = new BrickStateIndex();
+        repository = new IndexingBrickStateEventRepository(new DefaultBrickStateEventRepository(), index);
+    }
+
+    @Test
+    public void index_bricks_by_attributes_test() {
+        //  given
+        BrickStateEvent jenkins = brick("1234", "build-A", BrickType.CI, "jenkins", BrickStateEvent.State.RUNNING);
+        BrickStateEvent gitlab = brick("1234", "build-A", BrickType.SCM, "gitlab", BrickStateEvent.State.STARTING);
+        BrickStateEvent nexus = brick("5678", "build-B", BrickType.REPOSITORY, "nexus", BrickStateEvent.State.RUNNING);
+
+        //  when
+        repository.compareAndUpdate(bricks(jenkins, gitlab, nexus));
+
+        //  then
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.findAll()).containsOnly(jenkins, gitlab, nexus);
+        assertThat(index.findByProjectConfigurationId("1234")).containsOnly(jenkins, gitlab);
+        assertThat(index.findByStack("build-B")).containsOnly(nexus);
+        assertThat(index.findByState(BrickStateEvent.State.RUNNING)).containsOnly(jenkins, nexus);
+        assertThat(index.findByBrickType(BrickType.SCM.name())).containsOnly(gitlab);
+        assertThat(index.findByProjectConfigurationId("unknown")).isEmpty();
+        assertThat(index.find("1234", null, BrickStateEvent.State.RUNNING, null)).containsOnly(jenkins);
+        assertThat(index.find(null, null, null, null)).containsOnly(jenkins, gitlab, nexus);
+    }
+
+    @Test
+    public void move_brick_to_its_new_state_test() {
+        //  given
+        BrickStateEvent jenkins = brick("1234", "build-A", BrickType.CI, "jenkins", BrickStateEvent.State.STARTING);
+        repository.compareAndUpdate(bricks(jenkins));
+        BrickStateEvent runningJenkins = brick("1234", "build-A", BrickType.CI, "jenkins", BrickStateEvent.State.RUNNING);
+
+        //  when
+        repository.compareAndUpdate(bricks(runningJenkins));
+
+        //  then
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.findByState(BrickStateEvent.State.STARTING)).isEmpty();
+        assertThat(index.findByState(BrickStateEvent.State.RUNNING)).containsOnly(runningJenkins);
+        assertThat(index.findByProjectConfigurationId("1234")).containsOnly(runningJenkins);
+    }
+
+    @Test
+    public void remove_brick_not_anymore_defined_test() {
+        //  given
+        BrickStateEvent jenkins = brick("1234", "build-A", BrickType.CI, "jenkins", BrickStateEvent.State.RUNNING);
+        BrickStateEvent stoppedGitlab = brick("1234", "build-A", BrickType.SCM, "gitlab", BrickStateEvent.State.STOPPED);
+        BrickStateEvent nexus = brick("5678", "build-B", BrickType.REPOSITORY, "nexus", BrickStateEvent.State.RUNNING);
+        repository.compareAndUpdate(bricks(jenkins, nexus));
+
+        //  when
+        repository.compareAndUpdate(bricks(stoppedGitlab, nexus));
+
+        //  then
+        assertThat(index.findAll()).containsOnly(stoppedGitlab, nexus);
+        assertThat(index.findByBrickType(BrickType.CI.name())).isEmpty();
+        assertThat(index.findByState(BrickStateEvent.State.STOPPED)).containsOnly(stoppedGitlab);
+    }
+
+    @Test
+    public void keep_missing_brick_on_partial_update_test() {
+        //  given
+        BrickStateEvent jenkins = brick("1234", "build-A", BrickType.CI, "jenkins", BrickStateEvent.State.RUNNING);
+        BrickStateEvent nexus = brick("5678", "build-B", BrickType.REPOSITORY, "nexus", BrickStateEvent.State.RUNNING);
+        repository.compareAndUpdate(bricks(jenkins, nexus));
+        BrickStateEvent failingNexus = brick("5678", "build-B", BrickType.REPOSITORY, "nexus", BrickStateEvent.State.ONFAILURE);
+
+        //  when
+        repository.update(bricks(failingNexus));
+
+        //  then
+        assertThat(index.findAll()).containsOnly(jenkins, failingNexus);
+    }
+
+    @Test
+    public void readers_keep_their_snapshot_test() {
+        //  given
+        BrickStateEvent jenkins = brick("1234", "build-A", BrickType.CI, "jenkins", BrickStateEvent.State.RUNNING);
+        repository.compareAndUpdate(bricks(jenkins));
+        List<BrickStateEvent> read = index.findAll();
+
+        //  when
+        repository.compareAndUpdate(bricks());
+
+        //  then
+        assertThat(read).containsOnly(jenkins);
+        assertThat(index.findAll()).isEmpty();
+    }
+
+    private static Set<BrickStateEvent> bricks(BrickStateEvent... brickStateEvents) {
+        return new HashSet<>(Arrays.asList(brickStateEvents));
+    }
+
+    private static BrickStateEvent brick(String projectConfigurationIdentifier, String stackName, BrickType brickType, String brickName, BrickStateEvent.State state) {
+        return new BrickStateEvent(projectConfigurationIdentifier, stackName, brickType.name(), brickName, state, "1.0.0");
+    }
+
+}
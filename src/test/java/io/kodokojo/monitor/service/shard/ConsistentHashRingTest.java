@@ -0,0 +1,59 @@
+package io.kodokojo.monitor.service.shard;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConsistentHashRingTest {
+
+    @Test
+    public void same_membership_build_same_ring_whatever_order_test() {
+        //  given
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("monitor-1", "monitor-2", "monitor-3"), 128);
+        ConsistentHashRing reversedRing = new ConsistentHashRing(Arrays.asList("monitor-3", "monitor-2", "monitor-1"), 128);
+
+        //  when
+        //  then
+        for (int i = 0; i < 1000; i++) {
+            assertThat(reversedRing.ownerOf("project-" + i)).isEqualTo(ring.ownerOf("project-" + i));
+        }
+    }
+
+    @Test
+    public void projects_are_spread_over_members_test() {
+        //  given
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("monitor-1", "monitor-2", "monitor-3"), 128);
+
+        //  when
+        Map<String, Integer> countByMember = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            countByMember.merge(ring.ownerOf("project-" + i), 1, Integer::sum);
+        }
+
+        //  then
+        assertThat(countByMember).hasSize(3);
+        assertThat(countByMember.values()).extracting(count -> count > 600 && count < 1400).containsOnly(true);
+    }
+
+    @Test
+    public void only_projects_of_leaving_member_move_test() {
+        //  given
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("monitor-1", "monitor-2", "monitor-3"), 128);
+
+        //  when
+        ConsistentHashRing shrunkRing = new ConsistentHashRing(Arrays.asList("monitor-1", "monitor-2"), 128);
+
+        //  then
+        for (int i = 0; i < 1000; i++) {
+            String owner = ring.ownerOf("project-" + i);
+            if (!"monitor-3".equals(owner)) {
+                assertThat(shrunkRing.ownerOf("project-" + i)).isEqualTo(owner);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.kodokojo.monitor.service.shard;
+
+import io.kodokojo.commons.model.BrickType;
+import io.kodokojo.commons.service.actor.message.BrickStateEvent;
+import io.kodokojo.monitor.service.BrickStateEventRepository;
+import io.kodokojo.monitor.service.DefaultBrickStateEventRepository;
+import io.kodokojo.monitor.service.query.BrickStateIndex;
+import io.kodokojo.monitor.service.query.IndexingBrickStateEventRepository;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShardFilteringBrickStateEventRepositoryTest {
+
+    @Test
+    public void brick_moved_to_another_shard_is_not_stopped_test() {
+        //  given
+        BrickStateEventRepository restored = restoredRepository();
+        ShardOwnership shardOwnership = new ShardOwnership("monitor-1", Collections.singletonList("monitor-2"), 128);
+        shardOwnership.registerProject("5678", "myproject");
+        ShardFilteringBrickStateEventRepository repository = new ShardFilteringBrickStateEventRepository(restored, shardOwnership);
+
+        //  when
+        Set<BrickStateEvent> result = repository.compareAndUpdate(Collections.emptySet());
+
+        //  then
+        assertThat(shardOwnership.ownsProject("myproject")).isFalse();
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void brick_removed_from_owned_project_is_stopped_test() {
+        //  given
+        ShardOwnership shardOwnership = new ShardOwnership("monitor-1", Arrays.asList("monitor-1", "monitor-2"), 128);
+        String projectName = ownedProjectName(shardOwnership);
+        shardOwnership.registerProject("5678", projectName);
+        ShardFilteringBrickStateEventRepository repository = new ShardFilteringBrickStateEventRepository(new DefaultBrickStateEventRepository(), shardOwnership);
+        repository.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.RUNNING)));
+
+        //  when
+        Set<BrickStateEvent> result = repository.compareAndUpdate(Collections.emptySet());
+
+        //  then
+        assertThat(result).containsOnly(jenkins(BrickStateEvent.State.STOPPED));
+    }
+
+    @Test
+    public void brick_of_unregistered_project_is_not_stopped_test() {
+        //  given
+        ShardOwnership shardOwnership = new ShardOwnership("monitor-1", Collections.singletonList("monitor-1"), 128);
+        ShardFilteringBrickStateEventRepository repository = new ShardFilteringBrickStateEventRepository(new DefaultBrickStateEventRepository(), shardOwnership);
+        repository.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.RUNNING)));
+
+        //  when
+        Set<BrickStateEvent> result = repository.compareAndUpdate(Collections.emptySet());
+
+        //  then
+        assertThat(shardOwnership.ownsProjectConfiguration("5678")).isFalse();
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void brick_moved_to_another_shard_is_evicted_from_index_test() {
+        //  given
+        BrickStateEventRepository restored = restoredRepository();
+        ShardOwnership shardOwnership = new ShardOwnership("monitor-1", Collections.singletonList("monitor-2"), 128);
+        shardOwnership.registerProject("5678", "myproject");
+        BrickStateIndex index = new BrickStateIndex();
+        index.apply(Collections.singleton(jenkins(BrickStateEvent.State.RUNNING)), Collections.emptySet());
+        BrickStateEventRepository repository = new IndexingBrickStateEventRepository(new ShardFilteringBrickStateEventRepository(restored, shardOwnership, movedAway -> index.apply(Collections.emptyList(), movedAway)), index);
+
+        //  when
+        Set<BrickStateEvent> result = repository.compareAndUpdate(Collections.emptySet());
+
+        //  then
+        assertThat(result).isEmpty();
+        assertThat(index.size()).isEqualTo(0);
+    }
+
+    //  States restored from a snapshot taken before instances restarted with other members.
+    private static BrickStateEventRepository restoredRepository() {
+        BrickStateEventRepository repository = new DefaultBrickStateEventRepository();
+        repository.compareAndUpdate(Collections.singleton(jenkins(BrickStateEvent.State.RUNNING)));
+        return repository;
+    }
+
+    private static String ownedProjectName(ShardOwnership shardOwnership) {
+        for (int i = 0; ; i++) {
+            if (shardOwnership.ownsProject("project-" + i)) {
+                return "project-" + i;
+            }
+        }
+    }
+
+    private static BrickStateEvent jenkins(BrickStateEvent.State state) {
+        return new BrickStateEvent("5678", "build-A", BrickType.CI.name(), "jenkins", state, "1.651.3");
+    }
+
+}
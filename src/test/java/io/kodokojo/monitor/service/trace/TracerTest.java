@@ -0,0 +1,167 @@
+package io.kodokojo.monitor.service.trace;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TracerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void record_spans_of_bound_trace_test() {
+        //  given
+        Tracer tracer = new Tracer(4, 8, null);
+
+        //  when
+        TickTrace.span("outside", System.nanoTime());
+        TickTrace trace = tracer.begin("tick");
+        TickTrace.span("lookup", System.nanoTime());
+        TickTrace.span("resolve", "myproject", System.nanoTime());
+        tracer.end(trace);
+        TickTrace.span("after", System.nanoTime());
+
+        //  then
+        assertThat(TickTrace.current()).isNull();
+        assertThat(trace.getDuration()).isGreaterThanOrEqualTo(0);
+        assertThat(trace.getSpanCount()).isEqualTo(2);
+        assertThat(trace.getSpanName(0)).isEqualTo("lookup");
+        assertThat(trace.getSpanName(1)).isEqualTo("resolve");
+        JsonObject json = trace.toJson();
+        assertThat(json.get("name").getAsString()).isEqualTo("tick");
+        assertThat(json.getAsJsonArray("spans").get(1).getAsJsonObject().get("detail").getAsString()).isEqualTo("myproject");
+    }
+
+    @Test
+    public void drop_spans_beyond_capacity_test() {
+        //  given
+        Tracer tracer = new Tracer(4, 2, null);
+        TickTrace trace = tracer.begin("tick");
+
+        //  when
+        for (int i = 0; i < 5; i++) {
+            TickTrace.span("span", System.nanoTime());
+        }
+        tracer.end(trace);
+
+        //  then
+        assertThat(trace.getSpanCount()).isEqualTo(2);
+        assertThat(trace.getDroppedSpanCount()).isEqualTo(3);
+        assertThat(trace.toJson().get("droppedSpans").getAsInt()).isEqualTo(3);
+    }
+
+    @Test
+    public void keep_span_recorded_by_another_thread_test() throws Exception {
+        //  given
+        Tracer tracer = new Tracer(4, 8, null);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        TickTrace trace = tracer.begin("tick");
+
+        //  when
+        try {
+            CompletableFuture.supplyAsync(() -> TickTrace.callWith(trace, () -> {
+                TickTrace.span("fetch", System.nanoTime());
+                return null;
+            }), executor).get();
+            CompletableFuture.runAsync(() -> TickTrace.span("unbound", System.nanoTime()), executor).get();
+        } finally {
+            executor.shutdownNow();
+        }
+        tracer.end(trace);
+
+        //  then
+        assertThat(trace.getSpanCount()).isEqualTo(1);
+        assertThat(trace.getSpanName(0)).isEqualTo("fetch");
+    }
+
+    @Test
+    public void keep_last_traces_slowest_first_test() throws InterruptedException {
+        //  given
+        Tracer tracer = new Tracer(2, 8, null);
+
+        //  when
+        trace(tracer, "first", 30);
+        trace(tracer, "second", 1);
+        trace(tracer, "third", 15);
+
+        //  then
+        List<String> names = tracer.slowest(10).stream().map(TickTrace::getName).collect(Collectors.toList());
+        assertThat(names).containsExactly("third", "second");
+        assertThat(tracer.slowest(1)).extracting(TickTrace::getName).containsExactly("third");
+    }
+
+    @Test
+    public void export_slow_traces_as_json_lines_test() throws IOException, InterruptedException {
+        //  given
+        Path path = temporaryFolder.getRoot().toPath().resolve("traces.json");
+        TraceFileExporter exporter = new TraceFileExporter(path, 10, 1024 * 1024, 16);
+        Tracer tracer = new Tracer(4, 8, exporter);
+
+        //  when
+        trace(tracer, "fast", 0);
+        trace(tracer, "slow", 20);
+        trace(tracer, "slower", 30);
+        exporter.close();
+
+        //  then
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(2);
+        assertThat(new JsonParser().parse(lines.get(0)).getAsJsonObject().get("name").getAsString()).isEqualTo("slow");
+        assertThat(new JsonParser().parse(lines.get(1)).getAsJsonObject().get("name").getAsString()).isEqualTo("slower");
+    }
+
+    @Test
+    public void rotate_export_file_test() throws IOException, InterruptedException {
+        //  given
+        Path path = temporaryFolder.getRoot().toPath().resolve("traces.json");
+        TraceFileExporter exporter = new TraceFileExporter(path, 0, 1, 16);
+        Tracer tracer = new Tracer(4, 8, exporter);
+
+        //  when
+        trace(tracer, "first", 0);
+        trace(tracer, "second", 0);
+        trace(tracer, "third", 0);
+        exporter.close();
+
+        //  then
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        List<String> rotatedLines = Files.readAllLines(path.resolveSibling("traces.json.1"), StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(1);
+        assertThat(new JsonParser().parse(lines.get(0)).getAsJsonObject().get("name").getAsString()).isEqualTo("third");
+        assertThat(rotatedLines).hasSize(1);
+        assertThat(new JsonParser().parse(rotatedLines.get(0)).getAsJsonObject().get("name").getAsString()).isEqualTo("second");
+    }
+
+    @Test
+    public void read_limit_test() throws Exception {
+        assertThat(TraceEndpoint.readLimit(null)).isEqualTo(10);
+        assertThat(TraceEndpoint.readLimit("limit=3")).isEqualTo(3);
+        assertThat(TraceEndpoint.readLimit("foo=bar&limit=1")).isEqualTo(1);
+        assertThat(TraceEndpoint.readLimit("%6Cimit=%34")).isEqualTo(4);
+        assertThat(TraceEndpoint.readLimit("limit=abc")).isEqualTo(10);
+    }
+
+    private static void trace(Tracer tracer, String name, long duration) throws InterruptedException {
+        TickTrace trace = tracer.begin(name);
+        long start = System.nanoTime();
+        Thread.sleep(duration);
+        TickTrace.span("sleep", start);
+        tracer.end(trace);
+    }
+
+}